@@ -0,0 +1,64 @@
+package org.example.ansible.vault;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the ansible-vault command lines, which happens on every process-backed operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VaultCommandBenchmark {
+
+    private VaultConfiguration configuration;
+
+    @Setup
+    public void setUp() {
+        configuration = VaultConfiguration.builder()
+                .ansibleVaultPath("/usr/bin/ansible-vault")
+                .vaultPasswordFilePath("/data/vault/.vault_pass")
+                .vaultIdPasswordFilePaths(Map.of("prod", "/data/vault/.vault_pass_prod"))
+                .build();
+    }
+
+    @Benchmark
+    public List<String> encryptCommand() {
+        return VaultEncryptCommand.from(configuration, "/data/etc/secrets.yml").getCommandParts();
+    }
+
+    @Benchmark
+    public List<String> encryptStringCommand() {
+        return VaultEncryptStringCommand.from(configuration, "prod", "the secret", "db_password").getCommandParts();
+    }
+
+    @Benchmark
+    public List<String> decryptToStdoutCommand() {
+        return VaultDecryptCommand.toStdoutFrom(configuration, "/tmp/db_password.123.txt").getCommandParts();
+    }
+
+    @Benchmark
+    public List<String> viewCommand() {
+        return VaultViewCommand.from(configuration, "/data/etc/secrets.yml").getCommandParts();
+    }
+
+    @Benchmark
+    public VaultConfiguration copyConfiguration() {
+        return configuration.copyOf();
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.ansible.vault;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-call overhead of the per-thread {@link VaultCryptoPrimitives} against a provider lookup for every
+ * call, using a small encrypt_string sized input so that the lookup cost is visible next to the crypto itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class VaultCryptoPrimitivesBenchmark {
+
+    private SecretKeySpec cipherKey;
+    private SecretKeySpec hmacKey;
+    private IvParameterSpec iv;
+    private byte[] input;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        var keyBytes = new byte[32];
+        random.nextBytes(keyBytes);
+        cipherKey = new SecretKeySpec(keyBytes, "AES");
+        hmacKey = new SecretKeySpec(keyBytes, VaultCryptoPrimitives.HMAC_ALGORITHM);
+        var ivBytes = new byte[16];
+        random.nextBytes(ivBytes);
+        iv = new IvParameterSpec(ivBytes);
+        input = new byte[64];
+        random.nextBytes(input);
+    }
+
+    @Benchmark
+    public byte[] aesCtrPerThread() throws GeneralSecurityException {
+        var cipher = VaultCryptoPrimitives.aesCtr();
+        cipher.init(Cipher.ENCRYPT_MODE, cipherKey, iv);
+        return cipher.doFinal(input);
+    }
+
+    @Benchmark
+    public byte[] aesCtrLookupPerCall() throws GeneralSecurityException {
+        var cipher = Cipher.getInstance(VaultCryptoPrimitives.AES_CTR_TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, cipherKey, iv);
+        return cipher.doFinal(input);
+    }
+
+    @Benchmark
+    public byte[] hmacPerThread() throws GeneralSecurityException {
+        var mac = VaultCryptoPrimitives.hmacSha256();
+        mac.init(hmacKey);
+        return mac.doFinal(input);
+    }
+
+    @Benchmark
+    public byte[] hmacLookupPerCall() throws GeneralSecurityException {
+        var mac = Mac.getInstance(VaultCryptoPrimitives.HMAC_ALGORITHM);
+        mac.init(hmacKey);
+        return mac.doFinal(input);
+    }
+
+    @Benchmark
+    public SecretKeyFactory pbkdf2PerThread() {
+        return VaultCryptoPrimitives.pbkdf2();
+    }
+
+    @Benchmark
+    public SecretKeyFactory pbkdf2LookupPerCall() throws GeneralSecurityException {
+        return SecretKeyFactory.getInstance(VaultCryptoPrimitives.PBKDF2_ALGORITHM);
+    }
+}
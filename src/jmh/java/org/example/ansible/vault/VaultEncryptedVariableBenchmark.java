@@ -0,0 +1,76 @@
+package org.example.ansible.vault;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of encrypt_string content and the temporary file that
+ * {@link VaultEncryptionHelper#decryptString(String)} writes and deletes for every ansible-vault decryption.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VaultEncryptedVariableBenchmark {
+
+    @Param({"32", "4096"})
+    int plainTextSize;
+
+    private String encryptString;
+    private VaultEncryptedVariable variable;
+    private Path tempDirectory;
+
+    @Setup
+    public void setUp() throws IOException {
+        var plainText = "x".repeat(plainTextSize).getBytes(StandardCharsets.UTF_8);
+        var payload = VaultAes256.encrypt(plainText, "password100".toCharArray(), null);
+        encryptString = "db_password: !vault |\n" + payload.toIndentedContent("          ");
+        variable = new VaultEncryptedVariable(encryptString);
+        tempDirectory = Files.createTempDirectory("vault-benchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDirectory.toFile());
+    }
+
+    @Benchmark
+    public VaultEncryptedVariable parse() {
+        return new VaultEncryptedVariable(encryptString);
+    }
+
+    @Benchmark
+    public VaultPayload parsePayload() {
+        return VaultPayload.parse(variable.getEncryptedFileBytes());
+    }
+
+    /**
+     * Mirrors the temporary file handling in {@link VaultEncryptionHelper#decryptString(String)}.
+     */
+    @Benchmark
+    public Path writeAndDeleteTempFile() throws IOException {
+        var tempFilePath = variable.generateRandomFilePath(tempDirectory.toString());
+        Files.write(tempFilePath, variable.getEncryptedFileBytes());
+        Files.delete(tempFilePath);
+        return tempFilePath;
+    }
+}
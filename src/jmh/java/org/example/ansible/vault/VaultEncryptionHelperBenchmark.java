@@ -0,0 +1,94 @@
+package org.example.ansible.vault;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures end-to-end helper operations with each engine. The ansible-vault engine runs against
+ * {@link FakeAnsibleVault}, so the numbers show the cost of launching and reading a process (and of the temporary
+ * files around it) rather than of ansible-vault itself. Use {@code startupDelayMillis} to model ansible-vault's own
+ * start-up time on top of the fake's JVM start-up.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VaultEncryptionHelperBenchmark {
+
+    private static final String PASSWORD = "password100";
+    private static final String PLAIN_TEXT = "Remember to drink your Ovaltine";
+
+    @Param({"ANSIBLE_VAULT", "NATIVE"})
+    VaultEngineType engine;
+
+    @Param({"0"})
+    long startupDelayMillis;
+
+    private Path directory;
+    private Path encryptedFile;
+    private String encryptString;
+    private VaultEncryptionHelper helper;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("vault-benchmark");
+        var passwordFile = Files.writeString(directory.resolve(".vault_pass"), PASSWORD + "\n");
+
+        var payload = VaultAes256.encrypt(PLAIN_TEXT.getBytes(StandardCharsets.UTF_8), PASSWORD.toCharArray(), null);
+        encryptedFile = Files.write(directory.resolve("secret.txt"), payload.toEncryptedFileBytes());
+        encryptString = "db_password: !vault |\n" + payload.toIndentedContent("          ");
+
+        var ansibleVault = FakeAnsibleVault.builder()
+                .startupDelay(Duration.ofMillis(startupDelayMillis))
+                .build()
+                .install(directory.resolve("bin"));
+
+        helper = new VaultEncryptionHelper(VaultConfiguration.builder()
+                .ansibleVaultPath(ansibleVault.toString())
+                .vaultPasswordFilePath(passwordFile.toString())
+                .tempDirectory(directory.resolve("tmp").toString())
+                .engine(engine)
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        helper.close();
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Benchmark
+    public String viewFile() {
+        return helper.viewFile(encryptedFile);
+    }
+
+    @Benchmark
+    public String decryptString() {
+        return helper.decryptString(encryptString);
+    }
+
+    @Benchmark
+    public String encryptString() {
+        return helper.encryptString(PLAIN_TEXT, "db_password");
+    }
+}
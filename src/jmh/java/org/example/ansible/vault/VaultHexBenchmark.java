@@ -0,0 +1,73 @@
+package org.example.ansible.vault;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the table-driven {@link VaultHex} codec with the character-at-a-time approach it replaced, for a salt
+ * sized value, a typical encrypt_string value and a multi-MB file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VaultHexBenchmark {
+
+    @Param({"32", "4096", "4194304"})
+    int size;
+
+    private byte[] bytes;
+    private byte[] hex;
+    private String hexString;
+
+    @Setup
+    public void setUp() {
+        bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        hex = VaultHex.encode(bytes);
+        hexString = new String(hex, StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return VaultHex.encode(bytes);
+    }
+
+    @Benchmark
+    public String encodeCharacterAtATime() {
+        var builder = new StringBuilder(2 * bytes.length);
+        for (var b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return VaultHex.decode(hex);
+    }
+
+    @Benchmark
+    public byte[] decodeCharacterAtATime() {
+        var decoded = new byte[hexString.length() / 2];
+        for (var i = 0; i < decoded.length; i++) {
+            decoded[i] = (byte) Integer.parseInt(hexString.substring(2 * i, 2 * i + 2), 16);
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,497 @@
+package org.example.ansible.example;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.nonNull;
+
+import org.apache.commons.io.FileUtils;
+import org.example.ansible.vault.VaultConfiguration;
+import org.example.ansible.vault.VaultEncryptionHelper;
+import org.example.ansible.vault.VaultEngineType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a mix of {@code encryptString}, {@code decryptString}, {@code viewFile} and {@code rekeyFile} operations
+ * against a {@link VaultEncryptionHelper} from several threads, for a fixed duration or number of operations, and
+ * prints the throughput, latency percentiles, error counts and ansible-vault process count as a JSON object on
+ * stdout. The latencies of failed operations are reported apart from those of successful ones. For example:
+ * <pre>
+ * VaultLoadGenerator --password-file=/data/vault/.vault_pass --ansible-vault=/usr/bin/ansible-vault \
+ *     --engine=NATIVE --threads=8 --duration=PT30S --mix=encryptString:2,decryptString:6,viewFile:2
+ * </pre>
+ * Options:
+ * <ul>
+ *     <li>{@code --password-file} (required) the vault password file</li>
+ *     <li>{@code --ansible-vault} the ansible-vault executable, which must exist even for the native engine
+ *     (default {@code /usr/bin/ansible-vault})</li>
+ *     <li>{@code --engine} {@code ANSIBLE_VAULT} (default) or {@code NATIVE}</li>
+ *     <li>{@code --threads} the number of threads (default 4)</li>
+ *     <li>{@code --duration} an ISO-8601 duration (default {@code PT10S}), unless {@code --operations} is given</li>
+ *     <li>{@code --operations} the total number of operations to run instead of a duration</li>
+ *     <li>{@code --mix} weighted operations (default {@code encryptString:1,decryptString:1,viewFile:1})</li>
+ *     <li>{@code --value-size} the plain text size in bytes (default 32)</li>
+ *     <li>{@code --work-dir} the directory for files and temporary files (default: a new temporary directory,
+ *     deleted afterwards)</li>
+ * </ul>
+ * Rekey operations restore a fresh copy of their file before each (untimed) run, so every rekey starts from the
+ * configured password.
+ */
+@SuppressWarnings({"java:S106"})
+public class VaultLoadGenerator {
+
+    private static final String VARIABLE_NAME = "load_test_value";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /**
+     * The operations that can be mixed, named in {@code --mix} and in the JSON output by their {@link #cliName}.
+     */
+    enum Operation {
+        ENCRYPT_STRING("encryptString"),
+        DECRYPT_STRING("decryptString"),
+        VIEW_FILE("viewFile"),
+        REKEY_FILE("rekeyFile");
+
+        final String cliName;
+
+        Operation(String cliName) {
+            this.cliName = cliName;
+        }
+
+        static Operation fromCliName(String cliName) {
+            return Arrays.stream(values())
+                    .filter(operation -> operation.cliName.equals(cliName))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("unknown operation: " + cliName));
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid arguments: " + e.getMessage());
+            System.err.println("See the VaultLoadGenerator javadoc for usage");
+            System.exit(2);
+            return;
+        }
+
+        System.out.println(new VaultLoadGenerator(options).run());
+    }
+
+    private final Options options;
+
+    VaultLoadGenerator(Options options) {
+        this.options = options;
+    }
+
+    /**
+     * @return the results as a JSON object
+     */
+    String run() throws IOException, InterruptedException {
+        var ownsWorkDirectory = options.workDirectory == null;
+        var workDirectory = ownsWorkDirectory ?
+                Files.createTempDirectory("vault-load") : Files.createDirectories(options.workDirectory);
+        try {
+            return run(workDirectory);
+        } finally {
+            if (ownsWorkDirectory) {
+                FileUtils.deleteDirectory(workDirectory.toFile());
+            }
+        }
+    }
+
+    private String run(Path workDirectory) throws IOException, InterruptedException {
+        var configuration = VaultConfiguration.builder()
+                .ansibleVaultPath(options.ansibleVaultPath)
+                .vaultPasswordFilePath(options.passwordFile)
+                .tempDirectory(workDirectory.resolve("tmp").toString())
+                .engine(options.engine)
+                .build();
+
+        try (var helper = new VaultEncryptionHelper(configuration)) {
+            var fixtures = Fixtures.create(helper, workDirectory, options.valueSize);
+            var recorders = new ArrayList<Recorder>();
+            var remainingOperations = new AtomicLong(options.operations > 0 ? options.operations : Long.MAX_VALUE);
+            var start = new CountDownLatch(1);
+            var processesBefore = helper.getProcessesLaunched();
+
+            var threads = new ArrayList<Thread>();
+            for (var i = 0; i < options.threads; i++) {
+                var recorder = new Recorder();
+                recorders.add(recorder);
+                var worker = new Worker(i, helper, fixtures, recorder, remainingOperations, start);
+                threads.add(new Thread(worker, "vault-load-" + i));
+            }
+            threads.forEach(Thread::start);
+
+            var startNanos = System.nanoTime();
+            var deadline = options.operations > 0 ? Long.MAX_VALUE : startNanos + options.duration.toNanos();
+            recorders.forEach(recorder -> recorder.deadline = deadline);
+            start.countDown();
+            for (var thread : threads) {
+                thread.join();
+            }
+            var elapsedNanos = System.nanoTime() - startNanos;
+
+            return toJson(Recorder.merge(recorders), elapsedNanos, helper.getProcessesLaunched() - processesBefore);
+        }
+    }
+
+    /**
+     * The files and values the operations work on, created once before the run.
+     */
+    private static class Fixtures {
+
+        String plainText;
+        String encryptedString;
+        Path encryptedFile;
+        Path newPasswordFile;
+
+        static Fixtures create(VaultEncryptionHelper helper, Path workDirectory, int valueSize) throws IOException {
+            var fixtures = new Fixtures();
+            fixtures.plainText = "x".repeat(valueSize);
+            fixtures.encryptedString = helper.encryptString(fixtures.plainText, VARIABLE_NAME);
+            fixtures.encryptedFile = workDirectory.resolve("secret.txt");
+            Files.writeString(fixtures.encryptedFile, fixtures.plainText);
+            helper.encryptFile(fixtures.encryptedFile);
+            fixtures.newPasswordFile = Files.writeString(workDirectory.resolve(".new_vault_pass"), "load-test-rekey");
+            return fixtures;
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        private final VaultEncryptionHelper helper;
+        private final Fixtures fixtures;
+        private final Recorder recorder;
+        private final AtomicLong remainingOperations;
+        private final CountDownLatch start;
+        private final Path rekeyFile;
+
+        Worker(int index,
+               VaultEncryptionHelper helper,
+               Fixtures fixtures,
+               Recorder recorder,
+               AtomicLong remainingOperations,
+               CountDownLatch start) {
+            this.helper = helper;
+            this.fixtures = fixtures;
+            this.recorder = recorder;
+            this.remainingOperations = remainingOperations;
+            this.start = start;
+            this.rekeyFile = fixtures.encryptedFile.resolveSibling("rekey-" + index + ".txt");
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            while (System.nanoTime() < recorder.deadline && remainingOperations.getAndDecrement() > 0) {
+                var operation = options.nextOperation();
+                var startNanos = System.nanoTime();
+                try {
+                    if (operation == Operation.REKEY_FILE) {
+                        // Restoring the file to rekey is not part of the operation, so restart the clock after it
+                        copy(fixtures.encryptedFile, rekeyFile);
+                        startNanos = System.nanoTime();
+                    }
+                    perform(operation);
+                    recorder.recordSuccess(operation, System.nanoTime() - startNanos);
+                } catch (RuntimeException e) {
+                    recorder.recordError(operation, System.nanoTime() - startNanos, e);
+                }
+            }
+        }
+
+        private void perform(Operation operation) {
+            switch (operation) {
+                case ENCRYPT_STRING:
+                    helper.encryptString(fixtures.plainText, VARIABLE_NAME);
+                    break;
+                case DECRYPT_STRING:
+                    helper.decryptString(fixtures.encryptedString);
+                    break;
+                case VIEW_FILE:
+                    helper.viewFile(fixtures.encryptedFile);
+                    break;
+                case REKEY_FILE:
+                    helper.rekeyFile(rekeyFile, fixtures.newPasswordFile);
+                    break;
+                default:
+                    throw new IllegalStateException("unknown operation: " + operation);
+            }
+        }
+
+        private void copy(Path source, Path target) {
+            try {
+                Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Latencies and errors recorded by one worker thread, so that recording needs no synchronization. Failed
+     * operations are kept apart so that fast failures (e.g. a wrong password) do not skew the success latencies.
+     */
+    private static class Recorder {
+
+        volatile long deadline;
+        final Map<Operation, Latencies> successes = new EnumMap<>(Operation.class);
+        final Map<Operation, Latencies> errors = new EnumMap<>(Operation.class);
+        final Map<String, Long> errorTypes = new LinkedHashMap<>();
+
+        void recordSuccess(Operation operation, long nanos) {
+            successes.computeIfAbsent(operation, key -> new Latencies()).add(nanos);
+        }
+
+        void recordError(Operation operation, long nanos, RuntimeException e) {
+            errors.computeIfAbsent(operation, key -> new Latencies()).add(nanos);
+            errorTypes.merge(e.getClass().getSimpleName(), 1L, Long::sum);
+        }
+
+        int successCount(Operation operation) {
+            return successes.containsKey(operation) ? successes.get(operation).count : 0;
+        }
+
+        int errorCount(Operation operation) {
+            return errors.containsKey(operation) ? errors.get(operation).count : 0;
+        }
+
+        static Recorder merge(List<Recorder> recorders) {
+            var merged = new Recorder();
+            for (var recorder : recorders) {
+                recorder.successes.forEach((operation, latencies) ->
+                        merged.successes.computeIfAbsent(operation, key -> new Latencies()).addAll(latencies));
+                recorder.errors.forEach((operation, latencies) ->
+                        merged.errors.computeIfAbsent(operation, key -> new Latencies()).addAll(latencies));
+                recorder.errorTypes.forEach((type, count) -> merged.errorTypes.merge(type, count, Long::sum));
+            }
+            return merged;
+        }
+    }
+
+    /**
+     * A growable array of latencies in nanoseconds.
+     */
+    private static class Latencies {
+
+        long[] values = new long[1024];
+        int count;
+
+        void add(long nanos) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, 2 * values.length);
+            }
+            values[count++] = nanos;
+        }
+
+        void addAll(Latencies other) {
+            for (var i = 0; i < other.count; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        long[] sorted() {
+            var sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private String toJson(Recorder results, long elapsedNanos, long processesLaunched) {
+        var operations = EnumSet.noneOf(Operation.class);
+        operations.addAll(results.successes.keySet());
+        operations.addAll(results.errors.keySet());
+        var totalErrors = operations.stream().mapToLong(results::errorCount).sum();
+        var totalOperations = operations.stream().mapToLong(results::successCount).sum() + totalErrors;
+
+        var json = new StringBuilder("{");
+        field(json, "engine", quote(options.engine.name())).append(',');
+        field(json, "threads", options.threads).append(',');
+        field(json, "valueSize", options.valueSize).append(',');
+        field(json, "elapsedMillis", elapsedNanos / 1_000_000).append(',');
+        field(json, "operations", totalOperations).append(',');
+        field(json, "errors", totalErrors).append(',');
+        field(json, "processesLaunched", processesLaunched).append(',');
+        field(json, "throughputPerSecond", format(totalOperations * 1e9 / elapsedNanos)).append(',');
+
+        json.append(quote("errorTypes")).append(":{");
+        var first = true;
+        for (var entry : results.errorTypes.entrySet()) {
+            json.append(first ? "" : ",");
+            field(json, entry.getKey(), entry.getValue());
+            first = false;
+        }
+        json.append("},");
+
+        json.append(quote("byOperation")).append(":{");
+        first = true;
+        for (var operation : operations) {
+            var errorCount = results.errorCount(operation);
+            var count = results.successCount(operation) + errorCount;
+
+            json.append(first ? "" : ",").append(quote(operation.cliName)).append(":{");
+            field(json, "operations", count).append(',');
+            field(json, "errors", errorCount).append(',');
+            field(json, "throughputPerSecond", format(count * 1e9 / elapsedNanos));
+            if (results.successes.containsKey(operation)) {
+                json.append(',');
+                latencyJson(json, "latencyMicros", results.successes.get(operation));
+            }
+            if (results.errors.containsKey(operation)) {
+                json.append(',');
+                latencyJson(json, "errorLatencyMicros", results.errors.get(operation));
+            }
+            json.append('}');
+            first = false;
+        }
+        json.append("}}");
+        return json.toString();
+    }
+
+    private static void latencyJson(StringBuilder json, String name, Latencies latencies) {
+        var values = latencies.sorted();
+        json.append(quote(name)).append(":{");
+        field(json, "mean", format(Arrays.stream(values).average().orElse(0) / 1_000)).append(',');
+        for (var percentile : PERCENTILES) {
+            field(json, "p" + format(percentile).replace(".0", "").replace(".", ""),
+                    format(percentile(values, percentile) / 1_000.0)).append(',');
+        }
+        field(json, "max", format(values[values.length - 1] / 1_000.0));
+        json.append('}');
+    }
+
+    private static long percentile(long[] sortedValues, double percentile) {
+        var index = (int) Math.ceil(percentile / 100 * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+    }
+
+    private static StringBuilder field(StringBuilder json, String name, Object value) {
+        return json.append(quote(name)).append(':').append(value);
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    static class Options {
+
+        String passwordFile;
+        String ansibleVaultPath = "/usr/bin/ansible-vault";
+        VaultEngineType engine = VaultEngineType.ANSIBLE_VAULT;
+        int threads = 4;
+        Duration duration = Duration.ofSeconds(10);
+        long operations;
+        int valueSize = 32;
+        Path workDirectory;
+        final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        private Operation[] weightedOperations;
+
+        static Options parse(String[] args) {
+            var options = new Options();
+            for (var arg : args) {
+                checkArgument(arg.startsWith("--") && arg.contains("="), "expected --name=value but got %s", arg);
+                var name = arg.substring(2, arg.indexOf('='));
+                var value = arg.substring(arg.indexOf('=') + 1);
+                options.set(name, value);
+            }
+
+            checkArgument(nonNull(options.passwordFile), "--password-file is required");
+            checkArgument(options.threads > 0, "--threads must be positive");
+            checkArgument(options.valueSize > 0, "--value-size must be positive");
+            checkArgument(!options.duration.isNegative() && !options.duration.isZero(), "--duration must be positive");
+            if (options.mix.isEmpty()) {
+                options.setMix("encryptString:1,decryptString:1,viewFile:1");
+            }
+            options.weightedOperations = options.mix.entrySet().stream()
+                    .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                    .toArray(Operation[]::new);
+            checkArgument(options.weightedOperations.length > 0, "--mix must have a positive weight");
+            return options;
+        }
+
+        private void set(String name, String value) {
+            switch (name) {
+                case "password-file":
+                    passwordFile = value;
+                    break;
+                case "ansible-vault":
+                    ansibleVaultPath = value;
+                    break;
+                case "engine":
+                    engine = VaultEngineType.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    try {
+                        duration = Duration.parse(value);
+                    } catch (DateTimeParseException e) {
+                        throw new IllegalArgumentException("--duration must be an ISO-8601 duration, e.g. PT30S: " +
+                                value, e);
+                    }
+                    break;
+                case "operations":
+                    operations = Long.parseLong(value);
+                    checkArgument(operations > 0, "--operations must be positive");
+                    break;
+                case "mix":
+                    setMix(value);
+                    break;
+                case "value-size":
+                    valueSize = Integer.parseInt(value);
+                    break;
+                case "work-dir":
+                    workDirectory = Path.of(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option --" + name);
+            }
+        }
+
+        private void setMix(String value) {
+            mix.clear();
+            for (var part : value.split(",")) {
+                var operationAndWeight = part.split(":", 2);
+                var weight = operationAndWeight.length > 1 ? Integer.parseInt(operationAndWeight[1].trim()) : 1;
+                checkArgument(weight >= 0, "weight of %s cannot be negative", operationAndWeight[0]);
+                mix.put(Operation.fromCliName(operationAndWeight[0].trim()), weight);
+            }
+        }
+
+        Operation nextOperation() {
+            return weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+        }
+    }
+}
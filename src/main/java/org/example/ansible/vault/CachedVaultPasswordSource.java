@@ -0,0 +1,58 @@
+package org.example.ansible.vault;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the password from another source for a fixed time after it is obtained. The cached copy is zeroed when it
+ * expires or is {@link #invalidate() invalidated}.
+ */
+@Slf4j
+class CachedVaultPasswordSource implements VaultPasswordSource {
+
+    private final VaultPasswordSource source;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+
+    private char[] password;
+    private long expiresAtNanos;
+
+    CachedVaultPasswordSource(VaultPasswordSource source, Duration ttl, LongSupplier nanoTime) {
+        this.source = source;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public synchronized char[] getPassword() {
+        var now = nanoTime.getAsLong();
+        if (isNull(password) || now - expiresAtNanos >= 0) {
+            invalidate();
+            LOG.debug("Obtaining vault password from {}", source);
+            password = source.getPassword();
+            expiresAtNanos = now + ttlNanos;
+        }
+        return password.clone();
+    }
+
+    /**
+     * Zeroes the cached password, so the next call obtains it from the source again.
+     */
+    synchronized void invalidate() {
+        if (nonNull(password)) {
+            Arrays.fill(password, '\0');
+            password = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "cached " + source;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.ansible.vault;
+
+import lombok.Value;
+
+/**
+ * Counts of the "encrypt if changed" operations performed by a {@link VaultEncryptionHelper}, i.e. how many resulted
+ * in a new encryption being written and how many were skipped because the plain text had not changed.
+ */
+@Value
+public class EncryptIfChangedStats {
+
+    long writesPerformed;
+    long writesAvoided;
+}
@@ -0,0 +1,36 @@
+package org.example.ansible.vault;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * The last-modified time and size of a file, used to detect changes by polling when file system events are not
+ * available or may have been missed.
+ */
+@Value
+class FileStamp {
+
+    long lastModifiedMillis;
+    long size;
+
+    /**
+     * @return the stamp of the file, or null if it does not exist or is not a regular file
+     */
+    @Nullable
+    static FileStamp of(Path file) {
+        try {
+            var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            return new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.ansible.vault;
+
+import static org.kiwiproject.base.KiwiStrings.f;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the password from a file on every call, so edits to the file take effect immediately.
+ */
+@Slf4j
+class FileVaultPasswordSource implements VaultPasswordSource {
+
+    private final Path passwordFile;
+
+    FileVaultPasswordSource(Path passwordFile) {
+        this.passwordFile = passwordFile;
+    }
+
+    /**
+     * Reads the vault password the same way ansible-vault does, i.e. the file content with surrounding
+     * whitespace removed.
+     */
+    @Override
+    public char[] getPassword() {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(passwordFile);
+        } catch (IOException e) {
+            LOG.error("Error reading file: {}", passwordFile, e);
+            throw new VaultEncryptionException(f("Error reading file: {}", passwordFile), e);
+        }
+
+        var password = Utils.decodePassword(content);
+        if (password.length == 0) {
+            throw new VaultEncryptionException(f("vault password file is empty: {}", passwordFile));
+        }
+        return password;
+    }
+
+    @Override
+    public String toString() {
+        return "file " + passwordFile;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.ansible.vault;
+
+/**
+ * Holds a copy of a password in memory.
+ */
+class InMemoryVaultPasswordSource implements VaultPasswordSource {
+
+    private final char[] password;
+
+    InMemoryVaultPasswordSource(char[] password) {
+        this.password = password.clone();
+    }
+
+    @Override
+    public char[] getPassword() {
+        return password.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "in-memory password";
+    }
+}
@@ -0,0 +1,642 @@
+package org.example.ansible.vault;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiStrings.f;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ansible.vault.VaultAes256.DerivedKeys;
+import org.example.ansible.vault.VaultDecryptionException.Reason;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Performs the ansible-vault operations used by {@link VaultEncryptionHelper} in-process, using
+ * {@link VaultAes256} and {@link VaultPayload}, so that no ansible-vault process or temporary file is needed.
+ * <p>
+ * Errors are reported as {@link VaultEncryptionException} just like a non-zero ansible-vault exit code, so callers
+ * see the same exception types regardless of which engine is configured.
+ */
+@Slf4j
+class NativeVaultEngine {
+
+    private static final String ENCRYPT_STRING_INDENT = "          ";
+    private static final int MAX_REMEMBERED_PASSWORDS = 10_000;
+
+    private final VaultNegativeCache negativeCache;
+    @Nullable private final VaultKeyPool keyPool;
+    private final VaultPasswords passwords;
+    private final Cache<String, String> passwordIdByFingerprint;
+    private volatile CacheStats rememberedPasswordStatsBaseline;
+    @Nullable private ExecutorService trialDecryptExecutor;
+    private boolean closed;
+
+    @Value
+    private static class PasswordMatch {
+        String passwordId;
+        DerivedKeys keys;
+    }
+
+    NativeVaultEngine(VaultConfiguration configuration) {
+        this(configuration, null);
+    }
+
+    private NativeVaultEngine(VaultConfiguration configuration, @Nullable NativeVaultEngine previous) {
+        this.negativeCache = isNull(previous) ? new VaultNegativeCache() : previous.negativeCache;
+        this.passwords = canSharePasswords(configuration, previous) ?
+                previous.passwords.retain() : new VaultPasswords(configuration);
+        this.keyPool = canShareKeyPool(configuration, previous) ?
+                previous.keyPool.retain() : createKeyPool(configuration);
+        this.passwordIdByFingerprint = CacheBuilder.newBuilder()
+                .maximumSize(MAX_REMEMBERED_PASSWORDS)
+                .recordStats()
+                .build();
+        this.rememberedPasswordStatsBaseline = passwordIdByFingerprint.stats();
+
+        if (nonNull(previous)) {
+            var passwordIds = passwords.allIds();
+            previous.passwordIdByFingerprint.asMap().forEach((fingerprint, passwordId) -> {
+                if (passwordIds.contains(passwordId)) {
+                    passwordIdByFingerprint.put(fingerprint, passwordId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates an engine for a new configuration, keeping whatever of this engine's state is still valid for it: the
+     * negative cache (whose entries are keyed by password digest), the passwords and any cached copies of them if
+     * the password settings are unchanged, the key pool if its password and size are unchanged, and the remembered
+     * passwords of payloads whose password is still configured. This engine remains usable until it is closed.
+     */
+    NativeVaultEngine reconfigure(VaultConfiguration configuration) {
+        return new NativeVaultEngine(configuration, this);
+    }
+
+    private static boolean canSharePasswords(VaultConfiguration configuration, @Nullable NativeVaultEngine previous) {
+        return nonNull(previous) && previous.passwords.hasSameSettingsAs(configuration);
+    }
+
+    private static boolean canShareKeyPool(VaultConfiguration configuration, @Nullable NativeVaultEngine previous) {
+        return canSharePasswords(configuration, previous) &&
+                nonNull(previous.keyPool) &&
+                configuration.getEngine() == VaultEngineType.NATIVE &&
+                configuration.getKeyPoolSize() == previous.keyPool.capacity();
+    }
+
+    @Nullable
+    private VaultKeyPool createKeyPool(VaultConfiguration configuration) {
+        if (configuration.getEngine() != VaultEngineType.NATIVE || configuration.getKeyPoolSize() == 0) {
+            return null;
+        }
+
+        var pool = new VaultKeyPool(configuration.getKeyPoolSize(), () -> passwords.read(passwords.defaultId()));
+        pool.start();
+        return pool;
+    }
+
+    Path encryptFile(String plainTextFilePath, @Nullable String vaultIdLabel) {
+        var path = Path.of(plainTextFilePath);
+        var plainText = readFile(path);
+        if (VaultPayload.hasHeaderPrefix(plainText)) {
+            throw new VaultEncryptionException(f("input is already encrypted: {}", plainTextFilePath));
+        }
+
+        var payload = encrypt(plainText, vaultIdLabel);
+        writeFile(path, payload.toEncryptedFileBytes());
+        return path;
+    }
+
+    /**
+     * Encrypts {@code plainText} into {@code encryptedFilePath}, which is replaced atomically, so the plain text only
+     * ever exists in memory.
+     */
+    Path encryptToFile(byte[] plainText, Path encryptedFilePath, @Nullable String vaultIdLabel) {
+        if (VaultPayload.hasHeaderPrefix(plainText)) {
+            throw new VaultEncryptionException(f("input is already encrypted: {}", encryptedFilePath));
+        }
+
+        var payload = encrypt(plainText, vaultIdLabel);
+        writeFileAtomically(encryptedFilePath, payload.toEncryptedFileBytes());
+        return encryptedFilePath;
+    }
+
+    Path decryptFile(String encryptedFilePath, String outputFilePath) {
+        var plainText = decrypt(readFile(Path.of(encryptedFilePath)));
+        var outputPath = Path.of(outputFilePath);
+        writeFile(outputPath, plainText);
+        return outputPath;
+    }
+
+    String viewFile(String encryptedFilePath) {
+        return new String(decrypt(readFile(Path.of(encryptedFilePath))), StandardCharsets.UTF_8);
+    }
+
+    String encryptString(@Nullable String vaultIdLabel, String plainText, String variableName) {
+        var payload = encrypt(plainText.getBytes(StandardCharsets.UTF_8), vaultIdLabel);
+        return variableName + ": !vault |\n" + payload.toIndentedContent(ENCRYPT_STRING_INDENT);
+    }
+
+    String decryptString(VaultEncryptedVariable encryptedVariable) {
+        return new String(decrypt(encryptedVariable.getEncryptedFileBytes()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decrypts with the configured password and re-encrypts with the password in {@code newVaultPasswordFilePath},
+     * keeping the vault ID label. The plain text only ever exists in memory, and the file is replaced atomically.
+     */
+    Path rekeyFile(String encryptedFilePath, String newVaultPasswordFilePath) {
+        var path = Path.of(encryptedFilePath);
+        var payload = parse(readFile(path));
+
+        var timer = VaultOperationTimer.current();
+        var lookupStart = timer.start();
+        var newPassword = VaultPasswordSource.forPath(Path.of(newVaultPasswordFilePath)).getPassword();
+        timer.record(VaultOperationPhase.PASSWORD_LOOKUP, lookupStart);
+        try {
+            var plainText = decrypt(payload);
+            try {
+                var rekeyed = recordEncryption(plainText,
+                        () -> encryptWithPassword(plainText, newPassword, payload.getVaultIdLabel().orElse(null)));
+                writeFileAtomically(path, rekeyed.toEncryptedFileBytes());
+                return path;
+            } finally {
+                Arrays.fill(plainText, (byte) 0);
+            }
+        } finally {
+            Arrays.fill(newPassword, '\0');
+        }
+    }
+
+    private VaultPayload encrypt(byte[] plainText, @Nullable String vaultIdLabel) {
+        return recordEncryption(plainText, () -> encryptWithConfiguredPassword(plainText, vaultIdLabel));
+    }
+
+    /**
+     * Runs an encryption, recording it as a {@link VaultFlightRecorderEvent}.
+     */
+    private static VaultPayload recordEncryption(byte[] plainText, Supplier<VaultPayload> encryption) {
+        var event = VaultFlightRecorderEvent.begin(VaultEngineType.NATIVE, "encrypt");
+        event.payloadSize = plainText.length;
+        try {
+            var payload = encryption.get();
+            event.succeeded = true;
+            return payload;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Encrypts with keys from the key pool when one is configured and has keys ready for the password, otherwise
+     * derives them here. The pool only holds keys for the default password, so it is bypassed for vault ID labels
+     * that have their own password file.
+     */
+    private VaultPayload encryptWithConfiguredPassword(byte[] plainText, @Nullable String vaultIdLabel) {
+        var password = readPassword(passwords.idFor(vaultIdLabel));
+        try {
+            var timer = VaultOperationTimer.current();
+            var takeStart = timer.start();
+            var pooled = usesKeyPool(vaultIdLabel) ?
+                    keyPool.take(password) : Optional.<VaultKeyPool.PooledKeys>empty();
+            timer.record(VaultOperationPhase.KEY_DERIVATION, takeStart);
+            if (pooled.isEmpty()) {
+                return encryptWithPassword(plainText, password, vaultIdLabel);
+            }
+
+            try {
+                return encryptWithKeys(plainText, pooled.get().salt, pooled.get().keys, vaultIdLabel);
+            } finally {
+                pooled.get().destroy();
+            }
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    private boolean usesKeyPool(@Nullable String vaultIdLabel) {
+        return nonNull(keyPool) && passwords.idFor(vaultIdLabel).equals(passwords.defaultId());
+    }
+
+    /**
+     * Encrypts as {@link VaultAes256#encrypt(byte[], char[], String)} does, timing key derivation and the cipher
+     * separately.
+     */
+    private static VaultPayload encryptWithPassword(byte[] plainText, char[] password, @Nullable String vaultIdLabel) {
+        var timer = VaultOperationTimer.current();
+        var derivationStart = timer.start();
+        var salt = VaultAes256.newSalt();
+        var keys = VaultAes256.deriveKeys(password, salt);
+        timer.record(VaultOperationPhase.KEY_DERIVATION, derivationStart);
+        try {
+            return encryptWithKeys(plainText, salt, keys, vaultIdLabel);
+        } finally {
+            keys.destroy();
+        }
+    }
+
+    private static VaultPayload encryptWithKeys(byte[] plainText,
+                                                byte[] salt,
+                                                DerivedKeys keys,
+                                                @Nullable String vaultIdLabel) {
+        var timer = VaultOperationTimer.current();
+        var cipherStart = timer.start();
+        var payload = VaultAes256.encrypt(plainText, salt, keys, vaultIdLabel);
+        timer.record(VaultOperationPhase.CIPHER, cipherStart);
+        return payload;
+    }
+
+    private byte[] decrypt(byte[] encryptedContent) {
+        return decrypt(parse(encryptedContent));
+    }
+
+    private static VaultPayload parse(byte[] encryptedContent) {
+        var timer = VaultOperationTimer.current();
+        var start = timer.start();
+        var payload = VaultPayload.parse(encryptedContent);
+        timer.record(VaultOperationPhase.PARSE, start);
+        return payload;
+    }
+
+    /**
+     * Decrypts as {@link #decryptWithConfiguredPasswords(VaultPayload)} does, recording it as a
+     * {@link VaultFlightRecorderEvent}.
+     */
+    private byte[] decrypt(VaultPayload payload) {
+        var event = VaultFlightRecorderEvent.begin(VaultEngineType.NATIVE, "decrypt");
+        event.payloadSize = payload.getCipherText().length;
+        try {
+            var plainText = decryptWithConfiguredPasswords(payload);
+            event.succeeded = true;
+            return plainText;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Decrypts with the password for the payload's vault ID label. When the payload could have been encrypted with
+     * any of several configured passwords, i.e. it has no label or its label has no password file of its own, the
+     * password that worked for this payload before is used, or else all candidates are tried at once.
+     */
+    private byte[] decryptWithConfiguredPasswords(VaultPayload payload) {
+        var candidates = candidatePasswordIds(payload);
+        if (candidates.size() == 1) {
+            return decrypt(payload, candidates.get(0));
+        }
+
+        var fingerprint = payload.fingerprint();
+        var remembered = passwordIdByFingerprint.getIfPresent(fingerprint);
+        if (nonNull(remembered)) {
+            try {
+                return decrypt(payload, remembered);
+            } catch (VaultDecryptionException e) {
+                if (e.getReason() != Reason.WRONG_PASSWORD) {
+                    throw e;
+                }
+                LOG.debug("Remembered password no longer matches; trying all candidates");
+                passwordIdByFingerprint.invalidate(fingerprint);
+            }
+        }
+
+        return trialDecrypt(payload, fingerprint, candidates);
+    }
+
+    /**
+     * Decrypts after checking the negative cache, so a value that recently failed with the current password
+     * fails again immediately without another key derivation.
+     */
+    private byte[] decrypt(VaultPayload payload, String passwordId) {
+        var password = readPassword(passwordId);
+        try {
+            var cacheKey = negativeCache.keyFor(password, payload);
+            negativeCache.checkNotKnownFailure(cacheKey);
+
+            try {
+                return decryptWithPassword(payload, password);
+            } catch (VaultDecryptionException e) {
+                LOG.debug("Decryption failed ({}); caching failure", e.getReason());
+                negativeCache.recordFailure(cacheKey, e.getReason());
+                throw e;
+            }
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    /**
+     * Verifies the HMAC against every candidate password concurrently and decrypts with the keys of the first one
+     * that matches, cancelling the remaining attempts. The matching password is remembered by fingerprint.
+     */
+    private byte[] trialDecrypt(VaultPayload payload, String fingerprint, List<String> candidates) {
+        var timer = VaultOperationTimer.current();
+        var derivationStart = timer.start();
+        var match = findMatch(payload, fingerprint, candidates);
+        timer.record(VaultOperationPhase.KEY_DERIVATION, derivationStart);
+        try {
+            return decryptWithKeys(payload, match.getKeys());
+        } finally {
+            match.getKeys().destroy();
+        }
+    }
+
+    /**
+     * Decrypts as {@link VaultAes256#decrypt(VaultPayload, char[])} does, timing key derivation (including the HMAC
+     * check) and the cipher separately.
+     */
+    private static byte[] decryptWithPassword(VaultPayload payload, char[] password) {
+        var timer = VaultOperationTimer.current();
+        var derivationStart = timer.start();
+        var keys = VaultAes256.verify(payload, password);
+        timer.record(VaultOperationPhase.KEY_DERIVATION, derivationStart);
+        try {
+            return decryptWithKeys(payload, keys);
+        } finally {
+            keys.destroy();
+        }
+    }
+
+    private static byte[] decryptWithKeys(VaultPayload payload, DerivedKeys keys) {
+        var timer = VaultOperationTimer.current();
+        var cipherStart = timer.start();
+        var plainText = VaultAes256.decrypt(payload, keys);
+        timer.record(VaultOperationPhase.CIPHER, cipherStart);
+        return plainText;
+    }
+
+    private char[] readPassword(String passwordId) {
+        var timer = VaultOperationTimer.current();
+        var start = timer.start();
+        var password = passwords.read(passwordId);
+        timer.record(VaultOperationPhase.PASSWORD_LOOKUP, start);
+        return password;
+    }
+
+    /**
+     * @return the identifier (see {@link VaultPasswords}) of the password that can decrypt the payload, trying all
+     * candidates at once if necessary
+     * @throws VaultDecryptionException if the payload is corrupted or no configured password matches
+     */
+    String findPasswordId(VaultPayload payload) {
+        var candidates = candidatePasswordIds(payload);
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        var fingerprint = payload.fingerprint();
+        var remembered = passwordIdByFingerprint.getIfPresent(fingerprint);
+        if (nonNull(remembered)) {
+            return remembered;
+        }
+
+        var match = findMatch(payload, fingerprint, candidates);
+        match.getKeys().destroy();
+        return match.getPasswordId();
+    }
+
+    private PasswordMatch findMatch(VaultPayload payload, String fingerprint, List<String> candidates) {
+        VaultAes256.checkDecryptable(payload);
+
+        var matchingKeys = new AtomicReference<DerivedKeys>();
+        var passwordId = ParallelExecution.findFirstMatch(trialDecryptExecutor(), candidates,
+                candidate -> verifiesWith(payload, candidate, matchingKeys));
+        if (passwordId.isEmpty()) {
+            throw new VaultDecryptionException(Reason.WRONG_PASSWORD,
+                    f("HMAC verification failed: none of the {} configured vault passwords match", candidates.size()));
+        }
+
+        LOG.debug("Vault password {} matches payload {}", passwordId.get(), fingerprint);
+        passwordIdByFingerprint.put(fingerprint, passwordId.get());
+        return new PasswordMatch(passwordId.get(), matchingKeys.get());
+    }
+
+    /**
+     * @return the executor that tries several passwords at once, created on first use since most configurations have
+     * a single password. Its threads are daemons that exit when idle, and it is shut down by {@link #close()}.
+     */
+    private synchronized ExecutorService trialDecryptExecutor() {
+        checkState(!closed, "engine is closed");
+        if (isNull(trialDecryptExecutor)) {
+            trialDecryptExecutor = Executors.newCachedThreadPool(runnable -> {
+                var thread = new Thread(runnable, "vault-trial-decrypt");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return trialDecryptExecutor;
+    }
+
+    /**
+     * Keeps the keys of the first password to match in {@code matchingKeys}. Keys of any later match (e.g. the same
+     * password in two files) are destroyed.
+     */
+    private boolean verifiesWith(VaultPayload payload, String passwordId, AtomicReference<DerivedKeys> matchingKeys) {
+        char[] password;
+        try {
+            password = passwords.read(passwordId);
+        } catch (VaultEncryptionException e) {
+            LOG.warn("Skipping vault password that cannot be read: {}", e.getMessage());
+            return false;
+        }
+
+        try {
+            var keys = VaultAes256.verify(payload, password);
+            if (!matchingKeys.compareAndSet(null, keys)) {
+                keys.destroy();
+            }
+            return true;
+        } catch (VaultDecryptionException e) {
+            return false;
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    /**
+     * @return the password for the payload's vault ID label if it has its own, otherwise the default password
+     * followed by every other configured password
+     */
+    private List<String> candidatePasswordIds(VaultPayload payload) {
+        var passwordId = passwords.idFor(payload.getVaultIdLabel().orElse(null));
+        if (!passwordId.equals(passwords.defaultId())) {
+            return List.of(passwordId);
+        }
+        return passwords.allIds();
+    }
+
+    /**
+     * Checks the payload structure and HMAC against the password for its vault ID label (or, when that is ambiguous,
+     * against the configured passwords), without running the cipher or producing any plain text.
+     *
+     * @throws VaultDecryptionException if the payload is corrupted or the password does not match
+     */
+    void verify(VaultPayload payload) {
+        var candidates = candidatePasswordIds(payload);
+        var passwordId = candidates.get(0);
+        if (candidates.size() > 1) {
+            var fingerprint = payload.fingerprint();
+            passwordId = passwordIdByFingerprint.getIfPresent(fingerprint);
+            if (isNull(passwordId)) {
+                // trying the candidates has already verified the HMAC with the matching password
+                findMatch(payload, fingerprint, candidates).getKeys().destroy();
+                return;
+            }
+        }
+
+        var password = passwords.read(passwordId);
+        try {
+            VaultAes256.verify(payload, password).destroy();
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    /**
+     * Checks whether {@code encryptedContent} is the encryption of {@code plainText} under the given vault ID label and
+     * the password that encrypting with that label would use. Content that cannot be parsed or decrypted with that
+     * password simply does not match, even if another configured password could decrypt it.
+     */
+    boolean matches(byte[] encryptedContent, byte[] plainText, @Nullable String vaultIdLabel) {
+        try {
+            var payload = VaultPayload.parse(encryptedContent);
+            if (!Objects.equals(payload.getVaultIdLabel().orElse(null), vaultIdLabel)) {
+                return false;
+            }
+
+            var decrypted = decrypt(payload, passwords.idFor(vaultIdLabel));
+            try {
+                return MessageDigest.isEqual(decrypted, plainText);
+            } finally {
+                Arrays.fill(decrypted, (byte) 0);
+            }
+        } catch (VaultEncryptionException e) {
+            LOG.debug("Existing encrypted content does not match: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return the password found by trial decryption for the payload, if any
+     */
+    Optional<String> getRememberedPasswordId(VaultPayload payload) {
+        return Optional.ofNullable(passwordIdByFingerprint.getIfPresent(payload.fingerprint()));
+    }
+
+    long rememberedPasswordCount() {
+        return passwordIdByFingerprint.size();
+    }
+
+    /**
+     * @return the lookups of remembered passwords since the last {@link #resetStats()}
+     */
+    CacheStats rememberedPasswordStats() {
+        return passwordIdByFingerprint.stats().minus(rememberedPasswordStatsBaseline);
+    }
+
+    /**
+     * Forgets remembered passwords and known decryption failures, and any cached passwords, so they are all
+     * looked up again. Pooled keys are kept, since they are checked against the current password when taken.
+     */
+    void clearCaches() {
+        passwordIdByFingerprint.invalidateAll();
+        negativeCache.clear();
+        passwords.invalidateCachedPasswords();
+    }
+
+    void resetStats() {
+        rememberedPasswordStatsBaseline = passwordIdByFingerprint.stats();
+        negativeCache.resetStats();
+        if (nonNull(keyPool)) {
+            keyPool.resetStats();
+        }
+    }
+
+    VaultPasswords getPasswords() {
+        return passwords;
+    }
+
+    @Nullable
+    VaultKeyPool getKeyPool() {
+        return keyPool;
+    }
+
+    /**
+     * Stops the key pool, if any, zeroing its pooled keys, stops the trial decryption threads, and deletes any
+     * temporary password files, unless they are shared with an engine created by
+     * {@link #reconfigure(VaultConfiguration)} that is still open.
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            if (nonNull(trialDecryptExecutor)) {
+                trialDecryptExecutor.shutdownNow();
+            }
+        }
+        if (nonNull(keyPool)) {
+            keyPool.close();
+        }
+        passwords.close();
+    }
+
+    VaultNegativeCache getNegativeCache() {
+        return negativeCache;
+    }
+
+    private static byte[] readFile(Path path) {
+        var timer = VaultOperationTimer.current();
+        var start = timer.start();
+        try {
+            var content = Files.readAllBytes(path);
+            timer.record(VaultOperationPhase.FILE_IO, start);
+            return content;
+        } catch (IOException e) {
+            LOG.error("Error reading file: {}", path, e);
+            throw new VaultEncryptionException(f("Error reading file: {}", path), e);
+        }
+    }
+
+    /**
+     * @see Utils#writeFileAtomically(Path, byte[])
+     */
+    private static void writeFileAtomically(Path path, byte[] content) {
+        var timer = VaultOperationTimer.current();
+        var start = timer.start();
+        try {
+            Utils.writeFileAtomically(path, content);
+            timer.record(VaultOperationPhase.FILE_IO, start);
+        } catch (IOException e) {
+            LOG.error("Error writing file: {}", path, e);
+            throw new VaultEncryptionException(f("Error writing file: {}", path), e);
+        }
+    }
+
+    private static void writeFile(Path path, byte[] content) {
+        var timer = VaultOperationTimer.current();
+        var start = timer.start();
+        try {
+            Files.write(path, content);
+            timer.record(VaultOperationPhase.FILE_IO, start);
+        } catch (IOException e) {
+            LOG.error("Error writing file: {}", path, e);
+            throw new VaultEncryptionException(f("Error writing file: {}", path), e);
+        }
+    }
+}
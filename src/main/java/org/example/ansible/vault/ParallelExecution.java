@@ -0,0 +1,113 @@
+package org.example.ansible.vault;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.toList;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Runs a function over a list of inputs on a bounded, short-lived thread pool, for the directory-wide operations,
+ * and tries several vault passwords at once on a caller-owned executor.
+ */
+@UtilityClass
+@Slf4j
+class ParallelExecution {
+
+    /**
+     * Applies {@code function} to every input using at most {@code parallelism} threads, and returns the results in
+     * the same order as the inputs. The function should report per-input failures in its result rather than
+     * throwing; an exception thrown by the function is rethrown as a {@link VaultEncryptionException}.
+     */
+    static <T, R> List<R> mapInParallel(List<T> inputs, Function<T, R> function, int parallelism) {
+        checkArgument(parallelism > 0, "parallelism must be positive");
+
+        if (inputs.isEmpty()) {
+            return List.of();
+        }
+
+        var executor = Executors.newFixedThreadPool(Math.min(parallelism, inputs.size()));
+        try {
+            var tasks = inputs.stream()
+                    .map(input -> (Callable<R>) () -> function.apply(input))
+                    .collect(toList());
+
+            return executor.invokeAll(tasks).stream()
+                    .map(ParallelExecution::getResult)
+                    .collect(toList());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VaultEncryptionException("Interrupted while running parallel tasks", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests the inputs concurrently on {@code executor} and returns the first input (in completion order, not input
+     * order) that passes. As soon as one passes, tests that have not started are cancelled and running ones are
+     * interrupted. The executor is not shut down, so it can be shared by many calls. An exception thrown by the
+     * predicate is logged and counts as that input not passing.
+     *
+     * @return the first input to pass, or an empty Optional if none did
+     */
+    static <T> Optional<T> findFirstMatch(ExecutorService executor, List<T> inputs, Predicate<T> predicate) {
+        checkArgumentNotNull(executor, "executor cannot be null");
+
+        if (inputs.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var completionService = new ExecutorCompletionService<Optional<T>>(executor);
+        var futures = new ArrayList<Future<Optional<T>>>(inputs.size());
+        try {
+            inputs.forEach(input -> futures.add(completionService.submit(() -> testQuietly(predicate, input))));
+
+            for (var i = 0; i < inputs.size(); i++) {
+                var result = getResult(completionService.take());
+                if (result.isPresent()) {
+                    return result;
+                }
+            }
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VaultEncryptionException("Interrupted while running parallel tasks", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static <T> Optional<T> testQuietly(Predicate<T> predicate, T input) {
+        try {
+            return predicate.test(input) ? Optional.of(input) : Optional.empty();
+        } catch (RuntimeException e) {
+            LOG.warn("Treating failed test of {} as no match", input, e);
+            return Optional.empty();
+        }
+    }
+
+    private static <R> R getResult(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VaultEncryptionException("Interrupted while waiting for task", e);
+        } catch (ExecutionException e) {
+            throw new VaultEncryptionException("Unexpected error in parallel task", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.ansible.vault;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A lock-free reference count that runs an action when the last reference is released. The count starts at one, for
+ * the creator's reference. Once it reaches zero it stays there, and further releases do nothing.
+ */
+class ReferenceCount {
+
+    private final AtomicInteger count = new AtomicInteger(1);
+    private final Runnable onLastRelease;
+
+    ReferenceCount(Runnable onLastRelease) {
+        this.onLastRelease = onLastRelease;
+    }
+
+    /**
+     * @return true if a reference was taken, or false if the count already reached zero
+     */
+    boolean tryRetain() {
+        while (true) {
+            var current = count.get();
+            if (current == 0) {
+                return false;
+            }
+            if (count.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a reference, running the action if it was the last one.
+     */
+    void release() {
+        while (true) {
+            var current = count.get();
+            if (current == 0) {
+                return;
+            }
+            if (count.compareAndSet(current, current - 1)) {
+                if (current == 1) {
+                    onLastRelease.run();
+                }
+                return;
+            }
+        }
+    }
+
+    int get() {
+        return count.get();
+    }
+}
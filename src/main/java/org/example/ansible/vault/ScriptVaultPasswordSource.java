@@ -0,0 +1,72 @@
+package org.example.ansible.vault;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.example.ansible.vault.Utils.readProcessErrorOutput;
+import static org.kiwiproject.base.KiwiStrings.f;
+
+import lombok.extern.slf4j.Slf4j;
+import org.kiwiproject.base.process.ProcessHelper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an executable password script on every call and uses its stdout, with surrounding whitespace removed, as the
+ * password. This matches how ansible-vault treats an executable {@code --vault-password-file}.
+ */
+@Slf4j
+class ScriptVaultPasswordSource implements VaultPasswordSource {
+
+    static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Path passwordScript;
+    private final Duration timeout;
+    private final ProcessHelper processHelper;
+
+    ScriptVaultPasswordSource(Path passwordScript, Duration timeout) {
+        this.passwordScript = passwordScript;
+        this.timeout = timeout;
+        this.processHelper = new ProcessHelper();
+    }
+
+    @Override
+    public char[] getPassword() {
+        LOG.debug("Running vault password script {}", passwordScript);
+
+        var process = processHelper.launch(List.of(passwordScript.toString()));
+        var exitCode = processHelper.waitForExit(process, timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .orElseThrow(() -> {
+                    process.destroyForcibly();
+                    return new VaultTimeoutException(
+                            f("vault password script did not exit before timeout: {}", passwordScript));
+                });
+
+        if (exitCode != 0) {
+            var errorOutput = readProcessErrorOutput(process);
+            throw new VaultEncryptionException(f("vault password script {} returned non-zero exit code {}. Stderr: {}",
+                    passwordScript, exitCode, isBlank(errorOutput) ? "[no stderr]" : errorOutput.trim()));
+        }
+
+        var password = Utils.decodePassword(readOutput(process));
+        if (password.length == 0) {
+            throw new VaultEncryptionException(f("vault password script printed no password: {}", passwordScript));
+        }
+        return password;
+    }
+
+    private byte[] readOutput(Process process) {
+        try (var inputStream = process.getInputStream()) {
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new VaultEncryptionException(f("Error reading output of vault password script {}", passwordScript), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "script " + passwordScript;
+    }
+}
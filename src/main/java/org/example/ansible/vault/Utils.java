@@ -1,12 +1,20 @@
 package org.example.ansible.vault;
 
+import static java.util.stream.Collectors.toList;
+
 import lombok.experimental.UtilityClass;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.List;
 
 @UtilityClass
@@ -32,6 +40,72 @@ class Utils {
         return readInputStreamAsString(process.getErrorStream());
     }
 
+    /**
+     * @return all regular files under the given directory (recursively), sorted by path
+     */
+    static List<Path> listRegularFiles(Path directory) {
+        try (var paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error listing files in " + directory, e);
+        }
+    }
+
+    /**
+     * Writes to a temporary file in the same directory, with the same POSIX permissions as the existing file (if
+     * any), then renames it over {@code path} so readers never see a partially written file.
+     */
+    static void writeFileAtomically(Path path, byte[] content) throws IOException {
+        var tempPath = path.resolveSibling("." + path.getFileName() + "." + System.nanoTime() + ".tmp");
+        try {
+            Files.write(tempPath, content, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            if (Files.exists(path)) {
+                copyPermissions(path, tempPath);
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        try {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system, so there are no permissions to keep
+        }
+    }
+
+    /**
+     * Decodes a UTF-8 password and removes surrounding whitespace, as ansible-vault does, without creating a String
+     * that could never be zeroed. Both {@code content} and the decoded characters are zeroed before returning.
+     *
+     * @return the password, which is empty if {@code content} is blank
+     */
+    static char[] decodePassword(byte[] content) {
+        var decoded = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(content));
+        try {
+            var start = decoded.position();
+            var end = decoded.limit();
+            while (start < end && Character.isWhitespace(decoded.get(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(decoded.get(end - 1))) {
+                end--;
+            }
+
+            var password = new char[end - start];
+            decoded.position(start);
+            decoded.get(password);
+            return password;
+        } finally {
+            Arrays.fill(content, (byte) 0);
+            Arrays.fill(decoded.array(), '\0');
+        }
+    }
+
     static String readInputStreamAsString(InputStream inputStream) {
         try {
             var outputStream = new ByteArrayOutputStream();
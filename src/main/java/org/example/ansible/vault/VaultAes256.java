@@ -0,0 +1,215 @@
+package org.example.ansible.vault;
+
+import static java.util.Objects.isNull;
+import static org.kiwiproject.base.KiwiStrings.f;
+
+import lombok.experimental.UtilityClass;
+import org.example.ansible.vault.VaultDecryptionException.Reason;
+
+import javax.annotation.Nullable;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * In-process implementation of the ansible-vault {@code AES256} cipher, i.e. PBKDF2-HMAC-SHA256 key derivation
+ * (10,000 iterations over a 32 byte salt), AES-256 in CTR mode over PKCS#7 padded plain text, and an
+ * HMAC-SHA256 over the cipher text. Produces and consumes content that is interchangeable with ansible-vault.
+ */
+@UtilityClass
+class VaultAes256 {
+
+    static final String CIPHER_NAME = "AES256";
+
+    private static final int SALT_LENGTH = 32;
+    private static final int KEY_LENGTH = 32;
+    private static final int IV_LENGTH = 16;
+    private static final int BLOCK_SIZE = 16;
+    private static final int HMAC_LENGTH = 32;
+    private static final int PBKDF2_ITERATIONS = 10_000;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    static VaultPayload encrypt(byte[] plainText, char[] password, @Nullable String vaultIdLabel) {
+        var salt = newSalt();
+        var keys = deriveKeys(password, salt);
+        try {
+            return encrypt(plainText, salt, keys, vaultIdLabel);
+        } finally {
+            keys.destroy();
+        }
+    }
+
+    /**
+     * Encrypts using keys already derived from {@code salt}, e.g. taken from a {@link VaultKeyPool}. The keys must not
+     * be used for any other encryption, since CTR mode must never reuse a key and IV.
+     */
+    static VaultPayload encrypt(byte[] plainText, byte[] salt, DerivedKeys keys, @Nullable String vaultIdLabel) {
+        var cipherText = aesCtr(Cipher.ENCRYPT_MODE, keys, pad(plainText));
+        var hmac = hmac(keys, cipherText);
+        var formatVersion = isNull(vaultIdLabel) ? "1.1" : "1.2";
+        return new VaultPayload(formatVersion, CIPHER_NAME, vaultIdLabel, salt, hmac, cipherText);
+    }
+
+    static byte[] newSalt() {
+        var salt = new byte[SALT_LENGTH];
+        SECURE_RANDOM.nextBytes(salt);
+        return salt;
+    }
+
+    /**
+     * Verifies the HMAC and then decrypts the payload.
+     *
+     * @throws VaultEncryptionException if the payload does not use the AES256 cipher
+     * @throws VaultDecryptionException  if the payload is structurally invalid or the padding is invalid
+     *                                   ({@link Reason#CORRUPTED_DATA}), or the HMAC does not match
+     *                                   ({@link Reason#WRONG_PASSWORD})
+     */
+    static byte[] decrypt(VaultPayload payload, char[] password) {
+        var keys = verify(payload, password);
+        try {
+            return decrypt(payload, keys);
+        } finally {
+            keys.destroy();
+        }
+    }
+
+    /**
+     * Decrypts the payload with keys already {@link #verify(VaultPayload, char[]) verified} against it.
+     *
+     * @throws VaultDecryptionException if the padding is invalid ({@link Reason#CORRUPTED_DATA})
+     */
+    static byte[] decrypt(VaultPayload payload, DerivedKeys keys) {
+        return unpad(aesCtr(Cipher.DECRYPT_MODE, keys, payload.getCipherText()));
+    }
+
+    /**
+     * Checks the payload structure before doing any key derivation, then derives the keys and verifies the HMAC,
+     * so a wrong password or corrupted value is rejected without running the cipher.
+     *
+     * @return the derived keys, which the caller must {@link DerivedKeys#destroy() destroy} when finished
+     * @throws VaultDecryptionException if the payload is corrupted or the HMAC does not match
+     */
+    static DerivedKeys verify(VaultPayload payload, char[] password) {
+        checkDecryptable(payload);
+
+        var keys = deriveKeys(password, payload.getSalt());
+        var expectedHmac = hmac(keys, payload.getCipherText());
+        if (!MessageDigest.isEqual(expectedHmac, payload.getHmac())) {
+            keys.destroy();
+            throw new VaultDecryptionException(Reason.WRONG_PASSWORD,
+                    "HMAC verification failed: vault password does not match");
+        }
+        return keys;
+    }
+
+    /**
+     * Checks the cipher and payload structure, i.e. everything that does not depend on the password.
+     *
+     * @throws VaultEncryptionException if the payload does not use the AES256 cipher
+     * @throws VaultDecryptionException if the payload is structurally invalid
+     */
+    static void checkDecryptable(VaultPayload payload) {
+        checkSupportedCipher(payload);
+        checkStructure(payload);
+    }
+
+    private static void checkStructure(VaultPayload payload) {
+        var cipherTextLength = payload.getCipherText().length;
+        if (payload.getSalt().length == 0 ||
+                payload.getHmac().length != HMAC_LENGTH ||
+                cipherTextLength == 0 ||
+                cipherTextLength % BLOCK_SIZE != 0) {
+            throw new VaultDecryptionException(Reason.CORRUPTED_DATA,
+                    "vault encrypted data is corrupted: invalid salt, HMAC or cipher text length");
+        }
+    }
+
+    private static void checkSupportedCipher(VaultPayload payload) {
+        if (!CIPHER_NAME.equals(payload.getCipher())) {
+            throw new VaultEncryptionException(f("unsupported vault cipher: {}", payload.getCipher()));
+        }
+    }
+
+    static DerivedKeys deriveKeys(char[] password, byte[] salt) {
+        var keySpec = new PBEKeySpec(password, salt, PBKDF2_ITERATIONS, 8 * (2 * KEY_LENGTH + IV_LENGTH));
+        try {
+            var keyMaterial = VaultCryptoPrimitives.pbkdf2().generateSecret(keySpec).getEncoded();
+            var keys = new DerivedKeys(
+                    Arrays.copyOfRange(keyMaterial, 0, KEY_LENGTH),
+                    Arrays.copyOfRange(keyMaterial, KEY_LENGTH, 2 * KEY_LENGTH),
+                    Arrays.copyOfRange(keyMaterial, 2 * KEY_LENGTH, 2 * KEY_LENGTH + IV_LENGTH));
+            Arrays.fill(keyMaterial, (byte) 0);
+            return keys;
+        } catch (GeneralSecurityException e) {
+            throw new VaultEncryptionException("Error deriving vault keys", e);
+        } finally {
+            keySpec.clearPassword();
+        }
+    }
+
+    private static byte[] aesCtr(int mode, DerivedKeys keys, byte[] input) {
+        try {
+            var cipher = VaultCryptoPrimitives.aesCtr();
+            cipher.init(mode, new SecretKeySpec(keys.cipherKey, "AES"), new IvParameterSpec(keys.iv));
+            return cipher.doFinal(input);
+        } catch (GeneralSecurityException e) {
+            throw new VaultEncryptionException("Error running AES cipher", e);
+        }
+    }
+
+    private static byte[] hmac(DerivedKeys keys, byte[] cipherText) {
+        try {
+            var mac = VaultCryptoPrimitives.hmacSha256();
+            mac.init(new SecretKeySpec(keys.hmacKey, VaultCryptoPrimitives.HMAC_ALGORITHM));
+            return mac.doFinal(cipherText);
+        } catch (GeneralSecurityException e) {
+            throw new VaultEncryptionException("Error computing HMAC", e);
+        }
+    }
+
+    private static byte[] pad(byte[] plainText) {
+        var padLength = BLOCK_SIZE - (plainText.length % BLOCK_SIZE);
+        var padded = Arrays.copyOf(plainText, plainText.length + padLength);
+        Arrays.fill(padded, plainText.length, padded.length, (byte) padLength);
+        return padded;
+    }
+
+    private static byte[] unpad(byte[] padded) {
+        var padLength = padded.length == 0 ? 0 : padded[padded.length - 1] & 0xFF;
+        if (padLength < 1 || padLength > BLOCK_SIZE || padLength > padded.length) {
+            throw new VaultDecryptionException(Reason.CORRUPTED_DATA, "invalid padding in decrypted vault data");
+        }
+
+        var plainText = Arrays.copyOf(padded, padded.length - padLength);
+        Arrays.fill(padded, (byte) 0);
+        return plainText;
+    }
+
+    /**
+     * The AES key, HMAC key and counter IV derived from a password and salt.
+     */
+    static class DerivedKeys {
+
+        private final byte[] cipherKey;
+        private final byte[] hmacKey;
+        private final byte[] iv;
+
+        DerivedKeys(byte[] cipherKey, byte[] hmacKey, byte[] iv) {
+            this.cipherKey = cipherKey;
+            this.hmacKey = hmacKey;
+            this.iv = iv;
+        }
+
+        void destroy() {
+            Arrays.fill(cipherKey, (byte) 0);
+            Arrays.fill(hmacKey, (byte) 0);
+            Arrays.fill(iv, (byte) 0);
+        }
+    }
+}
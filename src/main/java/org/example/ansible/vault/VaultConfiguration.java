@@ -1,13 +1,24 @@
 package org.example.ansible.vault;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.kiwiproject.base.KiwiPreconditions.requireNotBlank;
 
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
+import javax.annotation.Nullable;
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * This is mutable in case it is used in injected configuration, e.g. in a Dropwizard configuration file.
@@ -23,21 +34,135 @@ public class VaultConfiguration {
     @NotBlank
     private String ansibleVaultPath;
 
-    @NotBlank
+    /**
+     * The default password file, which may also be an executable password script as with ansible-vault. May be
+     * blank only when a {@link #vaultPasswordSource} is set programmatically.
+     */
     private String vaultPasswordFilePath;
 
+    /**
+     * Supplies the default password instead of {@link #vaultPasswordFilePath}, e.g. a password held in memory.
+     * ansible-vault processes are then given the password in a private (0600) temporary file in
+     * {@link #tempDirectory}. Note the trade-off: the plain text password is on disk while the helper is open. The
+     * file is deleted when the helper is closed or the JVM exits normally; if the process is killed, it remains until
+     * a helper is next created with the same temporary directory. Use the native engine to avoid the file entirely.
+     * Defaults to null.
+     */
+    @Nullable
+    private VaultPasswordSource vaultPasswordSource;
+
+    /**
+     * How long passwords are cached after being read, so that e.g. a slow password script runs once per period
+     * rather than once per operation. Defaults to zero, i.e. passwords are read for every operation.
+     */
+    @NotNull
+    private Duration passwordCacheTtl;
+
+    /**
+     * Password files for specific vault ID labels, e.g. {@code dev}, {@code stage} and {@code prod}. Content with a
+     * vault ID label in this map is decrypted (and encrypted) using that label's password file; all other content
+     * uses {@link #vaultPasswordFilePath}. Defaults to an empty map.
+     */
+    @NotNull
+    private Map<String, String> vaultIdPasswordFilePaths;
+
+    /**
+     * Password sources for specific vault ID labels, for labels whose password does not come from a file, e.g. one
+     * held in memory. A label may have a password file or a password source, but not both. As with
+     * {@link #vaultPasswordSource}, ansible-vault processes are given these passwords in private temporary files.
+     * Defaults to an empty map.
+     */
+    @NotNull
+    private Map<String, VaultPasswordSource> vaultIdPasswordSources;
+
     @NotBlank
     private String tempDirectory;
 
+    /**
+     * Defaults to {@link VaultEngineType#ANSIBLE_VAULT}.
+     */
+    @NotNull
+    private VaultEngineType engine;
+
+    /**
+     * The number of salts and derived keys the {@link VaultEngineType#NATIVE native} engine prepares in the
+     * background for upcoming encryptions. Defaults to zero, i.e. keys are derived when needed.
+     */
+    @Min(0)
+    private int keyPoolSize;
+
+    /**
+     * Validates {@link #vaultPasswordFilePath} for beans validation, since it may be blank only when a
+     * {@link #vaultPasswordSource} is set.
+     */
+    @AssertTrue(message = "vaultPasswordFilePath is required unless a vaultPasswordSource is set")
+    boolean isVaultPasswordConfigured() {
+        return nonNull(vaultPasswordSource) || isNotBlank(vaultPasswordFilePath);
+    }
+
     public VaultConfiguration() {
+        this.vaultIdPasswordFilePaths = new LinkedHashMap<>();
+        this.vaultIdPasswordSources = new LinkedHashMap<>();
+        this.passwordCacheTtl = Duration.ZERO;
         this.tempDirectory = getJavaTempDir();
+        this.engine = VaultEngineType.ANSIBLE_VAULT;
     }
 
     @Builder
-    public VaultConfiguration(String ansibleVaultPath, String vaultPasswordFilePath, String tempDirectory) {
+    public VaultConfiguration(String ansibleVaultPath,
+                              String vaultPasswordFilePath,
+                              String tempDirectory,
+                              @Nullable VaultEngineType engine,
+                              @Nullable Integer keyPoolSize,
+                              @Nullable Map<String, String> vaultIdPasswordFilePaths,
+                              @Nullable Map<String, VaultPasswordSource> vaultIdPasswordSources,
+                              @Nullable VaultPasswordSource vaultPasswordSource,
+                              @Nullable Duration passwordCacheTtl) {
         this.ansibleVaultPath = requireNotBlank(ansibleVaultPath);
-        this.vaultPasswordFilePath = requireNotBlank(vaultPasswordFilePath);
+        this.vaultPasswordSource = vaultPasswordSource;
+        this.vaultPasswordFilePath = isNull(vaultPasswordSource) ?
+                requireNotBlank(vaultPasswordFilePath) : vaultPasswordFilePath;
+        this.passwordCacheTtl = isNull(passwordCacheTtl) ? Duration.ZERO : passwordCacheTtl;
+        checkArgument(!this.passwordCacheTtl.isNegative(), "passwordCacheTtl cannot be negative");
+        this.vaultIdPasswordFilePaths = isNull(vaultIdPasswordFilePaths) ?
+                new LinkedHashMap<>() : new LinkedHashMap<>(vaultIdPasswordFilePaths);
+        this.vaultIdPasswordFilePaths.forEach((label, passwordFilePath) -> {
+            checkArgument(isNotBlank(label), "vault ID labels cannot be blank");
+            checkArgument(isNotBlank(passwordFilePath), "password file for vault ID %s cannot be blank", label);
+        });
+        this.vaultIdPasswordSources = isNull(vaultIdPasswordSources) ?
+                new LinkedHashMap<>() : new LinkedHashMap<>(vaultIdPasswordSources);
+        this.vaultIdPasswordSources.forEach((label, passwordSource) -> {
+            checkArgument(isNotBlank(label), "vault ID labels cannot be blank");
+            checkArgument(nonNull(passwordSource), "password source for vault ID %s cannot be null", label);
+            checkArgument(!this.vaultIdPasswordFilePaths.containsKey(label),
+                    "vault ID %s cannot have both a password file and a password source", label);
+        });
         this.tempDirectory = isBlank(tempDirectory) ? getJavaTempDir() : tempDirectory;
+        this.engine = isNull(engine) ? VaultEngineType.ANSIBLE_VAULT : engine;
+        this.keyPoolSize = isNull(keyPoolSize) ? 0 : keyPoolSize;
+        checkArgument(this.keyPoolSize >= 0, "keyPoolSize cannot be negative");
+    }
+
+    /**
+     * @return the password file for {@code vaultIdLabel} if one is configured, otherwise the default
+     * {@link #vaultPasswordFilePath}
+     */
+    public String resolveVaultPasswordFilePath(@Nullable String vaultIdLabel) {
+        if (nonNull(vaultIdLabel) && nonNull(vaultIdPasswordFilePaths)) {
+            var passwordFilePath = vaultIdPasswordFilePaths.get(vaultIdLabel);
+            if (isNotBlank(passwordFilePath)) {
+                return passwordFilePath;
+            }
+        }
+        return vaultPasswordFilePath;
+    }
+
+    /**
+     * @return true if any vault ID label has its own password file or password source
+     */
+    boolean hasVaultIdPasswords() {
+        return !vaultIdPasswordFilePaths.isEmpty() || !vaultIdPasswordSources.isEmpty();
     }
 
     private String getJavaTempDir() {
@@ -49,6 +174,12 @@ public class VaultConfiguration {
                 .ansibleVaultPath(ansibleVaultPath)
                 .vaultPasswordFilePath(vaultPasswordFilePath)
                 .tempDirectory(tempDirectory)
+                .engine(engine)
+                .keyPoolSize(keyPoolSize)
+                .vaultIdPasswordFilePaths(vaultIdPasswordFilePaths)
+                .vaultIdPasswordSources(vaultIdPasswordSources)
+                .vaultPasswordSource(vaultPasswordSource)
+                .passwordCacheTtl(passwordCacheTtl)
                 .build();
     }
 }
@@ -0,0 +1,48 @@
+package org.example.ansible.vault;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * A validated {@link VaultConfiguration} together with the {@link NativeVaultEngine} built for it, as used by
+ * {@link VaultEncryptionHelper}. Each operation retains the snapshot that is current when it starts and releases it
+ * (via {@link #close()}) when it finishes, so a reconfiguration never changes the configuration of an operation in
+ * flight. Once a snapshot has been replaced and its last operation has finished, its engine is closed.
+ */
+@Getter
+class VaultConfigurationSnapshot implements AutoCloseable {
+
+    private final VaultConfiguration configuration;
+    private final NativeVaultEngine nativeEngine;
+
+    @Getter(AccessLevel.NONE)
+    private final ReferenceCount references;
+
+    /**
+     * @param configuration a validated configuration, which must not be modified afterwards
+     */
+    VaultConfigurationSnapshot(VaultConfiguration configuration, NativeVaultEngine nativeEngine) {
+        this.configuration = configuration;
+        this.nativeEngine = nativeEngine;
+        this.references = new ReferenceCount(nativeEngine::close);
+    }
+
+    /**
+     * @return true if the snapshot was retained, or false if it has already been released for good
+     */
+    boolean tryRetain() {
+        return references.tryRetain();
+    }
+
+    boolean isNativeEngine() {
+        return configuration.getEngine() == VaultEngineType.NATIVE;
+    }
+
+    /**
+     * Releases a reference to this snapshot.
+     */
+    @Override
+    public void close() {
+        references.release();
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.ansible.vault;
+
+import lombok.experimental.UtilityClass;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import java.security.GeneralSecurityException;
+
+/**
+ * Per-thread instances of the JCA primitives used by {@link VaultAes256}.
+ * <p>
+ * {@code getInstance} performs a provider lookup and allocates a new engine on every call, which for small
+ * encrypt_string values costs about as much as the cryptography itself. Each thread therefore gets one instance
+ * of each primitive, which callers must fully re-initialize (via {@code init}) before every operation.
+ * The instances are never shared across threads, so no synchronization is needed.
+ */
+@UtilityClass
+class VaultCryptoPrimitives {
+
+    static final String AES_CTR_TRANSFORMATION = "AES/CTR/NoPadding";
+    static final String HMAC_ALGORITHM = "HmacSHA256";
+    static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private static final ThreadLocal<Cipher> AES_CTR =
+            ThreadLocal.withInitial(() -> newInstance(() -> Cipher.getInstance(AES_CTR_TRANSFORMATION)));
+
+    private static final ThreadLocal<Mac> HMAC_SHA256 =
+            ThreadLocal.withInitial(() -> newInstance(() -> Mac.getInstance(HMAC_ALGORITHM)));
+
+    private static final ThreadLocal<SecretKeyFactory> PBKDF2 =
+            ThreadLocal.withInitial(() -> newInstance(() -> SecretKeyFactory.getInstance(PBKDF2_ALGORITHM)));
+
+    /**
+     * @return this thread's AES/CTR cipher; must be initialized with the key and IV before use
+     */
+    static Cipher aesCtr() {
+        return AES_CTR.get();
+    }
+
+    /**
+     * @return this thread's HMAC-SHA256 instance; must be initialized with the key before use
+     */
+    static Mac hmacSha256() {
+        return HMAC_SHA256.get();
+    }
+
+    /**
+     * @return this thread's PBKDF2-HMAC-SHA256 key factory
+     */
+    static SecretKeyFactory pbkdf2() {
+        return PBKDF2.get();
+    }
+
+    /**
+     * Creates this thread's instances now rather than on first use, which also loads the JCA providers for all
+     * threads.
+     */
+    static void initialize() {
+        AES_CTR.get();
+        HMAC_SHA256.get();
+        PBKDF2.get();
+    }
+
+    private interface PrimitiveSupplier<T> {
+        T get() throws GeneralSecurityException;
+    }
+
+    private static <T> T newInstance(PrimitiveSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (GeneralSecurityException e) {
+            throw new VaultEncryptionException("Required cryptographic algorithm is not available", e);
+        }
+    }
+}
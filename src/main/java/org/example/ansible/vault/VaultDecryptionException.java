@@ -0,0 +1,38 @@
+package org.example.ansible.vault;
+
+import lombok.Getter;
+
+/**
+ * Thrown when vault encrypted content cannot be decrypted, with a {@link Reason} that distinguishes a wrong
+ * password from corrupted data so that callers can react differently (e.g. fix configuration vs. restore a file).
+ */
+@Getter
+public class VaultDecryptionException extends VaultEncryptionException {
+
+    public enum Reason {
+
+        /**
+         * The content is structurally valid but its HMAC does not match the key derived from the password,
+         * which almost always means the password is wrong.
+         */
+        WRONG_PASSWORD,
+
+        /**
+         * The content is malformed (bad hex, missing sections, wrong lengths), or the HMAC matched but the
+         * decrypted data is invalid.
+         */
+        CORRUPTED_DATA
+    }
+
+    private final Reason reason;
+
+    public VaultDecryptionException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public VaultDecryptionException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+}
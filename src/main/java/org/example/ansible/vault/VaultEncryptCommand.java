@@ -31,7 +31,7 @@ public class VaultEncryptCommand implements OsCommand {
         return VaultEncryptCommand.builder()
                 .ansibleVaultPath(configuration.getAnsibleVaultPath())
                 .vaultIdLabel(vaultIdLabel)
-                .vaultPasswordFilePath(configuration.getVaultPasswordFilePath())
+                .vaultPasswordFilePath(configuration.resolveVaultPasswordFilePath(vaultIdLabel))
                 .plainTextFilePath(plainTextFilePath)
                 .build();
     }
@@ -36,7 +36,7 @@ public class VaultEncryptStringCommand implements OsCommand {
         return VaultEncryptStringCommand.builder()
                 .ansibleVaultPath(configuration.getAnsibleVaultPath())
                 .vaultIdLabel(vaultIdLabel)
-                .vaultPasswordFilePath(configuration.getVaultPasswordFilePath())
+                .vaultPasswordFilePath(configuration.resolveVaultPasswordFilePath(vaultIdLabel))
                 .variableName(variableName)
                 .plainText(plainText)
                 .build();
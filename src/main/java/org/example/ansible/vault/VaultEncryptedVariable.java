@@ -36,6 +36,8 @@ class VaultEncryptedVariable {
 
     private static final String LINE_SEPARATOR = System.lineSeparator();
 
+    private static final String INDENT = "          ";
+
     private String variableName;
     private String formatVersion;
     private String cipher;
@@ -71,33 +73,14 @@ class VaultEncryptedVariable {
     // <10 spaces>$ANSIBLE_VAULT;<format-version>;<cipher>[;<vault-id-label]
     private void parseLine2(List<String> lines) {
         var second = KiwiLists.second(lines);
-        checkArgument(second.contains(";"), INVALID_ANSIBLE_VAULT_DECLARATION);
-
-        var splat = second.split(";");
-        checkArgument(line2HasValidLength(splat) && line2HasValidPrefix(splat[0]), INVALID_ANSIBLE_VAULT_DECLARATION);
-
-        checkArgument(isValidFormatVersion(splat[1]), INVALID_ANSIBLE_VAULT_DECLARATION);
-        this.formatVersion = splat[1];
+        checkArgument(second.startsWith(INDENT), INVALID_ANSIBLE_VAULT_DECLARATION);
 
-        checkArgumentNotBlank(splat[2], INVALID_ANSIBLE_VAULT_DECLARATION);
-        this.cipher = splat[2];
+        var header = VaultHeader.parse(second.substring(INDENT.length()))
+                .orElseThrow(() -> new IllegalArgumentException(INVALID_ANSIBLE_VAULT_DECLARATION));
 
-        if (splat.length == 4) {
-            checkArgumentNotBlank(splat[3], INVALID_ANSIBLE_VAULT_DECLARATION);
-            this.vaultIdLabel = splat[3];
-        }
-    }
-
-    private static boolean line2HasValidPrefix(String value) {
-        return "          $ANSIBLE_VAULT".equals(value);
-    }
-
-    private static boolean line2HasValidLength(String[] parts) {
-        return parts.length == 3 || parts.length == 4;
-    }
-
-    private static boolean isValidFormatVersion(String value) {
-        return "1.1".equals(value) || "1.2".equals(value);
+        this.formatVersion = header.getFormatVersion();
+        this.cipher = header.getCipher();
+        this.vaultIdLabel = header.getVaultIdLabel().orElse(null);
     }
 
     // lines 3-N should be:
@@ -105,7 +88,7 @@ class VaultEncryptedVariable {
     private void parseRemainingLines(List<String> lines) {
         var remainingLines = subListFrom(lines, 3);
         remainingLines.forEach(line -> {
-            checkArgument(line.startsWith("          "), INVALID_SPACING_IN_ENCRYPTED_CONTENT);
+            checkArgument(line.startsWith(INDENT), INVALID_SPACING_IN_ENCRYPTED_CONTENT);
             checkArgument(line.length() > 10 && line.charAt(10) != ' ', INVALID_FORMAT_IN_ENCRYPTED_CONTENT);
         });
         this.encryptedContentLines = remainingLines;
@@ -118,13 +101,7 @@ class VaultEncryptedVariable {
     }
 
     private String encryptedFileFirstLine() {
-        return "$ANSIBLE_VAULT;" + formatVersion + ";" + cipher + vaultIdLabelFragmentOrEmpty();
-    }
-
-    private String vaultIdLabelFragmentOrEmpty() {
-        return Optional.ofNullable(vaultIdLabel)
-                .map(label -> ";" + label)
-                .orElse("");
+        return new VaultHeader(formatVersion, cipher, vaultIdLabel).toHeaderLine();
     }
 
     private String encryptedContentWithLeadingWhitespaceTrimmed() {
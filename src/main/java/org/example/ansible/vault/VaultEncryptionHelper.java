@@ -1,6 +1,10 @@
 package org.example.ansible.vault;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toUnmodifiableList;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.example.ansible.vault.Utils.readProcessErrorOutput;
 import static org.example.ansible.vault.Utils.readProcessOutput;
@@ -8,28 +12,85 @@ import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
 import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
 import static org.kiwiproject.base.KiwiStrings.f;
 import static org.kiwiproject.base.KiwiStrings.format;
-import static org.kiwiproject.logging.LazyLogParameterSupplier.lazy;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Utf8;
+import com.google.common.collect.Sets;
+import lombok.ToString;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.kiwiproject.base.process.ProcessHelper;
 
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
+/**
+ * Encrypts and decrypts using ansible-vault, or in-process with the {@link VaultEngineType#NATIVE native} engine.
+ * <p>
+ * The configuration can be replaced at runtime with {@link #reconfigure(VaultConfiguration)}, e.g. to rotate password
+ * files, without building a new helper. Operations read the current configuration without locking, and operations
+ * already in flight finish with the configuration they started with.
+ */
 @Slf4j
-public class VaultEncryptionHelper {
+public class VaultEncryptionHelper implements Closeable {
 
     private static final String LINE_SEPARATOR = System.lineSeparator();
 
     private static final int DEFAULT_TIMEOUT = 10;
     private static final TimeUnit DEFAULT_TIMEOUT_UNIT = TimeUnit.SECONDS;
 
+    private static final String MBEAN_NAME_PREFIX = "org.example.ansible.vault:type=VaultEncryptionHelper,name=";
+    private static final AtomicInteger MBEAN_IDS = new AtomicInteger();
+
+    private static final String WARM_UP_VARIABLE_NAME = "vault_warm_up";
+
     private final ProcessHelper processHelper;
-    private final VaultConfiguration configuration;
+    private final AtomicReference<VaultConfigurationSnapshot> currentSnapshot;
+    private volatile boolean closed;
+    private final LongAdder writesPerformed = new LongAdder();
+    private final LongAdder writesAvoided = new LongAdder();
+    private final LongAdder processesLaunched = new LongAdder();
+    private final List<VaultOperationListener> operationListeners = new CopyOnWriteArrayList<>();
+    private final VaultOperationMetrics operationMetrics = new VaultOperationMetrics();
+    private final AtomicInteger operationsInFlight = new AtomicInteger();
+    private final AtomicInteger processesInFlight = new AtomicInteger();
+    private final AtomicInteger tempFilesOutstanding = new AtomicInteger();
+    private volatile ObjectName mbeanName;
+    private volatile VaultConfigurationSnapshot warmedUpSnapshot;
+
+    @Value
+    @VisibleForTesting
+    static class PreloadedSecret {
+        VaultPreloadResult result;
+        @ToString.Exclude @Nullable String plainText;
+    }
 
     public VaultEncryptionHelper(VaultConfiguration configuration) {
         this(configuration, new ProcessHelper());
@@ -40,20 +101,340 @@ public class VaultEncryptionHelper {
         checkArgumentNotNull(configuration, "configuration is required");
         checkArgumentNotNull(processHelper, "processHelper is required");
 
-        this.configuration = validateAndCopyVaultConfiguration(configuration);
+        var validConfiguration = validateAndCopyVaultConfiguration(configuration);
         this.processHelper = processHelper;
+        this.currentSnapshot = new AtomicReference<>(
+                new VaultConfigurationSnapshot(validConfiguration, new NativeVaultEngine(validConfiguration)));
+    }
+
+    /**
+     * Validates {@code configuration} and then makes (a defensive copy of) it the configuration for all subsequent
+     * operations. Operations already in flight finish with the previous configuration. Cached state that is still
+     * valid under the new configuration, e.g. cached passwords if the password settings are unchanged, is kept.
+     *
+     * @throws IllegalArgumentException if the configuration is invalid, in which case the current one is kept
+     */
+    public synchronized void reconfigure(VaultConfiguration configuration) {
+        checkArgumentNotNull(configuration, "configuration is required");
+        checkState(!closed, "VaultEncryptionHelper is closed");
+
+        var validConfiguration = validateAndCopyVaultConfiguration(configuration);
+        var previous = currentSnapshot.get();
+        var next = new VaultConfigurationSnapshot(validConfiguration,
+                previous.getNativeEngine().reconfigure(validConfiguration));
+        currentSnapshot.set(next);
+        previous.close();
+        LOG.info("Reconfigured vault encryption helper");
+    }
+
+    /**
+     * @return a copy of the current configuration
+     */
+    public VaultConfiguration getConfiguration() {
+        return currentSnapshot.get().getConfiguration().copyOf();
+    }
+
+    /**
+     * Retains the current snapshot for one operation, which must {@link VaultConfigurationSnapshot#close() close} it.
+     * If a reconfiguration releases the snapshot read here before it can be retained, the new one is read instead.
+     */
+    @VisibleForTesting
+    VaultConfigurationSnapshot acquireSnapshot() {
+        while (true) {
+            var snapshot = currentSnapshot.get();
+            if (snapshot.tryRetain()) {
+                return snapshot;
+            }
+            checkState(!closed, "VaultEncryptionHelper is closed");
+        }
+    }
+
+    /**
+     * Adds a listener to be told the per-phase timing of every subsequent operation.
+     */
+    public void addOperationListener(VaultOperationListener listener) {
+        checkArgumentNotNull(listener, "listener cannot be null");
+        operationListeners.add(listener);
+    }
+
+    public void removeOperationListener(VaultOperationListener listener) {
+        operationListeners.remove(listener);
+    }
+
+    /**
+     * @return the counts and latencies of every operation performed so far, by outcome
+     */
+    public Map<VaultOperation, VaultOperationStats> getOperationStats() {
+        return operationMetrics.snapshot();
+    }
+
+    /**
+     * @return the counts and latencies of {@code operation} performed so far, by outcome
+     */
+    public VaultOperationStats getOperationStats(VaultOperation operation) {
+        checkArgumentNotNull(operation, "operation cannot be null");
+        return operationMetrics.snapshot(operation);
+    }
+
+    /**
+     * Resets the operation stats, the process and "encrypt if changed" counts, and the hit counts of the caches.
+     */
+    public void resetStats() {
+        operationMetrics.reset();
+        processesLaunched.reset();
+        writesPerformed.reset();
+        writesAvoided.reset();
+        currentSnapshot.get().getNativeEngine().resetStats();
+    }
+
+    /**
+     * Forgets which password matched which encrypted values, and which values recently failed to decrypt, and zeroes
+     * any cached passwords, so that all of them are looked up again.
+     */
+    public void clearCaches() {
+        currentSnapshot.get().getNativeEngine().clearCaches();
+    }
+
+    /**
+     * Pays the one-off costs of the first operation up front, e.g. at application start-up: creates the temporary
+     * directory, checks that ansible-vault is executable, reads every configured password, loads the crypto
+     * primitives, and encrypts and decrypts a random value with the configured engine (which for ansible-vault
+     * launches two processes). The steps run in order and stop at the first failure, which is reported rather than
+     * thrown. The round trip is not counted in the {@link #getOperationStats() operation stats}.
+     *
+     * @return how long each step took, and whether the helper is ready
+     * @see #isReady()
+     */
+    public VaultWarmUpReport warmUp() {
+        try (var snapshot = acquireSnapshot()) {
+            var stepDurations = new EnumMap<VaultWarmUpReport.Step, Duration>(VaultWarmUpReport.Step.class);
+            var startNanos = System.nanoTime();
+
+            for (var step : warmUpSteps(snapshot).entrySet()) {
+                var stepStartNanos = System.nanoTime();
+                try {
+                    step.getValue().run();
+                } catch (RuntimeException e) {
+                    stepDurations.put(step.getKey(), Duration.ofNanos(System.nanoTime() - stepStartNanos));
+                    LOG.warn("Vault encryption helper warm-up failed at step {}", step.getKey(), e);
+                    return new VaultWarmUpReport(Collections.unmodifiableMap(stepDurations),
+                            Duration.ofNanos(System.nanoTime() - startNanos), step.getKey(), e);
+                }
+                stepDurations.put(step.getKey(), Duration.ofNanos(System.nanoTime() - stepStartNanos));
+            }
+
+            warmedUpSnapshot = snapshot;
+            var report = new VaultWarmUpReport(Collections.unmodifiableMap(stepDurations),
+                    Duration.ofNanos(System.nanoTime() - startNanos), null, null);
+            LOG.info("Warmed up vault encryption helper in {} ms: {}",
+                    report.getTotalDuration().toMillis(), report.getStepDurations());
+            return report;
+        }
+    }
+
+    private Map<VaultWarmUpReport.Step, Runnable> warmUpSteps(VaultConfigurationSnapshot snapshot) {
+        var configuration = snapshot.getConfiguration();
+        var steps = new LinkedHashMap<VaultWarmUpReport.Step, Runnable>();
+        if (!isBlank(configuration.getTempDirectory())) {
+            steps.put(VaultWarmUpReport.Step.TEMP_DIRECTORY, () -> warmUpTempDirectory(configuration));
+        }
+        if (!snapshot.isNativeEngine()) {
+            steps.put(VaultWarmUpReport.Step.EXECUTABLE, () -> checkExecutable(configuration));
+        }
+        steps.put(VaultWarmUpReport.Step.PASSWORDS, () -> warmUpPasswords(snapshot));
+        steps.put(VaultWarmUpReport.Step.CRYPTO_PRIMITIVES, VaultCryptoPrimitives::initialize);
+        steps.put(VaultWarmUpReport.Step.ROUND_TRIP, () -> warmUpRoundTrip(snapshot));
+        return steps;
+    }
+
+    private static void warmUpTempDirectory(VaultConfiguration configuration) {
+        var tempDirectoryPath = Path.of(configuration.getTempDirectory());
+        createTempDirectoryIfNecessary(tempDirectoryPath);
+        if (!Files.isWritable(tempDirectoryPath)) {
+            throw new VaultEncryptionException(f("temporary directory is not writable: {}", tempDirectoryPath));
+        }
+    }
+
+    private static void checkExecutable(VaultConfiguration configuration) {
+        var ansibleVaultPath = Path.of(configuration.getAnsibleVaultPath());
+        if (!Files.isExecutable(ansibleVaultPath)) {
+            throw new VaultEncryptionException(f("ansible-vault is not executable: {}", ansibleVaultPath));
+        }
+    }
+
+    private static void warmUpPasswords(VaultConfigurationSnapshot snapshot) {
+        var passwords = snapshot.getNativeEngine().getPasswords();
+        for (var passwordId : passwords.allIds()) {
+            Arrays.fill(passwords.read(passwordId), '\0');
+            if (!snapshot.isNativeEngine()) {
+                passwords.processPasswordFile(passwordId);
+            }
+        }
+    }
+
+    private void warmUpRoundTrip(VaultConfigurationSnapshot snapshot) {
+        var plainText = UUID.randomUUID().toString();
+        var decrypted = decryptString(snapshot, encryptString(snapshot, plainText, WARM_UP_VARIABLE_NAME));
+        if (!plainText.equals(decrypted)) {
+            throw new VaultEncryptionException("warm-up round trip did not decrypt to the encrypted value");
+        }
+    }
+
+    /**
+     * @return true if the current configuration has been {@link #warmUp() warmed up} successfully; a
+     * {@link #reconfigure(VaultConfiguration) reconfiguration} needs another warm-up
+     */
+    public boolean isReady() {
+        return warmedUpSnapshot == currentSnapshot.get();
+    }
+
+    /**
+     * Registers a {@link VaultEncryptionHelperMXBean} for this helper with the platform MBean server, under a
+     * generated name. It is unregistered on {@link #close()}.
+     *
+     * @return the name the MBean was registered under
+     */
+    public ObjectName registerMBean() {
+        return registerMBean("helper-" + MBEAN_IDS.incrementAndGet());
+    }
+
+    /**
+     * Registers a {@link VaultEncryptionHelperMXBean} for this helper with the platform MBean server, as
+     * {@code org.example.ansible.vault:type=VaultEncryptionHelper,name=<name>}. It is unregistered on
+     * {@link #close()}.
+     *
+     * @return the name the MBean was registered under
+     * @throws IllegalArgumentException if {@code name} is not a valid ObjectName value
+     * @throws IllegalStateException    if an MBean is already registered for this helper, or it is closed
+     */
+    public synchronized ObjectName registerMBean(String name) {
+        checkArgumentNotBlank(name, "name cannot be blank");
+        checkState(!closed, "VaultEncryptionHelper is closed");
+        checkState(isNull(mbeanName), "MBean is already registered as %s", mbeanName);
+
+        ObjectName objectName;
+        try {
+            objectName = new ObjectName(MBEAN_NAME_PREFIX + name);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(f("invalid MBean name: {}", name), e);
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(new VaultEncryptionHelperMXBeanImpl(this), objectName);
+        } catch (JMException e) {
+            throw new VaultEncryptionException(f("Error registering MBean {}", objectName), e);
+        }
+
+        LOG.info("Registered MBean {}", objectName);
+        mbeanName = objectName;
+        return objectName;
+    }
+
+    private void unregisterMBean() {
+        if (isNull(mbeanName)) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+        } catch (JMException e) {
+            LOG.warn("Could not unregister MBean {}", mbeanName, e);
+        }
+        mbeanName = null;
+    }
+
+    int getOperationsInFlight() {
+        return operationsInFlight.get();
+    }
+
+    int getProcessesInFlight() {
+        return processesInFlight.get();
+    }
+
+    int getTempFilesOutstanding() {
+        return tempFilesOutstanding.get();
+    }
+
+    /**
+     * @return the engine of the current configuration, for reading gauges only, since it is not retained
+     */
+    NativeVaultEngine currentNativeEngine() {
+        return currentSnapshot.get().getNativeEngine();
+    }
+
+    /**
+     * Runs an operation with a retained snapshot, recording its latency and outcome in the operation stats. Its
+     * phases are only timed if there are operation listeners.
+     */
+    private <T> T execute(VaultOperation operation, Function<VaultConfigurationSnapshot, T> action) {
+        try (var snapshot = acquireSnapshot()) {
+            operationsInFlight.incrementAndGet();
+            var startNanos = System.nanoTime();
+            try {
+                var result = operationListeners.isEmpty() ?
+                        action.apply(snapshot) : executeTimed(operation, snapshot, action, startNanos);
+                operationMetrics.record(operation, VaultOperationOutcome.SUCCESS, System.nanoTime() - startNanos);
+                return result;
+            } catch (RuntimeException e) {
+                operationMetrics.record(operation, VaultOperationOutcome.of(e), System.nanoTime() - startNanos);
+                throw e;
+            } finally {
+                operationsInFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private <T> T executeTimed(VaultOperation operation,
+                               VaultConfigurationSnapshot snapshot,
+                               Function<VaultConfigurationSnapshot, T> action,
+                               long startNanos) {
+        var previousTimer = VaultOperationTimer.current();
+        var timer = VaultOperationTimer.attachNew();
+        try {
+            var result = action.apply(snapshot);
+            operationCompleted(operation, snapshot, timer, startNanos, null);
+            return result;
+        } catch (RuntimeException e) {
+            operationCompleted(operation, snapshot, timer, startNanos, e);
+            throw e;
+        } finally {
+            VaultOperationTimer.detach(previousTimer);
+        }
+    }
+
+    private void operationCompleted(VaultOperation operation,
+                                    VaultConfigurationSnapshot snapshot,
+                                    VaultOperationTimer timer,
+                                    long startNanos,
+                                    @Nullable RuntimeException failure) {
+        var event = new VaultOperationEvent(operation, snapshot.getConfiguration().getEngine(),
+                Duration.ofNanos(System.nanoTime() - startNanos), timer.phaseDurations(), failure);
+
+        for (var listener : operationListeners) {
+            try {
+                listener.operationCompleted(event);
+            } catch (RuntimeException e) {
+                LOG.warn("Vault operation listener {} failed", listener, e);
+            }
+        }
     }
 
     /**
      * Validates and returns (assuming validation passed) a defensive copy of the given configuration.
      */
     private static VaultConfiguration validateAndCopyVaultConfiguration(VaultConfiguration configuration) {
-        checkArgumentNotBlank(configuration.getVaultPasswordFilePath(), "vaultPasswordFilePath is required");
-        checkArgument(isExistingPath(configuration.getVaultPasswordFilePath()),
-                "vault password file does not exist: {}", configuration.getVaultPasswordFilePath());
+        if (isNull(configuration.getVaultPasswordSource())) {
+            checkArgumentNotBlank(configuration.getVaultPasswordFilePath(), "vaultPasswordFilePath is required");
+            checkArgument(isExistingPath(configuration.getVaultPasswordFilePath()),
+                    "vault password file does not exist: {}", configuration.getVaultPasswordFilePath());
+        }
         checkArgumentNotBlank(configuration.getAnsibleVaultPath(), "ansibleVaultPath is required");
         checkArgument(isExistingPath(configuration.getAnsibleVaultPath()),
                 "ansible-vault executable does not exist: {}", configuration.getAnsibleVaultPath());
+        configuration.getVaultIdPasswordFilePaths().forEach((vaultIdLabel, passwordFilePath) ->
+                checkArgument(isExistingPath(passwordFilePath),
+                        "vault password file for vault ID %s does not exist: %s", vaultIdLabel, passwordFilePath));
 
         return configuration.copyOf();
     }
@@ -70,7 +451,16 @@ public class VaultEncryptionHelper {
      * Wraps the ansible-vault encrypt command. Encrypts file in place.
      */
     public Path encryptFile(String plainTextFilePath) {
-        var osCommand = VaultEncryptCommand.from(configuration, plainTextFilePath);
+        return execute(VaultOperation.ENCRYPT_FILE, snapshot -> encryptFile(snapshot, plainTextFilePath));
+    }
+
+    private Path encryptFile(VaultConfigurationSnapshot snapshot, String plainTextFilePath) {
+        if (snapshot.isNativeEngine()) {
+            checkArgumentNotBlank(plainTextFilePath, "plainTextFilePath cannot be blank");
+            return snapshot.getNativeEngine().encryptFile(plainTextFilePath, null);
+        }
+
+        var osCommand = VaultEncryptCommand.from(configurationForLabel(snapshot, null), plainTextFilePath);
         return executeVaultCommandWithoutOutput(osCommand, plainTextFilePath);
     }
 
@@ -86,10 +476,103 @@ public class VaultEncryptionHelper {
      * Wraps the ansible-vault encrypt command using a vault ID label. Encrypts file in place.
      */
     public Path encryptFile(String plainTextFilePath, String vaultIdLabel) {
-        var osCommand = VaultEncryptCommand.from(configuration, vaultIdLabel, plainTextFilePath);
+        return execute(VaultOperation.ENCRYPT_FILE,
+                snapshot -> encryptFile(snapshot, plainTextFilePath, vaultIdLabel));
+    }
+
+    private Path encryptFile(VaultConfigurationSnapshot snapshot, String plainTextFilePath, String vaultIdLabel) {
+        if (snapshot.isNativeEngine()) {
+            checkArgumentNotBlank(plainTextFilePath, "plainTextFilePath cannot be blank");
+            return snapshot.getNativeEngine().encryptFile(plainTextFilePath, vaultIdLabel);
+        }
+
+        var osCommand = VaultEncryptCommand.from(
+                configurationForLabel(snapshot, vaultIdLabel), vaultIdLabel, plainTextFilePath);
         return executeVaultCommandWithoutOutput(osCommand, plainTextFilePath);
     }
 
+    /**
+     * Encrypts {@code plainTextFilePath} into {@code encryptedFilePath}, unless {@code encryptedFilePath} already holds
+     * an encryption of the same plain text under the configured password and the given vault ID label. In that case
+     * nothing is written, so the existing salt (and file) is kept and no ansible-vault process is launched.
+     * <p>
+     * The comparison decrypts the existing file in-process regardless of the configured engine. When a write is
+     * needed, {@code encryptedFilePath} is replaced atomically, keeping its POSIX permissions. The
+     * {@link VaultEngineType#NATIVE native} engine encrypts in memory; ansible-vault encrypts a private copy of the
+     * plain text in the temporary directory, so the plain text is never written next to {@code encryptedFilePath}.
+     *
+     * @return true if {@code encryptedFilePath} was written, false if it was already up to date
+     */
+    public boolean encryptFileIfChanged(Path plainTextFilePath, Path encryptedFilePath, @Nullable String vaultIdLabel) {
+        checkArgumentNotNull(plainTextFilePath, "plainTextFilePath cannot be null");
+        checkArgumentNotNull(encryptedFilePath, "encryptedFilePath cannot be null");
+        checkArgument(!plainTextFilePath.toString().equalsIgnoreCase(encryptedFilePath.toString()),
+                "encryptedFilePath must be different than plainTextFilePath (case-insensitive)");
+
+        return execute(VaultOperation.ENCRYPT_FILE_IF_CHANGED,
+                snapshot -> encryptFileIfChanged(snapshot, plainTextFilePath, encryptedFilePath, vaultIdLabel));
+    }
+
+    private boolean encryptFileIfChanged(VaultConfigurationSnapshot snapshot,
+                                         Path plainTextFilePath,
+                                         Path encryptedFilePath,
+                                         @Nullable String vaultIdLabel) {
+        var plainText = readAllBytes(plainTextFilePath);
+        if (Files.isRegularFile(encryptedFilePath) &&
+                snapshot.getNativeEngine().matches(readAllBytes(encryptedFilePath), plainText, vaultIdLabel)) {
+            LOG.debug("{} is unchanged; not re-encrypting {}", plainTextFilePath, encryptedFilePath);
+            writesAvoided.increment();
+            return false;
+        }
+
+        if (snapshot.isNativeEngine()) {
+            snapshot.getNativeEngine().encryptToFile(plainText, encryptedFilePath, vaultIdLabel);
+        } else {
+            encryptToFileWithAnsibleVault(snapshot, plainText, encryptedFilePath, vaultIdLabel);
+        }
+
+        writesPerformed.increment();
+        return true;
+    }
+
+    private void encryptToFileWithAnsibleVault(VaultConfigurationSnapshot snapshot,
+                                               byte[] plainText,
+                                               Path encryptedFilePath,
+                                               @Nullable String vaultIdLabel) {
+        var configuration = snapshot.getConfiguration();
+        checkArgumentNotBlank(configuration.getTempDirectory(),
+                "configuration.tempDirectory is required for encryptFileIfChanged");
+
+        var tempDirectoryPath = Path.of(configuration.getTempDirectory());
+        createTempDirectoryIfNecessary(tempDirectoryPath);
+        var timer = VaultOperationTimer.current();
+        Path tempFilePath = null;
+        tempFilesOutstanding.incrementAndGet();
+        try {
+            var writeStart = timer.start();
+            tempFilePath = Files.createTempFile(tempDirectoryPath, ".encrypt-if-changed-", ".tmp");
+            Files.write(tempFilePath, plainText);
+            timer.record(VaultOperationPhase.FILE_IO, writeStart);
+
+            if (isNull(vaultIdLabel)) {
+                encryptFile(snapshot, tempFilePath.toString());
+            } else {
+                encryptFile(snapshot, tempFilePath.toString(), vaultIdLabel);
+            }
+
+            var moveStart = timer.start();
+            Utils.writeFileAtomically(encryptedFilePath, Files.readAllBytes(tempFilePath));
+            timer.record(VaultOperationPhase.FILE_IO, moveStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing " + encryptedFilePath, e);
+        } finally {
+            if (nonNull(tempFilePath)) {
+                deleteFileQuietly(tempFilePath);
+            }
+            tempFilesOutstanding.decrementAndGet();
+        }
+    }
+
     /**
      * Wraps ansible-vault decrypt command. Decrypts file in place.
      */
@@ -102,8 +585,15 @@ public class VaultEncryptionHelper {
      * Wraps ansible-vault decrypt command. Decrypts file in place.
      */
     public Path decryptFile(String encryptedFilePath) {
-        var osCommand = VaultDecryptCommand.from(configuration, encryptedFilePath);
-        return executeVaultCommandWithoutOutput(osCommand, encryptedFilePath);
+        return execute(VaultOperation.DECRYPT_FILE, snapshot -> {
+            if (snapshot.isNativeEngine()) {
+                checkArgumentNotBlank(encryptedFilePath, "encryptedFilePath cannot be blank");
+                return snapshot.getNativeEngine().decryptFile(encryptedFilePath, encryptedFilePath);
+            }
+
+            var osCommand = VaultDecryptCommand.from(configurationFor(snapshot, encryptedFilePath), encryptedFilePath);
+            return executeVaultCommandWithoutOutput(osCommand, encryptedFilePath);
+        });
     }
 
     /**
@@ -126,10 +616,17 @@ public class VaultEncryptionHelper {
         checkArgument(!outputFilePath.equalsIgnoreCase(encryptedFilePath),
                 "outputFilePath must be different than encryptedFilePath (case-insensitive)");
 
-        var osCommand = VaultDecryptCommand.from(configuration, encryptedFilePath, outputFilePath);
-        executeVaultCommandWithoutOutput(osCommand, encryptedFilePath);
+        return execute(VaultOperation.DECRYPT_FILE, snapshot -> {
+            if (snapshot.isNativeEngine()) {
+                return snapshot.getNativeEngine().decryptFile(encryptedFilePath, outputFilePath);
+            }
+
+            var osCommand = VaultDecryptCommand.from(configurationFor(snapshot, encryptedFilePath),
+                    encryptedFilePath, outputFilePath);
+            executeVaultCommandWithoutOutput(osCommand, encryptedFilePath);
 
-        return Path.of(outputFilePath);
+            return Path.of(outputFilePath);
+        });
     }
 
     /**
@@ -146,8 +643,17 @@ public class VaultEncryptionHelper {
      * The original encrypted file is not modified.
      */
     public String viewFile(String encryptedFilePath) {
-        var osCommand = VaultViewCommand.from(configuration, encryptedFilePath);
-        return executeVaultCommandReturningStdout(osCommand);
+        return execute(VaultOperation.VIEW_FILE, snapshot -> viewFile(snapshot, encryptedFilePath));
+    }
+
+    private String viewFile(VaultConfigurationSnapshot snapshot, String encryptedFilePath) {
+        if (snapshot.isNativeEngine()) {
+            checkArgumentNotBlank(encryptedFilePath, "encryptedFilePath cannot be blank");
+            return snapshot.getNativeEngine().viewFile(encryptedFilePath);
+        }
+
+        var osCommand = VaultViewCommand.from(configurationFor(snapshot, encryptedFilePath), encryptedFilePath);
+        return executeVaultCommandReturningStdout(osCommand, () -> fileSize(encryptedFilePath));
     }
 
     /**
@@ -165,15 +671,80 @@ public class VaultEncryptionHelper {
     public Path rekeyFile(String encryptedFilePath, String newVaultPasswordFilePath) {
         checkArgumentNotBlank(encryptedFilePath, "encryptedFilePath cannot be blank");
         checkArgumentNotBlank(newVaultPasswordFilePath, "newVaultPasswordFilePath cannot be blank");
-        checkArgument(!newVaultPasswordFilePath.equalsIgnoreCase(configuration.getVaultPasswordFilePath()),
+
+        return execute(VaultOperation.REKEY_FILE, snapshot -> {
+            checkNewVaultPasswordFilePath(snapshot, newVaultPasswordFilePath);
+            return rekeyFile(snapshot, encryptedFilePath, newVaultPasswordFilePath);
+        });
+    }
+
+    private static void checkNewVaultPasswordFilePath(VaultConfigurationSnapshot snapshot,
+                                                      String newVaultPasswordFilePath) {
+        checkArgument(!newVaultPasswordFilePath.equalsIgnoreCase(
+                        snapshot.getConfiguration().getVaultPasswordFilePath()),
                 "newVaultPasswordFilePath file must be different than configuration.vaultPasswordFilePath (case-insensitive)");
+    }
+
+    private Path rekeyFile(VaultConfigurationSnapshot snapshot,
+                           String encryptedFilePath,
+                           String newVaultPasswordFilePath) {
+        if (snapshot.isNativeEngine()) {
+            return snapshot.getNativeEngine().rekeyFile(encryptedFilePath, newVaultPasswordFilePath);
+        }
 
-        var osCommand = VaultRekeyCommand.from(configuration, encryptedFilePath, newVaultPasswordFilePath);
+        var osCommand = VaultRekeyCommand.from(configurationFor(snapshot, encryptedFilePath),
+                encryptedFilePath, newVaultPasswordFilePath);
         return executeVaultCommandWithoutOutput(osCommand, encryptedFilePath);
     }
 
+    /**
+     * Rekeys every vault encrypted file under {@code directory} using up to {@code parallelism} threads. Files are
+     * identified by their header alone, and files that are not vault encrypted are reported as
+     * {@link VaultRekeyResult.Status#NOT_VAULTED} and left untouched. A failure for one file does not stop the others.
+     * <p>
+     * With the {@link VaultEngineType#NATIVE native} engine, each file is decrypted and re-encrypted in memory and then
+     * replaced atomically, without launching any processes.
+     */
+    public VaultRekeyReport rekeyDirectory(Path directory, Path newVaultPasswordFilePath, int parallelism) {
+        checkArgumentNotNull(directory, "directory cannot be null");
+        checkArgument(Files.isDirectory(directory), "%s is not a directory", directory);
+        checkArgumentNotNull(newVaultPasswordFilePath, "newVaultPasswordFilePath cannot be null");
+
+        return execute(VaultOperation.REKEY_DIRECTORY, snapshot -> {
+            checkNewVaultPasswordFilePath(snapshot, newVaultPasswordFilePath.toString());
+
+            var files = Utils.listRegularFiles(directory);
+            var results = ParallelExecution.mapInParallel(files,
+                    file -> rekeyIfVaulted(snapshot, file, newVaultPasswordFilePath), parallelism);
+
+            var report = new VaultRekeyReport(List.copyOf(results));
+            LOG.info("Rekeyed files in {}: {}", directory, report.countsByStatus());
+            return report;
+        });
+    }
+
+    private VaultRekeyResult rekeyIfVaulted(VaultConfigurationSnapshot snapshot,
+                                            Path file,
+                                            Path newVaultPasswordFilePath) {
+        try {
+            if (VaultHeaderSniffer.sniff(file).isEmpty()) {
+                return VaultRekeyResult.of(file, VaultRekeyResult.Status.NOT_VAULTED);
+            }
+
+            rekeyFile(snapshot, file.toString(), newVaultPasswordFilePath.toString());
+            return VaultRekeyResult.of(file, VaultRekeyResult.Status.REKEYED);
+        } catch (VaultDecryptionException e) {
+            var status = e.getReason() == VaultDecryptionException.Reason.WRONG_PASSWORD ?
+                    VaultRekeyResult.Status.WRONG_PASSWORD : VaultRekeyResult.Status.CORRUPTED_DATA;
+            return VaultRekeyResult.of(file, status, e.getMessage());
+        } catch (RuntimeException e) {
+            LOG.warn("Error rekeying {}", file, e);
+            return VaultRekeyResult.of(file, VaultRekeyResult.Status.ERROR, e.getMessage());
+        }
+    }
+
     private Path executeVaultCommandWithoutOutput(OsCommand osCommand, String filePath) {
-        executeVaultCommand(osCommand);
+        executeVaultCommand(osCommand, () -> fileSize(filePath));
         return Path.of(filePath);
     }
 
@@ -181,39 +752,356 @@ public class VaultEncryptionHelper {
      * Wraps the ansible-vault encrypt_string command.
      */
     public String encryptString(String plainText, String variableName) {
-        var osCommand = VaultEncryptStringCommand.from(configuration, plainText, variableName);
-        return executeVaultCommandReturningStdout(osCommand);
+        return execute(VaultOperation.ENCRYPT_STRING, snapshot -> encryptString(snapshot, plainText, variableName));
+    }
+
+    private String encryptString(VaultConfigurationSnapshot snapshot, String plainText, String variableName) {
+        if (snapshot.isNativeEngine()) {
+            return encryptStringNatively(snapshot, null, plainText, variableName);
+        }
+
+        var osCommand = VaultEncryptStringCommand.from(configurationForLabel(snapshot, null), plainText, variableName);
+        return executeVaultCommandReturningStdout(osCommand, () -> Utf8.encodedLength(plainText));
     }
 
     /**
      * Wraps the ansible-vault encrypt_string command  using an optional vault ID label.
      */
     public String encryptString(String vaultIdLabel, String plainText, String variableName) {
-        var osCommand = VaultEncryptStringCommand.from(configuration, vaultIdLabel, plainText, variableName);
-        return executeVaultCommandReturningStdout(osCommand);
+        return execute(VaultOperation.ENCRYPT_STRING,
+                snapshot -> encryptString(snapshot, vaultIdLabel, plainText, variableName));
+    }
+
+    private String encryptString(VaultConfigurationSnapshot snapshot,
+                                 String vaultIdLabel,
+                                 String plainText,
+                                 String variableName) {
+        if (snapshot.isNativeEngine()) {
+            return encryptStringNatively(snapshot, vaultIdLabel, plainText, variableName);
+        }
+
+        var osCommand = VaultEncryptStringCommand.from(
+                configurationForLabel(snapshot, vaultIdLabel), vaultIdLabel, plainText, variableName);
+        return executeVaultCommandReturningStdout(osCommand, () -> Utf8.encodedLength(plainText));
+    }
+
+    private static String encryptStringNatively(VaultConfigurationSnapshot snapshot,
+                                                @Nullable String vaultIdLabel,
+                                                String plainText,
+                                                String variableName) {
+        checkArgumentNotBlank(plainText, "plainText cannot be blank");
+        checkArgumentNotBlank(variableName, "variableName cannot be blank");
+        return snapshot.getNativeEngine().encryptString(vaultIdLabel, plainText, variableName);
+    }
+
+    /**
+     * Returns {@code existingEncryptedString} unchanged if it is an encryption of {@code plainText}, for the same
+     * variable name and vault ID label, under the configured password. Otherwise encrypts {@code plainText} as
+     * {@link #encryptString(String, String, String)} does. Keeping the existing value avoids a new salt, and so a
+     * spurious diff, for values that have not changed.
+     *
+     * @param existingEncryptedString the current encrypt_string content, or null if there is none
+     */
+    public String encryptStringIfChanged(@Nullable String existingEncryptedString,
+                                         @Nullable String vaultIdLabel,
+                                         String plainText,
+                                         String variableName) {
+        checkArgumentNotBlank(plainText, "plainText cannot be blank");
+        checkArgumentNotBlank(variableName, "variableName cannot be blank");
+
+        return execute(VaultOperation.ENCRYPT_STRING_IF_CHANGED, snapshot -> {
+            if (isExistingEncryptionOf(snapshot, existingEncryptedString, vaultIdLabel, plainText, variableName)) {
+                LOG.debug("Value of {} is unchanged; not re-encrypting", variableName);
+                writesAvoided.increment();
+                return existingEncryptedString;
+            }
+
+            var encryptedString = isNull(vaultIdLabel) ?
+                    encryptString(snapshot, plainText, variableName) :
+                    encryptString(snapshot, vaultIdLabel, plainText, variableName);
+            writesPerformed.increment();
+            return encryptedString;
+        });
+    }
+
+    private static boolean isExistingEncryptionOf(VaultConfigurationSnapshot snapshot,
+                                                  @Nullable String existingEncryptedString,
+                                                  @Nullable String vaultIdLabel,
+                                                  String plainText,
+                                                  String variableName) {
+        if (isBlank(existingEncryptedString)) {
+            return false;
+        }
+
+        VaultEncryptedVariable existingVariable;
+        try {
+            existingVariable = new VaultEncryptedVariable(existingEncryptedString);
+        } catch (IllegalArgumentException e) {
+            LOG.debug("Existing value of {} is not valid encrypt_string content", variableName);
+            return false;
+        }
+
+        return variableName.equals(existingVariable.getVariableName()) &&
+                snapshot.getNativeEngine().matches(existingVariable.getEncryptedFileBytes(),
+                        plainText.getBytes(StandardCharsets.UTF_8), vaultIdLabel);
+    }
+
+    /**
+     * @return how many "encrypt if changed" calls wrote a new encryption, and how many were skipped as unchanged
+     */
+    public EncryptIfChangedStats getEncryptIfChangedStats() {
+        return new EncryptIfChangedStats(writesPerformed.sum(), writesAvoided.sum());
+    }
+
+    /**
+     * @return how many ansible-vault processes this helper has launched
+     */
+    public long getProcessesLaunched() {
+        return processesLaunched.sum();
     }
 
     /**
      * Decrypts an encrypted string variable formatted using encrypt_string with a --name option.
      */
     public String decryptString(String encryptedString) {
-        checkArgumentNotBlank(configuration.getTempDirectory(),
-                "configuration.tempDirectory is required for decryptString");
+        return execute(VaultOperation.DECRYPT_STRING, snapshot -> decryptString(snapshot, encryptedString));
+    }
 
+    private String decryptString(VaultConfigurationSnapshot snapshot, String encryptedString) {
+        var timer = VaultOperationTimer.current();
+        var parseStart = timer.start();
         var encryptedVariable = new VaultEncryptedVariable(encryptedString);
+        timer.record(VaultOperationPhase.PARSE, parseStart);
+        if (snapshot.isNativeEngine()) {
+            return snapshot.getNativeEngine().decryptString(encryptedVariable);
+        }
+
+        var configuration = snapshot.getConfiguration();
+        checkArgumentNotBlank(configuration.getTempDirectory(),
+                "configuration.tempDirectory is required for decryptString");
         var tempFilePath = encryptedVariable.generateRandomFilePath(configuration.getTempDirectory());
 
+        tempFilesOutstanding.incrementAndGet();
         try {
             createTempDirectoryIfNecessary(Path.of(configuration.getTempDirectory()));
             writeEncryptStringContentToTempFile(encryptedVariable, tempFilePath);
-            var osCommand = VaultDecryptCommand.toStdoutFrom(configuration, tempFilePath.toString());
-            return executeVaultCommandReturningStdout(osCommand);
+            var commandConfiguration = configurationFor(
+                    snapshot, encryptedVariable.getEncryptedFileBytes(), tempFilePath);
+            var osCommand = VaultDecryptCommand.toStdoutFrom(commandConfiguration, tempFilePath.toString());
+            return executeVaultCommandReturningStdout(osCommand,
+                    () -> encryptedVariable.getEncryptedFileBytes().length);
         } catch (Exception e) {
             LOG.error("Error decrypting", e);
             throw e;
         } finally {
             deleteFileQuietly(tempFilePath);
+            tempFilesOutstanding.decrementAndGet();
+        }
+    }
+
+    /**
+     * Decrypts every {@code !vault} value in a YAML file, as found by {@link VaultYamlScanner}.
+     *
+     * @return the plain text values keyed by their key path (e.g. {@code db.users[0].password}), in file order
+     */
+    public Map<String, String> decryptInlineVariables(Path yamlFilePath) {
+        checkArgumentNotNull(yamlFilePath, "yamlFilePath cannot be null");
+
+        return execute(VaultOperation.DECRYPT_INLINE_VARIABLES, snapshot -> {
+            var decrypted = new LinkedHashMap<String, String>();
+            VaultYamlScanner.scan(yamlFilePath, variable ->
+                    decrypted.put(variable.getKeyPath(), decryptString(snapshot, variable.toEncryptStringContent())));
+
+            LOG.debug("Decrypted {} vaulted values in {}", decrypted.size(), yamlFilePath);
+            return decrypted;
+        });
+    }
+
+    /**
+     * Decrypts many secrets at once using up to {@code parallelism} threads, e.g. all the vaulted configuration values
+     * of an application at start-up, so that it takes about as long as the slowest secret rather than the sum of
+     * all of them. Each value of {@code encryptedStrings} is encrypt_string output (as for
+     * {@link #decryptString(String)}), and each value of {@code encryptedFiles} a vault encrypted file (as for
+     * {@link #viewFile(Path)}), keyed by the name to give the secret. Names must be unique across both maps. A
+     * failure for one secret does not stop the others.
+     *
+     * @param listener told the result of each secret as it completes
+     * @return the decrypted secrets, and the result of each secret in input order (strings first)
+     */
+    public VaultPreloadReport preloadSecrets(Map<String, String> encryptedStrings,
+                                             Map<String, Path> encryptedFiles,
+                                             int parallelism,
+                                             VaultPreloadListener listener) {
+        checkArgumentNotNull(encryptedStrings, "encryptedStrings cannot be null");
+        checkArgumentNotNull(encryptedFiles, "encryptedFiles cannot be null");
+        checkArgumentNotNull(listener, "listener cannot be null");
+        var duplicateNames = Sets.intersection(encryptedStrings.keySet(), encryptedFiles.keySet());
+        checkArgument(duplicateNames.isEmpty(), "secret names must be unique, but found: %s", duplicateNames);
+
+        return execute(VaultOperation.PRELOAD_SECRETS, snapshot -> {
+            var startNanos = System.nanoTime();
+            var decryptions = new LinkedHashMap<String, Supplier<String>>();
+            encryptedStrings.forEach((name, encryptedString) ->
+                    decryptions.put(name, () -> decryptString(snapshot, encryptedString)));
+            encryptedFiles.forEach((name, encryptedFilePath) ->
+                    decryptions.put(name, () -> viewFile(snapshot, encryptedFilePath.toString())));
+
+            var completedCount = new AtomicInteger();
+            var preloaded = ParallelExecution.mapInParallel(List.copyOf(decryptions.entrySet()),
+                    decryption -> preloadSecret(decryption.getKey(), decryption.getValue(),
+                            completedCount, decryptions.size(), listener),
+                    parallelism);
+
+            var secrets = new LinkedHashMap<String, String>();
+            preloaded.stream()
+                    .filter(secret -> secret.getResult().isLoaded())
+                    .forEach(secret -> secrets.put(secret.getResult().getName(), secret.getPlainText()));
+            var report = new VaultPreloadReport(Collections.unmodifiableMap(secrets),
+                    preloaded.stream().map(PreloadedSecret::getResult).collect(toUnmodifiableList()),
+                    Duration.ofNanos(System.nanoTime() - startNanos));
+            LOG.info("Preloaded {} of {} secrets in {} ms: {}", secrets.size(), decryptions.size(),
+                    report.getTotalDuration().toMillis(), report.countsByStatus());
+            return report;
+        });
+    }
+
+    /**
+     * Same as {@link #preloadSecrets(Map, Map, int, VaultPreloadListener)} without a listener.
+     */
+    public VaultPreloadReport preloadSecrets(Map<String, String> encryptedStrings,
+                                             Map<String, Path> encryptedFiles,
+                                             int parallelism) {
+        return preloadSecrets(encryptedStrings, encryptedFiles, parallelism, (result, completed, total) -> { });
+    }
+
+    private static PreloadedSecret preloadSecret(String name,
+                                                 Supplier<String> decryption,
+                                                 AtomicInteger completedCount,
+                                                 int totalCount,
+                                                 VaultPreloadListener listener) {
+        var preloaded = decryptForPreload(name, decryption);
+        try {
+            listener.secretPreloaded(preloaded.getResult(), completedCount.incrementAndGet(), totalCount);
+        } catch (RuntimeException e) {
+            LOG.warn("Vault preload listener {} failed", listener, e);
+        }
+        return preloaded;
+    }
+
+    /**
+     * Any unexpected failure of one secret (e.g. a bug, or a failing password source) is reported as
+     * {@link VaultPreloadResult.Status#ERROR} rather than propagating and failing the whole preload.
+     */
+    @VisibleForTesting
+    static PreloadedSecret decryptForPreload(String name, Supplier<String> decryption) {
+        var startNanos = System.nanoTime();
+        try {
+            var plainText = decryption.get();
+            var duration = Duration.ofNanos(System.nanoTime() - startNanos);
+            return new PreloadedSecret(VaultPreloadResult.of(name, VaultPreloadResult.Status.LOADED, duration),
+                    plainText);
+        } catch (VaultDecryptionException e) {
+            var status = e.getReason() == VaultDecryptionException.Reason.WRONG_PASSWORD ?
+                    VaultPreloadResult.Status.WRONG_PASSWORD : VaultPreloadResult.Status.CORRUPTED_DATA;
+            var duration = Duration.ofNanos(System.nanoTime() - startNanos);
+            return new PreloadedSecret(VaultPreloadResult.of(name, status, e.getMessage(), duration), null);
+        } catch (RuntimeException e) {
+            LOG.warn("Error preloading secret {}", name, e);
+            var duration = Duration.ofNanos(System.nanoTime() - startNanos);
+            return new PreloadedSecret(
+                    VaultPreloadResult.of(name, VaultPreloadResult.Status.ERROR, e.getMessage(), duration), null);
+        }
+    }
+
+    /**
+     * Releases resources held by the native engine, i.e. stops its key pool and zeroes any pooled keys, and deletes
+     * any temporary password files written for ansible-vault. This is only needed when a
+     * {@link VaultConfiguration#getKeyPoolSize() keyPoolSize}, {@link VaultConfiguration#getVaultPasswordSource()
+     * vaultPasswordSource} or {@link VaultConfiguration#getPasswordCacheTtl() passwordCacheTtl} is configured.
+     * Operations in flight finish first; new operations fail with an {@link IllegalStateException}.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        unregisterMBean();
+        currentSnapshot.get().close();
+    }
+
+    /**
+     * Returns the configuration to launch ansible-vault with for an encrypted file, i.e. one whose default password
+     * file holds the password for the file's vault ID label. When the file has no label (or its label has no
+     * password file of its own) and several passwords are configured, the matching one is found by checking the HMAC
+     * against all of them at once in-process, so only a single ansible-vault process is launched.
+     * <p>
+     * If the file cannot be read or checked, the default password is used and ansible-vault reports the problem.
+     */
+    private static VaultConfiguration configurationFor(VaultConfigurationSnapshot snapshot, String encryptedFilePath) {
+        if (!snapshot.getConfiguration().hasVaultIdPasswords()) {
+            return configurationForLabel(snapshot, null);
+        }
+
+        var path = Path.of(encryptedFilePath);
+        var timer = VaultOperationTimer.current();
+        var readStart = timer.start();
+        try {
+            var encryptedContent = Files.readAllBytes(path);
+            timer.record(VaultOperationPhase.FILE_IO, readStart);
+            return configurationFor(snapshot, encryptedContent, path);
+        } catch (IOException e) {
+            LOG.debug("Could not read {} to choose its vault password", encryptedFilePath, e);
+            return configurationForLabel(snapshot, null);
+        }
+    }
+
+    private static VaultConfiguration configurationFor(VaultConfigurationSnapshot snapshot,
+                                                       byte[] encryptedContent,
+                                                       Path source) {
+        if (!snapshot.getConfiguration().hasVaultIdPasswords()) {
+            return configurationForLabel(snapshot, null);
+        }
+
+        var timer = VaultOperationTimer.current();
+        var lookupStart = timer.start();
+        try {
+            var passwordId = snapshot.getNativeEngine().findPasswordId(VaultPayload.parse(encryptedContent));
+            timer.record(VaultOperationPhase.PASSWORD_LOOKUP, lookupStart);
+            return configurationForPassword(snapshot, passwordId);
+        } catch (VaultEncryptionException e) {
+            LOG.debug("Could not choose vault password for {}: {}", source, e.getMessage());
+            return configurationForLabel(snapshot, null);
+        }
+    }
+
+    private static VaultConfiguration configurationForLabel(VaultConfigurationSnapshot snapshot,
+                                                            @Nullable String vaultIdLabel) {
+        return configurationForPassword(snapshot, snapshot.getNativeEngine().getPasswords().idFor(vaultIdLabel));
+    }
+
+    /**
+     * Returns the configuration to launch ansible-vault with for the given password, i.e. one whose only password
+     * file is a file ansible-vault can read that password from. This is the configuration itself in the common case
+     * of a single password file.
+     */
+    private static VaultConfiguration configurationForPassword(VaultConfigurationSnapshot snapshot,
+                                                               String passwordId) {
+        var configuration = snapshot.getConfiguration();
+        var timer = VaultOperationTimer.current();
+        var lookupStart = timer.start();
+        var passwordFile = snapshot.getNativeEngine().getPasswords().processPasswordFile(passwordId);
+        timer.record(VaultOperationPhase.PASSWORD_LOOKUP, lookupStart);
+        if (passwordFile.equals(configuration.getVaultPasswordFilePath()) &&
+                !configuration.hasVaultIdPasswords()) {
+            return configuration;
         }
+
+        var commandConfiguration = configuration.copyOf();
+        commandConfiguration.setVaultPasswordFilePath(passwordFile);
+        commandConfiguration.setVaultIdPasswordFilePaths(new LinkedHashMap<>());
+        commandConfiguration.setVaultIdPasswordSources(new LinkedHashMap<>());
+        return commandConfiguration;
     }
 
     private static boolean isExistingPath(String filePath) {
@@ -221,8 +1109,11 @@ public class VaultEncryptionHelper {
     }
 
     private static void createTempDirectoryIfNecessary(Path tempDirectoryPath) {
+        var timer = VaultOperationTimer.current();
+        var start = timer.start();
         try {
             Files.createDirectories(tempDirectoryPath);
+            timer.record(VaultOperationPhase.TEMP_DIRECTORY, start);
         } catch (IOException e) {
             var message = format("Error creating temporary directory: {}", tempDirectoryPath);
             LOG.error(message);
@@ -233,11 +1124,14 @@ public class VaultEncryptionHelper {
     private void writeEncryptStringContentToTempFile(VaultEncryptedVariable encryptedVariable,
                                                      Path tempFilePath) {
 
+        var timer = VaultOperationTimer.current();
+        var start = timer.start();
         try {
             LOG.trace("Payload to write ----{}{}{}----- End payload ----",
                     LINE_SEPARATOR, encryptedVariable.getEncryptedFileContent(), LINE_SEPARATOR);
 
             Files.write(tempFilePath, encryptedVariable.getEncryptedFileBytes());
+            timer.record(VaultOperationPhase.FILE_IO, start);
             LOG.debug("Wrote temporary file containing encrypt_string content: {}", tempFilePath);
         } catch (IOException e) {
             LOG.error("Error writing temp file: " + tempFilePath, e);
@@ -245,38 +1139,104 @@ public class VaultEncryptionHelper {
         }
     }
 
+    private static byte[] readAllBytes(Path path) {
+        var timer = VaultOperationTimer.current();
+        var start = timer.start();
+        try {
+            var content = Files.readAllBytes(path);
+            timer.record(VaultOperationPhase.FILE_IO, start);
+            return content;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading " + path, e);
+        }
+    }
+
     private void deleteFileQuietly(Path path) {
+        var timer = VaultOperationTimer.current();
+        var start = timer.start();
         try {
             LOG.debug("Delete path: {}", path);
             Files.delete(path);
         } catch (IOException e) {
             LOG.error("Could not delete path: {}", path, e);
+        } finally {
+            timer.record(VaultOperationPhase.CLEANUP, start);
         }
     }
 
-    private String executeVaultCommandReturningStdout(OsCommand osCommand) {
-        var vaultProcess = executeVaultCommand(osCommand);
-        return readProcessOutput(vaultProcess);
+    private String executeVaultCommandReturningStdout(OsCommand osCommand, LongSupplier payloadSize) {
+        var vaultProcess = executeVaultCommand(osCommand, payloadSize);
+
+        var timer = VaultOperationTimer.current();
+        var start = timer.start();
+        var output = readProcessOutput(vaultProcess);
+        timer.record(VaultOperationPhase.OUTPUT_READ, start);
+        return output;
     }
 
-    private Process executeVaultCommand(OsCommand osCommand) {
-        LOG.debug("Ansible command: {}", lazy(osCommand::getCommandParts));
+    /**
+     * Launches ansible-vault and waits for it to exit successfully, recording a {@link VaultFlightRecorderEvent}.
+     *
+     * @param payloadSize the size of the command's input, only called if the event is enabled
+     */
+    private Process executeVaultCommand(OsCommand osCommand, LongSupplier payloadSize) {
+        var commandParts = osCommand.getCommandParts();
+        LOG.debug("Ansible command: {}", commandParts);
+
+        var event = VaultFlightRecorderEvent.begin(VaultEngineType.ANSIBLE_VAULT, commandParts.get(1));
+        if (event.isEnabled()) {
+            event.payloadSize = payloadSize.getAsLong();
+        }
+
+        try {
+            var timer = VaultOperationTimer.current();
+            var launchStart = timer.start();
+            var vaultProcess = processHelper.launch(commandParts);
+            processesLaunched.increment();
+            processesInFlight.incrementAndGet();
+            timer.record(VaultOperationPhase.PROCESS_LAUNCH, launchStart);
+
+            var waitStart = timer.start();
+            Optional<Integer> exitCodeIfExited;
+            try {
+                exitCodeIfExited = processHelper.waitForExit(vaultProcess, DEFAULT_TIMEOUT, DEFAULT_TIMEOUT_UNIT);
+            } finally {
+                processesInFlight.decrementAndGet();
+            }
+            timer.record(VaultOperationPhase.PROCESS_WAIT, waitStart);
+            event.timedOut = exitCodeIfExited.isEmpty();
+            var exitCode = exitCodeIfExited
+                    .orElseThrow(() -> new VaultTimeoutException("ansible-vault did not exit before timeout"));
+            event.exitCode = exitCode;
+            LOG.debug("ansible-vault exit code: {}", exitCode);
 
-        var vaultProcess = processHelper.launch(osCommand.getCommandParts());
-        var exitCode = processHelper.waitForExit(vaultProcess, DEFAULT_TIMEOUT, DEFAULT_TIMEOUT_UNIT)
-                .orElseThrow(() -> new VaultEncryptionException("ansible-vault did not exit before timeout"));
-        LOG.debug("ansible-vault exit code: {}", exitCode);
+            if (exitCode != 0) {
+                var errorReadStart = timer.start();
+                var rawErrorOutput = readProcessErrorOutput(vaultProcess);
+                timer.record(VaultOperationPhase.OUTPUT_READ, errorReadStart);
+                var errorOutput = isBlank(rawErrorOutput) ? "[no stderr]" : rawErrorOutput.trim();
+                LOG.debug("Error output: [{}]", errorOutput);
 
-        if (exitCode != 0) {
-            var rawErrorOutput = readProcessErrorOutput(vaultProcess);
-            var errorOutput = isBlank(rawErrorOutput) ? "[no stderr]" : rawErrorOutput.trim();
-            LOG.debug("Error output: [{}]", errorOutput);
+                var message = f("ansible-vault returned non-zero exit code {}. Stderr: {}", exitCode, errorOutput);
+                throw new VaultEncryptionException(message);
+            }
 
-            var message = f("ansible-vault returned non-zero exit code {}. Stderr: {}", exitCode, errorOutput);
-            throw new VaultEncryptionException(message);
+            event.succeeded = true;
+            return vaultProcess;
+        } finally {
+            event.commit();
         }
+    }
 
-        return vaultProcess;
+    /**
+     * @return the size of the file, or zero if it cannot be read, for {@link VaultFlightRecorderEvent}s
+     */
+    private static long fileSize(String filePath) {
+        try {
+            return Files.size(Path.of(filePath));
+        } catch (IOException | InvalidPathException e) {
+            return 0;
+        }
     }
 
 }
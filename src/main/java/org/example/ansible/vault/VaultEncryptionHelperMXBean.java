@@ -0,0 +1,92 @@
+package org.example.ansible.vault;
+
+import java.util.Map;
+
+/**
+ * The live state of a {@link VaultEncryptionHelper}, for jconsole or any other JMX client, once the helper is
+ * {@link VaultEncryptionHelper#registerMBean(String) registered}.
+ * <p>
+ * Hit ratios are between 0 and 1, and are 1 when there have been no lookups (as Guava reports them).
+ */
+public interface VaultEncryptionHelperMXBean {
+
+    /**
+     * @return the configured {@link VaultEngineType}
+     */
+    String getEngine();
+
+    /**
+     * @return true if the current configuration has been {@link VaultEncryptionHelper#warmUp() warmed up}
+     */
+    boolean isReady();
+
+    /**
+     * @return the number of operations currently running, including any waiting on ansible-vault
+     */
+    int getOperationsInFlight();
+
+    /**
+     * @return the number of ansible-vault processes launched and not yet exited
+     */
+    int getProcessesInFlight();
+
+    long getProcessesLaunched();
+
+    long getOperationCount();
+
+    /**
+     * @return the number of failed operations, not counting timeouts
+     */
+    long getFailureCount();
+
+    long getTimeoutCount();
+
+    /**
+     * @return the 99th percentile latency in milliseconds of each operation that has succeeded at least once
+     */
+    Map<String, Double> getP99LatencyMillis();
+
+    /**
+     * @return the number of temporary files for decryptString and encryptFileIfChanged currently in the temporary
+     * directory
+     */
+    int getTempFilesOutstanding();
+
+    /**
+     * @return the number of temporary password files for ansible-vault currently in the temporary directory
+     */
+    int getProcessPasswordFileCount();
+
+    long getNegativeCacheSize();
+
+    /**
+     * @return the fraction of decryptions that failed immediately because the same value recently failed
+     */
+    double getNegativeCacheHitRatio();
+
+    /**
+     * @return the number of encrypted values whose password (among several configured ones) is remembered
+     */
+    long getRememberedPasswordCount();
+
+    double getRememberedPasswordHitRatio();
+
+    int getKeyPoolCapacity();
+
+    int getKeyPoolAvailable();
+
+    /**
+     * @return the fraction of native encryptions that found pooled keys ready
+     */
+    double getKeyPoolHitRatio();
+
+    /**
+     * @see VaultEncryptionHelper#clearCaches()
+     */
+    void clearCaches();
+
+    /**
+     * @see VaultEncryptionHelper#resetStats()
+     */
+    void resetStats();
+}
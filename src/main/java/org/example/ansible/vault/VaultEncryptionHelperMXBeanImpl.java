@@ -0,0 +1,133 @@
+package org.example.ansible.vault;
+
+import static java.util.Objects.isNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads the gauges of a {@link VaultEncryptionHelper} on demand, so registering it adds no cost to operations.
+ */
+class VaultEncryptionHelperMXBeanImpl implements VaultEncryptionHelperMXBean {
+
+    private final VaultEncryptionHelper helper;
+
+    VaultEncryptionHelperMXBeanImpl(VaultEncryptionHelper helper) {
+        this.helper = helper;
+    }
+
+    @Override
+    public String getEngine() {
+        return helper.getConfiguration().getEngine().name();
+    }
+
+    @Override
+    public boolean isReady() {
+        return helper.isReady();
+    }
+
+    @Override
+    public int getOperationsInFlight() {
+        return helper.getOperationsInFlight();
+    }
+
+    @Override
+    public int getProcessesInFlight() {
+        return helper.getProcessesInFlight();
+    }
+
+    @Override
+    public long getProcessesLaunched() {
+        return helper.getProcessesLaunched();
+    }
+
+    @Override
+    public long getOperationCount() {
+        return helper.getOperationStats().values().stream().mapToLong(VaultOperationStats::getTotalCount).sum();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return helper.getOperationStats().values().stream().mapToLong(VaultOperationStats::getFailureCount).sum();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return helper.getOperationStats().values().stream().mapToLong(VaultOperationStats::getTimeoutCount).sum();
+    }
+
+    @Override
+    public Map<String, Double> getP99LatencyMillis() {
+        var latencies = new TreeMap<String, Double>();
+        helper.getOperationStats().forEach((operation, stats) -> {
+            var success = stats.getLatency(VaultOperationOutcome.SUCCESS);
+            if (success.getCount() > 0) {
+                latencies.put(operation.name(), success.getP99().toNanos() / 1_000_000.0);
+            }
+        });
+        return latencies;
+    }
+
+    @Override
+    public int getTempFilesOutstanding() {
+        return helper.getTempFilesOutstanding();
+    }
+
+    @Override
+    public int getProcessPasswordFileCount() {
+        return helper.currentNativeEngine().getPasswords().processPasswordFileCount();
+    }
+
+    @Override
+    public long getNegativeCacheSize() {
+        return helper.currentNativeEngine().getNegativeCache().size();
+    }
+
+    @Override
+    public double getNegativeCacheHitRatio() {
+        return helper.currentNativeEngine().getNegativeCache().stats().hitRate();
+    }
+
+    @Override
+    public long getRememberedPasswordCount() {
+        return helper.currentNativeEngine().rememberedPasswordCount();
+    }
+
+    @Override
+    public double getRememberedPasswordHitRatio() {
+        return helper.currentNativeEngine().rememberedPasswordStats().hitRate();
+    }
+
+    @Override
+    public int getKeyPoolCapacity() {
+        var keyPool = helper.currentNativeEngine().getKeyPool();
+        return isNull(keyPool) ? 0 : keyPool.capacity();
+    }
+
+    @Override
+    public int getKeyPoolAvailable() {
+        var keyPool = helper.currentNativeEngine().getKeyPool();
+        return isNull(keyPool) ? 0 : keyPool.available();
+    }
+
+    @Override
+    public double getKeyPoolHitRatio() {
+        var keyPool = helper.currentNativeEngine().getKeyPool();
+        if (isNull(keyPool)) {
+            return 1.0;
+        }
+
+        var takes = keyPool.hitCount() + keyPool.missCount();
+        return takes == 0 ? 1.0 : (double) keyPool.hitCount() / takes;
+    }
+
+    @Override
+    public void clearCaches() {
+        helper.clearCaches();
+    }
+
+    @Override
+    public void resetStats() {
+        helper.resetStats();
+    }
+}
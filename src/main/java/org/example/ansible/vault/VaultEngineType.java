@@ -0,0 +1,17 @@
+package org.example.ansible.vault;
+
+/**
+ * Selects how {@link VaultEncryptionHelper} performs vault operations.
+ */
+public enum VaultEngineType {
+
+    /**
+     * Launch the ansible-vault executable for each operation.
+     */
+    ANSIBLE_VAULT,
+
+    /**
+     * Encrypt and decrypt in-process using the same AES256 format as ansible-vault, without launching a process.
+     */
+    NATIVE
+}
@@ -0,0 +1,59 @@
+package org.example.ansible.vault;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for one ansible-vault process, or one encryption or decryption by the
+ * {@link NativeVaultEngine native engine} (including key derivation), so vault latency can be correlated with GC,
+ * I/O and lock contention in the same recording. Enable it with e.g. {@code -XX:StartFlightRecording}, or in JDK
+ * Mission Control; when it is not enabled, creating and committing it costs next to nothing.
+ * <p>
+ * Events never contain plain text, passwords or file names, only sizes.
+ */
+@Name("org.example.ansible.vault.Operation")
+@Label("Vault Operation")
+@Category("Ansible Vault")
+@Description("An ansible-vault process, or a native vault encryption or decryption")
+@StackTrace(false)
+class VaultFlightRecorderEvent extends Event {
+
+    static final int NO_EXIT_CODE = -1;
+
+    @Label("Operation")
+    @Description("The ansible-vault action, e.g. view or encrypt_string, or encrypt or decrypt for the native engine")
+    String operation;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Payload Size")
+    @Description("The size of the input: the file, the plain text of encrypt_string, or the cipher text")
+    @DataAmount
+    long payloadSize;
+
+    @Label("Exit Code")
+    @Description("The ansible-vault exit code, or -1 for the native engine or if the process did not exit")
+    int exitCode = NO_EXIT_CODE;
+
+    @Label("Timed Out")
+    boolean timedOut;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    static VaultFlightRecorderEvent begin(VaultEngineType engine, String operation) {
+        var event = new VaultFlightRecorderEvent();
+        if (event.isEnabled()) {
+            event.engine = engine.name();
+            event.operation = operation;
+        }
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.ansible.vault;
+
+import static java.util.Objects.isNull;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+
+/**
+ * The {@code $ANSIBLE_VAULT;<format-version>;<cipher>[;<vault-id-label>]} line that starts all vault encrypted
+ * content. These are the single set of header rules used when parsing encrypt_string variables, encrypted files,
+ * and when sniffing files to see whether they are vault encrypted.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class VaultHeader {
+
+    public static final String PREFIX = "$ANSIBLE_VAULT";
+
+    String formatVersion;
+    String cipher;
+    @Getter(AccessLevel.NONE) @Nullable String vaultIdLabel;
+
+    /**
+     * Parses a header line, which must not have leading whitespace.
+     *
+     * @return the header, or an empty Optional if the line is not a valid {@code $ANSIBLE_VAULT} declaration
+     */
+    static Optional<VaultHeader> parse(String line) {
+        if (!line.contains(";")) {
+            return Optional.empty();
+        }
+
+        var parts = line.split(";");
+        if (!hasValidLength(parts) || !PREFIX.equals(parts[0]) || !isValidFormatVersion(parts[1]) || isBlank(parts[2])) {
+            return Optional.empty();
+        }
+
+        if (parts.length == 4) {
+            return isBlank(parts[3]) ? Optional.empty() : Optional.of(new VaultHeader(parts[1], parts[2], parts[3]));
+        }
+
+        return Optional.of(new VaultHeader(parts[1], parts[2], null));
+    }
+
+    private static boolean hasValidLength(String[] parts) {
+        return parts.length == 3 || parts.length == 4;
+    }
+
+    private static boolean isValidFormatVersion(String value) {
+        return "1.1".equals(value) || "1.2".equals(value);
+    }
+
+    public Optional<String> getVaultIdLabel() {
+        return Optional.ofNullable(vaultIdLabel);
+    }
+
+    public String toHeaderLine() {
+        var header = PREFIX + ";" + formatVersion + ";" + cipher;
+        return isNull(vaultIdLabel) ? header : header + ";" + vaultIdLabel;
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.ansible.vault;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.example.ansible.vault.Utils.listRegularFiles;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Classifies files as vault encrypted or not by reading only the header line, so that large trees can be scanned
+ * without reading whole files or launching ansible-vault.
+ * <p>
+ * At most {@link #MAX_HEADER_BYTES} bytes are read from each file. A header longer than that (which would need an
+ * absurdly long vault ID label) is treated as not vaulted.
+ */
+@Slf4j
+@UtilityClass
+public class VaultHeaderSniffer {
+
+    static final int MAX_HEADER_BYTES = 256;
+
+    /**
+     * @return the parsed header if the file is vault encrypted, otherwise an empty Optional
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public static Optional<VaultHeader> sniff(Path file) {
+        checkArgumentNotNull(file, "file cannot be null");
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var buffer = ByteBuffer.allocate(MAX_HEADER_BYTES);
+            int bytesRead;
+            do {
+                bytesRead = channel.read(buffer);
+            } while (bytesRead >= 0 && buffer.hasRemaining());
+
+            return parseFirstLine(buffer.array(), buffer.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading header of " + file, e);
+        }
+    }
+
+    /**
+     * Sniffs every regular file under {@code directory} using up to {@code parallelism} threads.
+     * Files that cannot be read are logged and left out of the result.
+     *
+     * @return the vault encrypted files and their headers, sorted by path
+     */
+    public static Map<Path, VaultHeader> sniffDirectory(Path directory, int parallelism) {
+        checkArgumentNotNull(directory, "directory cannot be null");
+        checkArgument(Files.isDirectory(directory), "%s is not a directory", directory);
+
+        var results = ParallelExecution.mapInParallel(listRegularFiles(directory), VaultHeaderSniffer::sniffQuietly, parallelism);
+
+        var vaultedFiles = new LinkedHashMap<Path, VaultHeader>();
+        results.stream()
+                .flatMap(Optional::stream)
+                .forEach(entry -> vaultedFiles.put(entry.getKey(), entry.getValue()));
+        return vaultedFiles;
+    }
+
+    private static Optional<SimpleImmutableEntry<Path, VaultHeader>> sniffQuietly(Path file) {
+        try {
+            return sniff(file).map(header -> new SimpleImmutableEntry<>(file, header));
+        } catch (UncheckedIOException e) {
+            LOG.warn("Skipping file that could not be read: {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<VaultHeader> parseFirstLine(byte[] bytes, int length) {
+        if (!VaultPayload.hasHeaderPrefix(bytes)) {
+            return Optional.empty();
+        }
+
+        var lineEnd = indexOfLineEnd(bytes, length);
+        if (lineEnd < 0) {
+            return Optional.empty();
+        }
+
+        return VaultHeader.parse(new String(bytes, 0, lineEnd, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the index just past the last character of the first line (excluding any CR), or -1 if the line does
+     * not end within {@code length} bytes and the file is longer than that
+     */
+    private static int indexOfLineEnd(byte[] bytes, int length) {
+        for (var i = 0; i < length; i++) {
+            if (bytes[i] == '\n') {
+                return i > 0 && bytes[i - 1] == '\r' ? i - 1 : i;
+            }
+        }
+        return length < bytes.length ? length : -1;
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.ansible.vault;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Table-driven hex codec for ansible-vault payloads.
+ * <p>
+ * Vault payloads are hex-encoded twice (the outer envelope, then the salt, HMAC and cipher text inside it),
+ * so both directions avoid {@link Integer#parseInt(String, int)}, {@link String#format(String, Object...)}
+ * and per-byte allocation. Encoding always produces lowercase output, which is what ansible-vault writes.
+ *
+ * @implNote A {@code jdk.incubator.vector} variant is not included since this project targets Java 11, where
+ * the Vector API is not available. The lookup tables keep the scalar loops down to a load and a shift per digit.
+ */
+@UtilityClass
+class VaultHex {
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Maps each unsigned byte value to its two lowercase hex digits, packed as (high << 8 | low).
+     */
+    private static final short[] ENCODE_TABLE = new short[256];
+
+    /**
+     * Maps each ASCII code to its nibble value, or -1 if it is not a hex digit.
+     */
+    private static final byte[] DECODE_TABLE = new byte[128];
+
+    static {
+        for (var i = 0; i < 256; i++) {
+            ENCODE_TABLE[i] = (short) ((HEX_DIGITS[i >>> 4] << 8) | HEX_DIGITS[i & 0x0F]);
+        }
+
+        Arrays.fill(DECODE_TABLE, (byte) -1);
+        for (var i = 0; i < 10; i++) {
+            DECODE_TABLE['0' + i] = (byte) i;
+        }
+        for (var i = 0; i < 6; i++) {
+            DECODE_TABLE['a' + i] = (byte) (10 + i);
+            DECODE_TABLE['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    static byte[] encode(byte[] input) {
+        var output = new byte[input.length * 2];
+        encode(input, 0, input.length, output, 0);
+        return output;
+    }
+
+    static String encodeToString(byte[] input) {
+        return new String(encode(input), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Encodes {@code length} bytes of {@code input} starting at {@code offset} into {@code output} starting at
+     * {@code outputOffset}, and returns the offset in {@code output} just past the last written digit.
+     */
+    static int encode(byte[] input, int offset, int length, byte[] output, int outputOffset) {
+        var out = outputOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            var digits = ENCODE_TABLE[input[i] & 0xFF];
+            output[out++] = (byte) (digits >>> 8);
+            output[out++] = (byte) digits;
+        }
+        return out;
+    }
+
+    static byte[] decode(CharSequence hex) {
+        var length = hex.length();
+        checkArgument(length % 2 == 0, "hex input must have an even number of digits");
+
+        var output = new byte[length / 2];
+        for (int i = 0, out = 0; i < length; i += 2) {
+            output[out++] = (byte) ((nibble(hex.charAt(i)) << 4) | nibble(hex.charAt(i + 1)));
+        }
+        return output;
+    }
+
+    static byte[] decode(byte[] hex) {
+        return decode(hex, 0, hex.length);
+    }
+
+    /**
+     * Decodes the hex digits in {@code hex} from {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    static byte[] decode(byte[] hex, int from, int to) {
+        var length = to - from;
+        checkArgument(length % 2 == 0, "hex input must have an even number of digits");
+
+        var output = new byte[length / 2];
+        for (int i = from, out = 0; i < to; i += 2) {
+            output[out++] = (byte) ((nibble(hex[i]) << 4) | nibble(hex[i + 1]));
+        }
+        return output;
+    }
+
+    /**
+     * Decodes hex digits that may be split across lines, e.g. the 80-column body of a vault file. Carriage
+     * returns, line feeds and spaces are skipped; anything else that is not a hex digit is rejected.
+     */
+    static byte[] decodeIgnoringWhitespace(byte[] hex, int from, int to) {
+        var output = new byte[(to - from) / 2];
+        var out = 0;
+        var high = -1;
+        for (var i = from; i < to; i++) {
+            var value = hex[i];
+            if (value == '\n' || value == '\r' || value == ' ') {
+                continue;
+            }
+
+            var digit = nibble(value);
+            if (high < 0) {
+                high = digit;
+            } else {
+                output[out++] = (byte) ((high << 4) | digit);
+                high = -1;
+            }
+        }
+        checkArgument(high < 0, "hex input must have an even number of digits");
+
+        return out == output.length ? output : Arrays.copyOf(output, out);
+    }
+
+    private static int nibble(int value) {
+        var digit = (value & ~0x7F) == 0 ? DECODE_TABLE[value] : -1;
+        if (digit < 0) {
+            throw new IllegalArgumentException("invalid hex digit: 0x" + Integer.toHexString(value & 0xFF));
+        }
+        return digit;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.ansible.vault;
+
+import static java.util.stream.Collectors.joining;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A {@code !vault} tagged scalar found in a YAML file by {@link VaultYamlScanner}.
+ * <p>
+ * Offsets are byte offsets into the file: {@code startOffset} is the start of the line containing the key, and
+ * {@code endOffset} is just past the line terminator of the last encrypted line, so that
+ * {@code [startOffset, endOffset)} covers the whole entry.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class VaultInlineVariable {
+
+    private static final String ENCRYPT_STRING_INDENT = "          ";
+
+    /**
+     * The variable name, i.e. the last key in {@link #keyPath}.
+     */
+    String name;
+
+    /**
+     * Keys from the document root to this variable, joined with dots; sequence items appear as {@code [index]},
+     * e.g. {@code users[1].password}.
+     */
+    String keyPath;
+
+    /**
+     * The column of the key.
+     */
+    int keyIndentation;
+
+    /**
+     * The column at which the encrypted lines start.
+     */
+    int contentIndentation;
+
+    /**
+     * The 1-based line number of the key.
+     */
+    int lineNumber;
+
+    long startOffset;
+    long endOffset;
+
+    VaultHeader header;
+
+    /**
+     * The hex lines after the header, without indentation.
+     */
+    List<String> encryptedContentLines;
+
+    /**
+     * @return the equivalent ansible-vault encrypted file content, i.e. the header followed by the hex lines
+     */
+    public String getEncryptedFileContent() {
+        return header.toHeaderLine() + "\n" + String.join("\n", encryptedContentLines) + "\n";
+    }
+
+    byte[] getEncryptedFileBytes() {
+        return getEncryptedFileContent().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return this variable re-indented in the form produced by ansible-vault encrypt_string, which can be passed
+     * directly to {@link VaultEncryptionHelper#decryptString(String)}
+     */
+    public String toEncryptStringContent() {
+        return name + ": !vault |\n" +
+                ENCRYPT_STRING_INDENT + header.toHeaderLine() + "\n" +
+                encryptedContentLines.stream().map(line -> ENCRYPT_STRING_INDENT + line).collect(joining("\n")) +
+                "\n";
+    }
+}
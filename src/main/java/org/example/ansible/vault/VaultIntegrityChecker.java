@@ -0,0 +1,107 @@
+package org.example.ansible.vault;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+import static org.example.ansible.vault.Utils.listRegularFiles;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ansible.vault.VaultIntegrityResult.Status;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Verifies that vault encrypted files and encrypt_string values are decryptable with the configured password,
+ * <em>without</em> decrypting them. Only the header and HMAC are checked, so no plain text is ever produced and no
+ * ansible-vault process is launched, regardless of the configured {@link VaultEngineType}.
+ */
+@Slf4j
+public class VaultIntegrityChecker {
+
+    private final NativeVaultEngine nativeEngine;
+
+    public VaultIntegrityChecker(VaultConfiguration configuration) {
+        checkArgumentNotNull(configuration, "configuration is required");
+        if (isNull(configuration.getVaultPasswordSource())) {
+            checkArgumentNotBlank(configuration.getVaultPasswordFilePath(), "vaultPasswordFilePath is required");
+        }
+
+        // the checker never encrypts, so it has no use for a key pool
+        var checkerConfiguration = configuration.copyOf();
+        checkerConfiguration.setKeyPoolSize(0);
+        this.nativeEngine = new NativeVaultEngine(checkerConfiguration);
+    }
+
+    /**
+     * Checks a single file. Never throws for problems with the file itself; they are reported in the result.
+     */
+    public VaultIntegrityResult checkFile(Path filePath) {
+        checkArgumentNotNull(filePath, "filePath cannot be null");
+
+        var source = filePath.toString();
+        byte[] content;
+        try {
+            content = Files.readAllBytes(filePath);
+        } catch (IOException e) {
+            LOG.warn("Error reading file: {}", filePath, e);
+            return VaultIntegrityResult.of(source, Status.ERROR, "Error reading file: " + e.getMessage());
+        }
+
+        if (!VaultPayload.hasHeaderPrefix(content)) {
+            return VaultIntegrityResult.of(source, Status.NOT_VAULTED);
+        }
+
+        return check(source, content);
+    }
+
+    /**
+     * Checks encrypt_string content, e.g. {@code db_password: !vault |} followed by the encrypted lines.
+     *
+     * @throws IllegalArgumentException if the input is not valid encrypt_string content
+     */
+    public VaultIntegrityResult checkString(String encryptedString) {
+        var encryptedVariable = new VaultEncryptedVariable(encryptedString);
+        return check(encryptedVariable.getVariableName(), encryptedVariable.getEncryptedFileBytes());
+    }
+
+    /**
+     * Checks every regular file under {@code directory} using up to {@code parallelism} threads. Files that are not
+     * vault encrypted are included in the report with status {@link Status#NOT_VAULTED}.
+     */
+    public VaultIntegrityReport checkDirectory(Path directory, int parallelism) {
+        checkArgumentNotNull(directory, "directory cannot be null");
+        checkArgument(Files.isDirectory(directory), "%s is not a directory", directory);
+
+        var files = listRegularFiles(directory);
+        var results = ParallelExecution.mapInParallel(files, this::checkFile, parallelism);
+
+        LOG.debug("Checked {} files in {}", results.size(), directory);
+        return new VaultIntegrityReport(List.copyOf(results));
+    }
+
+    private VaultIntegrityResult check(String source, byte[] content) {
+        VaultPayload payload;
+        try {
+            payload = VaultPayload.parse(content);
+        } catch (VaultDecryptionException e) {
+            return VaultIntegrityResult.of(source, Status.CORRUPTED_DATA, e.getMessage());
+        } catch (VaultEncryptionException e) {
+            return VaultIntegrityResult.of(source, Status.INVALID_HEADER, e.getMessage());
+        }
+
+        try {
+            nativeEngine.verify(payload);
+            return VaultIntegrityResult.of(source, Status.VALID);
+        } catch (VaultDecryptionException e) {
+            var status = e.getReason() == VaultDecryptionException.Reason.WRONG_PASSWORD ?
+                    Status.WRONG_PASSWORD : Status.CORRUPTED_DATA;
+            return VaultIntegrityResult.of(source, status, e.getMessage());
+        } catch (VaultEncryptionException e) {
+            return VaultIntegrityResult.of(source, Status.ERROR, e.getMessage());
+        }
+    }
+}
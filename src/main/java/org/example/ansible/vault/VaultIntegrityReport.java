@@ -0,0 +1,43 @@
+package org.example.ansible.vault;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import lombok.Value;
+import org.example.ansible.vault.VaultIntegrityResult.Status;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-file results of {@link VaultIntegrityChecker#checkDirectory}, sorted by path.
+ */
+@Value
+public class VaultIntegrityReport {
+
+    List<VaultIntegrityResult> results;
+
+    /**
+     * @return true if every vault encrypted file is valid; files that are not vault encrypted are ignored
+     */
+    public boolean isAllValid() {
+        return results.stream().allMatch(result -> result.isValid() || result.getStatus() == Status.NOT_VAULTED);
+    }
+
+    /**
+     * @return the results for vault encrypted files that are not valid
+     */
+    public List<VaultIntegrityResult> getFailures() {
+        return results.stream()
+                .filter(result -> !result.isValid() && result.getStatus() != Status.NOT_VAULTED)
+                .collect(toUnmodifiableList());
+    }
+
+    public Map<Status, Long> countsByStatus() {
+        var counts = new EnumMap<Status, Long>(Status.class);
+        counts.putAll(results.stream().collect(groupingBy(VaultIntegrityResult::getStatus, counting())));
+        return counts;
+    }
+}
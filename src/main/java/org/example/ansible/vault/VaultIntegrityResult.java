@@ -0,0 +1,69 @@
+package org.example.ansible.vault;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * The outcome of an integrity check of a single vault encrypted file or encrypt_string value.
+ *
+ * @see VaultIntegrityChecker
+ */
+@Value
+public class VaultIntegrityResult {
+
+    public enum Status {
+
+        /**
+         * The header is valid and the HMAC matches the configured password.
+         */
+        VALID,
+
+        /**
+         * The file does not start with {@code $ANSIBLE_VAULT}, so it is not vault encrypted.
+         */
+        NOT_VAULTED,
+
+        /**
+         * The file starts with {@code $ANSIBLE_VAULT} but the header line is not valid.
+         */
+        INVALID_HEADER,
+
+        /**
+         * The body is malformed or has invalid lengths.
+         */
+        CORRUPTED_DATA,
+
+        /**
+         * The body is well-formed but the HMAC does not match the configured password.
+         */
+        WRONG_PASSWORD,
+
+        /**
+         * Any other problem, e.g. the file could not be read or uses an unsupported cipher.
+         */
+        ERROR
+    }
+
+    /**
+     * The file path, or a description of the value for encrypt_string content.
+     */
+    String source;
+
+    Status status;
+
+    @Nullable
+    String message;
+
+    public boolean isValid() {
+        return status == Status.VALID;
+    }
+
+    static VaultIntegrityResult of(String source, Status status) {
+        return new VaultIntegrityResult(source, status, null);
+    }
+
+    static VaultIntegrityResult of(String source, Status status, String message) {
+        return new VaultIntegrityResult(source, status, message);
+    }
+}
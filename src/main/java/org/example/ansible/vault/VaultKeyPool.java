@@ -0,0 +1,239 @@
+package org.example.ansible.vault;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ansible.vault.VaultAes256.DerivedKeys;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of random salts and the keys derived from them, filled on a low-priority background thread, so that
+ * native encryption does not have to run PBKDF2 on the caller's thread.
+ * <p>
+ * Each pooled entry is tagged with a {@link VaultPasswordDigest digest} of the password it was derived from. If the
+ * password file changes, entries for the old password are discarded (and zeroed) when encountered, and the pool
+ * refills with the new password. Each entry is handed out at most once. When the pool is empty, callers derive keys
+ * themselves as usual, so the pool only ever removes latency.
+ * <p>
+ * A pool can be shared, e.g. by the engines of successive configurations of a {@link VaultEncryptionHelper}, by
+ * {@link #retain() retaining} it. All pooled key material is zeroed when the last holder calls {@link #close()}.
+ */
+@Slf4j
+class VaultKeyPool implements Closeable {
+
+    private final int capacity;
+    private final BlockingQueue<PooledKeys> ready;
+    private final Supplier<char[]> passwordSupplier;
+    private final VaultPasswordDigest passwordDigest = new VaultPasswordDigest();
+    private final ExecutorService refiller;
+    private final AtomicBoolean refillScheduled = new AtomicBoolean();
+    private final ReferenceCount references = new ReferenceCount(this::shutdown);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * A salt and the keys derived from it, for one encryption.
+     */
+    static class PooledKeys {
+
+        final byte[] salt;
+        final DerivedKeys keys;
+        private final String passwordDigest;
+
+        PooledKeys(byte[] salt, DerivedKeys keys, String passwordDigest) {
+            this.salt = salt;
+            this.keys = keys;
+            this.passwordDigest = passwordDigest;
+        }
+
+        /**
+         * Zeroes the keys. The salt is not secret, and is shared with the payload encrypted using these keys.
+         */
+        void destroy() {
+            keys.destroy();
+        }
+    }
+
+    /**
+     * @param capacity         the maximum number of pooled entries
+     * @param passwordSupplier supplies a fresh copy of the current password, which the pool zeroes after use
+     */
+    VaultKeyPool(int capacity, Supplier<char[]> passwordSupplier) {
+        checkArgument(capacity > 0, "capacity must be positive");
+
+        this.capacity = capacity;
+        this.ready = new ArrayBlockingQueue<>(capacity);
+        this.passwordSupplier = passwordSupplier;
+        this.refiller = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "vault-key-pool");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts filling the pool in the background.
+     */
+    void start() {
+        requestRefill();
+    }
+
+    /**
+     * @return pooled keys derived from {@code password}, or an empty Optional if none are ready. The caller must
+     * {@link PooledKeys#destroy() destroy} them after use.
+     */
+    Optional<PooledKeys> take(char[] password) {
+        if (closed) {
+            return Optional.empty();
+        }
+
+        var digest = passwordDigest.digest(password);
+        try {
+            PooledKeys pooled;
+            while ((pooled = ready.poll()) != null) {
+                if (pooled.passwordDigest.equals(digest)) {
+                    hits.increment();
+                    return Optional.of(pooled);
+                }
+                LOG.debug("Discarding pooled keys derived from a previous password");
+                pooled.destroy();
+            }
+            misses.increment();
+            return Optional.empty();
+        } finally {
+            requestRefill();
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int available() {
+        return ready.size();
+    }
+
+    /**
+     * @return how many {@link #take(char[]) takes} found keys ready, since the last {@link #resetStats()}
+     */
+    long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return how many {@link #take(char[]) takes} found no keys ready, since the last {@link #resetStats()}
+     */
+    long missCount() {
+        return misses.sum();
+    }
+
+    void resetStats() {
+        hits.reset();
+        misses.reset();
+    }
+
+    private void requestRefill() {
+        if (closed || !refillScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            refiller.execute(() -> {
+                var filled = false;
+                try {
+                    filled = refill();
+                } finally {
+                    refillScheduled.set(false);
+                }
+
+                // A take() after refill() found the pool full, but before the flag was cleared, scheduled nothing
+                if (filled && ready.remainingCapacity() > 0) {
+                    requestRefill();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refillScheduled.set(false);
+        }
+    }
+
+    /**
+     * Reads the password once and derives keys from it until the pool is full, so that e.g. a password script runs
+     * once per refill rather than once per pooled entry.
+     *
+     * @return true if the pool was filled (or closed), false if the password could not be read
+     */
+    private boolean refill() {
+        if (closed || ready.remainingCapacity() == 0) {
+            return true;
+        }
+
+        char[] password;
+        try {
+            password = passwordSupplier.get();
+        } catch (RuntimeException e) {
+            LOG.warn("Cannot refill vault key pool: {}", e.getMessage());
+            return false;
+        }
+
+        try {
+            var digest = passwordDigest.digest(password);
+            while (!closed && ready.remainingCapacity() > 0) {
+                var salt = VaultAes256.newSalt();
+                var pooled = new PooledKeys(salt, VaultAes256.deriveKeys(password, salt), digest);
+                if (closed || !ready.offer(pooled)) {
+                    pooled.destroy();
+                    break;
+                }
+            }
+            return true;
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    /**
+     * Takes another reference to this pool, which must be released by another {@link #close()}.
+     */
+    VaultKeyPool retain() {
+        checkState(references.tryRetain(), "vault key pool is closed");
+        return this;
+    }
+
+    /**
+     * Releases a reference to this pool. Releasing the last one stops refilling and zeroes all pooled key material.
+     */
+    @Override
+    public void close() {
+        references.release();
+    }
+
+    private void shutdown() {
+        closed = true;
+        refiller.shutdownNow();
+        try {
+            refiller.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        PooledKeys pooled;
+        while ((pooled = ready.poll()) != null) {
+            pooled.destroy();
+        }
+    }
+}
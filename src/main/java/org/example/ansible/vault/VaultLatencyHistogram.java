@@ -0,0 +1,81 @@
+package org.example.ansible.vault;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with log-linear buckets, in the style of HdrHistogram: each power of two is split
+ * into {@value #SUB_BUCKETS} linear sub-buckets, so a recorded value is reported to within 1/{@value #SUB_BUCKETS}
+ * (about 6%) of its actual value, using a fixed 5 KB of memory. Values from 0 up to 2<sup>40</sup> nanoseconds
+ * (about 18 minutes) are tracked; longer ones are counted in the last bucket.
+ * <p>
+ * Recording is a few atomic increments and never blocks, so it can be done on every operation. Snapshots are taken
+ * without stopping recording, so a snapshot may miss values recorded while it is being taken.
+ */
+class VaultLatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_TRACKABLE_NANOS = (1L << MAX_EXPONENT) - 1;
+    private static final int BUCKET_COUNT = indexFor(MAX_TRACKABLE_NANOS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        var value = Math.max(0, nanos);
+        counts.incrementAndGet(indexFor(Math.min(value, MAX_TRACKABLE_NANOS)));
+        totalNanos.add(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Clears all recorded values. Values recorded concurrently may or may not be kept.
+     */
+    void reset() {
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    VaultLatencySnapshot snapshot() {
+        var bucketCounts = new long[BUCKET_COUNT];
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = counts.get(i);
+        }
+        return new VaultLatencySnapshot(bucketCounts, totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKETS} get a bucket each. Above that, the bucket is chosen by the position of the
+     * highest set bit and the {@link #SUB_BUCKET_BITS} bits below it.
+     */
+    static int indexFor(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        var exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        var subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the highest value that falls in the bucket at {@code index}
+     */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        var exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        var subBucket = index % SUB_BUCKETS;
+        var width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+}
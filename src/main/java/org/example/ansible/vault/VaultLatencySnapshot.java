@@ -0,0 +1,88 @@
+package org.example.ansible.vault;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+
+/**
+ * A point-in-time copy of the latencies recorded for one {@link VaultOperation} and {@link VaultOperationOutcome}.
+ * Percentiles are accurate to within about 6%, and never exceed the {@link #getMax() maximum}.
+ */
+public class VaultLatencySnapshot {
+
+    private final long[] bucketCounts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    VaultLatencySnapshot(long[] bucketCounts, long totalNanos, long maxNanos) {
+        this.bucketCounts = bucketCounts;
+        var bucketTotal = 0L;
+        for (var bucketCount : bucketCounts) {
+            bucketTotal += bucketCount;
+        }
+        this.count = bucketTotal;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the mean latency, or zero if nothing was recorded
+     */
+    public Duration getMean() {
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos / count);
+    }
+
+    public Duration getMax() {
+        return Duration.ofNanos(maxNanos);
+    }
+
+    public Duration getP50() {
+        return getPercentile(50);
+    }
+
+    public Duration getP90() {
+        return getPercentile(90);
+    }
+
+    public Duration getP99() {
+        return getPercentile(99);
+    }
+
+    public Duration getP999() {
+        return getPercentile(99.9);
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the latency that {@code percentile} percent of the recorded latencies are at or below, or zero if
+     * nothing was recorded
+     */
+    public Duration getPercentile(double percentile) {
+        checkArgument(percentile >= 0 && percentile <= 100, "percentile must be between 0 and 100 but was %s",
+                percentile);
+        if (count == 0) {
+            return Duration.ZERO;
+        }
+
+        var rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        var seen = 0L;
+        for (var i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(Math.min(VaultLatencyHistogram.highestValueAt(i), maxNanos));
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public String toString() {
+        return "VaultLatencySnapshot(count=" + count + ", mean=" + getMean() + ", p50=" + getP50() +
+                ", p99=" + getP99() + ", max=" + getMax() + ")";
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.ansible.vault;
+
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiStrings.f;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.example.ansible.vault.VaultDecryptionException.Reason;
+
+import java.time.Duration;
+
+/**
+ * Remembers which (password, encrypted value) combinations recently failed to decrypt, so that a caller retrying
+ * the same bad input in a loop fails immediately instead of re-running PBKDF2 every time.
+ * <p>
+ * Entries are keyed by an HMAC of the password (under a random key generated per instance, so the cache does not
+ * hold a plain password hash) plus the {@link VaultPayload#fingerprint()}.
+ * A changed password or a repaired value therefore never hits a stale entry.
+ */
+class VaultNegativeCache {
+
+    static final int DEFAULT_MAXIMUM_SIZE = 1_000;
+    static final Duration DEFAULT_EXPIRY = Duration.ofMinutes(5);
+
+    private final Cache<String, Reason> failures;
+    private final VaultPasswordDigest passwordDigest;
+    private volatile CacheStats statsBaseline;
+
+    VaultNegativeCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRY);
+    }
+
+    VaultNegativeCache(long maximumSize, Duration expiry) {
+        this.failures = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expiry)
+                .recordStats()
+                .build();
+        this.statsBaseline = failures.stats();
+
+        this.passwordDigest = new VaultPasswordDigest();
+    }
+
+    String keyFor(char[] password, VaultPayload payload) {
+        return passwordDigest.digest(password) + ":" + payload.fingerprint();
+    }
+
+    /**
+     * @throws VaultDecryptionException if the given key recently failed
+     */
+    void checkNotKnownFailure(String key) {
+        var reason = failures.getIfPresent(key);
+        if (nonNull(reason)) {
+            throw new VaultDecryptionException(reason,
+                    f("decryption of this value already failed recently ({}); not retrying", reason));
+        }
+    }
+
+    void recordFailure(String key, Reason reason) {
+        failures.put(key, reason);
+    }
+
+    long size() {
+        return failures.size();
+    }
+
+    void clear() {
+        failures.invalidateAll();
+    }
+
+    /**
+     * @return the lookups since the last {@link #resetStats()}; a hit is a lookup of a known failure
+     */
+    CacheStats stats() {
+        return failures.stats().minus(statsBaseline);
+    }
+
+    void resetStats() {
+        statsBaseline = failures.stats();
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.ansible.vault;
+
+/**
+ * The public operations of {@link VaultEncryptionHelper}, as reported to a {@link VaultOperationListener}.
+ */
+public enum VaultOperation {
+
+    ENCRYPT_FILE,
+    ENCRYPT_FILE_IF_CHANGED,
+    DECRYPT_FILE,
+    VIEW_FILE,
+    REKEY_FILE,
+    REKEY_DIRECTORY,
+    ENCRYPT_STRING,
+    ENCRYPT_STRING_IF_CHANGED,
+    DECRYPT_STRING,
+    DECRYPT_INLINE_VARIABLES,
+    PRELOAD_SECRETS
+}
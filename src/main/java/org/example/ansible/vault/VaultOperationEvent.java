@@ -0,0 +1,57 @@
+package org.example.ansible.vault;
+
+import static java.util.Objects.isNull;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The timing of one completed {@link VaultOperation}, broken down by {@link VaultOperationPhase}.
+ * <p>
+ * Phases only cover work done on the calling thread, so work spread across other threads (e.g. the files of
+ * {@link VaultEncryptionHelper#rekeyDirectory}, or trying several passwords at once) counts towards the total
+ * duration but not towards any phase. Time not spent in any phase, e.g. validation and bookkeeping, is
+ * {@link #getUnattributedDuration() unattributed}.
+ */
+@Value
+public class VaultOperationEvent {
+
+    VaultOperation operation;
+
+    VaultEngineType engine;
+
+    Duration duration;
+
+    /**
+     * Only the phases the operation spent time in.
+     */
+    Map<VaultOperationPhase, Duration> phaseDurations;
+
+    /**
+     * The exception the operation failed with, or null if it succeeded.
+     */
+    @Nullable
+    RuntimeException failure;
+
+    public boolean isSuccessful() {
+        return isNull(failure);
+    }
+
+    /**
+     * @return the time spent in {@code phase}, which is zero if the operation did not enter it
+     */
+    public Duration getPhaseDuration(VaultOperationPhase phase) {
+        return phaseDurations.getOrDefault(phase, Duration.ZERO);
+    }
+
+    /**
+     * @return the part of the total duration not spent in any phase
+     */
+    public Duration getUnattributedDuration() {
+        var attributed = phaseDurations.values().stream().reduce(Duration.ZERO, Duration::plus);
+        return attributed.compareTo(duration) >= 0 ? Duration.ZERO : duration.minus(attributed);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.ansible.vault;
+
+/**
+ * Receives the timing of every operation performed by a {@link VaultEncryptionHelper} that it is
+ * {@link VaultEncryptionHelper#addOperationListener(VaultOperationListener) added} to.
+ * <p>
+ * Listeners are called on the thread that performed the operation, after it completes (successfully or not), so they
+ * should return quickly. An exception thrown by a listener is logged and otherwise ignored. When a helper has no
+ * listeners, operations are not timed at all.
+ */
+@FunctionalInterface
+public interface VaultOperationListener {
+
+    void operationCompleted(VaultOperationEvent event);
+}
@@ -0,0 +1,53 @@
+package org.example.ansible.vault;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Latency histograms for every {@link VaultOperation} and {@link VaultOperationOutcome}, recorded by
+ * {@link VaultEncryptionHelper} for every operation. All histograms are created up front, so recording only touches
+ * {@link VaultLatencyHistogram}'s atomic counters.
+ */
+class VaultOperationMetrics {
+
+    private static final VaultOperationOutcome[] OUTCOMES = VaultOperationOutcome.values();
+
+    private final Map<VaultOperation, VaultLatencyHistogram[]> histograms = new EnumMap<>(VaultOperation.class);
+
+    VaultOperationMetrics() {
+        for (var operation : VaultOperation.values()) {
+            var byOutcome = new VaultLatencyHistogram[OUTCOMES.length];
+            for (var i = 0; i < byOutcome.length; i++) {
+                byOutcome[i] = new VaultLatencyHistogram();
+            }
+            histograms.put(operation, byOutcome);
+        }
+    }
+
+    void record(VaultOperation operation, VaultOperationOutcome outcome, long nanos) {
+        histograms.get(operation)[outcome.ordinal()].record(nanos);
+    }
+
+    void reset() {
+        histograms.values().forEach(byOutcome -> Arrays.stream(byOutcome).forEach(VaultLatencyHistogram::reset));
+    }
+
+    VaultOperationStats snapshot(VaultOperation operation) {
+        var byOutcome = histograms.get(operation);
+        var latencies = new EnumMap<VaultOperationOutcome, VaultLatencySnapshot>(VaultOperationOutcome.class);
+        for (var outcome : OUTCOMES) {
+            latencies.put(outcome, byOutcome[outcome.ordinal()].snapshot());
+        }
+        return new VaultOperationStats(operation, Collections.unmodifiableMap(latencies));
+    }
+
+    Map<VaultOperation, VaultOperationStats> snapshot() {
+        var stats = new EnumMap<VaultOperation, VaultOperationStats>(VaultOperation.class);
+        for (var operation : histograms.keySet()) {
+            stats.put(operation, snapshot(operation));
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+}
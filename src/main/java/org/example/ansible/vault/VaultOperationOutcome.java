@@ -0,0 +1,23 @@
+package org.example.ansible.vault;
+
+/**
+ * How a {@link VaultOperation} ended, for the {@link VaultOperationStats} kept by {@link VaultEncryptionHelper}.
+ */
+public enum VaultOperationOutcome {
+
+    SUCCESS,
+
+    /**
+     * The operation threw an exception other than a {@link VaultTimeoutException}.
+     */
+    FAILURE,
+
+    /**
+     * The operation threw a {@link VaultTimeoutException}, i.e. ansible-vault did not exit in time.
+     */
+    TIMEOUT;
+
+    static VaultOperationOutcome of(RuntimeException failure) {
+        return failure instanceof VaultTimeoutException ? TIMEOUT : FAILURE;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.ansible.vault;
+
+/**
+ * The phases a {@link VaultOperation} spends its time in. Which phases occur depends on the engine: the process
+ * phases only with {@link VaultEngineType#ANSIBLE_VAULT}, key derivation and cipher only with
+ * {@link VaultEngineType#NATIVE} (or when a payload is checked in-process, e.g. to choose among several passwords).
+ */
+public enum VaultOperationPhase {
+
+    /**
+     * Parsing encrypt_string content or vault payloads.
+     */
+    PARSE,
+
+    /**
+     * Reading passwords, and choosing or writing the password file to launch ansible-vault with.
+     */
+    PASSWORD_LOOKUP,
+
+    /**
+     * Creating the temporary directory.
+     */
+    TEMP_DIRECTORY,
+
+    /**
+     * Reading and writing files, including temporary files.
+     */
+    FILE_IO,
+
+    /**
+     * Launching the ansible-vault process.
+     */
+    PROCESS_LAUNCH,
+
+    /**
+     * Waiting for the ansible-vault process to exit.
+     */
+    PROCESS_WAIT,
+
+    /**
+     * Reading the output (or error output) of the ansible-vault process.
+     */
+    OUTPUT_READ,
+
+    /**
+     * Deleting temporary files.
+     */
+    CLEANUP,
+
+    /**
+     * Deriving keys from the password (PBKDF2) and verifying the HMAC, or taking pooled keys.
+     */
+    KEY_DERIVATION,
+
+    /**
+     * Running the AES cipher, and computing the HMAC of new cipher text.
+     */
+    CIPHER
+}
@@ -0,0 +1,47 @@
+package org.example.ansible.vault;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * A snapshot of the counts and latencies of one {@link VaultOperation} performed by a {@link VaultEncryptionHelper},
+ * split by {@link VaultOperationOutcome}.
+ */
+@Value
+public class VaultOperationStats {
+
+    VaultOperation operation;
+
+    Map<VaultOperationOutcome, VaultLatencySnapshot> latencies;
+
+    /**
+     * @return the latencies of operations that ended with {@code outcome}
+     */
+    public VaultLatencySnapshot getLatency(VaultOperationOutcome outcome) {
+        return latencies.get(outcome);
+    }
+
+    public long getCount(VaultOperationOutcome outcome) {
+        return getLatency(outcome).getCount();
+    }
+
+    public long getSuccessCount() {
+        return getCount(VaultOperationOutcome.SUCCESS);
+    }
+
+    public long getFailureCount() {
+        return getCount(VaultOperationOutcome.FAILURE);
+    }
+
+    public long getTimeoutCount() {
+        return getCount(VaultOperationOutcome.TIMEOUT);
+    }
+
+    /**
+     * @return the number of operations with any outcome
+     */
+    public long getTotalCount() {
+        return latencies.values().stream().mapToLong(VaultLatencySnapshot::getCount).sum();
+    }
+}
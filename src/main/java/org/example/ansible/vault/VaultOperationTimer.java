@@ -0,0 +1,92 @@
+package org.example.ansible.vault;
+
+import static java.util.Objects.isNull;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Accumulates the time an operation spends in each {@link VaultOperationPhase}. The timer of the operation running on
+ * the current thread is found with {@link #current()}, so phases can be timed wherever the work happens (e.g. in the
+ * {@link NativeVaultEngine}) without passing the timer around. When no operation is being timed, {@link #current()}
+ * returns a disabled timer whose methods do nothing, and in particular do not read the clock.
+ * <p>
+ * Usage: {@code var start = timer.start(); ...; timer.record(phase, start);}
+ */
+class VaultOperationTimer {
+
+    private static final VaultOperationTimer DISABLED = new VaultOperationTimer(false);
+    private static final ThreadLocal<VaultOperationTimer> CURRENT = new ThreadLocal<>();
+    private static final VaultOperationPhase[] PHASES = VaultOperationPhase.values();
+
+    private final boolean enabled;
+    private final long[] phaseNanos;
+    private int recordedPhases;
+
+    private VaultOperationTimer(boolean enabled) {
+        this.enabled = enabled;
+        this.phaseNanos = enabled ? new long[PHASES.length] : new long[0];
+    }
+
+    /**
+     * @return the timer of the operation being timed on the current thread, or a disabled timer if there is none
+     */
+    static VaultOperationTimer current() {
+        var timer = CURRENT.get();
+        return isNull(timer) ? DISABLED : timer;
+    }
+
+    /**
+     * Makes a new enabled timer the current one for this thread, until {@link #detach(VaultOperationTimer)} restores
+     * the one that was {@link #current() current} before.
+     */
+    static VaultOperationTimer attachNew() {
+        var timer = new VaultOperationTimer(true);
+        CURRENT.set(timer);
+        return timer;
+    }
+
+    static void detach(VaultOperationTimer previous) {
+        if (previous == DISABLED) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the start time to pass to {@link #record(VaultOperationPhase, long)}
+     */
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds the time since {@code startNanos} to {@code phase}.
+     */
+    void record(VaultOperationPhase phase, long startNanos) {
+        if (enabled) {
+            phaseNanos[phase.ordinal()] += System.nanoTime() - startNanos;
+            recordedPhases |= 1 << phase.ordinal();
+        }
+    }
+
+    /**
+     * @return the phases that were recorded, with their total durations
+     */
+    Map<VaultOperationPhase, Duration> phaseDurations() {
+        var durations = new EnumMap<VaultOperationPhase, Duration>(VaultOperationPhase.class);
+        for (var i = 0; i < phaseNanos.length; i++) {
+            if ((recordedPhases & (1 << i)) != 0) {
+                durations.put(PHASES[i], Duration.ofNanos(phaseNanos[i]));
+            }
+        }
+        return Collections.unmodifiableMap(durations);
+    }
+}
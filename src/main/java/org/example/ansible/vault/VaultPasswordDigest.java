@@ -0,0 +1,46 @@
+package org.example.ansible.vault;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Computes an HMAC of a password under a random key generated per instance, so that values derived from a password
+ * can be compared (e.g. to detect that the password changed) without holding the password or a plain hash of it.
+ */
+class VaultPasswordDigest {
+
+    private final byte[] key;
+
+    VaultPasswordDigest() {
+        this.key = new byte[32];
+        new SecureRandom().nextBytes(key);
+    }
+
+    /**
+     * @return the HMAC of the password in hex
+     */
+    String digest(char[] password) {
+        var passwordBytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        try {
+            var mac = VaultCryptoPrimitives.hmacSha256();
+            mac.init(new SecretKeySpec(key, VaultCryptoPrimitives.HMAC_ALGORITHM));
+            mac.update(passwordBytes);
+            return VaultHex.encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new VaultEncryptionException("Error computing password digest", e);
+        } finally {
+            clear(passwordBytes);
+        }
+    }
+
+    private static void clear(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            Arrays.fill(buffer.array(), (byte) 0);
+        }
+    }
+}
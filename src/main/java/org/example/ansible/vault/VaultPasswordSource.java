@@ -0,0 +1,67 @@
+package org.example.ansible.vault;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Supplies a vault password, e.g. from a password file, from an executable password script, or from memory.
+ * <p>
+ * Each call returns a new copy of the password, which the caller should zero once finished with it.
+ */
+public interface VaultPasswordSource {
+
+    /**
+     * @return a new copy of the password
+     * @throws VaultEncryptionException if the password cannot be obtained, or is empty
+     */
+    char[] getPassword();
+
+    /**
+     * A password file, with surrounding whitespace removed as ansible-vault does.
+     */
+    static VaultPasswordSource file(Path passwordFile) {
+        checkArgumentNotNull(passwordFile, "passwordFile cannot be null");
+        return new FileVaultPasswordSource(passwordFile);
+    }
+
+    /**
+     * An executable that prints the password to stdout, e.g. a script calling a secret agent.
+     */
+    static VaultPasswordSource script(Path passwordScript) {
+        checkArgumentNotNull(passwordScript, "passwordScript cannot be null");
+        return new ScriptVaultPasswordSource(passwordScript, ScriptVaultPasswordSource.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * A password file or, if the file is executable, a password script. This is how ansible-vault treats the file
+     * given as {@code --vault-password-file}.
+     */
+    static VaultPasswordSource forPath(Path passwordFile) {
+        checkArgumentNotNull(passwordFile, "passwordFile cannot be null");
+        return Files.isExecutable(passwordFile) ? script(passwordFile) : file(passwordFile);
+    }
+
+    /**
+     * A password held in memory. The given array is copied, so the caller may zero it afterwards.
+     */
+    static VaultPasswordSource inMemory(char[] password) {
+        checkArgumentNotNull(password, "password cannot be null");
+        checkArgument(password.length > 0, "password cannot be empty");
+        return new InMemoryVaultPasswordSource(password);
+    }
+
+    /**
+     * Caches the password from {@code source} for {@code ttl}, so that e.g. a slow password script runs once per
+     * {@code ttl} instead of once per operation.
+     */
+    static VaultPasswordSource cached(VaultPasswordSource source, Duration ttl) {
+        checkArgumentNotNull(source, "source cannot be null");
+        checkArgumentNotNull(ttl, "ttl cannot be null");
+        checkArgument(!ttl.isNegative() && !ttl.isZero(), "ttl must be positive");
+        return new CachedVaultPasswordSource(source, ttl, System::nanoTime);
+    }
+}
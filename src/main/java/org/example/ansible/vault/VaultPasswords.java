@@ -0,0 +1,302 @@
+package org.example.ansible.vault;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiStrings.f;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * The vault passwords of a {@link VaultConfiguration}: the default password, plus one per vault ID label with its
+ * own password file or password source. Each password is identified by its password file path, by
+ * {@link #CONFIGURED_SOURCE} when the default password comes from a configured {@link VaultPasswordSource}, or by
+ * {@link #configuredSourceId(String)} for a vault ID label's configured source.
+ * <p>
+ * Passwords are cached for the configured {@link VaultConfiguration#getPasswordCacheTtl() passwordCacheTtl}. When
+ * ansible-vault needs a password that it cannot read itself cheaply (a configured source, or a password script
+ * whose output is cached), the password is written to a private temporary file, which is rewritten only when the
+ * password changes and deleted on {@link #close()}, or at the latest when the JVM exits normally. Files left behind
+ * by a process that was killed are deleted when the next {@code VaultPasswords} using the same temporary directory
+ * is created.
+ * <p>
+ * Passwords can be shared by the engines of successive configurations that have the
+ * {@link #hasSameSettingsAs(VaultConfiguration) same password settings}, by {@link #retain() retaining} them, so
+ * that cached passwords survive a reconfiguration. Cleanup then happens when the last holder closes them.
+ */
+@Slf4j
+class VaultPasswords implements Closeable {
+
+    static final String CONFIGURED_SOURCE = "<configured vault password source>";
+
+    private static final String PASSWORD_FILE_PREFIX = ".vault-pass-";
+    private static final Pattern PASSWORD_FILE_NAME = Pattern.compile("\\.vault-pass-(\\d+)-.*");
+
+    /**
+     * The temporary password files of every open {@code VaultPasswords} in this JVM, which must not be swept.
+     */
+    private static final Set<Path> LIVE_PASSWORD_FILES = ConcurrentHashMap.newKeySet();
+
+    private final VaultConfiguration configuration;
+    private final Map<String, VaultPasswordSource> configuredSources = new HashMap<>();
+    private final ConcurrentMap<String, VaultPasswordSource> sources = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ProcessPasswordFile> processPasswordFiles = new ConcurrentHashMap<>();
+    private final VaultPasswordDigest passwordDigest = new VaultPasswordDigest();
+    private final ReferenceCount references = new ReferenceCount(this::cleanUp);
+
+    @Value
+    private static class ProcessPasswordFile {
+        Path path;
+        String passwordDigest;
+    }
+
+    VaultPasswords(VaultConfiguration configuration) {
+        this.configuration = configuration;
+        if (nonNull(configuration.getVaultPasswordSource())) {
+            configuredSources.put(CONFIGURED_SOURCE, configuration.getVaultPasswordSource());
+        }
+        configuration.getVaultIdPasswordSources().forEach((vaultIdLabel, source) ->
+                configuredSources.put(configuredSourceId(vaultIdLabel), source));
+        deleteStalePasswordFiles(Path.of(configuration.getTempDirectory()));
+    }
+
+    /**
+     * Deletes the temporary password files in {@code directory} that belong to processes that are no longer running,
+     * or to this JVM but no open {@code VaultPasswords}. Each file name includes the id of the process that wrote it.
+     */
+    private static void deleteStalePasswordFiles(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        var currentPid = ProcessHandle.current().pid();
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> {
+                var matcher = PASSWORD_FILE_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    return;
+                }
+                var pid = Long.parseLong(matcher.group(1));
+                var stale = pid == currentPid ? !LIVE_PASSWORD_FILES.contains(file) : !isRunning(pid);
+                if (stale) {
+                    LOG.info("Deleting stale vault password file {}", file);
+                    deleteQuietly(file);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            LOG.warn("Could not check {} for stale vault password files", directory, e);
+        }
+    }
+
+    /**
+     * @return true if {@code other} configures exactly the same passwords, password cache and temporary directory
+     */
+    boolean hasSameSettingsAs(VaultConfiguration other) {
+        return Objects.equals(configuration.getVaultPasswordFilePath(), other.getVaultPasswordFilePath()) &&
+                configuration.getVaultPasswordSource() == other.getVaultPasswordSource() &&
+                Objects.equals(configuration.getPasswordCacheTtl(), other.getPasswordCacheTtl()) &&
+                Objects.equals(configuration.getVaultIdPasswordFilePaths(), other.getVaultIdPasswordFilePaths()) &&
+                Objects.equals(configuration.getVaultIdPasswordSources(), other.getVaultIdPasswordSources()) &&
+                Objects.equals(configuration.getTempDirectory(), other.getTempDirectory());
+    }
+
+    /**
+     * Takes another reference to these passwords, which must be released by another {@link #close()}.
+     */
+    VaultPasswords retain() {
+        checkState(references.tryRetain(), "vault passwords are closed");
+        return this;
+    }
+
+    /**
+     * @return the identifier of the default password
+     */
+    String defaultId() {
+        return nonNull(configuration.getVaultPasswordSource()) ?
+                CONFIGURED_SOURCE : configuration.getVaultPasswordFilePath();
+    }
+
+    /**
+     * @return the identifier of the password for {@code vaultIdLabel}, i.e. its own password file or password source
+     * if it has one, otherwise the default password
+     */
+    String idFor(@Nullable String vaultIdLabel) {
+        if (isNull(vaultIdLabel)) {
+            return defaultId();
+        }
+        if (configuration.getVaultIdPasswordFilePaths().containsKey(vaultIdLabel)) {
+            return configuration.resolveVaultPasswordFilePath(vaultIdLabel);
+        }
+        if (configuration.getVaultIdPasswordSources().containsKey(vaultIdLabel)) {
+            return configuredSourceId(vaultIdLabel);
+        }
+        return defaultId();
+    }
+
+    /**
+     * @return the identifier of the configured password source for {@code vaultIdLabel}
+     */
+    static String configuredSourceId(String vaultIdLabel) {
+        return f("<configured vault password source for vault ID {}>", vaultIdLabel);
+    }
+
+    /**
+     * @return the identifiers of all distinct passwords, default first
+     */
+    List<String> allIds() {
+        var ids = new LinkedHashSet<String>();
+        ids.add(defaultId());
+        ids.addAll(configuration.getVaultIdPasswordFilePaths().values());
+        configuration.getVaultIdPasswordSources().keySet().forEach(label -> ids.add(configuredSourceId(label)));
+        return List.copyOf(ids);
+    }
+
+    /**
+     * @return a new copy of the password, which the caller should zero
+     */
+    char[] read(String id) {
+        return sources.computeIfAbsent(id, this::newSource).getPassword();
+    }
+
+    private VaultPasswordSource newSource(String id) {
+        var source = configuredSources.containsKey(id) ?
+                configuredSources.get(id) : VaultPasswordSource.forPath(Path.of(id));
+        return isCaching() ? VaultPasswordSource.cached(source, configuration.getPasswordCacheTtl()) : source;
+    }
+
+    /**
+     * @return a password file to give to ansible-vault for the password, i.e. the password file itself where
+     * ansible-vault can read it directly, otherwise a private temporary file holding the password
+     */
+    String processPasswordFile(String id) {
+        if (!needsProcessPasswordFile(id)) {
+            return id;
+        }
+
+        var password = read(id);
+        try {
+            var digest = passwordDigest.digest(password);
+            return processPasswordFiles.compute(id, (key, existing) -> {
+                var unchanged = nonNull(existing) &&
+                        existing.getPasswordDigest().equals(digest) && Files.exists(existing.getPath());
+                if (unchanged) {
+                    return existing;
+                }
+                if (nonNull(existing)) {
+                    deleteQuietly(existing.getPath());
+                }
+                return new ProcessPasswordFile(writePasswordFile(password), digest);
+            }).getPath().toString();
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    private boolean needsProcessPasswordFile(String id) {
+        return configuredSources.containsKey(id) || (isCaching() && Files.isExecutable(Path.of(id)));
+    }
+
+    private boolean isCaching() {
+        var ttl = configuration.getPasswordCacheTtl();
+        return nonNull(ttl) && !ttl.isZero();
+    }
+
+    private static boolean isRunning(long pid) {
+        return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+    }
+
+    private Path writePasswordFile(char[] password) {
+        var bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        var content = new byte[bytes.remaining() + 1];
+        bytes.get(content, 0, content.length - 1);
+        content[content.length - 1] = '\n';
+        Arrays.fill(bytes.array(), (byte) 0);
+
+        var directory = Path.of(configuration.getTempDirectory());
+        var prefix = PASSWORD_FILE_PREFIX + ProcessHandle.current().pid() + "-";
+        try {
+            Files.createDirectories(directory);
+            var path = supportsPosixPermissions() ?
+                    Files.createTempFile(directory, prefix, "",
+                            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"))) :
+                    Files.createTempFile(directory, prefix, "");
+            LIVE_PASSWORD_FILES.add(path);
+            path.toFile().deleteOnExit();
+            Files.write(path, content);
+            LOG.debug("Wrote vault password for ansible-vault to {}", path);
+            return path;
+        } catch (IOException e) {
+            throw new VaultEncryptionException(f("Error writing vault password file in {}", directory), e);
+        } finally {
+            Arrays.fill(content, (byte) 0);
+        }
+    }
+
+    private static boolean supportsPosixPermissions() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    /**
+     * Releases a reference to these passwords. Releasing the last one deletes any temporary password files and
+     * zeroes any cached passwords.
+     */
+    @Override
+    public void close() {
+        references.release();
+    }
+
+    private void cleanUp() {
+        processPasswordFiles.values().forEach(file -> deleteQuietly(file.getPath()));
+        processPasswordFiles.clear();
+        invalidateCachedPasswords();
+    }
+
+    /**
+     * Zeroes any cached passwords, so they are read from their sources again when next needed. Temporary password
+     * files are kept, and rewritten only if the password turns out to have changed.
+     */
+    void invalidateCachedPasswords() {
+        sources.values().stream()
+                .filter(CachedVaultPasswordSource.class::isInstance)
+                .map(CachedVaultPasswordSource.class::cast)
+                .forEach(CachedVaultPasswordSource::invalidate);
+    }
+
+    /**
+     * @return how many temporary password files for ansible-vault currently exist
+     */
+    int processPasswordFileCount() {
+        return processPasswordFiles.size();
+    }
+
+    private static void deleteQuietly(Path path) {
+        LIVE_PASSWORD_FILES.remove(path);
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOG.warn("Could not delete vault password file: {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.ansible.vault;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.example.ansible.vault.VaultDecryptionException.Reason;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The parsed form of ansible-vault encrypted content, i.e. the {@code $ANSIBLE_VAULT} header line followed by the
+ * hex-encoded body, which itself contains the hex-encoded salt, HMAC and cipher text separated by newlines.
+ */
+@Getter(AccessLevel.PACKAGE)
+class VaultPayload {
+
+    static final String HEADER_PREFIX = VaultHeader.PREFIX;
+
+    private static final String NOT_VAULT_ENCRYPTED_DATA = "input is not vault encrypted data";
+    private static final String INVALID_VAULT_BODY = "vault encrypted data is malformed";
+
+    private static final int BODY_LINE_LENGTH = 80;
+
+    private static final byte[] HEADER_PREFIX_BYTES = HEADER_PREFIX.getBytes(StandardCharsets.US_ASCII);
+
+    private final String formatVersion;
+    private final String cipher;
+    @Getter(AccessLevel.NONE) private final String vaultIdLabel;
+    private final byte[] salt;
+    private final byte[] hmac;
+    private final byte[] cipherText;
+
+    VaultPayload(String formatVersion,
+                 String cipher,
+                 @Nullable String vaultIdLabel,
+                 byte[] salt,
+                 byte[] hmac,
+                 byte[] cipherText) {
+        this.formatVersion = formatVersion;
+        this.cipher = cipher;
+        this.vaultIdLabel = vaultIdLabel;
+        this.salt = salt;
+        this.hmac = hmac;
+        this.cipherText = cipherText;
+    }
+
+    static VaultPayload parse(String encryptedContent) {
+        return parse(encryptedContent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses the content of an ansible-vault encrypted file (or the equivalent content built from an
+     * encrypt_string variable).
+     *
+     * @throws VaultEncryptionException if the content is not vault encrypted data
+     * @throws VaultDecryptionException  with reason {@link Reason#CORRUPTED_DATA} if the body is malformed
+     */
+    static VaultPayload parse(byte[] encryptedContent) {
+        var headerEnd = indexOf(encryptedContent, (byte) '\n', 0, encryptedContent.length);
+        if (headerEnd < 0) {
+            throw new VaultEncryptionException(NOT_VAULT_ENCRYPTED_DATA);
+        }
+
+        var headerLength = headerEnd > 0 && encryptedContent[headerEnd - 1] == '\r' ? headerEnd - 1 : headerEnd;
+        var header = VaultHeader.parse(new String(encryptedContent, 0, headerLength, StandardCharsets.UTF_8))
+                .orElseThrow(() -> new VaultEncryptionException(NOT_VAULT_ENCRYPTED_DATA));
+
+        try {
+            var body = VaultHex.decodeIgnoringWhitespace(encryptedContent, headerEnd + 1, encryptedContent.length);
+
+            var firstSeparator = indexOf(body, (byte) '\n', 0, body.length);
+            var secondSeparator = indexOf(body, (byte) '\n', firstSeparator + 1, body.length);
+            if (firstSeparator < 0 || secondSeparator < 0) {
+                throw new VaultDecryptionException(Reason.CORRUPTED_DATA, INVALID_VAULT_BODY);
+            }
+
+            return new VaultPayload(
+                    header.getFormatVersion(),
+                    header.getCipher(),
+                    header.getVaultIdLabel().orElse(null),
+                    VaultHex.decode(body, 0, firstSeparator),
+                    VaultHex.decode(body, firstSeparator + 1, secondSeparator),
+                    VaultHex.decode(body, secondSeparator + 1, body.length));
+        } catch (IllegalArgumentException e) {
+            throw new VaultDecryptionException(Reason.CORRUPTED_DATA, INVALID_VAULT_BODY, e);
+        }
+    }
+
+    /**
+     * @return true if the content starts with {@code $ANSIBLE_VAULT}; the rest of the header is not validated
+     */
+    static boolean hasHeaderPrefix(byte[] content) {
+        return content.length >= HEADER_PREFIX_BYTES.length &&
+                Arrays.equals(content, 0, HEADER_PREFIX_BYTES.length, HEADER_PREFIX_BYTES, 0, HEADER_PREFIX_BYTES.length);
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from, int to) {
+        for (var i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A SHA-256 digest of the salt, HMAC and cipher text, in hex. Identifies this exact encrypted value (a re-encryption
+     * of the same plain text has a new salt and so a different fingerprint) without revealing anything about it.
+     */
+    String fingerprint() {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            digest.update(hmac);
+            digest.update(cipherText);
+            return VaultHex.encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    Optional<String> getVaultIdLabel() {
+        return Optional.ofNullable(vaultIdLabel);
+    }
+
+    String headerLine() {
+        return new VaultHeader(formatVersion, cipher, vaultIdLabel).toHeaderLine();
+    }
+
+    /**
+     * Formats this payload exactly as ansible-vault writes an encrypted file: the header line, then the body
+     * in lines of 80 hex digits, each followed by a newline.
+     */
+    byte[] toEncryptedFileBytes() {
+        return format(new byte[0]);
+    }
+
+    /**
+     * Formats this payload as the indented block that follows {@code <variable_name>: !vault |} in encrypt_string
+     * output, with each line (including the header) prefixed by {@code indent}.
+     */
+    String toIndentedContent(String indent) {
+        return new String(format(indent.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    private byte[] format(byte[] indent) {
+        var body = encodeBody();
+        var header = headerLine().getBytes(StandardCharsets.UTF_8);
+        var lineCount = (body.length + BODY_LINE_LENGTH - 1) / BODY_LINE_LENGTH;
+
+        var output = new byte[indent.length + header.length + 1 + body.length + lineCount * (indent.length + 1)];
+        var out = copy(indent, output, 0);
+        out = copy(header, output, out);
+        output[out++] = '\n';
+
+        for (var start = 0; start < body.length; start += BODY_LINE_LENGTH) {
+            var length = Math.min(BODY_LINE_LENGTH, body.length - start);
+            out = copy(indent, output, out);
+            System.arraycopy(body, start, output, out, length);
+            out += length;
+            output[out++] = '\n';
+        }
+
+        return output;
+    }
+
+    private static int copy(byte[] source, byte[] destination, int offset) {
+        System.arraycopy(source, 0, destination, offset, source.length);
+        return offset + source.length;
+    }
+
+    /**
+     * Encodes the salt, HMAC and cipher text as newline-separated hex, then hex-encodes that result, sizing the
+     * buffers up front so neither step needs to grow or copy an intermediate string.
+     */
+    private byte[] encodeBody() {
+        var inner = new byte[2 * (salt.length + hmac.length + cipherText.length) + 2];
+        var out = VaultHex.encode(salt, 0, salt.length, inner, 0);
+        inner[out++] = '\n';
+        out = VaultHex.encode(hmac, 0, hmac.length, inner, out);
+        inner[out++] = '\n';
+        VaultHex.encode(cipherText, 0, cipherText.length, inner, out);
+
+        return VaultHex.encode(inner);
+    }
+}
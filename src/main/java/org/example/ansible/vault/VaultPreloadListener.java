@@ -0,0 +1,19 @@
+package org.example.ansible.vault;
+
+/**
+ * Told the result of each secret as {@link VaultEncryptionHelper#preloadSecrets} decrypts it, e.g. to log progress
+ * during a long start-up.
+ * <p>
+ * Listeners are called on the preload threads, so they must be thread-safe and should return quickly. Exceptions
+ * thrown by a listener are logged and otherwise ignored.
+ */
+@FunctionalInterface
+public interface VaultPreloadListener {
+
+    /**
+     * @param result         the result for one secret; never contains its plain text
+     * @param completedCount the number of secrets finished so far, including this one
+     * @param totalCount     the number of secrets being preloaded
+     */
+    void secretPreloaded(VaultPreloadResult result, int completedCount, int totalCount);
+}
@@ -0,0 +1,62 @@
+package org.example.ansible.vault;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import lombok.ToString;
+import lombok.Value;
+import org.example.ansible.vault.VaultPreloadResult.Status;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The secrets decrypted by {@link VaultEncryptionHelper#preloadSecrets}, with the result of every secret in input
+ * order. The plain text values are left out of {@link #toString()}, so the report can be logged.
+ */
+@Value
+public class VaultPreloadReport {
+
+    /**
+     * The plain text of every secret that was loaded, keyed by name, in input order. The map is read-only.
+     */
+    @ToString.Exclude
+    Map<String, String> secrets;
+
+    List<VaultPreloadResult> results;
+
+    Duration totalDuration;
+
+    /**
+     * @return true if every secret was loaded
+     */
+    public boolean isAllLoaded() {
+        return results.stream().allMatch(VaultPreloadResult::isLoaded);
+    }
+
+    /**
+     * @return the results for secrets that could not be loaded
+     */
+    public List<VaultPreloadResult> getFailures() {
+        return results.stream()
+                .filter(result -> !result.isLoaded())
+                .collect(toUnmodifiableList());
+    }
+
+    /**
+     * @return the plain text of the secret, or an empty Optional if there is no such secret or it was not loaded
+     */
+    public Optional<String> getSecret(String name) {
+        return Optional.ofNullable(secrets.get(name));
+    }
+
+    public Map<Status, Long> countsByStatus() {
+        var counts = new EnumMap<Status, Long>(Status.class);
+        counts.putAll(results.stream().collect(groupingBy(VaultPreloadResult::getStatus, counting())));
+        return counts;
+    }
+}
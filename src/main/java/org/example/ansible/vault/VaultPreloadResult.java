@@ -0,0 +1,58 @@
+package org.example.ansible.vault;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * The outcome of decrypting a single secret as part of {@link VaultEncryptionHelper#preloadSecrets}.
+ */
+@Value
+public class VaultPreloadResult {
+
+    public enum Status {
+
+        /**
+         * The secret was decrypted and is in {@link VaultPreloadReport#getSecrets()}.
+         */
+        LOADED,
+
+        /**
+         * The secret could not be decrypted with the configured passwords.
+         */
+        WRONG_PASSWORD,
+
+        /**
+         * The encrypted content is malformed.
+         */
+        CORRUPTED_DATA,
+
+        /**
+         * Any other problem, e.g. the value is not encrypt_string output, the file could not be read, or ansible-vault
+         * failed.
+         */
+        ERROR
+    }
+
+    String name;
+
+    Status status;
+
+    @Nullable
+    String message;
+
+    Duration duration;
+
+    public boolean isLoaded() {
+        return status == Status.LOADED;
+    }
+
+    static VaultPreloadResult of(String name, Status status, Duration duration) {
+        return new VaultPreloadResult(name, status, null, duration);
+    }
+
+    static VaultPreloadResult of(String name, Status status, String message, Duration duration) {
+        return new VaultPreloadResult(name, status, message, duration);
+    }
+}
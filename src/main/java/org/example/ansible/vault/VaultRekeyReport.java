@@ -0,0 +1,43 @@
+package org.example.ansible.vault;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import lombok.Value;
+import org.example.ansible.vault.VaultRekeyResult.Status;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-file results of {@link VaultEncryptionHelper#rekeyDirectory}, sorted by path.
+ */
+@Value
+public class VaultRekeyReport {
+
+    List<VaultRekeyResult> results;
+
+    /**
+     * @return true if every vault encrypted file was rekeyed; files that are not vault encrypted are ignored
+     */
+    public boolean isAllRekeyed() {
+        return results.stream().allMatch(result -> result.isRekeyed() || result.getStatus() == Status.NOT_VAULTED);
+    }
+
+    /**
+     * @return the results for vault encrypted files that could not be rekeyed
+     */
+    public List<VaultRekeyResult> getFailures() {
+        return results.stream()
+                .filter(result -> !result.isRekeyed() && result.getStatus() != Status.NOT_VAULTED)
+                .collect(toUnmodifiableList());
+    }
+
+    public Map<Status, Long> countsByStatus() {
+        var counts = new EnumMap<Status, Long>(Status.class);
+        counts.putAll(results.stream().collect(groupingBy(VaultRekeyResult::getStatus, counting())));
+        return counts;
+    }
+}
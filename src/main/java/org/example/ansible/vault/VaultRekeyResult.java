@@ -0,0 +1,60 @@
+package org.example.ansible.vault;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+
+/**
+ * The outcome of rekeying a single file as part of {@link VaultEncryptionHelper#rekeyDirectory}.
+ */
+@Value
+public class VaultRekeyResult {
+
+    public enum Status {
+
+        /**
+         * The file was re-encrypted with the new password.
+         */
+        REKEYED,
+
+        /**
+         * The file is not vault encrypted, so it was left alone.
+         */
+        NOT_VAULTED,
+
+        /**
+         * The file could not be decrypted with the current password; it was left unchanged.
+         */
+        WRONG_PASSWORD,
+
+        /**
+         * The encrypted content is malformed; the file was left unchanged.
+         */
+        CORRUPTED_DATA,
+
+        /**
+         * Any other problem, e.g. the file could not be read or written, or ansible-vault failed.
+         */
+        ERROR
+    }
+
+    Path file;
+
+    Status status;
+
+    @Nullable
+    String message;
+
+    public boolean isRekeyed() {
+        return status == Status.REKEYED;
+    }
+
+    static VaultRekeyResult of(Path file, Status status) {
+        return new VaultRekeyResult(file, status, null);
+    }
+
+    static VaultRekeyResult of(Path file, Status status, String message) {
+        return new VaultRekeyResult(file, status, message);
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.ansible.vault;
+
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ansible.vault.VaultTreeWatcher.Change;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches decrypted inline variables and vault encrypted files from the tree watched by a {@link VaultTreeWatcher},
+ * so a long-running service can pick up edits to vaulted files without a restart.
+ * <p>
+ * On each change, only the variables whose encrypted value was removed or replaced, and only the files that
+ * changed, are evicted. Cached values are also tagged with the fingerprint (for variables) or last-modified time and
+ * size (for files) they were decrypted from, so a value is never served after its source is known to have changed,
+ * even if it was being decrypted while the change was applied.
+ */
+@Slf4j
+public class VaultSecretCache {
+
+    private final VaultEncryptionHelper helper;
+    private final VaultTreeWatcher watcher;
+    private final ConcurrentMap<VariableKey, CachedValue> variables = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Path, CachedValue> files = new ConcurrentHashMap<>();
+
+    @Value
+    private static class VariableKey {
+        Path file;
+        String keyPath;
+    }
+
+    @Value
+    private static class CachedValue {
+        Object version;
+        String plainText;
+    }
+
+    public VaultSecretCache(VaultEncryptionHelper helper, VaultTreeWatcher watcher) {
+        checkArgumentNotNull(helper, "helper cannot be null");
+        checkArgumentNotNull(watcher, "watcher cannot be null");
+
+        this.helper = helper;
+        this.watcher = watcher;
+        watcher.addListener(this::evict);
+    }
+
+    /**
+     * @param relativeFile the file containing the variable, relative to the watched root directory
+     * @param keyPath      the dotted key path of the variable, e.g. {@code db.password}
+     * @return the decrypted value, or an empty Optional if the file has no vaulted variable at that key path
+     */
+    public Optional<String> getVariable(Path relativeFile, String keyPath) {
+        checkArgumentNotNull(relativeFile, "relativeFile cannot be null");
+        checkArgumentNotNull(keyPath, "keyPath cannot be null");
+
+        var index = watcher.getIndex();
+        var entry = index.findByKeyPath(keyPath).stream()
+                .filter(candidate -> candidate.getFile().equals(relativeFile))
+                .findFirst();
+        if (entry.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var fingerprint = entry.get().getFingerprint();
+        var key = new VariableKey(relativeFile, keyPath);
+        var cached = variables.get(key);
+        if (cached != null && cached.getVersion().equals(fingerprint)) {
+            return Optional.of(cached.getPlainText());
+        }
+
+        var plainText = helper.decryptString(index.readEncryptString(entry.get()));
+        variables.put(key, new CachedValue(fingerprint, plainText));
+        return Optional.of(plainText);
+    }
+
+    /**
+     * @param relativeFile a vault encrypted file, relative to the watched root directory
+     * @return the decrypted content of the file
+     */
+    public String getFile(Path relativeFile) {
+        checkArgumentNotNull(relativeFile, "relativeFile cannot be null");
+
+        var path = watcher.getRootDirectory().resolve(relativeFile);
+        var stamp = FileStamp.of(path);
+        var cached = files.get(relativeFile);
+        if (cached != null && cached.getVersion().equals(stamp)) {
+            return cached.getPlainText();
+        }
+
+        var plainText = helper.viewFile(path);
+        if (stamp != null) {
+            files.put(relativeFile, new CachedValue(stamp, plainText));
+        }
+        return plainText;
+    }
+
+    public int size() {
+        return variables.size() + files.size();
+    }
+
+    private void evict(Change change) {
+        var variablesBefore = variables.size();
+        var filesBefore = files.size();
+
+        change.getRemovedEntries().forEach(entry ->
+                variables.remove(new VariableKey(entry.getFile(), entry.getKeyPath())));
+        files.keySet().removeIf(change::affects);
+
+        LOG.debug("Evicted {} variables and {} files after change to {}",
+                variablesBefore - variables.size(), filesBefore - files.size(), change.getChangedFiles());
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.ansible.vault;
+
+/**
+ * Thrown when an ansible-vault process (or a vault password script) does not exit before its timeout.
+ */
+public class VaultTimeoutException extends VaultEncryptionException {
+
+    public VaultTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,352 @@
+package org.example.ansible.vault;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.Objects.isNull;
+import static java.util.stream.Collectors.toList;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ansible.vault.VaultVariableIndex.Entry;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a {@link VaultVariableIndex} current as files under its root directory change, and tells listeners exactly
+ * which files and entries changed so that caches of decrypted values (e.g. {@link VaultSecretCache}) can evict only
+ * what is affected.
+ * <p>
+ * Changes are detected with a {@link WatchService} on every (non-hidden) directory in the tree, so the cost of a
+ * reload is proportional to what changed. Only when events are unavailable (the watch service cannot be created) is
+ * the tree polled for last-modified time and size differences every poll interval. A poll also runs immediately
+ * after an event overflow, and as a safety sweep every (much longer) sweep interval, in case a file system silently
+ * drops events (e.g. some network file systems). Only the files that changed are re-scanned.
+ * <p>
+ * The initial index should reflect the current state of the tree, e.g. one just built with
+ * {@link VaultVariableIndex#build(Path, int)}.
+ */
+@Slf4j
+public class VaultTreeWatcher implements Closeable {
+
+    private static final Duration DEFAULT_SWEEP_INTERVAL = Duration.ofMinutes(10);
+
+    private final Path rootDirectory;
+    private final Duration pollInterval;
+    private final Duration sweepInterval;
+    private final List<Consumer<Change>> listeners = new CopyOnWriteArrayList<>();
+
+    // guarded by this
+    private Map<Path, FileStamp> stamps;
+
+    private volatile VaultVariableIndex index;
+    private volatile boolean running;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * The result of re-scanning changed files. {@code changedFiles} are relative to the root directory and include
+     * files that are not YAML (e.g. whole-file vault encrypted files) and files that were deleted.
+     */
+    @Value
+    public static class Change {
+        Set<Path> changedFiles;
+        List<Entry> removedEntries;
+        List<Entry> addedEntries;
+
+        public boolean affects(Path relativeFile) {
+            return changedFiles.stream().anyMatch(relativeFile::startsWith);
+        }
+    }
+
+    /**
+     * Same as {@link #VaultTreeWatcher(VaultVariableIndex, Duration, Duration)} with a ten minute sweep interval (or
+     * the poll interval, if that is longer).
+     */
+    public VaultTreeWatcher(VaultVariableIndex index, Duration pollInterval) {
+        this(index, pollInterval, defaultSweepInterval(pollInterval));
+    }
+
+    private static Duration defaultSweepInterval(@Nullable Duration pollInterval) {
+        return isNull(pollInterval) || pollInterval.compareTo(DEFAULT_SWEEP_INTERVAL) < 0 ?
+                DEFAULT_SWEEP_INTERVAL : pollInterval;
+    }
+
+    /**
+     * @param pollInterval  how often to poll the tree when file events are unavailable
+     * @param sweepInterval how often to poll the tree even though file events are available
+     */
+    public VaultTreeWatcher(VaultVariableIndex index, Duration pollInterval, Duration sweepInterval) {
+        checkArgumentNotNull(index, "index cannot be null");
+        checkArgumentNotNull(pollInterval, "pollInterval cannot be null");
+        checkArgument(!pollInterval.isNegative() && !pollInterval.isZero(), "pollInterval must be positive");
+        checkArgumentNotNull(sweepInterval, "sweepInterval cannot be null");
+        checkArgument(sweepInterval.compareTo(pollInterval) >= 0, "sweepInterval cannot be shorter than pollInterval");
+
+        this.index = index;
+        this.rootDirectory = index.getRootDirectory();
+        this.pollInterval = pollInterval;
+        this.sweepInterval = sweepInterval;
+        this.stamps = currentStamps();
+    }
+
+    public VaultVariableIndex getIndex() {
+        return index;
+    }
+
+    public Path getRootDirectory() {
+        return rootDirectory;
+    }
+
+    /**
+     * Registers a listener that is called, on the watcher thread, after the index has been updated.
+     */
+    public void addListener(Consumer<Change> listener) {
+        checkArgumentNotNull(listener, "listener cannot be null");
+        listeners.add(listener);
+    }
+
+    /**
+     * Starts watching on a daemon thread. If a watch service cannot be created, only polling is used.
+     */
+    public synchronized void start() {
+        checkState(thread == null, "watcher has already been started");
+
+        try {
+            watchService = rootDirectory.getFileSystem().newWatchService();
+            registerTree(watchService, rootDirectory);
+        } catch (IOException | UncheckedIOException | UnsupportedOperationException e) {
+            LOG.warn("Cannot watch {} for file events; falling back to polling every {}", rootDirectory, pollInterval, e);
+            closeWatchService();
+        }
+
+        running = true;
+        var service = watchService;
+        thread = new Thread(() -> run(service), "vault-tree-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        Thread watcherThread;
+        synchronized (this) {
+            running = false;
+            watcherThread = thread;
+            closeWatchService();
+        }
+
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+            try {
+                watcherThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Compares the last-modified time and size of every file in the tree against the last known values, and applies
+     * any differences. This is what the watcher thread does when file events are unavailable or were lost, and on
+     * each safety sweep; it can also be called directly.
+     */
+    public synchronized void poll() {
+        var current = currentStamps();
+
+        var changed = new HashSet<Path>();
+        current.forEach((file, stamp) -> {
+            if (!stamp.equals(stamps.get(file))) {
+                changed.add(file);
+            }
+        });
+        stamps.keySet().stream().filter(file -> !current.containsKey(file)).forEach(changed::add);
+
+        stamps = current;
+        apply(changed);
+    }
+
+    private void run(WatchService service) {
+        var lastPoll = System.nanoTime();
+        while (running) {
+            try {
+                var key = nextKey(service);
+                if (key != null) {
+                    processEvents(service, key);
+                }
+                if (service == null || System.nanoTime() - lastPoll >= sweepInterval.toNanos()) {
+                    poll();
+                    lastPoll = System.nanoTime();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                LOG.debug("Stopping watcher for {}", rootDirectory);
+                return;
+            } catch (RuntimeException e) {
+                LOG.error("Error processing changes in {}", rootDirectory, e);
+            }
+        }
+    }
+
+    private WatchKey nextKey(WatchService service) throws InterruptedException {
+        if (service == null) {
+            Thread.sleep(pollInterval.toMillis());
+            return null;
+        }
+        return service.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drains all pending watch keys so that a burst of events (e.g. an editor writing a temporary file and renaming
+     * it) is applied as one change.
+     */
+    private void processEvents(WatchService service, WatchKey firstKey) {
+        var changed = new HashSet<Path>();
+        var overflow = false;
+
+        for (var key = firstKey; key != null; key = service.poll()) {
+            var directory = (Path) key.watchable();
+            for (var event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    overflow = true;
+                    continue;
+                }
+
+                var path = directory.resolve((Path) event.context());
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                    registerTree(service, path);
+                    changed.addAll(Utils.listRegularFiles(path));
+                } else {
+                    changed.add(path);
+                }
+            }
+            key.reset();
+        }
+
+        if (overflow) {
+            LOG.warn("File events were lost under {}; polling for changes", rootDirectory);
+            poll();
+        } else {
+            applyEvents(changed);
+        }
+    }
+
+    /**
+     * Applies changes to the given absolute paths. A changed directory (e.g. one that was touched or had its
+     * permissions changed) has all the files under it re-stamped and re-scanned, rather than losing their entries.
+     */
+    @VisibleForTesting
+    synchronized void applyEvents(Set<Path> changedPaths) {
+        var changed = new HashSet<Path>();
+        for (var path : changedPaths) {
+            var relativePath = rootDirectory.relativize(path);
+            if (VaultVariableIndex.isHidden(relativePath)) {
+                continue;
+            }
+
+            changed.add(relativePath);
+            stamps.keySet().removeIf(file -> file.startsWith(relativePath));
+            var files = Files.isDirectory(path) ? Utils.listRegularFiles(path) : List.of(path);
+            for (var file : files) {
+                var relativeFile = rootDirectory.relativize(file);
+                var stamp = FileStamp.of(file);
+                if (!VaultVariableIndex.isHidden(relativeFile) && stamp != null) {
+                    stamps.put(relativeFile, stamp);
+                }
+            }
+        }
+        apply(changed);
+    }
+
+    private void apply(Set<Path> changedFiles) {
+        if (changedFiles.isEmpty()) {
+            return;
+        }
+
+        var oldIndex = index;
+        var newIndex = oldIndex.rescan(changedFiles);
+        var change = new Change(Set.copyOf(changedFiles),
+                difference(entriesIn(oldIndex, changedFiles), newIndex),
+                difference(entriesIn(newIndex, changedFiles), oldIndex));
+        index = newIndex;
+
+        LOG.debug("{} files changed under {}: {} entries removed, {} added", changedFiles.size(), rootDirectory,
+                change.getRemovedEntries().size(), change.getAddedEntries().size());
+
+        for (var listener : listeners) {
+            try {
+                listener.accept(change);
+            } catch (RuntimeException e) {
+                LOG.error("Listener failed to handle change", e);
+            }
+        }
+    }
+
+    private static List<Entry> entriesIn(VaultVariableIndex index, Set<Path> changedFiles) {
+        return index.getEntries().stream()
+                .filter(entry -> changedFiles.stream().anyMatch(entry.getFile()::startsWith))
+                .collect(toList());
+    }
+
+    private static List<Entry> difference(List<Entry> entries, VaultVariableIndex other) {
+        var otherEntries = new HashSet<>(other.getEntries());
+        return entries.stream().filter(entry -> !otherEntries.contains(entry)).collect(toList());
+    }
+
+    private Map<Path, FileStamp> currentStamps() {
+        var current = new HashMap<Path, FileStamp>();
+        for (var file : Utils.listRegularFiles(rootDirectory)) {
+            var relativePath = rootDirectory.relativize(file);
+            var stamp = FileStamp.of(file);
+            if (!VaultVariableIndex.isHidden(relativePath) && stamp != null) {
+                current.put(relativePath, stamp);
+            }
+        }
+        return current;
+    }
+
+    private void registerTree(WatchService service, Path directory) {
+        try (var paths = Files.walk(directory)) {
+            for (var path : paths.filter(Files::isDirectory).collect(toList())) {
+                if (!VaultVariableIndex.isHidden(rootDirectory.relativize(path))) {
+                    path.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error watching " + directory, e);
+        }
+    }
+
+    private void closeWatchService() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOG.warn("Error closing watch service for {}", rootDirectory, e);
+        }
+        watchService = null;
+    }
+}
@@ -0,0 +1,354 @@
+package org.example.ansible.vault;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.toList;
+import static org.example.ansible.vault.Utils.listRegularFiles;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+import static org.kiwiproject.base.KiwiStrings.f;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * An index of every inline {@code !vault} value in a directory tree (e.g. an inventory with group_vars and host_vars),
+ * built with {@link VaultYamlScanner}.
+ * <p>
+ * Entries can be looked up by variable name or key path without touching the tree. Each entry records the byte range
+ * of its value, so {@link #readEncryptString(Entry)} reads just that range from one file. The index can be saved to
+ * and loaded from a compact binary file.
+ */
+@Slf4j
+public class VaultVariableIndex {
+
+    private static final int MAGIC = 0x56564958;  // "VVIX"
+    private static final int FORMAT_VERSION = 1;
+    private static final int FINGERPRINT_LENGTH = 32;
+
+    @Getter
+    private final Path rootDirectory;
+
+    @Getter
+    private final List<Entry> entries;
+
+    private final Map<String, List<Entry>> entriesByName;
+    private final Map<String, List<Entry>> entriesByKeyPath;
+
+    /**
+     * An indexed {@code !vault} value.
+     */
+    @Value
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class Entry {
+        String name;
+        String keyPath;
+
+        /**
+         * The file containing the value, relative to the index root directory.
+         */
+        Path file;
+
+        long startOffset;
+        long endOffset;
+
+        @Getter(AccessLevel.NONE)
+        String vaultIdLabel;
+
+        /**
+         * The {@link VaultPayload#fingerprint() fingerprint} of the encrypted value.
+         */
+        String fingerprint;
+
+        public Optional<String> getVaultIdLabel() {
+            return Optional.ofNullable(vaultIdLabel);
+        }
+    }
+
+    VaultVariableIndex(Path rootDirectory, List<Entry> entries) {
+        this.rootDirectory = rootDirectory;
+        this.entries = List.copyOf(entries);
+        this.entriesByName = groupBy(this.entries, Entry::getName);
+        this.entriesByKeyPath = groupBy(this.entries, Entry::getKeyPath);
+    }
+
+    private static Map<String, List<Entry>> groupBy(List<Entry> entries, Function<Entry, String> keyFunction) {
+        var grouped = new HashMap<String, List<Entry>>();
+        for (var entry : entries) {
+            grouped.computeIfAbsent(keyFunction.apply(entry), key -> new ArrayList<>()).add(entry);
+        }
+        grouped.replaceAll((key, value) -> List.copyOf(value));
+        return grouped;
+    }
+
+    /**
+     * Scans the YAML files (those ending in {@code .yml} or {@code .yaml}, or without an extension) under
+     * {@code rootDirectory} using up to {@code parallelism} threads. Hidden files and directories are skipped, as are
+     * files that cannot be read and values whose encrypted content is malformed; these are logged.
+     */
+    public static VaultVariableIndex build(Path rootDirectory, int parallelism) {
+        checkArgumentNotNull(rootDirectory, "rootDirectory cannot be null");
+        checkArgument(Files.isDirectory(rootDirectory), "%s is not a directory", rootDirectory);
+
+        var root = rootDirectory.toAbsolutePath().normalize();
+        var files = listRegularFiles(root).stream()
+                .map(root::relativize)
+                .filter(VaultVariableIndex::isCandidateFile)
+                .collect(toList());
+
+        var entries = ParallelExecution.mapInParallel(files, file -> indexFile(root, file), parallelism).stream()
+                .flatMap(List::stream)
+                .collect(toList());
+
+        LOG.debug("Indexed {} vaulted values in {} files under {}", entries.size(), files.size(), root);
+        return new VaultVariableIndex(root, entries);
+    }
+
+    static boolean isCandidateFile(Path relativePath) {
+        if (isHidden(relativePath)) {
+            return false;
+        }
+
+        var fileName = relativePath.getFileName().toString();
+        return fileName.endsWith(".yml") || fileName.endsWith(".yaml") || !fileName.contains(".");
+    }
+
+    static boolean isHidden(Path relativePath) {
+        for (var part : relativePath) {
+            if (part.toString().startsWith(".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a new index in which the entries for the given files (or directories), relative to the root directory,
+     * have been replaced by re-scanning them. A changed directory has every file under it re-scanned. Files that no
+     * longer exist simply lose their entries. All other entries are carried over without touching their files.
+     */
+    public VaultVariableIndex rescan(Collection<Path> changedPaths) {
+        checkArgumentNotNull(changedPaths, "changedPaths cannot be null");
+
+        var entriesByFile = new TreeMap<Path, List<Entry>>();
+        for (var entry : entries) {
+            if (changedPaths.stream().noneMatch(changed -> entry.getFile().startsWith(changed))) {
+                entriesByFile.computeIfAbsent(entry.getFile(), file -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        for (var changed : changedPaths) {
+            var path = rootDirectory.resolve(changed);
+            if (Files.isDirectory(path)) {
+                for (var file : listRegularFiles(path)) {
+                    var relativeFile = rootDirectory.relativize(file);
+                    if (isCandidateFile(relativeFile)) {
+                        entriesByFile.put(relativeFile, indexFile(rootDirectory, relativeFile));
+                    }
+                }
+            } else if (Files.isRegularFile(path) && isCandidateFile(changed)) {
+                entriesByFile.put(changed, indexFile(rootDirectory, changed));
+            }
+        }
+
+        var rescanned = entriesByFile.values().stream().flatMap(List::stream).collect(toList());
+        LOG.debug("Rescanned {} paths under {}; index now has {} entries",
+                changedPaths.size(), rootDirectory, rescanned.size());
+        return new VaultVariableIndex(rootDirectory, rescanned);
+    }
+
+    private static List<Entry> indexFile(Path root, Path relativePath) {
+        var entries = new ArrayList<Entry>();
+        try {
+            VaultYamlScanner.scan(root.resolve(relativePath), variable -> {
+                var entry = toEntry(relativePath, variable);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            LOG.warn("Skipping file that could not be read: {}", relativePath, e);
+            return List.of();
+        }
+        return entries;
+    }
+
+    @Nullable
+    private static Entry toEntry(Path relativePath, VaultInlineVariable variable) {
+        try {
+            var payload = VaultPayload.parse(variable.getEncryptedFileBytes());
+            return new Entry(variable.getName(),
+                    variable.getKeyPath(),
+                    relativePath,
+                    variable.getStartOffset(),
+                    variable.getEndOffset(),
+                    payload.getVaultIdLabel().orElse(null),
+                    payload.fingerprint());
+        } catch (VaultEncryptionException e) {
+            LOG.warn("Skipping malformed !vault value {} in {} at line {}: {}",
+                    variable.getKeyPath(), relativePath, variable.getLineNumber(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the entries for variables with the given name, in any file and at any depth
+     */
+    public List<Entry> findByName(String name) {
+        return entriesByName.getOrDefault(name, List.of());
+    }
+
+    /**
+     * @return the entries for variables with the given dotted key path, e.g. {@code db.users[0].password}
+     */
+    public List<Entry> findByKeyPath(String keyPath) {
+        return entriesByKeyPath.getOrDefault(keyPath, List.of());
+    }
+
+    /**
+     * Reads the indexed value from its file with a single positioned read, in the form accepted by
+     * {@link VaultEncryptionHelper#decryptString(String)}.
+     *
+     * @throws VaultEncryptionException if the file has changed so that the value is no longer at the indexed
+     *                                  position, or no longer has the indexed fingerprint
+     * @throws UncheckedIOException     if the file cannot be read
+     */
+    public String readEncryptString(Entry entry) {
+        checkArgumentNotNull(entry, "entry cannot be null");
+
+        var file = rootDirectory.resolve(entry.getFile());
+        var length = Math.toIntExact(entry.getEndOffset() - entry.getStartOffset());
+        var buffer = ByteBuffer.allocate(length);
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, entry.getStartOffset() + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading " + file, e);
+        }
+
+        var variables = new ArrayList<VaultInlineVariable>();
+        try {
+            VaultYamlScanner.scan(new ByteArrayInputStream(buffer.array(), 0, buffer.position()), variables::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (variables.size() != 1 || !isSameValue(entry, variables.get(0))) {
+            throw new VaultEncryptionException(
+                    f("index entry for {} in {} is stale; rebuild the index", entry.getKeyPath(), file));
+        }
+        return variables.get(0).toEncryptStringContent();
+    }
+
+    private static boolean isSameValue(Entry entry, VaultInlineVariable variable) {
+        try {
+            return entry.getFingerprint().equals(VaultPayload.parse(variable.getEncryptedFileBytes()).fingerprint());
+        } catch (VaultEncryptionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes this index to {@code indexFile}, replacing it if it exists.
+     *
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public void save(Path indexFile) {
+        checkArgumentNotNull(indexFile, "indexFile cannot be null");
+
+        var fileNumbers = new LinkedHashMap<Path, Integer>();
+        entries.forEach(entry -> fileNumbers.putIfAbsent(entry.getFile(), fileNumbers.size()));
+
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(rootDirectory.toString());
+
+            out.writeInt(fileNumbers.size());
+            for (var file : fileNumbers.keySet()) {
+                out.writeUTF(file.toString());
+            }
+
+            out.writeInt(entries.size());
+            for (var entry : entries) {
+                out.writeInt(fileNumbers.get(entry.getFile()));
+                out.writeUTF(entry.getName());
+                out.writeUTF(entry.getKeyPath());
+                out.writeLong(entry.getStartOffset());
+                out.writeLong(entry.getEndOffset());
+                out.writeUTF(entry.getVaultIdLabel().orElse(""));
+                out.write(VaultHex.decode(entry.getFingerprint()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing index file " + indexFile, e);
+        }
+    }
+
+    /**
+     * Reads an index previously written by {@link #save(Path)}.
+     *
+     * @throws VaultEncryptionException if the file is not a vault variable index
+     * @throws UncheckedIOException     if the file cannot be read
+     */
+    public static VaultVariableIndex load(Path indexFile) {
+        checkArgumentNotNull(indexFile, "indexFile cannot be null");
+
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new VaultEncryptionException(f("{} is not a vault variable index file", indexFile));
+            }
+            var rootDirectory = Path.of(in.readUTF());
+
+            var files = new Path[in.readInt()];
+            for (var i = 0; i < files.length; i++) {
+                files[i] = Path.of(in.readUTF());
+            }
+
+            var entryCount = in.readInt();
+            var entries = new ArrayList<Entry>(entryCount);
+            var fingerprint = new byte[FINGERPRINT_LENGTH];
+            for (var i = 0; i < entryCount; i++) {
+                var file = files[in.readInt()];
+                var name = in.readUTF();
+                var keyPath = in.readUTF();
+                var startOffset = in.readLong();
+                var endOffset = in.readLong();
+                var label = in.readUTF();
+                in.readFully(fingerprint);
+                entries.add(new Entry(name, keyPath, file, startOffset, endOffset,
+                        label.isEmpty() ? null : label, VaultHex.encodeToString(fingerprint)));
+            }
+
+            return new VaultVariableIndex(rootDirectory, entries);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading index file " + indexFile, e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.ansible.vault;
+
+import static java.util.Objects.isNull;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The outcome of {@link VaultEncryptionHelper#warmUp()}: how long each step took, and the failure that stopped it,
+ * if any. Steps that do not apply to the configuration (e.g. checking the ansible-vault executable when the native
+ * engine is configured) and steps after a failure are absent from {@link #getStepDurations()}.
+ */
+@Value
+public class VaultWarmUpReport {
+
+    public enum Step {
+
+        /**
+         * Creates the temporary directory if necessary, and checks that it is writable.
+         */
+        TEMP_DIRECTORY,
+
+        /**
+         * Checks that ansible-vault is executable; only for the {@link VaultEngineType#ANSIBLE_VAULT} engine.
+         */
+        EXECUTABLE,
+
+        /**
+         * Reads every configured password, filling the password cache if there is one, and writes any temporary
+         * password files that ansible-vault needs.
+         */
+        PASSWORDS,
+
+        /**
+         * Loads the JCA providers and primitives used by the native engine, and to choose passwords for
+         * ansible-vault.
+         */
+        CRYPTO_PRIMITIVES,
+
+        /**
+         * Encrypts and decrypts a random value with the configured engine.
+         */
+        ROUND_TRIP
+    }
+
+    Map<Step, Duration> stepDurations;
+
+    Duration totalDuration;
+
+    @Nullable
+    Step failedStep;
+
+    @Nullable
+    RuntimeException failure;
+
+    /**
+     * @return true if every step succeeded
+     */
+    public boolean isReady() {
+        return isNull(failure);
+    }
+}
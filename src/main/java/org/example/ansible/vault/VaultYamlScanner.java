@@ -0,0 +1,381 @@
+package org.example.ansible.vault;
+
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Finds every {@code !vault} tagged value in a YAML file (e.g. group_vars, host_vars or a playbook) in a single
+ * streaming pass, at any nesting depth and with any indentation.
+ * <p>
+ * This is not a general YAML parser. It understands block mappings and block sequences, which is what Ansible
+ * variable files use; values inside flow collections ({@code {...}} or {@code [...]}) are not found. A
+ * {@code !vault} value whose first line is not a valid {@code $ANSIBLE_VAULT} header is logged and skipped.
+ */
+@Slf4j
+@UtilityClass
+public class VaultYamlScanner {
+
+    private static final Pattern VAULT_TAG = Pattern.compile("!vault\\s+[|>][-+0-9]*");
+    private static final Pattern BLOCK_SCALAR = Pattern.compile("(!\\S*\\s+)?[|>][-+0-9]*");
+
+    /**
+     * @return the vaulted values in the file, in file order
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public static List<VaultInlineVariable> scan(Path yamlFile) {
+        var variables = new ArrayList<VaultInlineVariable>();
+        scan(yamlFile, variables::add);
+        return variables;
+    }
+
+    /**
+     * Passes each vaulted value to {@code consumer} as soon as its last line has been read.
+     *
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public static void scan(Path yamlFile, Consumer<VaultInlineVariable> consumer) {
+        checkArgumentNotNull(yamlFile, "yamlFile cannot be null");
+
+        try (var inputStream = Files.newInputStream(yamlFile)) {
+            scan(inputStream, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error scanning " + yamlFile, e);
+        }
+    }
+
+    /**
+     * Reads {@code inputStream} to the end, passing each vaulted value to {@code consumer}. Does not close the
+     * stream.
+     */
+    public static void scan(InputStream inputStream, Consumer<VaultInlineVariable> consumer) throws IOException {
+        checkArgumentNotNull(inputStream, "inputStream cannot be null");
+        checkArgumentNotNull(consumer, "consumer cannot be null");
+
+        var scanner = new Scanner(consumer);
+        var in = new BufferedInputStream(inputStream);
+        var line = new ByteArrayOutputStream(128);
+        long offset = 0;
+        long lineStart = 0;
+
+        int b;
+        while ((b = in.read()) >= 0) {
+            offset++;
+            if (b == '\n') {
+                scanner.accept(toLine(line), lineStart, offset);
+                line.reset();
+                lineStart = offset;
+            } else {
+                line.write(b);
+            }
+        }
+
+        if (line.size() > 0) {
+            scanner.accept(toLine(line), lineStart, offset);
+        }
+        scanner.finish();
+    }
+
+    private static String toLine(ByteArrayOutputStream line) {
+        var text = line.toString(StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    private static int indentOf(String line) {
+        var indent = 0;
+        while (indent < line.length() && line.charAt(indent) == ' ') {
+            indent++;
+        }
+        return indent;
+    }
+
+    private static boolean isBlank(String line) {
+        return indentOf(line) == line.length();
+    }
+
+    /**
+     * Tracks the keys (and sequence indexes) enclosing the current line, plus the vaulted value being read, if any.
+     */
+    private static class Scanner {
+
+        private final Consumer<VaultInlineVariable> consumer;
+        private final Deque<Node> nodes = new ArrayDeque<>();
+        private PendingVariable pending;
+        private int skippedBlockIndent = -1;
+        private int skippedContentIndent = -1;
+        private int lineNumber;
+
+        Scanner(Consumer<VaultInlineVariable> consumer) {
+            this.consumer = consumer;
+            this.nodes.push(Node.root());
+        }
+
+        void accept(String line, long lineStart, long lineEnd) {
+            lineNumber++;
+
+            if (pending != null) {
+                if (pending.accepts(line)) {
+                    pending.add(line, lineEnd);
+                    return;
+                }
+                finish();
+            }
+
+            if (skipsBlockScalarLine(line)) {
+                return;
+            }
+
+            var indent = indentOf(line);
+            var content = line.substring(indent);
+            if (content.isEmpty() || content.startsWith("#")) {
+                return;
+            }
+
+            if (indent == 0 && (content.startsWith("---") || content.startsWith("..."))) {
+                nodes.clear();
+                nodes.push(Node.root());
+                return;
+            }
+
+            acceptNode(indent, content, lineStart);
+        }
+
+        private void acceptNode(int indent, String content, long lineStart) {
+            if (content.equals("-") || content.startsWith("- ")) {
+                popWhile(node -> node.indent > indent || (node.indent == indent && node.sequenceItem));
+                var parent = nodes.element();
+                nodes.push(Node.sequenceItem(indent, parent.nextSequenceIndex++));
+
+                var rest = content.substring(1);
+                var restIndent = indentOf(rest);
+                var restContent = rest.substring(restIndent);
+                if (BLOCK_SCALAR.matcher(stripComment(restContent).strip()).matches()) {
+                    skippedBlockIndent = indent;
+                } else if (!restContent.isEmpty() && !restContent.startsWith("#")) {
+                    acceptNode(indent + 1 + restIndent, restContent, lineStart);
+                }
+                return;
+            }
+
+            popWhile(node -> node.indent >= indent);
+
+            var separator = keySeparator(content);
+            if (separator < 0) {
+                return;
+            }
+
+            var key = unquote(content.substring(0, separator).strip());
+            var value = stripComment(content.substring(separator + 1)).strip();
+            if (value.isEmpty()) {
+                nodes.push(Node.key(indent, key));
+            } else if (VAULT_TAG.matcher(value).matches()) {
+                pending = new PendingVariable(key, keyPath(key), indent, lineNumber, lineStart);
+            } else if (BLOCK_SCALAR.matcher(value).matches()) {
+                skippedBlockIndent = indent;
+            }
+        }
+
+        /**
+         * Skips the body of a block scalar that is not vaulted (e.g. a script or template), so that text in it that
+         * looks like YAML, such as {@code x: !vault |}, is not mistaken for a variable. Like a vaulted value, the
+         * body ends at the first non-blank line indented less than its first line.
+         */
+        private boolean skipsBlockScalarLine(String line) {
+            if (skippedBlockIndent < 0 || isBlank(line)) {
+                return skippedBlockIndent >= 0;
+            }
+
+            var indent = indentOf(line);
+            if (skippedContentIndent < 0 && indent > skippedBlockIndent) {
+                skippedContentIndent = indent;
+            }
+            if (skippedContentIndent >= 0 && indent >= skippedContentIndent) {
+                return true;
+            }
+
+            skippedBlockIndent = -1;
+            skippedContentIndent = -1;
+            return false;
+        }
+
+        void finish() {
+            if (pending == null) {
+                return;
+            }
+
+            var variable = pending.toVariable();
+            pending = null;
+            if (variable != null) {
+                consumer.accept(variable);
+            }
+        }
+
+        private void popWhile(Predicate<Node> predicate) {
+            while (!nodes.element().root && predicate.test(nodes.element())) {
+                nodes.pop();
+            }
+        }
+
+        private String keyPath(String key) {
+            var path = new StringBuilder();
+            var iterator = nodes.descendingIterator();
+            while (iterator.hasNext()) {
+                appendSegment(path, iterator.next());
+            }
+            appendSegment(path, Node.key(0, key));
+            return path.toString();
+        }
+
+        private static void appendSegment(StringBuilder path, Node node) {
+            if (node.root) {
+                return;
+            }
+            if (!node.sequenceItem && path.length() > 0) {
+                path.append('.');
+            }
+            path.append(node.key);
+        }
+
+        /**
+         * @return the index of the colon that ends the mapping key, or -1 if the content is not a mapping entry
+         */
+        private static int keySeparator(String content) {
+            var from = 0;
+            var first = content.charAt(0);
+            if (first == '"' || first == '\'') {
+                var closingQuote = content.indexOf(first, 1);
+                if (closingQuote < 0) {
+                    return -1;
+                }
+                from = closingQuote + 1;
+            } else if (first == '{' || first == '[') {
+                return -1;
+            }
+
+            for (var i = from; i < content.length(); i++) {
+                if (content.charAt(i) == ':' && (i + 1 == content.length() || content.charAt(i + 1) == ' ')) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static String unquote(String key) {
+            if (key.length() >= 2) {
+                var first = key.charAt(0);
+                if ((first == '"' || first == '\'') && key.charAt(key.length() - 1) == first) {
+                    return key.substring(1, key.length() - 1);
+                }
+            }
+            return key;
+        }
+
+        private static String stripComment(String value) {
+            var comment = value.indexOf(" #");
+            return comment < 0 ? value : value.substring(0, comment);
+        }
+    }
+
+    /**
+     * A mapping key whose value is a nested block, a sequence item, or the document root.
+     */
+    private static class Node {
+
+        final int indent;
+        final String key;
+        final boolean sequenceItem;
+        final boolean root;
+        int nextSequenceIndex;
+
+        private Node(int indent, String key, boolean sequenceItem, boolean root) {
+            this.indent = indent;
+            this.key = key;
+            this.sequenceItem = sequenceItem;
+            this.root = root;
+        }
+
+        static Node root() {
+            return new Node(-1, "", false, true);
+        }
+
+        static Node key(int indent, String key) {
+            return new Node(indent, key, false, false);
+        }
+
+        static Node sequenceItem(int indent, int index) {
+            return new Node(indent, "[" + index + "]", true, false);
+        }
+    }
+
+    /**
+     * Collects the lines of a {@code !vault} block scalar. The block ends at the first non-blank line indented less
+     * than its first line; blank lines within it are allowed but not counted in its byte range.
+     */
+    private static class PendingVariable {
+
+        private final String name;
+        private final String keyPath;
+        private final int keyIndent;
+        private final int lineNumber;
+        private final long startOffset;
+        private final List<String> lines = new ArrayList<>();
+        private int contentIndent = -1;
+        private long endOffset;
+
+        PendingVariable(String name, String keyPath, int keyIndent, int lineNumber, long startOffset) {
+            this.name = name;
+            this.keyPath = keyPath;
+            this.keyIndent = keyIndent;
+            this.lineNumber = lineNumber;
+            this.startOffset = startOffset;
+        }
+
+        boolean accepts(String line) {
+            if (isBlank(line)) {
+                return true;
+            }
+            var indent = indentOf(line);
+            return contentIndent < 0 ? indent > keyIndent : indent >= contentIndent;
+        }
+
+        void add(String line, long lineEnd) {
+            if (isBlank(line)) {
+                return;
+            }
+            if (contentIndent < 0) {
+                contentIndent = indentOf(line);
+            }
+            lines.add(line.substring(contentIndent).strip());
+            endOffset = lineEnd;
+        }
+
+        VaultInlineVariable toVariable() {
+            var header = lines.isEmpty() ? null : VaultHeader.parse(lines.get(0)).orElse(null);
+            if (header == null) {
+                LOG.warn("Skipping !vault value {} at line {}: missing or invalid $ANSIBLE_VAULT header",
+                        keyPath, lineNumber);
+                return null;
+            }
+
+            return new VaultInlineVariable(name, keyPath, keyIndent, contentIndent, lineNumber,
+                    startOffset, endOffset, header, List.copyOf(lines.subList(1, lines.size())));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.ansible.example;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.entry;
+
+import org.example.ansible.example.VaultLoadGenerator.Operation;
+import org.example.ansible.example.VaultLoadGenerator.Options;
+import org.example.ansible.vault.VaultEngineType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@DisplayName("VaultLoadGenerator")
+class VaultLoadGeneratorTest {
+
+    @TempDir
+    Path folder;
+
+    @Nested
+    class Parse {
+
+        @Test
+        void shouldMapCliNamesToOperations() {
+            var options = Options.parse(new String[] {
+                    "--password-file=/data/vault/.vault_pass",
+                    "--engine=native",
+                    "--threads=8",
+                    "--duration=PT30S",
+                    "--mix=encryptString:2, rekeyFile:1"
+            });
+
+            assertThat(options.passwordFile).isEqualTo("/data/vault/.vault_pass");
+            assertThat(options.engine).isEqualTo(VaultEngineType.NATIVE);
+            assertThat(options.threads).isEqualTo(8);
+            assertThat(options.duration).isEqualTo(Duration.ofSeconds(30));
+            assertThat(options.mix).containsExactly(entry(Operation.ENCRYPT_STRING, 2), entry(Operation.REKEY_FILE, 1));
+        }
+
+        @Test
+        void shouldDefaultToEncryptDecryptAndViewMix() {
+            var options = Options.parse(new String[] {"--password-file=/data/vault/.vault_pass"});
+
+            assertThat(options.mix).containsExactly(
+                    entry(Operation.ENCRYPT_STRING, 1),
+                    entry(Operation.DECRYPT_STRING, 1),
+                    entry(Operation.VIEW_FILE, 1));
+        }
+
+        @Test
+        void shouldRejectUnknownOperation() {
+            var args = new String[] {"--password-file=/data/vault/.vault_pass", "--mix=ENCRYPT_STRING:1"};
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> Options.parse(args))
+                    .withMessage("unknown operation: ENCRYPT_STRING");
+        }
+
+        @Test
+        void shouldRejectMalformedDuration() {
+            var args = new String[] {"--password-file=/data/vault/.vault_pass", "--duration=30s"};
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> Options.parse(args))
+                    .withMessage("--duration must be an ISO-8601 duration, e.g. PT30S: 30s");
+        }
+
+        @Test
+        void shouldRequirePasswordFile() {
+            var args = new String[] {"--threads=2"};
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> Options.parse(args))
+                    .withMessage("--password-file is required");
+        }
+    }
+
+    @Nested
+    class Run {
+
+        @Test
+        void shouldReportResultsByCliOperationName() throws IOException, InterruptedException {
+            var passwordFile = Files.writeString(folder.resolve(".vault_pass"), "password100");
+            var ansibleVault = Files.writeString(folder.resolve("ansible-vault"), "#!/bin/sh\n");
+            assertThat(ansibleVault.toFile().setExecutable(true)).isTrue();
+            var options = Options.parse(new String[] {
+                    "--password-file=" + passwordFile,
+                    "--ansible-vault=" + ansibleVault,
+                    "--engine=NATIVE",
+                    "--threads=2",
+                    "--operations=4",
+                    "--mix=encryptString:1",
+                    "--work-dir=" + folder.resolve("work")
+            });
+
+            var json = new VaultLoadGenerator(options).run();
+
+            assertThat(json)
+                    .startsWith("{\"engine\":\"NATIVE\",\"threads\":2,\"valueSize\":32,\"elapsedMillis\":")
+                    .contains("\"operations\":4,\"errors\":0,\"processesLaunched\":0,")
+                    .contains("\"errorTypes\":{},\"byOperation\":{")
+                    .containsPattern("\"encryptString\":\\{\"operations\":4,\"errors\":0,\"throughputPerSecond\":"
+                            + "[0-9.]+,\"latencyMicros\":\\{\"mean\":[0-9.]+,\"p50\":[0-9.]+,\"p90\":[0-9.]+,"
+                            + "\"p99\":[0-9.]+,\"p999\":[0-9.]+,\"max\":[0-9.]+}}")
+                    .doesNotContain("ENCRYPT_STRING", "errorLatencyMicros")
+                    .endsWith("}}");
+        }
+    }
+}
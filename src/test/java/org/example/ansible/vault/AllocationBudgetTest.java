@@ -0,0 +1,200 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Fails when a hot path allocates more than its recorded budget, measured with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} on the test thread.
+ * <p>
+ * Each budget is the bytes per operation recorded next to it (on JDK 11) plus about 40% headroom for JVM and JIT
+ * differences. Allocations only go down as the JIT warms up, so a failure means new garbage, not noise. When a
+ * change allocates less, record the new figure and lower the budget to keep it.
+ */
+@DisplayName("Allocation budgets")
+class AllocationBudgetTest {
+
+    private static final String PASSWORD = "password100";
+    private static final String PLAIN_TEXT = "x".repeat(32);
+
+    private static com.sun.management.ThreadMXBean threadMXBean;
+
+    /**
+     * Keeps results reachable so the JIT cannot eliminate the measured allocations.
+     */
+    private static volatile Object sink;
+
+    @BeforeAll
+    static void setUpThreadMXBean() {
+        var bean = ManagementFactory.getThreadMXBean();
+        assumeThat(bean).isInstanceOf(com.sun.management.ThreadMXBean.class);
+
+        threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        assumeThat(threadMXBean.isThreadAllocatedMemorySupported()).isTrue();
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Nested
+    class EncryptedVariables {
+
+        private String encryptString;
+        private VaultEncryptedVariable variable;
+
+        @BeforeEach
+        void setUp() {
+            var payload = VaultAes256.encrypt(
+                    PLAIN_TEXT.getBytes(StandardCharsets.UTF_8), PASSWORD.toCharArray(), null);
+            encryptString = "db_password: !vault |\n" + payload.toIndentedContent("          ");
+            variable = new VaultEncryptedVariable(encryptString);
+        }
+
+        @Test
+        void shouldStayWithinBudget_ForConstruction() {
+            assertThat(bytesPerOperation(10_000, () -> new VaultEncryptedVariable(encryptString)))
+                    .isLessThanOrEqualTo(7_168);  // recorded: 5192
+        }
+
+        @Test
+        void shouldStayWithinBudget_ForEncryptedFileBytes() {
+            assertThat(bytesPerOperation(10_000, variable::getEncryptedFileBytes))
+                    .isLessThanOrEqualTo(704);  // recorded: 504
+        }
+    }
+
+    @Nested
+    class CommandParts {
+
+        private VaultConfiguration configuration;
+
+        @BeforeEach
+        void setUp() {
+            configuration = VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath("/data/vault/.vault_pass")
+                    .vaultIdPasswordFilePaths(Map.of("prod", "/data/vault/.vault_pass_prod"))
+                    .build();
+        }
+
+        @Test
+        void shouldStayWithinBudget_ForEncryptCommand() {
+            var command = VaultEncryptCommand.from(configuration, "/data/etc/secrets.yml");
+
+            assertThat(bytesPerOperation(10_000, command::getCommandParts)).isLessThanOrEqualTo(144);  // recorded: 96
+        }
+
+        @Test
+        void shouldStayWithinBudget_ForEncryptStringCommand() {
+            var command = VaultEncryptStringCommand.from(configuration, "prod", "the secret", "db_password");
+
+            assertThat(bytesPerOperation(10_000, command::getCommandParts)).isLessThanOrEqualTo(416);  // recorded: 296
+        }
+
+        @Test
+        void shouldStayWithinBudget_ForDecryptToStdoutCommand() {
+            var command = VaultDecryptCommand.toStdoutFrom(configuration, "/tmp/db_password.123.txt");
+
+            assertThat(bytesPerOperation(10_000, command::getCommandParts)).isLessThanOrEqualTo(592);  // recorded: 424
+        }
+
+        @Test
+        void shouldStayWithinBudget_ForViewCommand() {
+            var command = VaultViewCommand.from(configuration, "/data/etc/secrets.yml");
+
+            assertThat(bytesPerOperation(10_000, command::getCommandParts)).isLessThanOrEqualTo(576);  // recorded: 408
+        }
+    }
+
+    @Nested
+    class NativeEngine {
+
+        @TempDir
+        Path folder;
+
+        private NativeVaultEngine engine;
+        private VaultEncryptedVariable encryptedVariable;
+        private byte[] plainText;
+        private byte[] salt;
+        private VaultAes256.DerivedKeys keys;
+        private VaultPayload payload;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            var passwordFilePath = Files.writeString(folder.resolve(".vault_pass"), PASSWORD);
+
+            var configuration = VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath(passwordFilePath.toString())
+                    .tempDirectory(folder.toString())
+                    .engine(VaultEngineType.NATIVE)
+                    .build();
+
+            engine = new NativeVaultEngine(configuration);
+            encryptedVariable = new VaultEncryptedVariable(engine.encryptString(null, PLAIN_TEXT, "db_password"));
+
+            plainText = PLAIN_TEXT.getBytes(StandardCharsets.UTF_8);
+            salt = VaultPayload.parse(encryptedVariable.getEncryptedFileBytes()).getSalt();
+            keys = VaultAes256.deriveKeys(PASSWORD.toCharArray(), salt);
+            payload = VaultAes256.encrypt(plainText, salt, keys, null);
+        }
+
+        @Test
+        void shouldStayWithinBudget_ForCipherEncryption() {
+            assertThat(bytesPerOperation(10_000, () -> VaultAes256.encrypt(plainText, salt, keys, null)))
+                    .isLessThanOrEqualTo(752);  // recorded: 536
+        }
+
+        @Test
+        void shouldStayWithinBudget_ForCipherDecryption() {
+            assertThat(bytesPerOperation(10_000, () -> VaultAes256.decrypt(payload, keys)))
+                    .isLessThanOrEqualTo(440);  // recorded: 312
+        }
+
+        /**
+         * Most of this budget is the JDK's PBKDF2 key derivation, which the cipher budgets above leave out.
+         */
+        @Test
+        void shouldStayWithinBudget_ForEncryptString() {
+            assertThat(bytesPerOperation(50, () -> engine.encryptString(null, PLAIN_TEXT, "db_password")))
+                    .isLessThanOrEqualTo(1_850_000);  // recorded: 1448832
+        }
+
+        @Test
+        void shouldStayWithinBudget_ForDecryptString() {
+            assertThat(bytesPerOperation(50, () -> engine.decryptString(encryptedVariable)))
+                    .isLessThanOrEqualTo(1_850_000);  // recorded: 1448572
+        }
+    }
+
+    /**
+     * Runs {@code operation} {@code iterations} times to warm up, then the same number of times again, and returns the
+     * average bytes allocated by this thread per operation in the second run.
+     */
+    private static long bytesPerOperation(int iterations, Supplier<?> operation) {
+        for (var i = 0; i < iterations; i++) {
+            sink = operation.get();
+        }
+
+        var threadId = Thread.currentThread().getId();
+        var before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (var i = 0; i < iterations; i++) {
+            sink = operation.get();
+        }
+        var allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+        return allocated / iterations;
+    }
+}
@@ -0,0 +1,335 @@
+package org.example.ansible.vault;
+
+import static java.util.Objects.isNull;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * A stand-in for the ansible-vault executable, for load testing and benchmarking the process-backed engine on any
+ * machine. It accepts the {@code encrypt}, {@code decrypt}, {@code view}, {@code rekey} and {@code encrypt_string}
+ * argument shapes produced by the {@link OsCommand} implementations, and reads and writes real vault content (using
+ * {@link VaultAes256}), so its output is interchangeable with ansible-vault and the native engine. Errors are
+ * reported as ansible-vault does, i.e. an {@code ERROR!} message on stderr and exit code 1.
+ * <p>
+ * {@link #install(Path)} writes an executable {@code ansible-vault} script that runs this class in a new JVM with
+ * the configured behavior:
+ * <ul>
+ *     <li>{@link #startupDelay} is added to every invocation, on top of the JVM start-up time</li>
+ *     <li>{@link #perByteCost} is added for every byte of input (file content or plain text)</li>
+ *     <li>every {@link #failEveryNth} invocation of one of the {@link #failingActions} (by default, any action)
+ *     fails with {@link #failureExitCode} and {@link #failureMessage}, counting across processes</li>
+ * </ul>
+ */
+@Getter
+@Builder
+public class FakeAnsibleVault {
+
+    private static final String PROPERTY_PREFIX = "fake.ansible.vault.";
+    private static final String ENCRYPT_STRING_INDENT = "          ";
+
+    @Builder.Default
+    private final Duration startupDelay = Duration.ZERO;
+
+    @Builder.Default
+    private final Duration perByteCost = Duration.ZERO;
+
+    /**
+     * Zero (the default) means invocations never fail.
+     */
+    private final int failEveryNth;
+
+    /**
+     * Empty (the default) means any action can fail.
+     */
+    @Builder.Default
+    private final Set<String> failingActions = Set.of();
+
+    @Builder.Default
+    private final int failureExitCode = 1;
+
+    @Builder.Default
+    private final String failureMessage = "ERROR! injected failure";
+
+    /**
+     * Writes an executable {@code ansible-vault} script into {@code directory}, plus the invocation counter used for
+     * failure injection.
+     *
+     * @return the path of the script, e.g. for {@link VaultConfiguration#setAnsibleVaultPath(String)}
+     */
+    public Path install(Path directory) {
+        var script = directory.resolve("ansible-vault");
+        var counter = directory.resolve(".fake-ansible-vault-invocations");
+
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of("-Xshare:auto", "-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC"));
+        command.add(property("startupDelayNanos", startupDelay.toNanos()));
+        command.add(property("perByteNanos", perByteCost.toNanos()));
+        command.add(property("failEveryNth", failEveryNth));
+        command.add(property("failingActions", String.join(",", failingActions)));
+        command.add(property("failureExitCode", failureExitCode));
+        command.add(property("failureMessage", failureMessage));
+        command.add(property("counterFile", counter));
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), FakeAnsibleVault.class.getName()));
+
+        var content = "#!/bin/sh\nexec " +
+                command.stream().map(FakeAnsibleVault::quote).collect(Collectors.joining(" ")) +
+                " \"$@\"\n";
+
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(script, content);
+            Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwx------"));
+            return script;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error installing fake ansible-vault in " + directory, e);
+        }
+    }
+
+    private static String property(String name, Object value) {
+        return "-D" + PROPERTY_PREFIX + name + "=" + value;
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        pause(Long.getLong(PROPERTY_PREFIX + "startupDelayNanos", 0));
+
+        if (args.length == 0) {
+            err.println("ERROR! missing action");
+            return 1;
+        }
+
+        var action = args[0];
+        if (shouldFail(action)) {
+            err.println(System.getProperty(PROPERTY_PREFIX + "failureMessage", "ERROR! injected failure"));
+            return Integer.getInteger(PROPERTY_PREFIX + "failureExitCode", 1);
+        }
+
+        try {
+            var arguments = Arguments.parse(Arrays.copyOfRange(args, 1, args.length));
+            switch (action) {
+                case "encrypt":
+                    encrypt(arguments);
+                    break;
+                case "decrypt":
+                    decrypt(arguments, out);
+                    break;
+                case "view":
+                    out.write(decrypt(arguments.passwordFile, arguments.positional()));
+                    break;
+                case "rekey":
+                    rekey(arguments);
+                    break;
+                case "encrypt_string":
+                    encryptString(arguments, out);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown action: " + action);
+            }
+            out.flush();
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            err.println("ERROR! " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static void encrypt(Arguments arguments) throws IOException {
+        var path = Path.of(arguments.positional());
+        var plainText = read(path);
+        if (VaultPayload.hasHeaderPrefix(plainText)) {
+            throw new IllegalArgumentException("input is already encrypted");
+        }
+
+        var payload = VaultAes256.encrypt(plainText, password(arguments.passwordFile), arguments.vaultIdLabel);
+        Files.write(path, payload.toEncryptedFileBytes());
+    }
+
+    private static void decrypt(Arguments arguments, PrintStream out) throws IOException {
+        var input = arguments.positional();
+        var plainText = decrypt(arguments.passwordFile, input);
+
+        var output = isNull(arguments.output) ? input : arguments.output;
+        if ("-".equals(output)) {
+            out.write(plainText);
+        } else {
+            Files.write(Path.of(output), plainText);
+        }
+    }
+
+    private static byte[] decrypt(String passwordFile, String encryptedFile) throws IOException {
+        return decrypt(passwordFile, encryptedFile, readPayload(encryptedFile));
+    }
+
+    private static VaultPayload readPayload(String encryptedFile) throws IOException {
+        var encryptedContent = read(Path.of(encryptedFile));
+        if (!VaultPayload.hasHeaderPrefix(encryptedContent)) {
+            throw new IllegalArgumentException("input is not vault encrypted data for " + encryptedFile);
+        }
+        return VaultPayload.parse(encryptedContent);
+    }
+
+    private static byte[] decrypt(String passwordFile, String encryptedFile, VaultPayload payload) {
+        try {
+            return VaultAes256.decrypt(payload, password(passwordFile));
+        } catch (VaultDecryptionException e) {
+            throw new IllegalArgumentException("Decryption failed (no vault secrets were found that could decrypt) on " +
+                    encryptedFile, e);
+        }
+    }
+
+    private static void rekey(Arguments arguments) throws IOException {
+        var path = Path.of(arguments.positional());
+        var payload = readPayload(arguments.positional());
+        var plainText = decrypt(arguments.passwordFile, arguments.positional(), payload);
+
+        var rekeyed = VaultAes256.encrypt(plainText, password(arguments.newPasswordFile),
+                payload.getVaultIdLabel().orElse(null));
+        Files.write(path, rekeyed.toEncryptedFileBytes());
+    }
+
+    private static void encryptString(Arguments arguments, PrintStream out) {
+        if (isNull(arguments.name)) {
+            throw new IllegalArgumentException("encrypt_string requires --name");
+        }
+
+        var plainText = arguments.positional().getBytes(StandardCharsets.UTF_8);
+        pause(plainText.length * Long.getLong(PROPERTY_PREFIX + "perByteNanos", 0));
+
+        var payload = VaultAes256.encrypt(plainText, password(arguments.passwordFile), arguments.vaultIdLabel);
+        out.print(arguments.name + ": !vault |\n" + payload.toIndentedContent(ENCRYPT_STRING_INDENT));
+    }
+
+    private static byte[] read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("input file does not exist: " + path);
+        }
+
+        var content = Files.readAllBytes(path);
+        pause(content.length * Long.getLong(PROPERTY_PREFIX + "perByteNanos", 0));
+        return content;
+    }
+
+    private static char[] password(String passwordFile) {
+        if (isNull(passwordFile)) {
+            throw new IllegalArgumentException("Attempting to decrypt but no vault secrets found");
+        }
+        return VaultPasswordSource.forPath(Path.of(passwordFile)).getPassword();
+    }
+
+    private static boolean shouldFail(String action) {
+        var failEveryNth = Integer.getInteger(PROPERTY_PREFIX + "failEveryNth", 0);
+        if (failEveryNth <= 0) {
+            return false;
+        }
+
+        var failingActions = System.getProperty(PROPERTY_PREFIX + "failingActions", "");
+        if (!failingActions.isEmpty() && !Set.of(failingActions.split(",")).contains(action)) {
+            return false;
+        }
+
+        return incrementInvocationCount() % failEveryNth == 0;
+    }
+
+    /**
+     * Increments the invocation count shared by all processes of this fake, under a file lock.
+     */
+    private static long incrementInvocationCount() {
+        var counterFile = Path.of(System.getProperty(PROPERTY_PREFIX + "counterFile"));
+        try (var channel = FileChannel.open(counterFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var lock = channel.lock();
+            try {
+                var buffer = ByteBuffer.allocate(Long.BYTES);
+                var count = channel.read(buffer, 0) == Long.BYTES ? buffer.flip().getLong() + 1 : 1;
+                channel.write(buffer.clear().putLong(count).flip(), 0);
+                return count;
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error updating invocation count in " + counterFile, e);
+        }
+    }
+
+    private static void pause(long nanos) {
+        var deadline = System.nanoTime() + nanos;
+        for (var remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * The options used by the {@link OsCommand} implementations, plus the remaining positional arguments.
+     */
+    private static class Arguments {
+
+        String passwordFile;
+        String vaultIdLabel;
+        String newPasswordFile;
+        String output;
+        String name;
+        final List<String> positional = new ArrayList<>();
+
+        static Arguments parse(String[] args) {
+            var arguments = new Arguments();
+            for (var i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--vault-password-file":
+                        arguments.passwordFile = args[++i];
+                        break;
+                    case "--vault-id":
+                        var vaultId = args[++i].split("@", 2);
+                        arguments.vaultIdLabel = vaultId[0];
+                        arguments.passwordFile = vaultId.length > 1 ? vaultId[1] : null;
+                        break;
+                    case "--new-vault-password-file":
+                        arguments.newPasswordFile = args[++i];
+                        break;
+                    case "--output":
+                        arguments.output = args[++i];
+                        break;
+                    case "--name":
+                        arguments.name = args[++i];
+                        break;
+                    default:
+                        arguments.positional.add(args[i]);
+                }
+            }
+            return arguments;
+        }
+
+        String positional() {
+            if (positional.size() != 1) {
+                throw new IllegalArgumentException("expected exactly one file or value but got " + positional);
+            }
+            return positional.get(0);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.example.ansible.vault.testing.Fixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+@DisplayName("FakeAnsibleVault")
+class FakeAnsibleVaultTest {
+
+    private static final String THE_SECRET = "Remember to drink your Ovaltine\n";
+
+    @TempDir
+    Path folder;
+
+    private VaultConfiguration configuration;
+    private Path encryptedFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var passwordFile = Files.writeString(folder.resolve(".vault_pass"), "password100");
+        encryptedFile = Files.copy(Fixtures.fixturePath("ansible-vault/secret.txt"), folder.resolve("secret.txt"));
+
+        configuration = VaultConfiguration.builder()
+                .ansibleVaultPath("/usr/bin/ansible-vault")
+                .vaultPasswordFilePath(passwordFile.toString())
+                .tempDirectory(folder.toString())
+                .build();
+    }
+
+    /**
+     * Runs the fake in-process with the arguments of each command.
+     */
+    @Nested
+    class CommandShapes {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        @Test
+        void shouldView() {
+            assertThat(run(VaultViewCommand.from(configuration, encryptedFile.toString()))).isZero();
+
+            assertThat(stdout()).isEqualTo(THE_SECRET);
+        }
+
+        @Test
+        void shouldDecryptInPlace() {
+            assertThat(run(VaultDecryptCommand.from(configuration, encryptedFile.toString()))).isZero();
+
+            assertThat(encryptedFile).hasContent(THE_SECRET);
+        }
+
+        @Test
+        void shouldDecryptToStdout() {
+            assertThat(run(VaultDecryptCommand.toStdoutFrom(configuration, encryptedFile.toString()))).isZero();
+
+            assertThat(stdout()).isEqualTo(THE_SECRET);
+        }
+
+        @Test
+        void shouldDecryptToOutputFile() {
+            var outputFile = folder.resolve("output.txt");
+
+            var command = VaultDecryptCommand.from(configuration, encryptedFile.toString(), outputFile.toString());
+
+            assertThat(run(command)).isZero();
+            assertThat(outputFile).hasContent(THE_SECRET);
+        }
+
+        @Test
+        void shouldEncryptWithVaultIdLabel() throws IOException {
+            var plainTextFile = Files.writeString(folder.resolve("plain.txt"), "the plain text");
+
+            assertThat(run(VaultEncryptCommand.from(configuration, "prod", plainTextFile.toString()))).isZero();
+
+            var payload = VaultPayload.parse(Files.readAllBytes(plainTextFile));
+            assertThat(payload.getVaultIdLabel()).hasValue("prod");
+            assertThat(VaultAes256.decrypt(payload, "password100".toCharArray()))
+                    .isEqualTo("the plain text".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        void shouldRekey() throws IOException {
+            var newPasswordFile = Files.writeString(folder.resolve(".new_vault_pass"), "new-password");
+
+            var command = VaultRekeyCommand.from(configuration, encryptedFile.toString(), newPasswordFile.toString());
+
+            assertThat(run(command)).isZero();
+            var payload = VaultPayload.parse(Files.readAllBytes(encryptedFile));
+            assertThat(VaultAes256.decrypt(payload, "new-password".toCharArray()))
+                    .isEqualTo(THE_SECRET.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        void shouldEncryptString() {
+            assertThat(run(VaultEncryptStringCommand.from(configuration, "dev", "the secret", "db_password")))
+                    .isZero();
+
+            var variable = new VaultEncryptedVariable(stdout());
+            assertThat(variable.getVariableName()).isEqualTo("db_password");
+            assertThat(variable.getVaultIdLabel()).hasValue("dev");
+            assertThat(VaultAes256.decrypt(VaultPayload.parse(variable.getEncryptedFileBytes()),
+                    "password100".toCharArray())).isEqualTo("the secret".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        void shouldFailLikeAnsibleVault_WhenInputIsAlreadyEncrypted() {
+            assertThat(run(VaultEncryptCommand.from(configuration, encryptedFile.toString()))).isOne();
+
+            assertThat(stderr()).startsWith("ERROR! input is already encrypted");
+        }
+
+        @Test
+        void shouldFailLikeAnsibleVault_WhenPasswordIsWrong() throws IOException {
+            Files.writeString(folder.resolve(".vault_pass"), "wrong-password");
+
+            assertThat(run(VaultViewCommand.from(configuration, encryptedFile.toString()))).isOne();
+
+            assertThat(stderr()).startsWith("ERROR! Decryption failed");
+        }
+
+        @Test
+        void shouldFailLikeAnsibleVault_WhenFileDoesNotExist() {
+            assertThat(run(VaultViewCommand.from(configuration, "/does/not/exist.txt"))).isOne();
+
+            assertThat(stderr()).startsWith("ERROR! input file does not exist");
+        }
+
+        private int run(OsCommand command) {
+            var parts = command.getCommandParts();
+            var args = parts.subList(1, parts.size()).toArray(new String[0]);
+            return FakeAnsibleVault.run(args, new PrintStream(out, true), new PrintStream(err, true));
+        }
+
+        private String stdout() {
+            return out.toString(StandardCharsets.UTF_8);
+        }
+
+        private String stderr() {
+            return err.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Launches the installed fake through the helper, as a load test or benchmark would.
+     */
+    @Nested
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    class Installed {
+
+        @Test
+        void shouldWorkWithHelper() throws IOException {
+            var helper = helperUsing(FakeAnsibleVault.builder().build());
+            var plainTextFile = Files.writeString(folder.resolve("plain.txt"), "the plain text");
+
+            helper.encryptFile(plainTextFile);
+
+            assertThat(helper.viewFile(plainTextFile)).isEqualTo("the plain text");
+            assertThat(helper.viewFile(encryptedFile)).isEqualTo(THE_SECRET);
+        }
+
+        @Test
+        void shouldAddStartupDelay() {
+            var helper = helperUsing(FakeAnsibleVault.builder().startupDelay(Duration.ofMillis(500)).build());
+
+            var start = System.nanoTime();
+            helper.viewFile(encryptedFile);
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(500));
+        }
+
+        @Test
+        void shouldFailEveryNthInvocationOfFailingActions() {
+            var helper = helperUsing(FakeAnsibleVault.builder()
+                    .failEveryNth(2)
+                    .failingActions(Set.of("view"))
+                    .failureExitCode(4)
+                    .failureMessage("ERROR! simulated outage")
+                    .build());
+
+            var results = List.of(
+                    helper.viewFile(encryptedFile),
+                    helper.decryptString(helper.encryptString("the secret", "db_password")));
+
+            assertThat(results).containsExactly(THE_SECRET, "the secret");
+            assertThatThrownBy(() -> helper.viewFile(encryptedFile))
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessage("ansible-vault returned non-zero exit code 4. Stderr: ERROR! simulated outage");
+            assertThat(helper.viewFile(encryptedFile)).isEqualTo(THE_SECRET);
+        }
+
+        private VaultEncryptionHelper helperUsing(FakeAnsibleVault fake) {
+            configuration.setAnsibleVaultPath(fake.install(folder.resolve("bin")).toString());
+            return new VaultEncryptionHelper(configuration);
+        }
+    }
+}
@@ -0,0 +1,540 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.example.ansible.vault.testing.Fixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("NativeVaultEngine")
+class NativeVaultEngineTest {
+
+    private static final String THE_SECRET = "Remember to drink your Ovaltine";
+
+    @TempDir
+    Path folder;
+
+    private NativeVaultEngine engine;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var passwordFilePath = Files.writeString(folder.resolve(".vault_pass"), "password100\n");
+
+        var configuration = VaultConfiguration.builder()
+                .ansibleVaultPath("/usr/bin/ansible-vault")
+                .vaultPasswordFilePath(passwordFilePath.toString())
+                .tempDirectory(folder.toString())
+                .engine(VaultEngineType.NATIVE)
+                .build();
+
+        engine = new NativeVaultEngine(configuration);
+    }
+
+    @Nested
+    class EncryptFile {
+
+        @Test
+        void shouldEncryptInPlace() throws IOException {
+            var plainTextFile = Files.writeString(folder.resolve("foo.txt"), "the plain text");
+
+            var encryptedFile = engine.encryptFile(plainTextFile.toString(), null);
+
+            assertThat(encryptedFile).isEqualTo(plainTextFile);
+            assertThat(Files.readString(encryptedFile)).startsWith("$ANSIBLE_VAULT;1.1;AES256\n");
+            assertThat(engine.viewFile(encryptedFile.toString())).isEqualTo("the plain text");
+        }
+
+        @Test
+        void shouldIncludeVaultIdLabel() throws IOException {
+            var plainTextFile = Files.writeString(folder.resolve("foo.txt"), "the plain text");
+
+            var encryptedFile = engine.encryptFile(plainTextFile.toString(), "prod");
+
+            assertThat(Files.readString(encryptedFile)).startsWith("$ANSIBLE_VAULT;1.2;AES256;prod\n");
+        }
+
+        @Test
+        void shouldThrowWhenGivenAlreadyEncryptedFile() throws IOException {
+            var encryptedFile = Files.copy(Fixtures.fixturePath("ansible-vault/secret.txt"), folder.resolve("secret.txt"));
+
+            assertThatThrownBy(() -> engine.encryptFile(encryptedFile.toString(), null))
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessageStartingWith("input is already encrypted");
+        }
+
+        @Test
+        void shouldThrowWhenGivenFileThatDoesNotExist() {
+            assertThatThrownBy(() -> engine.encryptFile("/does/not/exist.txt", null))
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessage("Error reading file: /does/not/exist.txt");
+        }
+    }
+
+    @Nested
+    class DecryptFile {
+
+        private Path encryptedFile;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            encryptedFile = Files.copy(Fixtures.fixturePath("ansible-vault/secret.txt"), folder.resolve("secret.txt"));
+        }
+
+        @Test
+        void shouldDecryptInPlace() throws IOException {
+            var decryptedFile = engine.decryptFile(encryptedFile.toString(), encryptedFile.toString());
+
+            assertThat(decryptedFile).isEqualTo(encryptedFile);
+            assertThat(Files.readString(decryptedFile)).isEqualToNormalizingWhitespace(THE_SECRET);
+        }
+
+        @Test
+        void shouldDecryptToNewFile() throws IOException {
+            var originalContent = Files.readString(encryptedFile);
+            var outputFile = folder.resolve("new.txt");
+
+            engine.decryptFile(encryptedFile.toString(), outputFile.toString());
+
+            assertThat(Files.readString(outputFile)).isEqualToNormalizingWhitespace(THE_SECRET);
+            assertThat(encryptedFile).hasContent(originalContent);
+        }
+
+        @Test
+        void shouldThrowWhenGivenAnUnencryptedFile() throws IOException {
+            var plainTextFile = Files.writeString(folder.resolve("foo.txt"), "some plain text");
+
+            assertThatThrownBy(() -> engine.decryptFile(plainTextFile.toString(), plainTextFile.toString()))
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessage("input is not vault encrypted data");
+        }
+    }
+
+    @Nested
+    class EncryptString {
+
+        @Test
+        void shouldProduceContentParseableAsEncryptedVariable() {
+            var encryptedString = engine.encryptString("dev", "the plain text", "db_password");
+
+            var variable = new VaultEncryptedVariable(encryptedString);
+
+            assertThat(variable.getVariableName()).isEqualTo("db_password");
+            assertThat(variable.getFormatVersion()).isEqualTo("1.2");
+            assertThat(variable.getVaultIdLabel()).hasValue("dev");
+            assertThat(engine.decryptString(variable)).isEqualTo("the plain text");
+        }
+    }
+
+    @Nested
+    class DecryptString {
+
+        @Test
+        void shouldDecryptEncryptStringContentEncryptedByAnsibleVault() {
+            var variable = new VaultEncryptedVariable(Fixtures.fixture("ansible-vault/encrypt_string_1.1.txt"));
+
+            assertThat(engine.decryptString(variable)).isNotBlank();
+        }
+
+        @Test
+        void shouldThrowWhenPasswordIsWrong() throws IOException {
+            var otherPasswordFile = Files.writeString(folder.resolve(".other_pass"), "not-the-password");
+            var otherEngine = new NativeVaultEngine(VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath(otherPasswordFile.toString())
+                    .engine(VaultEngineType.NATIVE)
+                    .build());
+            var variable = new VaultEncryptedVariable(Fixtures.fixture("ansible-vault/encrypt_string_1.1.txt"));
+
+            assertThatThrownBy(() -> otherEngine.decryptString(variable))
+                    .isExactlyInstanceOf(VaultDecryptionException.class)
+                    .hasMessageStartingWith("HMAC verification failed");
+        }
+
+        @Test
+        void shouldFailFromNegativeCacheWhenRetryingKnownBadInput() throws IOException {
+            var otherPasswordFile = Files.writeString(folder.resolve(".other_pass"), "not-the-password");
+            var otherEngine = new NativeVaultEngine(VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath(otherPasswordFile.toString())
+                    .engine(VaultEngineType.NATIVE)
+                    .build());
+            var variable = new VaultEncryptedVariable(Fixtures.fixture("ansible-vault/encrypt_string_1.1.txt"));
+
+            assertThatThrownBy(() -> otherEngine.decryptString(variable))
+                    .isInstanceOf(VaultDecryptionException.class);
+            assertThat(otherEngine.getNegativeCache().size()).isOne();
+
+            assertThatThrownBy(() -> otherEngine.decryptString(variable))
+                    .isExactlyInstanceOf(VaultDecryptionException.class)
+                    .hasMessageContaining("already failed recently (WRONG_PASSWORD)");
+
+            Files.writeString(otherPasswordFile, "password100");
+            assertThat(otherEngine.decryptString(variable))
+                    .describedAs("a changed password must not hit the cached failure")
+                    .isNotBlank();
+        }
+    }
+
+    @Test
+    void shouldRequireNonEmptyPassword() throws IOException {
+        var emptyPasswordFile = Files.writeString(folder.resolve(".empty_pass"), "  \n");
+        var emptyPasswordEngine = new NativeVaultEngine(VaultConfiguration.builder()
+                .ansibleVaultPath("/usr/bin/ansible-vault")
+                .vaultPasswordFilePath(emptyPasswordFile.toString())
+                .build());
+
+        assertThatThrownBy(() -> emptyPasswordEngine.encryptString(null, "text", "name"))
+                .isExactlyInstanceOf(VaultEncryptionException.class)
+                .hasMessageStartingWith("vault password file is empty");
+    }
+
+    @Nested
+    class Matches {
+
+        @Test
+        void shouldMatchSamePlainTextAndLabel() {
+            var encrypted = Fixtures.fixture("ansible-vault/secret.txt").getBytes(StandardCharsets.UTF_8);
+            var plainText = (THE_SECRET + "\n").getBytes(StandardCharsets.UTF_8);
+
+            assertThat(engine.matches(encrypted, plainText, null)).isTrue();
+            assertThat(engine.matches(encrypted, "something else".getBytes(StandardCharsets.UTF_8), null)).isFalse();
+            assertThat(engine.matches(encrypted, plainText, "prod")).isFalse();
+        }
+
+        @Test
+        void shouldNotMatchContentThatCannotBeDecrypted() {
+            var plainText = THE_SECRET.getBytes(StandardCharsets.UTF_8);
+
+            assertThat(engine.matches("not encrypted".getBytes(StandardCharsets.UTF_8), plainText, null)).isFalse();
+            assertThat(engine.matches("$ANSIBLE_VAULT;1.1;AES256\nzz\n".getBytes(StandardCharsets.UTF_8), plainText, null))
+                    .isFalse();
+        }
+    }
+
+    @Nested
+    class RekeyFile {
+
+        @Test
+        void shouldReencryptWithNewPasswordKeepingLabel() throws IOException {
+            var file = Files.writeString(folder.resolve("secrets.yml"), "the plain text");
+            engine.encryptFile(file.toString(), "prod");
+            var newPasswordFile = Files.writeString(folder.resolve(".new_vault_pass"), "new-password\n");
+
+            engine.rekeyFile(file.toString(), newPasswordFile.toString());
+
+            assertThat(Files.readString(file)).startsWith("$ANSIBLE_VAULT;1.2;AES256;prod\n");
+            var payload = VaultPayload.parse(Files.readAllBytes(file));
+            assertThat(VaultAes256.decrypt(payload, "new-password".toCharArray()))
+                    .isEqualTo("the plain text".getBytes(StandardCharsets.UTF_8));
+            assertThat(folder.toFile().list()).noneMatch(name -> name.endsWith(".tmp"));
+        }
+
+        @Test
+        void shouldLeaveFileUnchanged_WhenCurrentPasswordIsWrong() throws IOException {
+            var file = Files.write(folder.resolve("secrets.yml"),
+                    VaultAes256.encrypt("x".getBytes(StandardCharsets.UTF_8), "other".toCharArray(), null)
+                            .toEncryptedFileBytes());
+            var original = Files.readString(file);
+            var newPasswordFile = Files.writeString(folder.resolve(".new_vault_pass"), "new-password\n");
+
+            assertThatThrownBy(() -> engine.rekeyFile(file.toString(), newPasswordFile.toString()))
+                    .isInstanceOf(VaultDecryptionException.class);
+
+            assertThat(file).hasContent(original);
+        }
+    }
+
+    @Nested
+    class WithKeyPool {
+
+        @Test
+        void shouldEncryptUsingPooledKeys() throws IOException, InterruptedException {
+            var configuration = VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath(folder.resolve(".vault_pass").toString())
+                    .tempDirectory(folder.toString())
+                    .engine(VaultEngineType.NATIVE)
+                    .keyPoolSize(2)
+                    .build();
+            var pooledEngine = new NativeVaultEngine(configuration);
+            try {
+                var pool = pooledEngine.getKeyPool();
+                assertThat(pool).isNotNull();
+                for (var i = 0; i < 1_000 && pool.available() < 2; i++) {
+                    Thread.sleep(10);
+                }
+                assertThat(pool.available()).isEqualTo(2);
+
+                var encrypted = pooledEngine.encryptString(null, "pooled secret", "var");
+
+                assertThat(engine.decryptString(new VaultEncryptedVariable(encrypted))).isEqualTo("pooled secret");
+            } finally {
+                pooledEngine.close();
+            }
+            assertThat(pooledEngine.getKeyPool().available()).isZero();
+        }
+
+        @Test
+        void shouldNotCreatePool_WhenSizeIsZero() {
+            assertThat(engine.getKeyPool()).isNull();
+        }
+    }
+
+    @Nested
+    class TrialDecryption {
+
+        private Path devPasswordFile;
+        private Path prodPasswordFile;
+        private NativeVaultEngine multiPasswordEngine;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            devPasswordFile = Files.writeString(folder.resolve(".vault_pass_dev"), "dev-password\n");
+            prodPasswordFile = Files.writeString(folder.resolve(".vault_pass_prod"), "prod-password\n");
+
+            var configuration = VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath(folder.resolve(".vault_pass").toString())
+                    .tempDirectory(folder.toString())
+                    .engine(VaultEngineType.NATIVE)
+                    .vaultIdPasswordFilePaths(Map.of(
+                            "dev", devPasswordFile.toString(),
+                            "prod", prodPasswordFile.toString()))
+                    .build();
+
+            multiPasswordEngine = new NativeVaultEngine(configuration);
+        }
+
+        @Test
+        void shouldDecryptUnlabelledPayloadWithWhicheverPasswordMatches() {
+            var payload = encrypt("prod secret", "prod-password", null);
+
+            var encryptString = "var: !vault |\n" + payload.toIndentedContent("          ");
+            var plainText = multiPasswordEngine.decryptString(new VaultEncryptedVariable(encryptString));
+
+            assertThat(plainText).isEqualTo("prod secret");
+            assertThat(multiPasswordEngine.getRememberedPasswordId(payload)).hasValue(prodPasswordFile.toString());
+        }
+
+        @Test
+        void shouldOnlyMatchWithPasswordThatEncryptionWouldUse() {
+            var prodPayload = encrypt("prod secret", "prod-password", null);
+            var defaultPayload = encrypt("default secret", "password100", null);
+
+            assertThat(multiPasswordEngine.matches(prodPayload.toEncryptedFileBytes(),
+                    "prod secret".getBytes(StandardCharsets.UTF_8), null)).isFalse();
+            assertThat(multiPasswordEngine.matches(defaultPayload.toEncryptedFileBytes(),
+                    "default secret".getBytes(StandardCharsets.UTF_8), null)).isTrue();
+        }
+
+        @Test
+        void shouldFindPasswordFileWithoutDecrypting() {
+            var payload = encrypt("dev secret", "dev-password", null);
+
+            assertThat(multiPasswordEngine.findPasswordId(payload)).isEqualTo(devPasswordFile.toString());
+            assertThat(multiPasswordEngine.getRememberedPasswordId(payload)).hasValue(devPasswordFile.toString());
+        }
+
+        @Test
+        void shouldUseRememberedPasswordFile() throws IOException {
+            var payload = encrypt("dev secret", "dev-password", null);
+            multiPasswordEngine.findPasswordId(payload);
+
+            Files.delete(prodPasswordFile);
+
+            assertThat(multiPasswordEngine.findPasswordId(payload)).isEqualTo(devPasswordFile.toString());
+        }
+
+        @Test
+        void shouldTryAgain_WhenRememberedPasswordNoLongerMatches() throws IOException {
+            var payload = encrypt("dev secret", "dev-password", null);
+            multiPasswordEngine.findPasswordId(payload);
+
+            Files.writeString(devPasswordFile, "rotated-password\n");
+            Files.writeString(prodPasswordFile, "dev-password\n");
+            var encryptString = "var: !vault |\n" + payload.toIndentedContent("          ");
+
+            assertThat(multiPasswordEngine.decryptString(new VaultEncryptedVariable(encryptString)))
+                    .isEqualTo("dev secret");
+            assertThat(multiPasswordEngine.getRememberedPasswordId(payload)).hasValue(prodPasswordFile.toString());
+        }
+
+        @Test
+        void shouldNotTryOtherPasswords_WhenLabelHasItsOwnPasswordFile() {
+            var payload = encrypt("prod secret", "dev-password", "prod");
+
+            assertThat(multiPasswordEngine.findPasswordId(payload)).isEqualTo(prodPasswordFile.toString());
+            assertThat(multiPasswordEngine.getRememberedPasswordId(payload)).isEmpty();
+        }
+
+        @Test
+        void shouldThrow_WhenNoPasswordMatches() {
+            var payload = encrypt("secret", "some-other-password", null);
+
+            assertThatThrownBy(() -> multiPasswordEngine.findPasswordId(payload))
+                    .isExactlyInstanceOf(VaultDecryptionException.class)
+                    .hasMessage("HMAC verification failed: none of the 3 configured vault passwords match")
+                    .extracting("reason").isEqualTo(VaultDecryptionException.Reason.WRONG_PASSWORD);
+        }
+
+        @Test
+        void shouldReportCorruptedData_WithoutTryingPasswords() {
+            var payload = encrypt("secret", "dev-password", null);
+            var corrupted = new VaultPayload("1.1", "AES256", null,
+                    payload.getSalt(), payload.getHmac(), Arrays.copyOf(payload.getCipherText(), 5));
+
+            assertThatThrownBy(() -> multiPasswordEngine.findPasswordId(corrupted))
+                    .isExactlyInstanceOf(VaultDecryptionException.class)
+                    .extracting("reason").isEqualTo(VaultDecryptionException.Reason.CORRUPTED_DATA);
+        }
+
+        @Test
+        void shouldReadEachPasswordOnce_WhenVerifyingAmbiguousPayload() {
+            var defaultPasswordReads = new AtomicInteger();
+            var engine = new NativeVaultEngine(VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordSource(() -> {
+                        defaultPasswordReads.incrementAndGet();
+                        return "default-password".toCharArray();
+                    })
+                    .tempDirectory(folder.toString())
+                    .engine(VaultEngineType.NATIVE)
+                    .vaultIdPasswordFilePaths(Map.of(
+                            "dev", devPasswordFile.toString(),
+                            "prod", prodPasswordFile.toString()))
+                    .build());
+            var payload = encrypt("secret", "default-password", null);
+
+            engine.verify(payload);
+            assertThat(defaultPasswordReads).hasValue(1);
+
+            engine.verify(payload);
+            assertThat(defaultPasswordReads).hasValue(2);
+        }
+
+        @Test
+        void shouldReuseTrialDecryptionThreads_UntilClosed() {
+            assertThat(multiPasswordEngine.findPasswordId(encrypt("secret", "dev-password", null)))
+                    .isEqualTo(multiPasswordEngine.findPasswordId(encrypt("secret", "dev-password", null)));
+
+            multiPasswordEngine.close();
+
+            var payload = encrypt("secret", "prod-password", null);
+            assertThatThrownBy(() -> multiPasswordEngine.findPasswordId(payload))
+                    .isExactlyInstanceOf(IllegalStateException.class)
+                    .hasMessage("engine is closed");
+        }
+
+        private VaultPayload encrypt(String plainText, String password, String vaultIdLabel) {
+            return VaultAes256.encrypt(
+                    plainText.getBytes(StandardCharsets.UTF_8), password.toCharArray(), vaultIdLabel);
+        }
+    }
+
+    @Nested
+    class Reconfigure {
+
+        @Test
+        void shouldShareStillValidState_WhenPasswordSettingsAreUnchanged() {
+            var reconfigured = engine.reconfigure(
+                    nativeConfiguration().ansibleVaultPath("/opt/bin/ansible-vault").build());
+
+            assertThat(reconfigured.getPasswords()).isSameAs(engine.getPasswords());
+            assertThat(reconfigured.getNegativeCache()).isSameAs(engine.getNegativeCache());
+        }
+
+        @Test
+        void shouldUseNewPasswordFile_WhileOriginalEngineKeepsItsOwn() throws IOException {
+            var newPasswordFile = Files.writeString(folder.resolve(".vault_pass_new"), "new-password\n");
+
+            var reconfigured = engine.reconfigure(
+                    nativeConfiguration().vaultPasswordFilePath(newPasswordFile.toString()).build());
+
+            assertThat(reconfigured.getPasswords()).isNotSameAs(engine.getPasswords());
+            var encryptString = reconfigured.encryptString(null, "new secret", "var");
+            var payload = VaultPayload.parse(new VaultEncryptedVariable(encryptString).getEncryptedFileBytes());
+            assertThat(VaultAes256.decrypt(payload, "new-password".toCharArray()))
+                    .isEqualTo("new secret".getBytes(StandardCharsets.UTF_8));
+            assertThat(engine.viewFile(Fixtures.fixturePath("ansible-vault/secret.txt").toString()))
+                    .isEqualTo(THE_SECRET + "\n");
+        }
+
+        @Test
+        void shouldKeepRememberedPasswordsThatAreStillConfigured() throws IOException {
+            var devPasswordFile = Files.writeString(folder.resolve(".vault_pass_dev"), "dev-password\n");
+            var prodPasswordFile = Files.writeString(folder.resolve(".vault_pass_prod"), "prod-password\n");
+            var multiPasswordEngine = new NativeVaultEngine(nativeConfiguration()
+                    .vaultIdPasswordFilePaths(Map.of(
+                            "dev", devPasswordFile.toString(),
+                            "prod", prodPasswordFile.toString()))
+                    .build());
+            var devPayload = VaultAes256.encrypt(
+                    "dev".getBytes(StandardCharsets.UTF_8), "dev-password".toCharArray(), null);
+            var prodPayload = VaultAes256.encrypt(
+                    "prod".getBytes(StandardCharsets.UTF_8), "prod-password".toCharArray(), null);
+            multiPasswordEngine.findPasswordId(devPayload);
+            multiPasswordEngine.findPasswordId(prodPayload);
+
+            var reconfigured = multiPasswordEngine.reconfigure(nativeConfiguration()
+                    .vaultIdPasswordFilePaths(Map.of("dev", devPasswordFile.toString()))
+                    .build());
+
+            assertThat(reconfigured.getRememberedPasswordId(devPayload)).hasValue(devPasswordFile.toString());
+            assertThat(reconfigured.getRememberedPasswordId(prodPayload)).isEmpty();
+        }
+
+        @Test
+        void shouldShareKeyPool_WhenPasswordAndSizeAreUnchanged() {
+            var pooledEngine = new NativeVaultEngine(nativeConfiguration().keyPoolSize(2).build());
+            var reconfigured = pooledEngine.reconfigure(
+                    nativeConfiguration().keyPoolSize(2).ansibleVaultPath("/opt/bin/ansible-vault").build());
+            var resized = reconfigured.reconfigure(nativeConfiguration().keyPoolSize(3).build());
+            try {
+                assertThat(reconfigured.getKeyPool()).isSameAs(pooledEngine.getKeyPool());
+                assertThat(resized.getKeyPool()).isNotSameAs(reconfigured.getKeyPool());
+                assertThat(resized.getKeyPool().capacity()).isEqualTo(3);
+            } finally {
+                pooledEngine.close();
+                reconfigured.close();
+                resized.close();
+            }
+        }
+
+        @Test
+        void shouldCleanUpSharedPasswordsWhenLastEngineIsClosed() {
+            var sourceConfiguration = nativeConfiguration()
+                    .vaultPasswordSource(VaultPasswordSource.inMemory("password100".toCharArray()))
+                    .build();
+            var sourceEngine = new NativeVaultEngine(sourceConfiguration);
+            var passwordFile = Path.of(
+                    sourceEngine.getPasswords().processPasswordFile(VaultPasswords.CONFIGURED_SOURCE));
+            var reconfigured = sourceEngine.reconfigure(sourceConfiguration.copyOf());
+
+            sourceEngine.close();
+            assertThat(passwordFile).exists();
+
+            reconfigured.close();
+            assertThat(passwordFile).doesNotExist();
+        }
+
+        private VaultConfiguration.VaultConfigurationBuilder nativeConfiguration() {
+            return VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath(folder.resolve(".vault_pass").toString())
+                    .tempDirectory(folder.toString())
+                    .engine(VaultEngineType.NATIVE);
+        }
+    }
+}
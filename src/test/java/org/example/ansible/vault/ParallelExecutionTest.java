@@ -0,0 +1,118 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("ParallelExecution")
+class ParallelExecutionTest {
+
+    @Nested
+    class MapInParallel {
+
+        @Test
+        void shouldKeepInputOrder() {
+            var results = ParallelExecution.mapInParallel(List.of(3, 1, 2), value -> value * 10, 3);
+
+            assertThat(results).containsExactly(30, 10, 20);
+        }
+
+        @Test
+        void shouldRequirePositiveParallelism() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> ParallelExecution.mapInParallel(List.of(1), value -> value, 0));
+        }
+    }
+
+    @Nested
+    class FindFirstMatch {
+
+        private ExecutorService executor;
+
+        @BeforeEach
+        void setUp() {
+            executor = Executors.newCachedThreadPool();
+        }
+
+        @AfterEach
+        void tearDown() {
+            executor.shutdownNow();
+        }
+
+        @Test
+        void shouldReturnMatchingInput() {
+            var match = ParallelExecution.findFirstMatch(executor, List.of("dev", "stage", "prod"), "stage"::equals);
+
+            assertThat(match).hasValue("stage");
+        }
+
+        @Test
+        void shouldReturnEmpty_WhenNothingMatches() {
+            var match = ParallelExecution.findFirstMatch(executor, List.of("dev", "stage"), "prod"::equals);
+
+            assertThat(match).isEmpty();
+        }
+
+        @Test
+        void shouldReturnEmpty_ForNoInputs() {
+            assertThat(ParallelExecution.findFirstMatch(executor, List.<String>of(), input -> true)).isEmpty();
+        }
+
+        @Test
+        void shouldCancelRemainingAttempts_WhenOneMatches() throws InterruptedException {
+            var slowStarted = new CountDownLatch(1);
+            var release = new CountDownLatch(1);
+            var interrupted = new CountDownLatch(1);
+
+            var match = ParallelExecution.findFirstMatch(executor, List.of("slow", "fast"), input -> {
+                try {
+                    if (input.equals("fast")) {
+                        // Only a running attempt can be interrupted, so match once the slow one is running
+                        return slowStarted.await(5, TimeUnit.SECONDS);
+                    }
+                    slowStarted.countDown();
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    return false;
+                }
+            });
+
+            assertThat(match).hasValue("fast");
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(executor.isShutdown()).isFalse();
+        }
+
+        @Test
+        void shouldTreatPredicateFailureAsNoMatch() {
+            var match = ParallelExecution.findFirstMatch(executor, List.of("bad", "good"), input -> {
+                if (input.equals("bad")) {
+                    throw new IllegalStateException("boom");
+                }
+                return true;
+            });
+
+            assertThat(match).hasValue("good");
+        }
+
+        @Test
+        void shouldReturnEmpty_WhenEveryPredicateFails() {
+            var match = ParallelExecution.findFirstMatch(executor, List.of("bad"), input -> {
+                throw new IllegalStateException("boom");
+            });
+
+            assertThat(match).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("ReferenceCount")
+class ReferenceCountTest {
+
+    private final AtomicInteger releases = new AtomicInteger();
+    private final ReferenceCount references = new ReferenceCount(releases::incrementAndGet);
+
+    @Test
+    void shouldRunActionWhenCreatorReleases() {
+        references.release();
+
+        assertThat(releases).hasValue(1);
+        assertThat(references.get()).isZero();
+    }
+
+    @Test
+    void shouldRunActionOnlyWhenLastReferenceIsReleased() {
+        assertThat(references.tryRetain()).isTrue();
+        assertThat(references.tryRetain()).isTrue();
+
+        references.release();
+        references.release();
+        assertThat(releases).hasValue(0);
+
+        references.release();
+        assertThat(releases).hasValue(1);
+    }
+
+    @Test
+    void shouldNotRetainOrRunActionAgain_AfterLastRelease() {
+        references.release();
+
+        assertThat(references.tryRetain()).isFalse();
+        references.release();
+
+        assertThat(releases).hasValue(1);
+        assertThat(references.get()).isZero();
+    }
+}
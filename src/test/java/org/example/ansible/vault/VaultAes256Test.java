@@ -0,0 +1,131 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.example.ansible.vault.VaultDecryptionException.Reason;
+import org.example.ansible.vault.testing.Fixtures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+
+@DisplayName("VaultAes256")
+class VaultAes256Test {
+
+    private static final char[] PASSWORD = "password100".toCharArray();
+
+    @Nested
+    class Decrypt {
+
+        @Test
+        void shouldDecryptContentEncryptedByAnsibleVault() {
+            var payload = VaultPayload.parse(Fixtures.fixture("ansible-vault/secret.txt"));
+
+            var plainText = VaultAes256.decrypt(payload, PASSWORD);
+
+            assertThat(new String(plainText, StandardCharsets.UTF_8))
+                    .isEqualToNormalizingWhitespace("Remember to drink your Ovaltine");
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"1.1", "1.2"})
+        void shouldDecryptEncryptStringContentEncryptedByAnsibleVault(String formatVersion) {
+            var variable = new VaultEncryptedVariable(
+                    Fixtures.fixture("ansible-vault/encrypt_string_" + formatVersion + ".txt"));
+            var payload = VaultPayload.parse(variable.getEncryptedFileBytes());
+
+            assertThat(VaultAes256.decrypt(payload, PASSWORD)).isNotEmpty();
+        }
+
+        @Test
+        void shouldThrowWhenPasswordIsWrong() {
+            var payload = VaultPayload.parse(Fixtures.fixture("ansible-vault/secret.txt"));
+            var wrongPassword = "password101".toCharArray();
+
+            assertThatThrownBy(() -> VaultAes256.decrypt(payload, wrongPassword))
+                    .isExactlyInstanceOf(VaultDecryptionException.class)
+                    .hasMessageStartingWith("HMAC verification failed")
+                    .extracting("reason")
+                    .isEqualTo(Reason.WRONG_PASSWORD);
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, 15, 17})
+        void shouldRejectCorruptedCipherTextLengthBeforeDerivingKeys(int cipherTextLength) {
+            var original = VaultAes256.encrypt(new byte[]{1, 2, 3}, PASSWORD, null);
+            var payload = new VaultPayload("1.1", "AES256", null,
+                    original.getSalt(), original.getHmac(), new byte[cipherTextLength]);
+
+            assertThatThrownBy(() -> VaultAes256.decrypt(payload, PASSWORD))
+                    .isExactlyInstanceOf(VaultDecryptionException.class)
+                    .extracting("reason")
+                    .isEqualTo(Reason.CORRUPTED_DATA);
+        }
+
+        @Test
+        void shouldReportTamperedCipherTextAsHmacMismatch() {
+            var original = VaultAes256.encrypt(new byte[]{1, 2, 3}, PASSWORD, null);
+            var tampered = original.getCipherText().clone();
+            tampered[0] ^= 1;
+            var payload = new VaultPayload("1.1", "AES256", null, original.getSalt(), original.getHmac(), tampered);
+
+            assertThatThrownBy(() -> VaultAes256.decrypt(payload, PASSWORD))
+                    .isExactlyInstanceOf(VaultDecryptionException.class)
+                    .hasMessageStartingWith("HMAC verification failed");
+        }
+
+        @Test
+        void shouldThrowWhenCipherIsNotSupported() {
+            var original = VaultAes256.encrypt(new byte[]{1, 2, 3}, PASSWORD, null);
+            var payload = new VaultPayload("1.1", "AES", null,
+                    original.getSalt(), original.getHmac(), original.getCipherText());
+
+            assertThatThrownBy(() -> VaultAes256.decrypt(payload, PASSWORD))
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessage("unsupported vault cipher: AES");
+        }
+    }
+
+    @Nested
+    class Encrypt {
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, 1, 15, 16, 17, 4096})
+        void shouldRoundTrip(int length) {
+            var plainText = "x".repeat(length).getBytes(StandardCharsets.UTF_8);
+
+            var payload = VaultAes256.encrypt(plainText, PASSWORD, null);
+
+            assertThat(payload.getFormatVersion()).isEqualTo("1.1");
+            assertThat(payload.getCipher()).isEqualTo("AES256");
+            assertThat(payload.getVaultIdLabel()).isEmpty();
+            assertThat(payload.getSalt()).hasSize(32);
+            assertThat(payload.getHmac()).hasSize(32);
+            assertThat(payload.getCipherText().length % 16).isZero();
+            assertThat(VaultAes256.decrypt(payload, PASSWORD)).isEqualTo(plainText);
+        }
+
+        @Test
+        void shouldUseFormatVersion_1_2_WhenGivenVaultIdLabel() {
+            var payload = VaultAes256.encrypt(new byte[]{42}, PASSWORD, "prod");
+
+            assertThat(payload.getFormatVersion()).isEqualTo("1.2");
+            assertThat(payload.getVaultIdLabel()).hasValue("prod");
+        }
+
+        @Test
+        void shouldUseRandomSalt() {
+            var plainText = "the same plain text".getBytes(StandardCharsets.UTF_8);
+
+            var payload1 = VaultAes256.encrypt(plainText, PASSWORD, null);
+            var payload2 = VaultAes256.encrypt(plainText, PASSWORD, null);
+
+            assertThat(payload1.getSalt()).isNotEqualTo(payload2.getSalt());
+            assertThat(payload1.getCipherText()).isNotEqualTo(payload2.getCipherText());
+        }
+    }
+}
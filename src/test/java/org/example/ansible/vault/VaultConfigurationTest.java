@@ -10,6 +10,8 @@ import org.junit.jupiter.api.Test;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
+import java.time.Duration;
+import java.util.Map;
 
 @DisplayName("VaultConfiguration")
 class VaultConfigurationTest {
@@ -49,6 +51,115 @@ class VaultConfigurationTest {
             assertTempDirectoryIsJavaTempDir(config);
         }
 
+        @Test
+        void shouldDefaultToAnsibleVaultEngine() {
+            var config = VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath("/data/vault/.vault_pass")
+                    .build();
+
+            assertThat(config.getEngine()).isEqualTo(VaultEngineType.ANSIBLE_VAULT);
+        }
+
+        @Test
+        void shouldUseEngineIfSupplied() {
+            var config = VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath("/data/vault/.vault_pass")
+                    .engine(VaultEngineType.NATIVE)
+                    .build();
+
+            assertThat(config.getEngine()).isEqualTo(VaultEngineType.NATIVE);
+        }
+
+        @Test
+        void shouldDefaultToNoKeyPool() {
+            var config = VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath("/data/vault/.vault_pass")
+                    .build();
+
+            assertThat(config.getKeyPoolSize()).isZero();
+        }
+
+        @Test
+        void shouldNotAllowNegativeKeyPoolSize() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> VaultConfiguration.builder()
+                            .ansibleVaultPath("/usr/bin/ansible-vault")
+                            .vaultPasswordFilePath("/data/vault/.vault_pass")
+                            .keyPoolSize(-1)
+                            .build())
+                    .withMessage("keyPoolSize cannot be negative");
+        }
+
+        @Test
+        void shouldDefaultToNoVaultIdPasswordFiles() {
+            var config = VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath("/data/vault/.vault_pass")
+                    .build();
+
+            assertThat(config.getVaultIdPasswordFilePaths()).isEmpty();
+            assertThat(config.getVaultIdPasswordSources()).isEmpty();
+        }
+
+        @Test
+        void shouldNotAllowBlankVaultIdPasswordFile() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> VaultConfiguration.builder()
+                            .ansibleVaultPath("/usr/bin/ansible-vault")
+                            .vaultPasswordFilePath("/data/vault/.vault_pass")
+                            .vaultIdPasswordFilePaths(Map.of("prod", " "))
+                            .build())
+                    .withMessage("password file for vault ID prod cannot be blank");
+        }
+
+        @Test
+        void shouldNotAllowVaultIdWithBothPasswordFileAndPasswordSource() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> VaultConfiguration.builder()
+                            .ansibleVaultPath("/usr/bin/ansible-vault")
+                            .vaultPasswordFilePath("/data/vault/.vault_pass")
+                            .vaultIdPasswordFilePaths(Map.of("prod", "/data/vault/.vault_pass_prod"))
+                            .vaultIdPasswordSources(Map.of("prod", VaultPasswordSource.inMemory("prod".toCharArray())))
+                            .build())
+                    .withMessage("vault ID prod cannot have both a password file and a password source");
+        }
+
+        @Test
+        void shouldDefaultToNoPasswordCaching() {
+            var config = VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath("/data/vault/.vault_pass")
+                    .build();
+
+            assertThat(config.getPasswordCacheTtl()).isZero();
+            assertThat(config.getVaultPasswordSource()).isNull();
+        }
+
+        @Test
+        void shouldNotAllowNegativePasswordCacheTtl() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> VaultConfiguration.builder()
+                            .ansibleVaultPath("/usr/bin/ansible-vault")
+                            .vaultPasswordFilePath("/data/vault/.vault_pass")
+                            .passwordCacheTtl(Duration.ofSeconds(-1))
+                            .build())
+                    .withMessage("passwordCacheTtl cannot be negative");
+        }
+
+        @Test
+        void shouldAllowBlankVaultPasswordFilePath_WhenPasswordSourceSupplied() {
+            var config = VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordSource(VaultPasswordSource.inMemory("password100".toCharArray()))
+                    .build();
+
+            assertThat(config.getVaultPasswordFilePath()).isNull();
+            assertThat(config.getVaultPasswordSource()).isNotNull();
+        }
+
         @Test
         void shouldNotAllowBlankAnsibleVaultPath() {
             assertThatIllegalArgumentException()
@@ -75,6 +186,41 @@ class VaultConfigurationTest {
 
             assertTempDirectoryIsJavaTempDir(config);
         }
+
+        @Test
+        void shouldAssignEngine() {
+            var config = new VaultConfiguration();
+
+            assertThat(config.getEngine()).isEqualTo(VaultEngineType.ANSIBLE_VAULT);
+        }
+    }
+
+    @Nested
+    class ResolveVaultPasswordFilePath {
+
+        private final VaultConfiguration config = VaultConfiguration.builder()
+                .ansibleVaultPath("/usr/bin/ansible-vault")
+                .vaultPasswordFilePath("/data/vault/.vault_pass")
+                .vaultIdPasswordFilePaths(Map.of(
+                        "dev", "/data/vault/.vault_pass_dev",
+                        "prod", "/data/vault/.vault_pass_prod"))
+                .build();
+
+        @Test
+        void shouldUseLabelPasswordFile() {
+            assertThat(config.resolveVaultPasswordFilePath("dev")).isEqualTo("/data/vault/.vault_pass_dev");
+            assertThat(config.resolveVaultPasswordFilePath("prod")).isEqualTo("/data/vault/.vault_pass_prod");
+        }
+
+        @Test
+        void shouldUseDefaultPasswordFile_WhenNoLabel() {
+            assertThat(config.resolveVaultPasswordFilePath(null)).isEqualTo("/data/vault/.vault_pass");
+        }
+
+        @Test
+        void shouldUseDefaultPasswordFile_WhenLabelIsNotConfigured() {
+            assertThat(config.resolveVaultPasswordFilePath("stage")).isEqualTo("/data/vault/.vault_pass");
+        }
     }
 
     @Nested
@@ -85,6 +231,11 @@ class VaultConfigurationTest {
             var original = VaultConfiguration.builder()
                     .ansibleVaultPath("/usr/bin/ansible-vault")
                     .vaultPasswordFilePath("/data/vault/.vault_pass")
+                    .engine(VaultEngineType.NATIVE)
+                    .keyPoolSize(8)
+                    .vaultIdPasswordFilePaths(Map.of("prod", "/data/vault/.vault_pass_prod"))
+                    .vaultPasswordSource(VaultPasswordSource.inMemory("password100".toCharArray()))
+                    .passwordCacheTtl(Duration.ofMinutes(5))
                     .build();
 
             var copy = original.copyOf();
@@ -93,6 +244,20 @@ class VaultConfigurationTest {
                     .isNotSameAs(original)
                     .isEqualToComparingFieldByField(original);
         }
+
+        @Test
+        void shouldNotShareVaultIdPasswordFiles() {
+            var original = VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath("/data/vault/.vault_pass")
+                    .vaultIdPasswordFilePaths(Map.of("prod", "/data/vault/.vault_pass_prod"))
+                    .build();
+
+            var copy = original.copyOf();
+            original.getVaultIdPasswordFilePaths().put("dev", "/data/vault/.vault_pass_dev");
+
+            assertThat(copy.getVaultIdPasswordFilePaths()).containsOnlyKeys("prod");
+        }
     }
 
     @Nested
@@ -113,10 +278,20 @@ class VaultConfigurationTest {
 
             assertThat(invalidProperties).containsExactlyInAnyOrder(
                     "ansibleVaultPath",
-                    "vaultPasswordFilePath",
+                    "vaultPasswordConfigured",
                     "tempDirectory"
             );
         }
+
+        @Test
+        void shouldAllowBlankVaultPasswordFilePath_WhenVaultPasswordSourceIsSet() {
+            var validator = Validation.buildDefaultValidatorFactory().getValidator();
+            var config = new VaultConfiguration();
+            config.setAnsibleVaultPath("/usr/bin/ansible-vault");
+            config.setVaultPasswordSource(VaultPasswordSource.inMemory("password100".toCharArray()));
+
+            assertThat(validator.validate(config)).isEmpty();
+        }
     }
 
     private void assertTempDirectoryIsJavaTempDir(VaultConfiguration config) {
@@ -0,0 +1,64 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@DisplayName("VaultCryptoPrimitives")
+class VaultCryptoPrimitivesTest {
+
+    @Test
+    void shouldReuseInstancesOnSameThread() {
+        assertThat(VaultCryptoPrimitives.aesCtr()).isSameAs(VaultCryptoPrimitives.aesCtr());
+        assertThat(VaultCryptoPrimitives.hmacSha256()).isSameAs(VaultCryptoPrimitives.hmacSha256());
+        assertThat(VaultCryptoPrimitives.pbkdf2()).isSameAs(VaultCryptoPrimitives.pbkdf2());
+    }
+
+    @Test
+    void shouldNotShareInstancesAcrossThreads() throws ExecutionException, InterruptedException {
+        var mainThreadCipher = VaultCryptoPrimitives.aesCtr();
+        var mainThreadMac = VaultCryptoPrimitives.hmacSha256();
+
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var otherThreadCipher = executor.submit(VaultCryptoPrimitives::aesCtr).get();
+            var otherThreadMac = executor.submit(VaultCryptoPrimitives::hmacSha256).get();
+
+            assertThat(otherThreadCipher).isNotSameAs(mainThreadCipher);
+            assertThat(otherThreadMac).isNotSameAs(mainThreadMac);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldProduceCorrectResultsWhenReusedConcurrently() throws InterruptedException, ExecutionException {
+        var password = "password100".toCharArray();
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<String>> tasks = IntStream.range(0, 32)
+                    .mapToObj(i -> (Callable<String>) () -> {
+                        var plainText = ("secret number " + i).getBytes(StandardCharsets.UTF_8);
+                        var payload = VaultAes256.encrypt(plainText, password, null);
+                        return new String(VaultAes256.decrypt(payload, password), StandardCharsets.UTF_8);
+                    })
+                    .collect(Collectors.toList());
+
+            var results = executor.invokeAll(tasks);
+            for (var i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo("secret number " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
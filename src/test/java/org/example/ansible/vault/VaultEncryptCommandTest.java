@@ -6,6 +6,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+
 @DisplayName("VaultEncryptCommand")
 class VaultEncryptCommandTest {
 
@@ -49,4 +51,20 @@ class VaultEncryptCommandTest {
                 plainTextFileName
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldBuildCommand_WithVaultIdThatHasItsOwnPasswordFile() {
+        configuration.setVaultIdPasswordFilePaths(Map.of("prod", "~/.ansible/vault_pass_prod"));
+        var plainTextFileName = "/data/etc/secrets/passwords.txt";
+
+        var command = VaultEncryptCommand.from(configuration, "prod", plainTextFileName);
+
+        assertThat(command.getCommandParts()).containsExactly(
+                configuration.getAnsibleVaultPath(),
+                "encrypt",
+                "--vault-id",
+                "prod@~/.ansible/vault_pass_prod",
+                plainTextFileName
+        );
+    }
+}
@@ -1,9 +1,12 @@
 package org.example.ansible.vault;
 
 import static java.util.Objects.isNull;
+import static java.util.stream.Collectors.joining;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.example.ansible.vault.Utils.subListExcludingLast;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -16,26 +19,39 @@ import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import org.example.ansible.vault.testing.Fixtures;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.kiwiproject.base.process.ProcessHelper;
 import org.kiwiproject.collect.KiwiLists;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 
 import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.openmbean.TabularData;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -112,6 +128,16 @@ class VaultEncryptionHelperTest {
             verify(processHelper).launch(command.getCommandParts());
         }
 
+        @Test
+        void shouldCountProcessesLaunched() {
+            mockOsProcess(processHelper, process, 0, null, "Encryption successful");
+
+            helper.encryptFile("/data/etc/secrets.yml");
+            helper.encryptFile("/data/etc/other-secrets.yml");
+
+            assertThat(helper.getProcessesLaunched()).isEqualTo(2);
+        }
+
         @Test
         void shouldThrowException_WhenExitCodeIsNonZero() {
             var errorOutput = "ERROR! input is already encrypted";
@@ -465,9 +491,1095 @@ class VaultEncryptionHelperTest {
             // Sanity check...
             verify(processHelper).launch(anyList());
         }
+
+        @Test
+        void shouldNotUseTempDirectory_WhenUsingNativeEngine() {
+            var tempDirectory = folder.resolve("native-temp");
+            var nativeHelper = new VaultEncryptionHelper(VaultConfiguration.builder()
+                    .ansibleVaultPath(configuration.getAnsibleVaultPath())
+                    .vaultPasswordFilePath(configuration.getVaultPasswordFilePath())
+                    .tempDirectory(tempDirectory.toString())
+                    .engine(VaultEngineType.NATIVE)
+                    .build(), processHelper);
+
+            var encryptedString = nativeHelper.encryptString("secret sauce", VARIABLE_NAME);
+
+            assertThat(nativeHelper.decryptString(encryptedString)).isEqualTo("secret sauce");
+            assertThat(tempDirectory).doesNotExist();
+            verifyNoInteractions(processHelper);
+        }
+    }
+
+    @Nested
+    class RekeyDirectory {
+
+        private Path tree;
+        private Path newPasswordFile;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            tree = Files.createDirectories(Path.of(folder.toString(), "repo", "group_vars"));
+            newPasswordFile = Files.writeString(Path.of(folder.toString(), ".new_vault_pass.txt"), "new-password");
+        }
+
+        @Test
+        void shouldRekeyVaultedFilesNatively() throws IOException {
+            var nativeHelper = new VaultEncryptionHelper(VaultConfiguration.builder()
+                    .ansibleVaultPath(configuration.getAnsibleVaultPath())
+                    .vaultPasswordFilePath(configuration.getVaultPasswordFilePath())
+                    .tempDirectory(configuration.getTempDirectory())
+                    .engine(VaultEngineType.NATIVE)
+                    .build(), processHelper);
+
+            var first = nativeHelper.encryptFile(Files.writeString(tree.resolve("all.yml"), "one"));
+            var second = nativeHelper.encryptFile(Files.writeString(tree.resolve("web.yml"), "two"), "dev");
+            var plain = Files.writeString(tree.resolve("readme.txt"), "not secret");
+            var wrongPassword = Files.write(tree.resolve("db.yml"),
+                    VaultAes256.encrypt("three".getBytes(StandardCharsets.UTF_8), "other".toCharArray(), null)
+                            .toEncryptedFileBytes());
+
+            var report = nativeHelper.rekeyDirectory(tree.getParent(), newPasswordFile, 4);
+
+            assertThat(report.getResults()).extracting(VaultRekeyResult::getFile)
+                    .containsExactly(first, wrongPassword, plain, second);
+            assertThat(report.getResults()).extracting(VaultRekeyResult::getStatus).containsExactly(
+                    VaultRekeyResult.Status.REKEYED,
+                    VaultRekeyResult.Status.WRONG_PASSWORD,
+                    VaultRekeyResult.Status.NOT_VAULTED,
+                    VaultRekeyResult.Status.REKEYED);
+            assertThat(report.isAllRekeyed()).isFalse();
+            assertThat(report.getFailures()).extracting(VaultRekeyResult::getFile).containsExactly(wrongPassword);
+            assertThat(plain).hasContent("not secret");
+
+            var newPassword = "new-password".toCharArray();
+            assertThat(VaultAes256.decrypt(VaultPayload.parse(Files.readAllBytes(second)), newPassword))
+                    .isEqualTo("two".getBytes(StandardCharsets.UTF_8));
+            assertThat(Files.readString(second)).startsWith("$ANSIBLE_VAULT;1.2;AES256;dev\n");
+
+            verifyNoInteractions(processHelper);
+        }
+
+        @Test
+        void shouldLaunchRekeyOnlyForVaultedFiles_WhenUsingAnsibleVault() throws IOException {
+            mockOsProcess(processHelper, process, 0, null, "Rekey successful");
+            var vaulted = Files.writeString(tree.resolve("all.yml"), "$ANSIBLE_VAULT;1.1;AES256\n3132\n");
+            Files.writeString(tree.resolve("readme.txt"), "not secret");
+
+            var report = helper.rekeyDirectory(tree, newPasswordFile, 2);
+
+            assertThat(report.isAllRekeyed()).isTrue();
+            assertThat(report.countsByStatus())
+                    .containsEntry(VaultRekeyResult.Status.REKEYED, 1L)
+                    .containsEntry(VaultRekeyResult.Status.NOT_VAULTED, 1L);
+
+            var command = VaultRekeyCommand.from(configuration, vaulted.toString(), newPasswordFile.toString());
+            verify(processHelper).launch(command.getCommandParts());
+        }
+
+        @Test
+        void shouldReportUnexpectedExceptionsAsError() throws IOException {
+            when(processHelper.launch(anyList())).thenThrow(new IllegalStateException("unexpected failure"));
+            var vaulted = Files.writeString(tree.resolve("all.yml"), "$ANSIBLE_VAULT;1.1;AES256\n3132\n");
+            Files.writeString(tree.resolve("readme.txt"), "not secret");
+
+            var report = helper.rekeyDirectory(tree, newPasswordFile, 2);
+
+            assertThat(report.isAllRekeyed()).isFalse();
+            assertThat(report.countsByStatus())
+                    .containsEntry(VaultRekeyResult.Status.ERROR, 1L)
+                    .containsEntry(VaultRekeyResult.Status.NOT_VAULTED, 1L);
+            assertThat(report.getFailures())
+                    .extracting(VaultRekeyResult::getFile, VaultRekeyResult::getMessage)
+                    .containsExactly(tuple(vaulted, "unexpected failure"));
+        }
+
+        @Test
+        void shouldEnsureNewPasswordFileIsDifferentThanOriginalPasswordFile() {
+            var sameFile = Path.of(configuration.getVaultPasswordFilePath());
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> helper.rekeyDirectory(tree, sameFile, 1))
+                    .withMessage("newVaultPasswordFilePath file must be different than configuration.vaultPasswordFilePath (case-insensitive)");
+        }
+    }
+
+    @Nested
+    class EncryptIfChanged {
+
+        private VaultEncryptionHelper nativeHelper;
+        private Path plainTextFile;
+        private Path encryptedFile;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            var nativeConfiguration = VaultConfiguration.builder()
+                    .ansibleVaultPath(configuration.getAnsibleVaultPath())
+                    .vaultPasswordFilePath(configuration.getVaultPasswordFilePath())
+                    .tempDirectory(configuration.getTempDirectory())
+                    .engine(VaultEngineType.NATIVE)
+                    .build();
+
+            nativeHelper = new VaultEncryptionHelper(nativeConfiguration, processHelper);
+            plainTextFile = Files.writeString(Path.of(folder.toString(), "secrets.yml"), "password: s3cret\n");
+            encryptedFile = Path.of(folder.toString(), "secrets.vault.yml");
+        }
+
+        @Test
+        void shouldWriteFile_WhenEncryptedFileDoesNotExist() {
+            assertThat(nativeHelper.encryptFileIfChanged(plainTextFile, encryptedFile, null)).isTrue();
+
+            assertThat(nativeHelper.viewFile(encryptedFile)).isEqualTo("password: s3cret\n");
+            assertThat(plainTextFile).hasContent("password: s3cret\n");
+            assertThat(nativeHelper.getEncryptIfChangedStats()).isEqualTo(new EncryptIfChangedStats(1, 0));
+        }
+
+        @Test
+        void shouldNotRewriteFile_WhenPlainTextIsUnchanged() throws IOException {
+            nativeHelper.encryptFileIfChanged(plainTextFile, encryptedFile, "prod");
+            var original = Files.readString(encryptedFile);
+
+            assertThat(nativeHelper.encryptFileIfChanged(plainTextFile, encryptedFile, "prod")).isFalse();
+
+            assertThat(encryptedFile).hasContent(original);
+            assertThat(nativeHelper.getEncryptIfChangedStats()).isEqualTo(new EncryptIfChangedStats(1, 1));
+        }
+
+        @Test
+        void shouldRewriteFile_WhenPlainTextOrLabelChanged() throws IOException {
+            nativeHelper.encryptFileIfChanged(plainTextFile, encryptedFile, null);
+
+            assertThat(nativeHelper.encryptFileIfChanged(plainTextFile, encryptedFile, "prod")).isTrue();
+            Files.writeString(plainTextFile, "password: n3w\n");
+            assertThat(nativeHelper.encryptFileIfChanged(plainTextFile, encryptedFile, "prod")).isTrue();
+
+            assertThat(nativeHelper.viewFile(encryptedFile)).isEqualTo("password: n3w\n");
+            assertThat(Files.readString(encryptedFile)).startsWith("$ANSIBLE_VAULT;1.2;AES256;prod\n");
+            assertThat(folder.toFile().list()).noneMatch(name -> name.endsWith(".tmp"));
+        }
+
+        @Test
+        @EnabledOnOs({OS.LINUX, OS.MAC})
+        void shouldKeepPermissions_WhenRewritingFile() throws IOException {
+            nativeHelper.encryptFileIfChanged(plainTextFile, encryptedFile, null);
+            Files.setPosixFilePermissions(encryptedFile, PosixFilePermissions.fromString("rw-r-----"));
+            Files.writeString(plainTextFile, "password: n3w\n");
+
+            assertThat(nativeHelper.encryptFileIfChanged(plainTextFile, encryptedFile, null)).isTrue();
+
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(encryptedFile)))
+                    .isEqualTo("rw-r-----");
+        }
+
+        @Test
+        void shouldEncryptCopyInTempDirectory_WhenUsingAnsibleVault() throws IOException {
+            var tempDirectory = folder.resolve("private");
+            configuration.setTempDirectory(tempDirectory.toString());
+            helper.reconfigure(configuration);
+            var vaultDirectory = Files.createDirectory(folder.resolve("vault"));
+            var targetFile = vaultDirectory.resolve("secrets.vault.yml");
+            mockOsProcess(processHelper, process, 0, null, null);
+
+            assertThat(helper.encryptFileIfChanged(plainTextFile, targetFile, null)).isTrue();
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<String>> commandCaptor = ArgumentCaptor.forClass(List.class);
+            verify(processHelper).launch(commandCaptor.capture());
+            assertThat(Path.of(KiwiLists.last(commandCaptor.getValue())).getParent()).isEqualTo(tempDirectory);
+            assertThat(targetFile).exists();
+            assertThat(vaultDirectory.toFile().list()).containsExactly("secrets.vault.yml");
+            assertThat(tempDirectory.toFile().list()).isEmpty();
+            assertThat(helper.getTempFilesOutstanding()).isZero();
+        }
+
+        @Test
+        void shouldNotLaunchProcess_WhenPlainTextIsUnchanged() {
+            nativeHelper.encryptFileIfChanged(plainTextFile, encryptedFile, null);
+
+            assertThat(helper.encryptFileIfChanged(plainTextFile, encryptedFile, null)).isFalse();
+
+            verifyNoInteractions(processHelper);
+        }
+
+        @Test
+        void shouldKeepExistingEncryptedString_WhenPlainTextIsUnchanged() {
+            var existing = nativeHelper.encryptString("dev", "the secret", "api_key");
+
+            var result = helper.encryptStringIfChanged(existing, "dev", "the secret", "api_key");
+
+            assertThat(result).isSameAs(existing);
+            assertThat(helper.getEncryptIfChangedStats()).isEqualTo(new EncryptIfChangedStats(0, 1));
+            verifyNoInteractions(processHelper);
+        }
+
+        @Test
+        void shouldEncryptString_WhenNameLabelOrPlainTextDiffers() {
+            var existing = nativeHelper.encryptString("dev", "the secret", "api_key");
+
+            assertThat(nativeHelper.encryptStringIfChanged(existing, "dev", "other secret", "api_key"))
+                    .isNotEqualTo(existing);
+            assertThat(nativeHelper.encryptStringIfChanged(existing, "prod", "the secret", "api_key"))
+                    .isNotEqualTo(existing);
+            assertThat(nativeHelper.encryptStringIfChanged(existing, "dev", "the secret", "other_key"))
+                    .startsWith("other_key: !vault |");
+            assertThat(nativeHelper.encryptStringIfChanged("not encrypt_string content", null, "the secret", "api_key"))
+                    .startsWith("api_key: !vault |");
+            assertThat(nativeHelper.encryptStringIfChanged(null, null, "the secret", "api_key"))
+                    .startsWith("api_key: !vault |");
+
+            assertThat(nativeHelper.getEncryptIfChangedStats()).isEqualTo(new EncryptIfChangedStats(5, 0));
+        }
+    }
+
+    @Nested
+    class WithNativeEngine {
+
+        private VaultEncryptionHelper nativeHelper;
+
+        @BeforeEach
+        void setUp() {
+            var nativeConfiguration = VaultConfiguration.builder()
+                    .ansibleVaultPath(configuration.getAnsibleVaultPath())
+                    .vaultPasswordFilePath(configuration.getVaultPasswordFilePath())
+                    .tempDirectory(configuration.getTempDirectory())
+                    .engine(VaultEngineType.NATIVE)
+                    .build();
+
+            nativeHelper = new VaultEncryptionHelper(nativeConfiguration, processHelper);
+        }
+
+        @Test
+        void shouldEncryptAndDecryptFileWithoutLaunchingProcess() throws IOException {
+            var plainTextFile = Files.writeString(Path.of(folder.toString(), "secrets.yml"), "the secret stash");
+
+            var encryptedFile = nativeHelper.encryptFile(plainTextFile, "prod");
+            assertThat(encryptedFile).isEqualTo(plainTextFile);
+            assertThat(nativeHelper.viewFile(encryptedFile)).isEqualTo("the secret stash");
+
+            var decryptedFile = nativeHelper.decryptFile(encryptedFile);
+            assertThat(decryptedFile).hasContent("the secret stash");
+
+            verifyNoInteractions(processHelper);
+        }
+
+        @Test
+        void shouldEncryptAndDecryptStringWithoutLaunchingProcess() {
+            var encryptedString = nativeHelper.encryptString("some plain text", "some_variable");
+
+            assertThat(nativeHelper.decryptString(encryptedString)).isEqualTo("some plain text");
+
+            verifyNoInteractions(processHelper);
+        }
+
+        @Test
+        void shouldDecryptStringEncryptedByAnsibleVault() {
+            var encryptedString = Fixtures.fixture(ENCRYPT_STRING_1_1_FORMAT);
+
+            assertThat(nativeHelper.decryptString(encryptedString)).isNotBlank();
+
+            verifyNoInteractions(processHelper);
+        }
+
+        @Test
+        void shouldDecryptInlineVariablesWithoutLaunchingProcess() throws IOException {
+            var dbPassword = nativeHelper.encryptString("db secret", "password");
+            var apiToken = nativeHelper.encryptString("api secret", "token");
+            var yaml = "db:\n" + indent(dbPassword) + "api:\n" + indent(apiToken);
+            var varsFile = Files.writeString(Path.of(folder.toString(), "all.yml"), yaml);
+
+            var decrypted = nativeHelper.decryptInlineVariables(varsFile);
+
+            assertThat(decrypted).containsExactly(
+                    entry("db.password", "db secret"),
+                    entry("api.token", "api secret"));
+
+            verifyNoInteractions(processHelper);
+        }
+
+        private String indent(String encryptedString) {
+            return encryptedString.lines().map(line -> "  " + line + "\n").collect(joining());
+        }
+
+        @Test
+        void shouldStillValidateArguments() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> nativeHelper.decryptFile("/data/crypt/secrets.yml", "/data/crypt/SECRETS.yml"))
+                    .withMessage("outputFilePath must be different than encryptedFilePath (case-insensitive)");
+        }
+    }
+
+    @Nested
+    class WithVaultPasswordSource {
+
+        private VaultConfiguration sourceConfiguration;
+
+        @BeforeEach
+        void setUp() {
+            sourceConfiguration = VaultConfiguration.builder()
+                    .ansibleVaultPath(configuration.getAnsibleVaultPath())
+                    .vaultPasswordSource(VaultPasswordSource.inMemory("in-memory-password".toCharArray()))
+                    .tempDirectory(configuration.getTempDirectory())
+                    .build();
+        }
+
+        @Test
+        void shouldNotRequirePasswordFile() {
+            try (var sourceHelper = new VaultEncryptionHelper(sourceConfiguration, processHelper)) {
+                assertThat(sourceHelper).isNotNull();
+            }
+        }
+
+        @Test
+        void shouldEncryptAndDecryptNatively() {
+            sourceConfiguration.setEngine(VaultEngineType.NATIVE);
+            try (var sourceHelper = new VaultEncryptionHelper(sourceConfiguration, processHelper)) {
+                var encryptedString = sourceHelper.encryptString("some plain text", "some_variable");
+
+                var payload = VaultPayload.parse(new VaultEncryptedVariable(encryptedString).getEncryptedFileBytes());
+                assertThat(VaultAes256.decrypt(payload, "in-memory-password".toCharArray())).isNotEmpty();
+                assertThat(sourceHelper.decryptString(encryptedString)).isEqualTo("some plain text");
+            }
+
+            verifyNoInteractions(processHelper);
+        }
+
+        @Test
+        void shouldGiveAnsibleVaultPrivatePasswordFile() {
+            mockOsProcess(processHelper, process, 0, "the secret", null);
+            var encryptedFile = "/data/etc/secrets.yml";
+
+            Path passwordFile;
+            try (var sourceHelper = new VaultEncryptionHelper(sourceConfiguration, processHelper)) {
+                sourceHelper.viewFile(encryptedFile);
+
+                @SuppressWarnings("unchecked")
+                ArgumentCaptor<List<String>> commandCaptor = ArgumentCaptor.forClass(List.class);
+                verify(processHelper).launch(commandCaptor.capture());
+                var command = commandCaptor.getValue();
+                assertThat(command).hasSize(5).startsWith(configuration.getAnsibleVaultPath(), "view",
+                        "--vault-password-file").endsWith(encryptedFile);
+
+                passwordFile = Path.of(command.get(3));
+                assertThat(passwordFile).hasContent("in-memory-password");
+            }
+
+            assertThat(passwordFile).doesNotExist();
+        }
+    }
+
+    @Nested
+    class Reconfigure {
+
+        private Path newPasswordFile;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            newPasswordFile = Files.writeString(folder.resolve(".vault_pass_new"), "new-password");
+        }
+
+        @Test
+        void shouldUseNewConfigurationForSubsequentOperations() {
+            mockOsProcess(processHelper, process, 0, "the secret", null);
+            var newConfiguration = configuration.copyOf();
+            newConfiguration.setVaultPasswordFilePath(newPasswordFile.toString());
+
+            helper.reconfigure(newConfiguration);
+            helper.viewFile("/data/etc/secrets.yml");
+
+            var command = VaultViewCommand.from(newConfiguration, "/data/etc/secrets.yml");
+            verify(processHelper).launch(command.getCommandParts());
+            assertThat(helper.getConfiguration().getVaultPasswordFilePath()).isEqualTo(newPasswordFile.toString());
+        }
+
+        @Test
+        void shouldKeepCurrentConfiguration_WhenNewOneIsInvalid() {
+            var invalidConfiguration = configuration.copyOf();
+            invalidConfiguration.setVaultPasswordFilePath(folder.resolve("missing").toString());
+
+            assertThatIllegalArgumentException().isThrownBy(() -> helper.reconfigure(invalidConfiguration));
+
+            assertThat(helper.getConfiguration().getVaultPasswordFilePath())
+                    .isEqualTo(configuration.getVaultPasswordFilePath());
+        }
+
+        @Test
+        void shouldNotBeAffectedByChangesToGivenConfiguration() {
+            var newConfiguration = configuration.copyOf();
+            helper.reconfigure(newConfiguration);
+
+            newConfiguration.setVaultPasswordFilePath(newPasswordFile.toString());
+
+            assertThat(helper.getConfiguration().getVaultPasswordFilePath())
+                    .isEqualTo(configuration.getVaultPasswordFilePath());
+        }
+
+        @Test
+        void shouldLetOperationsInFlightFinishWithPreviousConfiguration() {
+            var inFlight = helper.acquireSnapshot();
+            var newConfiguration = configuration.copyOf();
+            newConfiguration.setVaultPasswordFilePath(newPasswordFile.toString());
+
+            helper.reconfigure(newConfiguration);
+
+            try (var next = helper.acquireSnapshot()) {
+                assertThat(next).isNotSameAs(inFlight);
+                assertThat(next.getConfiguration().getVaultPasswordFilePath()).isEqualTo(newPasswordFile.toString());
+            }
+            assertThat(inFlight.getConfiguration().getVaultPasswordFilePath())
+                    .isEqualTo(configuration.getVaultPasswordFilePath());
+            assertThat(inFlight.tryRetain()).isTrue();
+            inFlight.close();
+            inFlight.close();
+
+            assertThat(inFlight.tryRetain()).isFalse();
+        }
+
+        @Test
+        void shouldKeepCachedPasswords_WhenPasswordSettingsAreUnchanged() {
+            try (var original = helper.acquireSnapshot()) {
+                var newConfiguration = configuration.copyOf();
+                newConfiguration.setEngine(VaultEngineType.NATIVE);
+
+                helper.reconfigure(newConfiguration);
+
+                try (var next = helper.acquireSnapshot()) {
+                    assertThat(next.getNativeEngine().getPasswords())
+                            .isSameAs(original.getNativeEngine().getPasswords());
+                }
+            }
+        }
+
+        @Test
+        void shouldDecryptWithNewPasswordNatively() throws IOException {
+            var nativeConfiguration = configuration.copyOf();
+            nativeConfiguration.setEngine(VaultEngineType.NATIVE);
+            helper.reconfigure(nativeConfiguration);
+            var encryptedFile = Files.copy(Fixtures.fixturePath("ansible-vault/secret.txt"), folder.resolve("secret.txt"));
+            assertThat(helper.viewFile(encryptedFile)).isEqualTo("Remember to drink your Ovaltine\n");
+
+            nativeConfiguration.setVaultPasswordFilePath(newPasswordFile.toString());
+            helper.reconfigure(nativeConfiguration);
+
+            assertThatThrownBy(() -> helper.viewFile(encryptedFile))
+                    .isInstanceOf(VaultDecryptionException.class);
+        }
+
+        @Test
+        void shouldNotAllowOperationsOrReconfiguration_AfterClose() {
+            helper.close();
+
+            assertThatThrownBy(() -> helper.viewFile("/data/etc/secrets.yml"))
+                    .isExactlyInstanceOf(IllegalStateException.class)
+                    .hasMessage("VaultEncryptionHelper is closed");
+            assertThatThrownBy(() -> helper.reconfigure(configuration))
+                    .isExactlyInstanceOf(IllegalStateException.class)
+                    .hasMessage("VaultEncryptionHelper is closed");
+        }
+    }
+
+    @Nested
+    class WithVaultIdPasswordFiles {
+
+        private Path prodPasswordFilePath;
+        private VaultConfiguration vaultIdConfiguration;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            prodPasswordFilePath = Files.writeString(folder.resolve(".vault_pass_prod.txt"), "prod-password\n");
+            vaultIdConfiguration = VaultConfiguration.builder()
+                    .ansibleVaultPath(configuration.getAnsibleVaultPath())
+                    .vaultPasswordFilePath(configuration.getVaultPasswordFilePath())
+                    .tempDirectory(configuration.getTempDirectory())
+                    .vaultIdPasswordFilePaths(Map.of("prod", prodPasswordFilePath.toString()))
+                    .build();
+        }
+
+        @Test
+        void shouldRequirePasswordFilesToExist() {
+            vaultIdConfiguration.setVaultIdPasswordFilePaths(Map.of("prod", "/does/not/exist"));
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new VaultEncryptionHelper(vaultIdConfiguration, processHelper))
+                    .withMessage("vault password file for vault ID prod does not exist: /does/not/exist");
+        }
+
+        @Test
+        void shouldViewWithPasswordFileForHeaderLabel() throws IOException {
+            mockOsProcess(processHelper, process, 0, "the prod secret", null);
+            var encryptedFile = writeEncryptedFile("prod.yml", "prod-password", "prod");
+            var vaultIdHelper = new VaultEncryptionHelper(vaultIdConfiguration, processHelper);
+
+            assertThat(vaultIdHelper.viewFile(encryptedFile)).isEqualTo("the prod secret");
+
+            verify(processHelper).launch(List.of(configuration.getAnsibleVaultPath(), "view",
+                    "--vault-password-file", prodPasswordFilePath.toString(), encryptedFile.toString()));
+        }
+
+        @Test
+        void shouldViewWithDefaultPasswordFile_WhenNoLabel() throws IOException {
+            mockOsProcess(processHelper, process, 0, "the secret", null);
+            var encryptedFile = writeEncryptedFile("default.yml", "password100", null);
+            var vaultIdHelper = new VaultEncryptionHelper(vaultIdConfiguration, processHelper);
+
+            vaultIdHelper.viewFile(encryptedFile);
+
+            verify(processHelper).launch(List.of(configuration.getAnsibleVaultPath(), "view",
+                    "--vault-password-file", configuration.getVaultPasswordFilePath(), encryptedFile.toString()));
+        }
+
+        @Test
+        void shouldViewWithMatchingPasswordFile_WhenUnlabelled() throws IOException {
+            mockOsProcess(processHelper, process, 0, "the prod secret", null);
+            var encryptedFile = writeEncryptedFile("legacy.yml", "prod-password", null);
+            var vaultIdHelper = new VaultEncryptionHelper(vaultIdConfiguration, processHelper);
+
+            vaultIdHelper.viewFile(encryptedFile);
+
+            verify(processHelper).launch(List.of(configuration.getAnsibleVaultPath(), "view",
+                    "--vault-password-file", prodPasswordFilePath.toString(), encryptedFile.toString()));
+        }
+
+        @Test
+        void shouldDecryptUnlabelledStringNatively_WithWhicheverPasswordMatches() {
+            vaultIdConfiguration.setEngine(VaultEngineType.NATIVE);
+            var vaultIdHelper = new VaultEncryptionHelper(vaultIdConfiguration, processHelper);
+            var payload = VaultAes256.encrypt(
+                    "legacy prod secret".getBytes(StandardCharsets.UTF_8), "prod-password".toCharArray(), null);
+
+            var encryptedString = "db_password: !vault |\n" + payload.toIndentedContent("          ");
+
+            var decrypted = vaultIdHelper.decryptString(encryptedString);
+
+            assertThat(decrypted).isEqualTo("legacy prod secret");
+            verifyNoInteractions(processHelper);
+        }
+
+        @Test
+        void shouldEncryptStringWithPasswordFileForLabel() {
+            mockOsProcess(processHelper, process, 0, "encrypted", null);
+            var vaultIdHelper = new VaultEncryptionHelper(vaultIdConfiguration, processHelper);
+
+            vaultIdHelper.encryptString("prod", "the prod secret", "db_password");
+
+            verify(processHelper).launch(List.of(configuration.getAnsibleVaultPath(), "encrypt_string",
+                    "--vault-id", "prod@" + prodPasswordFilePath, "--name", "db_password", "the prod secret"));
+        }
+
+        @Test
+        void shouldEncryptStringWithPrivatePasswordFile_ForLabelWithPasswordSource() {
+            mockOsProcess(processHelper, process, 0, "encrypted", null);
+            vaultIdConfiguration.setVaultIdPasswordSources(
+                    Map.of("stage", VaultPasswordSource.inMemory("stage-password".toCharArray())));
+
+            try (var vaultIdHelper = new VaultEncryptionHelper(vaultIdConfiguration, processHelper)) {
+                vaultIdHelper.encryptString("stage", "the stage secret", "db_password");
+
+                @SuppressWarnings("unchecked")
+                ArgumentCaptor<List<String>> commandCaptor = ArgumentCaptor.forClass(List.class);
+                verify(processHelper).launch(commandCaptor.capture());
+                var command = commandCaptor.getValue();
+                assertThat(command).hasSize(7).startsWith(configuration.getAnsibleVaultPath(), "encrypt_string",
+                        "--vault-id").endsWith("--name", "db_password", "the stage secret");
+
+                assertThat(command.get(3)).startsWith("stage@");
+                var passwordFile = Path.of(command.get(3).substring("stage@".length()));
+                assertThat(passwordFile).hasParent(Path.of(configuration.getTempDirectory()))
+                        .hasContent("stage-password");
+            }
+        }
+
+        @Test
+        void shouldRouteNativeDecryptionByHeaderLabel() throws IOException {
+            vaultIdConfiguration.setEngine(VaultEngineType.NATIVE);
+            var vaultIdHelper = new VaultEncryptionHelper(vaultIdConfiguration, processHelper);
+            var prodFile = writeEncryptedFile("prod.yml", "prod-password", "prod");
+            var defaultFile = writeEncryptedFile("default.yml", "password100", null);
+            var unknownLabelFile = writeEncryptedFile("dev.yml", "password100", "dev");
+
+            assertThat(vaultIdHelper.viewFile(prodFile)).isEqualTo("secret for prod.yml");
+            assertThat(vaultIdHelper.viewFile(defaultFile)).isEqualTo("secret for default.yml");
+            assertThat(vaultIdHelper.viewFile(unknownLabelFile)).isEqualTo("secret for dev.yml");
+
+            verifyNoInteractions(processHelper);
+        }
+
+        @Test
+        void shouldEncryptNativelyWithPasswordForLabel() {
+            vaultIdConfiguration.setEngine(VaultEngineType.NATIVE);
+            var vaultIdHelper = new VaultEncryptionHelper(vaultIdConfiguration, processHelper);
+
+            var encryptedString = vaultIdHelper.encryptString("prod", "the prod secret", "db_password");
+
+            var payload = VaultPayload.parse(new VaultEncryptedVariable(encryptedString).getEncryptedFileBytes());
+            assertThat(new String(VaultAes256.decrypt(payload, "prod-password".toCharArray()), StandardCharsets.UTF_8))
+                    .isEqualTo("the prod secret");
+            assertThat(vaultIdHelper.decryptString(encryptedString)).isEqualTo("the prod secret");
+        }
+
+        private Path writeEncryptedFile(String fileName, String password, @Nullable String vaultIdLabel)
+                throws IOException {
+            var plainText = "secret for " + fileName;
+            var payload = VaultAes256.encrypt(
+                    plainText.getBytes(StandardCharsets.UTF_8), password.toCharArray(), vaultIdLabel);
+            return Files.write(folder.resolve(fileName), payload.toEncryptedFileBytes());
+        }
     }
 
     // Things this method mocks:
+    @Nested
+    class OperationListeners {
+
+        private final List<VaultOperationEvent> events = new ArrayList<>();
+
+        @BeforeEach
+        void setUp() {
+            helper.addOperationListener(events::add);
+        }
+
+        @Test
+        void shouldReportProcessPhases() {
+            mockOsProcess(processHelper, process, 0, "secret sauce", null);
+
+            helper.decryptString(Fixtures.fixture(ENCRYPT_STRING_1_1_FORMAT));
+
+            assertThat(events).hasSize(1);
+            var event = events.get(0);
+            assertThat(event.getOperation()).isEqualTo(VaultOperation.DECRYPT_STRING);
+            assertThat(event.getEngine()).isEqualTo(VaultEngineType.ANSIBLE_VAULT);
+            assertThat(event.isSuccessful()).isTrue();
+            assertThat(event.getPhaseDurations()).containsOnlyKeys(
+                    VaultOperationPhase.PARSE,
+                    VaultOperationPhase.PASSWORD_LOOKUP,
+                    VaultOperationPhase.TEMP_DIRECTORY,
+                    VaultOperationPhase.FILE_IO,
+                    VaultOperationPhase.PROCESS_LAUNCH,
+                    VaultOperationPhase.PROCESS_WAIT,
+                    VaultOperationPhase.OUTPUT_READ,
+                    VaultOperationPhase.CLEANUP);
+            assertThat(event.getDuration()).isGreaterThanOrEqualTo(
+                    event.getPhaseDuration(VaultOperationPhase.PROCESS_WAIT));
+        }
+
+        @Test
+        void shouldReportKeyDerivationAndCipherPhases_WithNativeEngine() {
+            configuration.setEngine(VaultEngineType.NATIVE);
+            helper.reconfigure(configuration);
+
+            var encryptedString = helper.encryptString("some plain text", "some_variable");
+            helper.decryptString(encryptedString);
+
+            assertThat(events).extracting(VaultOperationEvent::getOperation)
+                    .containsExactly(VaultOperation.ENCRYPT_STRING, VaultOperation.DECRYPT_STRING);
+            assertThat(events).allSatisfy(event -> {
+                assertThat(event.getEngine()).isEqualTo(VaultEngineType.NATIVE);
+                assertThat(event.getPhaseDurations()).containsKeys(
+                        VaultOperationPhase.PASSWORD_LOOKUP,
+                        VaultOperationPhase.KEY_DERIVATION,
+                        VaultOperationPhase.CIPHER);
+                assertThat(event.getPhaseDurations()).doesNotContainKeys(
+                        VaultOperationPhase.PROCESS_LAUNCH,
+                        VaultOperationPhase.PROCESS_WAIT);
+            });
+            assertThat(events.get(1).getPhaseDurations()).containsKey(VaultOperationPhase.PARSE);
+            verifyNoInteractions(processHelper);
+        }
+
+        @Test
+        void shouldReportFailures() {
+            mockOsProcess(processHelper, process, 1, null, "ERROR! input is already encrypted");
+            var plainTextFile = folder.resolve("secrets.yml");
+
+            assertThatThrownBy(() -> helper.encryptFile(plainTextFile))
+                    .isExactlyInstanceOf(VaultEncryptionException.class);
+
+            assertThat(events).hasSize(1);
+            var event = events.get(0);
+            assertThat(event.getOperation()).isEqualTo(VaultOperation.ENCRYPT_FILE);
+            assertThat(event.isSuccessful()).isFalse();
+            assertThat(event.getFailure()).isExactlyInstanceOf(VaultEncryptionException.class);
+            assertThat(event.getPhaseDurations()).containsKey(VaultOperationPhase.OUTPUT_READ);
+        }
+
+        @Test
+        void shouldIgnoreListenerExceptions() {
+            mockOsProcess(processHelper, process, 0, null, null);
+            helper.addOperationListener(event -> {
+                throw new IllegalStateException("broken listener");
+            });
+            var laterEvents = new ArrayList<VaultOperationEvent>();
+            helper.addOperationListener(laterEvents::add);
+
+            var plainTextFile = folder.resolve("secrets.yml");
+            assertThat(helper.encryptFile(plainTextFile)).isEqualTo(plainTextFile);
+
+            assertThat(events).hasSize(1);
+            assertThat(laterEvents).hasSize(1);
+        }
+
+        @Test
+        void shouldNotNotifyRemovedListeners() {
+            mockOsProcess(processHelper, process, 0, null, null);
+            VaultOperationListener listener = events::add;
+            helper.addOperationListener(listener);
+            helper.removeOperationListener(listener);
+
+            helper.encryptFile(folder.resolve("secrets.yml"));
+
+            assertThat(events).hasSize(1);
+        }
+
+        @Test
+        void shouldNotTimeOperations_WhenThereAreNoListeners() {
+            var untimedHelper = new VaultEncryptionHelper(configuration, processHelper);
+            var timed = new ArrayList<Boolean>();
+            mockOsProcess(processHelper, process, 0, null, null);
+            when(processHelper.launch(anyList())).thenAnswer(invocation -> {
+                timed.add(VaultOperationTimer.current().isEnabled());
+                return process;
+            });
+
+            untimedHelper.encryptFile(folder.resolve("secrets.yml"));
+            helper.encryptFile(folder.resolve("secrets.yml"));
+
+            assertThat(timed).containsExactly(false, true);
+            assertThat(VaultOperationTimer.current().isEnabled()).isFalse();
+        }
+    }
+
+    @Nested
+    class OperationStats {
+
+        @Test
+        void shouldCountOutcomesAndRecordLatencies() {
+            mockOsProcess(processHelper, process, 0, null, null);
+            helper.encryptFile(folder.resolve("secrets.yml"));
+            helper.encryptFile(folder.resolve("other-secrets.yml"));
+
+            var stats = helper.getOperationStats(VaultOperation.ENCRYPT_FILE);
+
+            assertThat(stats.getOperation()).isEqualTo(VaultOperation.ENCRYPT_FILE);
+            assertThat(stats.getSuccessCount()).isEqualTo(2);
+            assertThat(stats.getFailureCount()).isZero();
+            assertThat(stats.getTimeoutCount()).isZero();
+            var latency = stats.getLatency(VaultOperationOutcome.SUCCESS);
+            assertThat(latency.getMax()).isPositive();
+            assertThat(latency.getP99()).isLessThanOrEqualTo(latency.getMax());
+        }
+
+        @Test
+        void shouldCountFailures() {
+            mockOsProcess(processHelper, process, 1, null, "ERROR! input is already encrypted");
+
+            assertThatThrownBy(() -> helper.viewFile(folder.resolve("secrets.yml")))
+                    .isExactlyInstanceOf(VaultEncryptionException.class);
+
+            var stats = helper.getOperationStats(VaultOperation.VIEW_FILE);
+            assertThat(stats.getFailureCount()).isOne();
+            assertThat(stats.getTotalCount()).isOne();
+        }
+
+        @Test
+        void shouldCountTimeouts() {
+            mockOsProcess(processHelper, process, null, null, null);
+
+            assertThatThrownBy(() -> helper.decryptString(Fixtures.fixture(ENCRYPT_STRING_1_1_FORMAT)))
+                    .isExactlyInstanceOf(VaultTimeoutException.class)
+                    .hasMessage("ansible-vault did not exit before timeout");
+
+            var stats = helper.getOperationStats(VaultOperation.DECRYPT_STRING);
+            assertThat(stats.getTimeoutCount()).isOne();
+            assertThat(stats.getFailureCount()).isZero();
+        }
+
+        @Test
+        void shouldReportEveryOperation() {
+            var stats = helper.getOperationStats();
+
+            assertThat(stats).containsOnlyKeys(VaultOperation.values());
+            assertThat(stats.values()).allSatisfy(operationStats ->
+                    assertThat(operationStats.getTotalCount()).isZero());
+        }
+    }
+
+    @Nested
+    class MBean {
+
+        private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        @AfterEach
+        void tearDown() {
+            helper.close();
+        }
+
+        @Test
+        void shouldExposeGauges() throws JMException {
+            mockOsProcess(processHelper, process, 0, null, null);
+            helper.encryptFile(folder.resolve("secrets.yml"));
+
+            var name = helper.registerMBean();
+
+            assertThat(mbeanServer.isRegistered(name)).isTrue();
+            assertThat(mbeanServer.getAttribute(name, "Engine")).isEqualTo("ANSIBLE_VAULT");
+            assertThat(mbeanServer.getAttribute(name, "Ready")).isEqualTo(false);
+            assertThat(mbeanServer.getAttribute(name, "ProcessesLaunched")).isEqualTo(1L);
+            assertThat(mbeanServer.getAttribute(name, "ProcessesInFlight")).isEqualTo(0);
+            assertThat(mbeanServer.getAttribute(name, "OperationsInFlight")).isEqualTo(0);
+            assertThat(mbeanServer.getAttribute(name, "OperationCount")).isEqualTo(1L);
+            assertThat(mbeanServer.getAttribute(name, "TimeoutCount")).isEqualTo(0L);
+            assertThat(mbeanServer.getAttribute(name, "TempFilesOutstanding")).isEqualTo(0);
+            assertThat(mbeanServer.getAttribute(name, "NegativeCacheSize")).isEqualTo(0L);
+            assertThat(mbeanServer.getAttribute(name, "KeyPoolCapacity")).isEqualTo(0);
+            assertThat(mbeanServer.getAttribute(name, "P99LatencyMillis")).isInstanceOf(TabularData.class);
+        }
+
+        @Test
+        void shouldCountInFlightWork() {
+            var inFlight = new ArrayList<Integer>();
+            mockOsProcess(processHelper, process, 0, "secret sauce", null);
+            when(processHelper.waitForExit(same(process), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+                inFlight.add(helper.getOperationsInFlight());
+                inFlight.add(helper.getProcessesInFlight());
+                inFlight.add(helper.getTempFilesOutstanding());
+                return Optional.of(0);
+            });
+
+            helper.decryptString(Fixtures.fixture(ENCRYPT_STRING_1_1_FORMAT));
+
+            assertThat(inFlight).containsExactly(1, 1, 1);
+            assertThat(List.of(helper.getOperationsInFlight(), helper.getProcessesInFlight(),
+                    helper.getTempFilesOutstanding())).containsOnly(0);
+        }
+
+        @Test
+        void shouldClearCachesAndResetStats() throws IOException, JMException {
+            configuration.setEngine(VaultEngineType.NATIVE);
+            helper.reconfigure(configuration);
+            var wrongPasswordValue = helper.encryptString("the secret", "db_password");
+            Files.writeString(Path.of(configuration.getVaultPasswordFilePath()), "wrong-password");
+            for (var i = 0; i < 2; i++) {
+                assertThatThrownBy(() -> helper.decryptString(wrongPasswordValue))
+                        .isInstanceOf(VaultDecryptionException.class);
+            }
+            var name = helper.registerMBean("clear-and-reset");
+
+            assertThat(mbeanServer.getAttribute(name, "NegativeCacheSize")).isEqualTo(1L);
+            assertThat(mbeanServer.getAttribute(name, "NegativeCacheHitRatio")).isEqualTo(0.5);
+            assertThat(mbeanServer.getAttribute(name, "FailureCount")).isEqualTo(2L);
+
+            mbeanServer.invoke(name, "clearCaches", null, null);
+            mbeanServer.invoke(name, "resetStats", null, null);
+
+            assertThat(mbeanServer.getAttribute(name, "NegativeCacheSize")).isEqualTo(0L);
+            assertThat(mbeanServer.getAttribute(name, "NegativeCacheHitRatio")).isEqualTo(1.0);
+            assertThat(mbeanServer.getAttribute(name, "OperationCount")).isEqualTo(0L);
+        }
+
+        @Test
+        void shouldUnregisterOnClose() {
+            var name = helper.registerMBean("unregister-on-close");
+
+            helper.close();
+
+            assertThat(mbeanServer.isRegistered(name)).isFalse();
+        }
+
+        @Test
+        void shouldNotRegisterTwice() {
+            helper.registerMBean();
+
+            assertThatThrownBy(() -> helper.registerMBean())
+                    .isExactlyInstanceOf(IllegalStateException.class)
+                    .hasMessageStartingWith("MBean is already registered as org.example.ansible.vault:");
+        }
+
+        @Test
+        void shouldRejectInvalidNames() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> helper.registerMBean("a=b"))
+                    .withMessage("invalid MBean name: a=b");
+        }
+    }
+
+    @Nested
+    class WarmUp {
+
+        @Test
+        void shouldNotBeReady_BeforeWarmUp() {
+            assertThat(helper.isReady()).isFalse();
+        }
+
+        @Test
+        void shouldWarmUpNativeEngine() {
+            var tempDirectory = folder.resolve("tmp/vault");
+            configuration.setEngine(VaultEngineType.NATIVE);
+            configuration.setTempDirectory(tempDirectory.toString());
+            helper.reconfigure(configuration);
+
+            var report = helper.warmUp();
+
+            assertThat(report.isReady()).isTrue();
+            assertThat(report.getFailedStep()).isNull();
+            assertThat(report.getStepDurations()).containsOnlyKeys(VaultWarmUpReport.Step.TEMP_DIRECTORY,
+                    VaultWarmUpReport.Step.PASSWORDS, VaultWarmUpReport.Step.CRYPTO_PRIMITIVES,
+                    VaultWarmUpReport.Step.ROUND_TRIP);
+            assertThat(report.getTotalDuration()).isPositive();
+            assertThat(tempDirectory).isDirectory();
+            assertThat(helper.isReady()).isTrue();
+            assertThat(helper.getOperationStats(VaultOperation.ENCRYPT_STRING).getTotalCount()).isZero();
+        }
+
+        @Test
+        void shouldReportFailedStep() {
+            var report = helper.warmUp();
+
+            assertThat(report.isReady()).isFalse();
+            assertThat(report.getFailedStep()).isEqualTo(VaultWarmUpReport.Step.EXECUTABLE);
+            assertThat(report.getFailure())
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessage("ansible-vault is not executable: " + configuration.getAnsibleVaultPath());
+            assertThat(report.getStepDurations())
+                    .containsOnlyKeys(VaultWarmUpReport.Step.TEMP_DIRECTORY, VaultWarmUpReport.Step.EXECUTABLE);
+            assertThat(helper.isReady()).isFalse();
+            verifyNoInteractions(processHelper);
+        }
+
+        @Test
+        @EnabledOnOs({OS.LINUX, OS.MAC})
+        void shouldWarmUpAnsibleVault() {
+            var fakeAnsibleVault = FakeAnsibleVault.builder().build().install(folder.resolve("bin"));
+            configuration.setAnsibleVaultPath(fakeAnsibleVault.toString());
+            var ansibleVaultHelper = new VaultEncryptionHelper(configuration);
+
+            var report = ansibleVaultHelper.warmUp();
+
+            assertThat(report.isReady()).isTrue();
+            assertThat(report.getStepDurations()).containsOnlyKeys(VaultWarmUpReport.Step.values());
+            assertThat(ansibleVaultHelper.getProcessesLaunched()).isEqualTo(2);
+            assertThat(ansibleVaultHelper.isReady()).isTrue();
+        }
+
+        @Test
+        void shouldNotBeReady_AfterReconfiguration() {
+            configuration.setEngine(VaultEngineType.NATIVE);
+            helper.reconfigure(configuration);
+            assertThat(helper.warmUp().isReady()).isTrue();
+
+            helper.reconfigure(configuration);
+
+            assertThat(helper.isReady()).isFalse();
+        }
+    }
+
+    @Nested
+    class PreloadSecrets {
+
+        @BeforeEach
+        void setUp() {
+            configuration.setEngine(VaultEngineType.NATIVE);
+            helper.reconfigure(configuration);
+        }
+
+        @Test
+        void shouldDecryptStringsAndFiles() throws IOException {
+            var encryptedStrings = new LinkedHashMap<String, String>();
+            for (var i = 0; i < 10; i++) {
+                encryptedStrings.put("secret" + i, helper.encryptString("value" + i, "var" + i));
+            }
+            var encryptedFile = Files.writeString(folder.resolve("secrets.yml"), "the file secret");
+            helper.encryptFile(encryptedFile);
+
+            var report = helper.preloadSecrets(encryptedStrings, Map.of("file", encryptedFile), 4);
+
+            assertThat(report.isAllLoaded()).isTrue();
+            assertThat(report.getSecrets()).hasSize(11).containsEntry("secret7", "value7")
+                    .containsEntry("file", "the file secret");
+            assertThat(report.getSecret("secret0")).hasValue("value0");
+            assertThat(report.getResults()).extracting(VaultPreloadResult::getName)
+                    .startsWith("secret0", "secret1").endsWith("secret9", "file");
+            assertThat(report.getTotalDuration()).isPositive();
+            assertThat(helper.getOperationStats(VaultOperation.PRELOAD_SECRETS).getTotalCount()).isOne();
+        }
+
+        @Test
+        void shouldReturnReadOnlySecrets() {
+            var report = helper.preloadSecrets(
+                    Map.of("secret", helper.encryptString("value", "var")), Map.of(), 2);
+
+            var secrets = report.getSecrets();
+            assertThatThrownBy(() -> secrets.put("other", "value"))
+                    .isInstanceOf(UnsupportedOperationException.class);
+        }
+
+        @Test
+        void shouldReportFailuresWithoutStoppingOthers() {
+            var wrongPasswordPayload = VaultAes256.encrypt(
+                    "value".getBytes(StandardCharsets.UTF_8), "other-password".toCharArray(), null);
+            var encryptedStrings = Map.of(
+                    "good", helper.encryptString("value", "var"),
+                    "wrongPassword", "var: !vault |\n" + wrongPasswordPayload.toIndentedContent("          "),
+                    "malformed", "not encrypt_string output");
+
+            var report = helper.preloadSecrets(encryptedStrings,
+                    Map.of("missingFile", folder.resolve("missing.yml")), 4);
+
+            assertThat(report.isAllLoaded()).isFalse();
+            assertThat(report.getSecrets()).containsOnlyKeys("good");
+            assertThat(report.getFailures())
+                    .extracting(VaultPreloadResult::getName, VaultPreloadResult::getStatus)
+                    .containsExactlyInAnyOrder(
+                            tuple("wrongPassword", VaultPreloadResult.Status.WRONG_PASSWORD),
+                            tuple("malformed", VaultPreloadResult.Status.ERROR),
+                            tuple("missingFile", VaultPreloadResult.Status.ERROR));
+            assertThat(report.getFailures()).allSatisfy(result -> assertThat(result.getMessage()).isNotBlank());
+        }
+
+        @Test
+        void shouldReportProgress() {
+            var encryptedStrings = Map.of(
+                    "a", helper.encryptString("value a", "a"),
+                    "b", helper.encryptString("value b", "b"),
+                    "c", helper.encryptString("value c", "c"));
+            var progress = new CopyOnWriteArrayList<String>();
+
+            helper.preloadSecrets(encryptedStrings, Map.of(), 3, (result, completedCount, totalCount) -> {
+                progress.add(completedCount + "/" + totalCount);
+                throw new IllegalStateException("listener failures are ignored");
+            });
+
+            assertThat(progress).containsExactlyInAnyOrder("1/3", "2/3", "3/3");
+        }
+
+        @Test
+        void shouldNotIncludePlainTextInReportString() {
+            var report = helper.preloadSecrets(
+                    Map.of("secret", helper.encryptString("the plain text", "var")), Map.of(), 1);
+
+            assertThat(report.toString()).contains("secret").doesNotContain("the plain text");
+        }
+
+        @Test
+        void shouldReportUnexpectedExceptionsAsError() {
+            var preloaded = VaultEncryptionHelper.decryptForPreload("broken", () -> {
+                throw new IllegalStateException("unexpected failure");
+            });
+
+            assertThat(preloaded.getPlainText()).isNull();
+            assertThat(preloaded.getResult().getName()).isEqualTo("broken");
+            assertThat(preloaded.getResult().getStatus()).isEqualTo(VaultPreloadResult.Status.ERROR);
+            assertThat(preloaded.getResult().getMessage()).isEqualTo("unexpected failure");
+        }
+
+        @Test
+        void shouldRequireUniqueNames() {
+            var encryptedString = helper.encryptString("value", "var");
+            var encryptedStrings = Map.of("secret", encryptedString);
+            var encryptedFiles = Map.of("secret", folder.resolve("secrets.yml"));
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> helper.preloadSecrets(encryptedStrings, encryptedFiles, 2))
+                    .withMessage("secret names must be unique, but found: [secret]");
+        }
+    }
+
     //
     // mockProcessHelper:
     // launch (returns mockProcess)
@@ -0,0 +1,173 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kiwiproject.base.process.ProcessHelper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("VaultFlightRecorderEvent")
+class VaultFlightRecorderEventTest {
+
+    private static final String EVENT_NAME = "org.example.ansible.vault.Operation";
+    private static final String PLAIN_TEXT = "the plain text secret";
+
+    @TempDir
+    Path folder;
+
+    private VaultConfiguration configuration;
+    private ProcessHelper processHelper;
+    private Process process;
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var vaultFilePath = Files.createFile(folder.resolve("ansible-vault"));
+        var passwordFilePath = Files.writeString(folder.resolve(".vault_pass.txt"), "password100");
+
+        configuration = VaultConfiguration.builder()
+                .ansibleVaultPath(vaultFilePath.toString())
+                .vaultPasswordFilePath(passwordFilePath.toString())
+                .tempDirectory(folder.toString())
+                .build();
+
+        processHelper = mock(ProcessHelper.class);
+        process = mock(Process.class);
+
+        recording = new Recording();
+        recording.enable(EVENT_NAME).withThreshold(Duration.ZERO);
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    void shouldRecordNativeEncryptionAndDecryption() throws IOException {
+        configuration.setEngine(VaultEngineType.NATIVE);
+        var helper = new VaultEncryptionHelper(configuration, processHelper);
+
+        var encryptedString = helper.encryptString(PLAIN_TEXT, "secret");
+        helper.decryptString(encryptedString);
+
+        var events = recordedEvents();
+        assertThat(events).extracting(event -> event.getString("operation")).containsExactly("encrypt", "decrypt");
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getString("engine")).isEqualTo("NATIVE");
+            assertThat(event.getBoolean("succeeded")).isTrue();
+            assertThat(event.getInt("exitCode")).isEqualTo(VaultFlightRecorderEvent.NO_EXIT_CODE);
+            assertThat(event.getDuration()).isPositive();
+        });
+        assertThat(events.get(0).getLong("payloadSize")).isEqualTo(PLAIN_TEXT.length());
+        assertThat(events.get(1).getLong("payloadSize")).isEqualTo(32);
+        assertThat(events).allSatisfy(event -> assertThat(event.toString()).doesNotContain(PLAIN_TEXT));
+    }
+
+    @Test
+    void shouldRecordFailedNativeDecryption() throws IOException {
+        configuration.setEngine(VaultEngineType.NATIVE);
+        var helper = new VaultEncryptionHelper(configuration, processHelper);
+        var encryptedString = helper.encryptString(PLAIN_TEXT, "secret");
+        Files.writeString(Path.of(configuration.getVaultPasswordFilePath()), "wrong-password");
+
+        assertThatThrownBy(() -> helper.decryptString(encryptedString))
+                .isInstanceOf(VaultDecryptionException.class);
+
+        var decryption = recordedEvents().get(1);
+        assertThat(decryption.getString("operation")).isEqualTo("decrypt");
+        assertThat(decryption.getBoolean("succeeded")).isFalse();
+    }
+
+    @Test
+    void shouldRecordAnsibleVaultProcesses() throws IOException {
+        var helper = new VaultEncryptionHelper(configuration, processHelper);
+        mockProcess(0, PLAIN_TEXT);
+        var encryptedFile = Files.writeString(folder.resolve("secrets.yml"), "0123456789");
+
+        helper.viewFile(encryptedFile);
+
+        var event = recordedEvents().get(0);
+        assertThat(event.getString("operation")).isEqualTo("view");
+        assertThat(event.getString("engine")).isEqualTo("ANSIBLE_VAULT");
+        assertThat(event.getLong("payloadSize")).isEqualTo(10);
+        assertThat(event.getInt("exitCode")).isZero();
+        assertThat(event.getBoolean("timedOut")).isFalse();
+        assertThat(event.getBoolean("succeeded")).isTrue();
+    }
+
+    @Test
+    void shouldRecordNonZeroExitCodes() throws IOException {
+        var helper = new VaultEncryptionHelper(configuration, processHelper);
+        mockProcess(1, null);
+
+        assertThatThrownBy(() -> helper.encryptString(PLAIN_TEXT, "secret"))
+                .isExactlyInstanceOf(VaultEncryptionException.class);
+
+        var event = recordedEvents().get(0);
+        assertThat(event.getString("operation")).isEqualTo("encrypt_string");
+        assertThat(event.getLong("payloadSize")).isEqualTo(PLAIN_TEXT.length());
+        assertThat(event.getInt("exitCode")).isOne();
+        assertThat(event.getBoolean("succeeded")).isFalse();
+        assertThat(event.toString()).doesNotContain(PLAIN_TEXT);
+    }
+
+    @Test
+    void shouldRecordTimeouts() throws IOException {
+        var helper = new VaultEncryptionHelper(configuration, processHelper);
+        mockProcess(null, null);
+
+        assertThatThrownBy(() -> helper.viewFile(folder.resolve("secrets.yml")))
+                .isExactlyInstanceOf(VaultTimeoutException.class);
+
+        var event = recordedEvents().get(0);
+        assertThat(event.getBoolean("timedOut")).isTrue();
+        assertThat(event.getInt("exitCode")).isEqualTo(VaultFlightRecorderEvent.NO_EXIT_CODE);
+        assertThat(event.getBoolean("succeeded")).isFalse();
+    }
+
+    private void mockProcess(Integer exitCode, String stdOutput) {
+        when(processHelper.launch(anyList())).thenReturn(process);
+        when(processHelper.waitForExit(same(process), anyLong(), any(TimeUnit.class)))
+                .thenReturn(Optional.ofNullable(exitCode));
+        when(process.getInputStream()).thenReturn(inputStreamOf(stdOutput));
+        when(process.getErrorStream()).thenReturn(InputStream.nullInputStream());
+    }
+
+    private static InputStream inputStreamOf(String value) {
+        return value == null ?
+                InputStream.nullInputStream() : new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<RecordedEvent> recordedEvents() throws IOException {
+        recording.stop();
+        var file = folder.resolve("vault.jfr");
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file);
+    }
+}
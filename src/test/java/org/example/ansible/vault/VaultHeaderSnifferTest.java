@@ -0,0 +1,111 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.example.ansible.vault.testing.Fixtures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@DisplayName("VaultHeaderSniffer")
+class VaultHeaderSnifferTest {
+
+    @TempDir
+    Path folder;
+
+    @Nested
+    class Sniff {
+
+        @Test
+        void shouldReturnHeaderOfVaultEncryptedFile() {
+            var header = VaultHeaderSniffer.sniff(Fixtures.fixturePath("ansible-vault/secret.txt"));
+
+            assertThat(header).hasValueSatisfying(value -> {
+                assertThat(value.getFormatVersion()).isEqualTo("1.1");
+                assertThat(value.getCipher()).isEqualTo("AES256");
+                assertThat(value.getVaultIdLabel()).isEmpty();
+            });
+        }
+
+        @Test
+        void shouldReturnVaultIdLabel() throws IOException {
+            var file = Files.writeString(folder.resolve("prod.yml"), "$ANSIBLE_VAULT;1.2;AES256;prod\r\n3132\r\n");
+
+            assertThat(VaultHeaderSniffer.sniff(file).orElseThrow().getVaultIdLabel()).hasValue("prod");
+        }
+
+        @Test
+        void shouldReturnEmptyForPlainTextFile() throws IOException {
+            var file = Files.writeString(folder.resolve("plain.yml"), "foo: bar\n");
+
+            assertThat(VaultHeaderSniffer.sniff(file)).isEmpty();
+        }
+
+        @Test
+        void shouldReturnEmptyForEmptyFile() throws IOException {
+            var file = Files.createFile(folder.resolve("empty.yml"));
+
+            assertThat(VaultHeaderSniffer.sniff(file)).isEmpty();
+        }
+
+        @Test
+        void shouldReturnEmptyWhenHeaderIsInvalid() throws IOException {
+            var file = Files.writeString(folder.resolve("bad.yml"), "$ANSIBLE_VAULT;2.0;AES256\n3132\n");
+
+            assertThat(VaultHeaderSniffer.sniff(file)).isEmpty();
+        }
+
+        @Test
+        void shouldReturnEmptyWhenFirstLineIsLongerThanLimit() throws IOException {
+            var longLabel = "x".repeat(VaultHeaderSniffer.MAX_HEADER_BYTES);
+            var file = Files.writeString(folder.resolve("long.yml"), "$ANSIBLE_VAULT;1.2;AES256;" + longLabel + "\n3132\n");
+
+            assertThat(VaultHeaderSniffer.sniff(file)).isEmpty();
+        }
+
+        @Test
+        void shouldReadOnlyFirstLineOfLargeFile() throws IOException {
+            var content = "$ANSIBLE_VAULT;1.1;AES256\n" + "not hex at all\n".repeat(100_000);
+            var file = Files.writeString(folder.resolve("large.yml"), content);
+
+            assertThat(VaultHeaderSniffer.sniff(file)).isPresent();
+        }
+
+        @Test
+        void shouldThrowWhenFileDoesNotExist() {
+            var file = folder.resolve("does-not-exist.yml");
+
+            assertThatThrownBy(() -> VaultHeaderSniffer.sniff(file)).isInstanceOf(UncheckedIOException.class);
+        }
+    }
+
+    @Nested
+    class SniffDirectory {
+
+        @Test
+        void shouldReturnOnlyVaultEncryptedFilesSortedByPath() throws IOException {
+            Files.createDirectories(folder.resolve("group_vars/all"));
+            var prod = Files.writeString(folder.resolve("group_vars/all/vault.yml"), "$ANSIBLE_VAULT;1.2;AES256;prod\n3132\n");
+            var dev = Files.writeString(folder.resolve("dev.yml"), "$ANSIBLE_VAULT;1.1;AES256\n3132\n");
+            Files.writeString(folder.resolve("group_vars/all/main.yml"), "foo: bar\n");
+
+            var headers = VaultHeaderSniffer.sniffDirectory(folder, 3);
+
+            assertThat(headers).containsOnlyKeys(dev, prod);
+            assertThat(headers.keySet()).containsExactly(dev, prod);
+            assertThat(headers.get(prod).getVaultIdLabel()).hasValue("prod");
+        }
+
+        @Test
+        void shouldReturnEmptyMapForEmptyDirectory() {
+            assertThat(VaultHeaderSniffer.sniffDirectory(folder, 2)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("VaultHeader")
+class VaultHeaderTest {
+
+    @Nested
+    class Parse {
+
+        @Test
+        void shouldParseHeaderWithoutVaultIdLabel() {
+            var header = VaultHeader.parse("$ANSIBLE_VAULT;1.1;AES256").orElseThrow();
+
+            assertThat(header.getFormatVersion()).isEqualTo("1.1");
+            assertThat(header.getCipher()).isEqualTo("AES256");
+            assertThat(header.getVaultIdLabel()).isEmpty();
+        }
+
+        @Test
+        void shouldParseHeaderWithVaultIdLabel() {
+            var header = VaultHeader.parse("$ANSIBLE_VAULT;1.2;AES256;prod").orElseThrow();
+
+            assertThat(header.getFormatVersion()).isEqualTo("1.2");
+            assertThat(header.getVaultIdLabel()).hasValue("prod");
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "",
+                "$ANSIBLE_VAULT",
+                "$ANSIBLE_VAULT;1.1",
+                " $ANSIBLE_VAULT;1.1;AES256",
+                "$ANSIBLE_VAULT;1.3;AES256",
+                "$ANSIBLE_VAULT;1.1; ",
+                "$ANSIBLE_VAULT;1.2;AES256; ",
+                "$ANSIBLE_VAULT;1.2;AES256;dev;extra",
+                "$ansible_vault;1.1;AES256",
+        })
+        void shouldRejectInvalidHeaders(String line) {
+            assertThat(VaultHeader.parse(line)).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldFormatHeaderLine() {
+        assertThat(new VaultHeader("1.1", "AES256", null).toHeaderLine()).isEqualTo("$ANSIBLE_VAULT;1.1;AES256");
+        assertThat(new VaultHeader("1.2", "AES256", "dev").toHeaderLine()).isEqualTo("$ANSIBLE_VAULT;1.2;AES256;dev");
+    }
+}
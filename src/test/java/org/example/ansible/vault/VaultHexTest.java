@@ -0,0 +1,103 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+@DisplayName("VaultHex")
+class VaultHexTest {
+
+    @Nested
+    class Encode {
+
+        @Test
+        void shouldEncodeAllByteValuesAsLowercaseHex() {
+            var input = new byte[256];
+            var expected = new StringBuilder();
+            for (var i = 0; i < 256; i++) {
+                input[i] = (byte) i;
+                expected.append(String.format("%02x", i));
+            }
+
+            assertThat(VaultHex.encodeToString(input)).isEqualTo(expected.toString());
+        }
+
+        @Test
+        void shouldEncodeIntoExistingBuffer() {
+            var output = new byte[6];
+            output[0] = 'x';
+            output[5] = 'y';
+
+            var end = VaultHex.encode(new byte[]{(byte) 0xab, 0x01}, 0, 2, output, 1);
+
+            assertThat(end).isEqualTo(5);
+            assertThat(new String(output, StandardCharsets.US_ASCII)).isEqualTo("xab01y");
+        }
+    }
+
+    @Nested
+    class Decode {
+
+        @Test
+        void shouldRoundTripRandomBytes() {
+            var input = new byte[1031];
+            ThreadLocalRandom.current().nextBytes(input);
+
+            assertThat(VaultHex.decode(VaultHex.encode(input))).isEqualTo(input);
+            assertThat(VaultHex.decode(VaultHex.encodeToString(input))).isEqualTo(input);
+        }
+
+        @Test
+        void shouldAcceptUppercaseDigits() {
+            assertThat(VaultHex.decode("DEADbeef")).containsExactly(0xde, 0xad, 0xbe, 0xef);
+        }
+
+        @Test
+        void shouldDecodeRange() {
+            var hex = "zz0a0bzz".getBytes(StandardCharsets.US_ASCII);
+
+            assertThat(VaultHex.decode(hex, 2, 6)).containsExactly(0x0a, 0x0b);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"abc", "0g", "zz", "12 4", "é1"})
+        void shouldRejectInvalidInput(String hex) {
+            assertThatIllegalArgumentException().isThrownBy(() -> VaultHex.decode(hex));
+        }
+    }
+
+    @Nested
+    class DecodeIgnoringWhitespace {
+
+        @Test
+        void shouldSkipLineBreaks() {
+            var hex = "0a0b\n0c\r\n0d\n".getBytes(StandardCharsets.US_ASCII);
+
+            assertThat(VaultHex.decodeIgnoringWhitespace(hex, 0, hex.length)).containsExactly(0x0a, 0x0b, 0x0c, 0x0d);
+        }
+
+        @Test
+        void shouldRejectOddNumberOfDigits() {
+            var hex = "0a0\n".getBytes(StandardCharsets.US_ASCII);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> VaultHex.decodeIgnoringWhitespace(hex, 0, hex.length));
+        }
+
+        @Test
+        void shouldRejectNonHexCharacters() {
+            var hex = "0a;0b".getBytes(StandardCharsets.US_ASCII);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> VaultHex.decodeIgnoringWhitespace(hex, 0, hex.length));
+        }
+    }
+}
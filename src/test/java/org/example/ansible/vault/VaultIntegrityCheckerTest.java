@@ -0,0 +1,161 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.example.ansible.vault.VaultIntegrityResult.Status;
+import org.example.ansible.vault.testing.Fixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@DisplayName("VaultIntegrityChecker")
+class VaultIntegrityCheckerTest {
+
+    @TempDir
+    Path folder;
+
+    private VaultIntegrityChecker checker;
+    private Path encryptedFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var passwordFilePath = Files.writeString(folder.resolve(".vault_pass"), "password100");
+
+        var configuration = VaultConfiguration.builder()
+                .ansibleVaultPath("/usr/bin/ansible-vault")
+                .vaultPasswordFilePath(passwordFilePath.toString())
+                .build();
+
+        checker = new VaultIntegrityChecker(configuration);
+
+        Files.createDirectories(folder.resolve("vars"));
+        encryptedFile = Files.copy(Fixtures.fixturePath("ansible-vault/secret.txt"), folder.resolve("vars/secret.yml"));
+    }
+
+    @Nested
+    class CheckFile {
+
+        @Test
+        void shouldReportValidFile() {
+            var result = checker.checkFile(encryptedFile);
+
+            assertThat(result.getStatus()).isEqualTo(Status.VALID);
+            assertThat(result.isValid()).isTrue();
+            assertThat(result.getSource()).isEqualTo(encryptedFile.toString());
+        }
+
+        @Test
+        void shouldNotModifyFile() throws IOException {
+            var originalContent = Files.readString(encryptedFile);
+
+            checker.checkFile(encryptedFile);
+
+            assertThat(encryptedFile).hasContent(originalContent);
+        }
+
+        @Test
+        void shouldReportPlainTextFileAsNotVaulted() throws IOException {
+            var plainTextFile = Files.writeString(folder.resolve("plain.yml"), "foo: bar\n");
+
+            assertThat(checker.checkFile(plainTextFile).getStatus()).isEqualTo(Status.NOT_VAULTED);
+        }
+
+        @Test
+        void shouldReportInvalidHeader() throws IOException {
+            var file = Files.writeString(folder.resolve("bad-header.yml"), "$ANSIBLE_VAULT;9.9;AES256\n3132\n");
+
+            assertThat(checker.checkFile(file).getStatus()).isEqualTo(Status.INVALID_HEADER);
+        }
+
+        @Test
+        void shouldReportCorruptedData() throws IOException {
+            var content = Files.readString(encryptedFile);
+            var corrupted = Files.writeString(folder.resolve("corrupted.yml"), content.substring(0, content.length() - 20) + "\n");
+
+            var result = checker.checkFile(corrupted);
+
+            assertThat(result.getStatus()).isEqualTo(Status.CORRUPTED_DATA);
+            assertThat(result.getMessage()).isNotBlank();
+        }
+
+        @Test
+        void shouldReportWrongPassword() throws IOException {
+            var otherPasswordFile = Files.writeString(folder.resolve(".other_pass"), "not-the-password");
+            var otherChecker = new VaultIntegrityChecker(VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath(otherPasswordFile.toString())
+                    .build());
+
+            assertThat(otherChecker.checkFile(encryptedFile).getStatus()).isEqualTo(Status.WRONG_PASSWORD);
+        }
+
+        @Test
+        void shouldReportErrorWhenFileCannotBeRead() {
+            var result = checker.checkFile(folder.resolve("does-not-exist.yml"));
+
+            assertThat(result.getStatus()).isEqualTo(Status.ERROR);
+        }
+    }
+
+    @Nested
+    class CheckString {
+
+        @Test
+        void shouldReportValidEncryptString() {
+            var result = checker.checkString(Fixtures.fixture("ansible-vault/encrypt_string_1.2.txt"));
+
+            assertThat(result.getStatus()).isEqualTo(Status.VALID);
+            assertThat(result.getSource()).isEqualTo("some_password");
+        }
+
+        @Test
+        void shouldRejectInvalidInput() {
+            assertThatIllegalArgumentException().isThrownBy(() -> checker.checkString("not encrypt_string content"));
+        }
+    }
+
+    @Nested
+    class CheckDirectory {
+
+        @Test
+        void shouldReportEveryFile() throws IOException {
+            Files.writeString(folder.resolve("plain.yml"), "foo: bar\n");
+            Files.copy(encryptedFile, folder.resolve("vars/secret-copy.yml"));
+
+            var report = checker.checkDirectory(folder, 4);
+
+            assertThat(report.getResults())
+                    .extracting(VaultIntegrityResult::getStatus)
+                    .containsOnly(Status.VALID, Status.NOT_VAULTED);
+            assertThat(report.countsByStatus())
+                    .containsEntry(Status.VALID, 2L)
+                    .containsEntry(Status.NOT_VAULTED, 2L);  // plain.yml and .vault_pass
+            assertThat(report.isAllValid()).isTrue();
+            assertThat(report.getFailures()).isEmpty();
+        }
+
+        @Test
+        void shouldReportFailures() throws IOException {
+            Files.writeString(folder.resolve("vars/bad.yml"), "$ANSIBLE_VAULT;1.1;AES256\nnot hex\n");
+
+            var report = checker.checkDirectory(folder, 2);
+
+            assertThat(report.isAllValid()).isFalse();
+            assertThat(report.getFailures())
+                    .extracting(VaultIntegrityResult::getSource)
+                    .containsExactly(folder.resolve("vars/bad.yml").toString());
+        }
+
+        @Test
+        void shouldRequireDirectory() {
+            assertThatIllegalArgumentException().isThrownBy(() -> checker.checkDirectory(encryptedFile, 2));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+@DisplayName("VaultKeyPool")
+class VaultKeyPoolTest {
+
+    private final AtomicReference<String> currentPassword = new AtomicReference<>("password100");
+
+    private VaultKeyPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void shouldRequirePositiveCapacity() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new VaultKeyPool(0, () -> "password100".toCharArray()));
+    }
+
+    @Test
+    void shouldFillToCapacityInBackground() {
+        pool = newPool(3);
+
+        awaitUntil(() -> pool.available() == 3);
+    }
+
+    @Test
+    void shouldReadPasswordOncePerRefill() {
+        var reads = new AtomicInteger();
+        pool = new VaultKeyPool(3, () -> {
+            reads.incrementAndGet();
+            return "password100".toCharArray();
+        });
+        pool.start();
+
+        awaitUntil(() -> pool.available() == 3);
+
+        assertThat(reads).hasValue(1);
+    }
+
+    @Test
+    void shouldHandOutKeysThatProduceDecryptableOutput() {
+        pool = newPool(2);
+        awaitUntil(() -> pool.available() == 2);
+
+        var pooled = pool.take("password100".toCharArray()).orElseThrow();
+        var payload = VaultAes256.encrypt("secret".getBytes(StandardCharsets.UTF_8), pooled.salt, pooled.keys, null);
+        pooled.destroy();
+
+        assertThat(VaultAes256.decrypt(payload, "password100".toCharArray()))
+                .isEqualTo("secret".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldNeverHandOutSameSaltTwice() {
+        pool = newPool(2);
+        awaitUntil(() -> pool.available() == 2);
+
+        var first = pool.take("password100".toCharArray()).orElseThrow();
+        var second = pool.take("password100".toCharArray()).orElseThrow();
+
+        assertThat(first.salt).isNotEqualTo(second.salt);
+    }
+
+    @Test
+    void shouldRefillAfterTake() {
+        pool = newPool(2);
+        awaitUntil(() -> pool.available() == 2);
+
+        pool.take("password100".toCharArray()).orElseThrow().destroy();
+
+        awaitUntil(() -> pool.available() == 2);
+    }
+
+    @Test
+    void shouldRefill_WhenTakenWhileRefillIsFinishing() {
+        pool = newPool(1);
+
+        for (var i = 0; i < 100; i++) {
+            awaitUntil(() -> pool.available() == 1);
+            pool.take("password100".toCharArray()).orElseThrow().destroy();
+        }
+
+        awaitUntil(() -> pool.available() == 1);
+    }
+
+    @Test
+    void shouldDiscardKeysForPreviousPassword() {
+        pool = newPool(2);
+        awaitUntil(() -> pool.available() == 2);
+
+        currentPassword.set("new-password");
+
+        assertThat(pool.take("new-password".toCharArray())).isEmpty();
+        awaitUntil(() -> pool.available() == 2);
+        assertThat(pool.take("new-password".toCharArray())).isPresent();
+    }
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        pool = newPool(1);
+        awaitUntil(() -> pool.available() == 1);
+
+        pool.take("password100".toCharArray()).orElseThrow().destroy();
+        pool.take("wrong-password".toCharArray());
+
+        assertThat(pool.hitCount()).isOne();
+        assertThat(pool.missCount()).isOne();
+
+        pool.resetStats();
+        assertThat(pool.hitCount()).isZero();
+        assertThat(pool.missCount()).isZero();
+    }
+
+    @Test
+    void shouldStopAndEmptyOnClose() {
+        pool = newPool(2);
+        awaitUntil(() -> pool.available() == 2);
+
+        pool.close();
+
+        assertThat(pool.available()).isZero();
+        assertThat(pool.take("password100".toCharArray())).isEmpty();
+    }
+
+    @Test
+    void shouldStayEmpty_WhenPasswordCannotBeRead() {
+        pool = new VaultKeyPool(2, () -> {
+            throw new VaultEncryptionException("Error reading file: /nope");
+        });
+        pool.start();
+
+        assertThat(pool.take("password100".toCharArray())).isEmpty();
+    }
+
+    private VaultKeyPool newPool(int capacity) {
+        var newPool = new VaultKeyPool(capacity, () -> currentPassword.get().toCharArray());
+        newPool.start();
+        return newPool;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        var deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).describedAs("timed out waiting for condition").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
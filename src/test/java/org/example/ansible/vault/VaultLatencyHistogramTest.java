@@ -0,0 +1,114 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+
+@DisplayName("VaultLatencyHistogram")
+class VaultLatencyHistogramTest {
+
+    private final VaultLatencyHistogram histogram = new VaultLatencyHistogram();
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 15, 16, 17, 31, 32, 33, 1_000, 123_456, 2_500_000, 10_000_000_000L})
+    void shouldPlaceValuesInBucketsWithinOneSixteenth(long nanos) {
+        var index = VaultLatencyHistogram.indexFor(nanos);
+        var highest = VaultLatencyHistogram.highestValueAt(index);
+
+        assertThat(highest).isGreaterThanOrEqualTo(nanos);
+        assertThat(highest - nanos).isLessThanOrEqualTo(nanos / 16);
+        assertThat(VaultLatencyHistogram.indexFor(highest)).isEqualTo(index);
+        assertThat(VaultLatencyHistogram.indexFor(highest + 1)).isEqualTo(index + 1);
+    }
+
+    @Test
+    void shouldReportZeros_WhenNothingRecorded() {
+        var snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isZero();
+        assertThat(snapshot.getMean()).isZero();
+        assertThat(snapshot.getP99()).isZero();
+        assertThat(snapshot.getMax()).isZero();
+    }
+
+    @Test
+    void shouldReportPercentiles() {
+        for (var millis = 1; millis <= 1_000; millis++) {
+            histogram.record(Duration.ofMillis(millis).toNanos());
+        }
+
+        var snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(1_000);
+        assertThat(snapshot.getMax()).isEqualTo(Duration.ofMillis(1_000));
+        assertThat(snapshot.getMean().toNanos()).isCloseTo(Duration.ofMillis(500).toNanos(), within(1_000_000L));
+        assertWithinOneSixteenth(snapshot.getP50(), Duration.ofMillis(500));
+        assertWithinOneSixteenth(snapshot.getP90(), Duration.ofMillis(900));
+        assertWithinOneSixteenth(snapshot.getP99(), Duration.ofMillis(990));
+        assertThat(snapshot.getP999()).isLessThanOrEqualTo(snapshot.getMax());
+        assertThat(snapshot.getPercentile(100)).isEqualTo(snapshot.getMax());
+    }
+
+    private static void assertWithinOneSixteenth(Duration actual, Duration expected) {
+        assertThat(actual).isGreaterThanOrEqualTo(expected);
+        assertThat(actual.toNanos()).isLessThanOrEqualTo(expected.toNanos() + expected.toNanos() / 16);
+    }
+
+    @Test
+    void shouldCountValuesBeyondTrackableRangeInLastBucket() {
+        histogram.record(Duration.ofHours(1).toNanos());
+
+        var snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isOne();
+        assertThat(snapshot.getMax()).isEqualTo(Duration.ofHours(1));
+        assertThat(snapshot.getP50()).isLessThanOrEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    void shouldRejectInvalidPercentile() {
+        var snapshot = histogram.snapshot();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> snapshot.getPercentile(100.1));
+    }
+
+    @Test
+    void shouldNotLoseValuesRecordedConcurrently() throws InterruptedException {
+        var threads = new ArrayList<Thread>();
+        var start = new CountDownLatch(1);
+        for (var i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                for (var value = 0; value < 10_000; value++) {
+                    histogram.record(value * 1_000L);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        var snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(80_000);
+        assertThat(snapshot.getMax()).isEqualTo(Duration.ofNanos(9_999_000));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.example.ansible.vault.VaultDecryptionException.Reason;
+import org.example.ansible.vault.testing.Fixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+@DisplayName("VaultNegativeCache")
+class VaultNegativeCacheTest {
+
+    private VaultNegativeCache cache;
+    private VaultPayload payload;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VaultNegativeCache();
+        payload = VaultPayload.parse(Fixtures.fixture("ansible-vault/secret.txt"));
+    }
+
+    @Test
+    void shouldPassUnknownKeys() {
+        var key = cache.keyFor("password100".toCharArray(), payload);
+
+        assertThatCode(() -> cache.checkNotKnownFailure(key)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldThrowWithRecordedReasonForKnownFailures() {
+        var key = cache.keyFor("wrong".toCharArray(), payload);
+        cache.recordFailure(key, Reason.WRONG_PASSWORD);
+
+        assertThatThrownBy(() -> cache.checkNotKnownFailure(key))
+                .isExactlyInstanceOf(VaultDecryptionException.class)
+                .extracting("reason")
+                .isEqualTo(Reason.WRONG_PASSWORD);
+    }
+
+    @Test
+    void shouldUseDifferentKeysForDifferentPasswords() {
+        var key1 = cache.keyFor("password1".toCharArray(), payload);
+        var key2 = cache.keyFor("password2".toCharArray(), payload);
+
+        assertThat(key1).isNotEqualTo(key2);
+        assertThat(cache.keyFor("password1".toCharArray(), payload)).isEqualTo(key1);
+    }
+
+    @Test
+    void shouldNotContainPasswordInKey() {
+        var key = cache.keyFor("password100".toCharArray(), payload);
+
+        assertThat(key).doesNotContain("password100");
+    }
+
+    @Test
+    void shouldBeBounded() {
+        var boundedCache = new VaultNegativeCache(2, Duration.ofMinutes(1));
+
+        boundedCache.recordFailure("a", Reason.WRONG_PASSWORD);
+        boundedCache.recordFailure("b", Reason.WRONG_PASSWORD);
+        boundedCache.recordFailure("c", Reason.CORRUPTED_DATA);
+
+        assertThat(boundedCache.size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldCountHitsUntilStatsAreReset() {
+        var key = cache.keyFor("wrong".toCharArray(), payload);
+        cache.checkNotKnownFailure(key);
+        cache.recordFailure(key, Reason.WRONG_PASSWORD);
+        assertThatThrownBy(() -> cache.checkNotKnownFailure(key)).isInstanceOf(VaultDecryptionException.class);
+
+        assertThat(cache.stats().hitCount()).isOne();
+        assertThat(cache.stats().missCount()).isOne();
+
+        cache.resetStats();
+        assertThat(cache.stats().requestCount()).isZero();
+    }
+
+    @Test
+    void shouldClear() {
+        cache.recordFailure("a", Reason.WRONG_PASSWORD);
+
+        cache.clear();
+
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@DisplayName("VaultOperationTimer")
+class VaultOperationTimerTest {
+
+    private VaultOperationTimer initialTimer;
+
+    @BeforeEach
+    void setUp() {
+        initialTimer = VaultOperationTimer.current();
+    }
+
+    @AfterEach
+    void tearDown() {
+        VaultOperationTimer.detach(initialTimer);
+    }
+
+    @Test
+    void shouldBeDisabled_WhenNoTimerIsAttached() {
+        var timer = VaultOperationTimer.current();
+
+        assertThat(timer.isEnabled()).isFalse();
+        assertThat(timer.start()).isZero();
+
+        timer.record(VaultOperationPhase.PARSE, 0);
+        assertThat(timer.phaseDurations()).isEmpty();
+    }
+
+    @Test
+    void shouldAccumulateTimePerPhase() {
+        var timer = VaultOperationTimer.attachNew();
+
+        for (var i = 0; i < 2; i++) {
+            var start = timer.start();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            timer.record(VaultOperationPhase.FILE_IO, start);
+        }
+
+        var durations = timer.phaseDurations();
+        assertThat(durations).containsOnlyKeys(VaultOperationPhase.FILE_IO);
+        assertThat(durations.get(VaultOperationPhase.FILE_IO).toMillis()).isGreaterThanOrEqualTo(10);
+    }
+
+    @Test
+    void shouldBeCurrentUntilDetached() {
+        var previous = VaultOperationTimer.current();
+        var timer = VaultOperationTimer.attachNew();
+
+        assertThat(VaultOperationTimer.current()).isSameAs(timer);
+
+        VaultOperationTimer.detach(previous);
+        assertThat(VaultOperationTimer.current()).isSameAs(previous);
+        assertThat(VaultOperationTimer.current().isEnabled()).isFalse();
+    }
+
+    @Test
+    void shouldRestoreOuterTimer_WhenNestedTimerIsDetached() {
+        var outer = VaultOperationTimer.attachNew();
+        var inner = VaultOperationTimer.attachNew();
+        assertThat(VaultOperationTimer.current()).isSameAs(inner);
+
+        VaultOperationTimer.detach(outer);
+
+        assertThat(VaultOperationTimer.current()).isSameAs(outer);
+    }
+
+    @Test
+    void shouldNotBeSharedAcrossThreads() throws InterruptedException {
+        VaultOperationTimer.attachNew();
+
+        var enabledOnOtherThread = new boolean[1];
+        var thread = new Thread(() -> enabledOnOtherThread[0] = VaultOperationTimer.current().isEnabled());
+        thread.start();
+        thread.join();
+
+        assertThat(enabledOnOtherThread[0]).isFalse();
+    }
+}
@@ -0,0 +1,211 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@DisplayName("VaultPasswordSource")
+class VaultPasswordSourceTest {
+
+    @TempDir
+    Path folder;
+
+    @Nested
+    class File {
+
+        @Test
+        void shouldReadPasswordWithoutSurroundingWhitespace() throws IOException {
+            var passwordFile = Files.writeString(folder.resolve(".vault_pass"), "  password100\n");
+
+            assertThat(VaultPasswordSource.file(passwordFile).getPassword()).isEqualTo("password100".toCharArray());
+        }
+
+        @Test
+        void shouldDecodeUtf8Password() throws IOException {
+            var passwordFile = Files.writeString(folder.resolve(".vault_pass"), "\tpässwörd 100 \r\n");
+
+            assertThat(VaultPasswordSource.file(passwordFile).getPassword()).isEqualTo("pässwörd 100".toCharArray());
+        }
+
+        @Test
+        void shouldRereadFileEveryTime() throws IOException {
+            var passwordFile = Files.writeString(folder.resolve(".vault_pass"), "password100\n");
+            var source = VaultPasswordSource.file(passwordFile);
+            source.getPassword();
+
+            Files.writeString(passwordFile, "new-password\n");
+
+            assertThat(source.getPassword()).isEqualTo("new-password".toCharArray());
+        }
+
+        @Test
+        void shouldThrow_WhenFileIsEmpty() throws IOException {
+            var passwordFile = Files.writeString(folder.resolve(".vault_pass"), "\n");
+
+            assertThatThrownBy(() -> VaultPasswordSource.file(passwordFile).getPassword())
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessage("vault password file is empty: %s", passwordFile);
+        }
+
+        @Test
+        void shouldThrow_WhenFileDoesNotExist() {
+            var passwordFile = folder.resolve("missing");
+
+            assertThatThrownBy(() -> VaultPasswordSource.file(passwordFile).getPassword())
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessage("Error reading file: %s", passwordFile);
+        }
+    }
+
+    @Nested
+    class Script {
+
+        @Test
+        void shouldUseScriptOutput() throws IOException {
+            var script = writeScript("echo script-password");
+
+            assertThat(VaultPasswordSource.script(script).getPassword()).isEqualTo("script-password".toCharArray());
+        }
+
+        @Test
+        void shouldThrow_WhenScriptFails() throws IOException {
+            var script = writeScript("echo 'agent is locked' >&2; exit 3");
+
+            assertThatThrownBy(() -> VaultPasswordSource.script(script).getPassword())
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessage("vault password script %s returned non-zero exit code 3. Stderr: agent is locked", script);
+        }
+
+        @Test
+        void shouldThrow_WhenScriptPrintsNothing() throws IOException {
+            var script = writeScript("true");
+
+            assertThatThrownBy(() -> VaultPasswordSource.script(script).getPassword())
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessage("vault password script printed no password: %s", script);
+        }
+    }
+
+    @Nested
+    class ForPath {
+
+        @Test
+        void shouldRunExecutableFile() throws IOException {
+            var script = writeScript("echo script-password");
+
+            assertThat(VaultPasswordSource.forPath(script).getPassword()).isEqualTo("script-password".toCharArray());
+        }
+
+        @Test
+        void shouldReadOtherFiles() throws IOException {
+            var passwordFile = Files.writeString(folder.resolve(".vault_pass"), "echo not-a-script\n");
+
+            assertThat(VaultPasswordSource.forPath(passwordFile).getPassword())
+                    .isEqualTo("echo not-a-script".toCharArray());
+        }
+    }
+
+    @Nested
+    class InMemory {
+
+        @Test
+        void shouldReturnCopies() {
+            var password = "password100".toCharArray();
+            var source = VaultPasswordSource.inMemory(password);
+            password[0] = 'X';
+
+            var first = source.getPassword();
+            first[1] = 'Y';
+
+            assertThat(source.getPassword()).isEqualTo("password100".toCharArray());
+        }
+
+        @Test
+        void shouldNotAllowEmptyPassword() {
+            assertThatIllegalArgumentException().isThrownBy(() -> VaultPasswordSource.inMemory(new char[0]));
+        }
+    }
+
+    @Nested
+    class Cached {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicLong nanoTime = new AtomicLong();
+        private final VaultPasswordSource counting = () -> ("password" + calls.incrementAndGet()).toCharArray();
+
+        @Test
+        void shouldObtainPasswordOncePerTtl() {
+            var source = new CachedVaultPasswordSource(counting, Duration.ofMinutes(1), nanoTime::get);
+
+            assertThat(source.getPassword()).isEqualTo("password1".toCharArray());
+            nanoTime.addAndGet(Duration.ofSeconds(59).toNanos());
+            assertThat(source.getPassword()).isEqualTo("password1".toCharArray());
+
+            nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+            assertThat(source.getPassword()).isEqualTo("password2".toCharArray());
+            assertThat(calls).hasValue(2);
+        }
+
+        @Test
+        void shouldObtainPasswordAgainAfterInvalidate() {
+            var source = new CachedVaultPasswordSource(counting, Duration.ofMinutes(1), nanoTime::get);
+            source.getPassword();
+
+            source.invalidate();
+
+            assertThat(source.getPassword()).isEqualTo("password2".toCharArray());
+        }
+
+        @Test
+        void shouldNotCacheFailures() {
+            var source = new CachedVaultPasswordSource(() -> {
+                if (calls.incrementAndGet() == 1) {
+                    throw new VaultEncryptionException("agent not ready");
+                }
+                return "password".toCharArray();
+            }, Duration.ofMinutes(1), nanoTime::get);
+
+            assertThatThrownBy(source::getPassword).hasMessage("agent not ready");
+            assertThat(source.getPassword()).isEqualTo("password".toCharArray());
+        }
+
+        @Test
+        void shouldRunSlowScriptOnlyOnce() throws IOException {
+            var counter = folder.resolve("runs");
+            var script = writeScript("echo run >> '" + counter + "'; echo script-password");
+            var source = VaultPasswordSource.cached(VaultPasswordSource.script(script), Duration.ofMinutes(5));
+
+            for (var i = 0; i < 5; i++) {
+                assertThat(source.getPassword()).isEqualTo("script-password".toCharArray());
+            }
+
+            assertThat(Files.readAllLines(counter)).hasSize(1);
+        }
+
+        @Test
+        void shouldRequirePositiveTtl() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> VaultPasswordSource.cached(counting, Duration.ZERO));
+        }
+    }
+
+    private Path writeScript(String body) throws IOException {
+        var script = folder.resolve("vault-pass-client.sh");
+        Files.writeString(script, "#!/bin/sh\n" + body + "\n");
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwx------"));
+        return script;
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Map;
+
+@DisplayName("VaultPasswords")
+class VaultPasswordsTest {
+
+    @TempDir
+    Path folder;
+
+    private Path defaultPasswordFile;
+    private Path prodPasswordFile;
+    private VaultPasswords passwords;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        defaultPasswordFile = Files.writeString(folder.resolve(".vault_pass"), "password100\n");
+        prodPasswordFile = Files.writeString(folder.resolve(".vault_pass_prod"), "prod-password\n");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (passwords != null) {
+            passwords.close();
+        }
+    }
+
+    @Nested
+    class Ids {
+
+        @Test
+        void shouldIdentifyPasswordsByFile() {
+            passwords = new VaultPasswords(configuration().build());
+
+            assertThat(passwords.defaultId()).isEqualTo(defaultPasswordFile.toString());
+            assertThat(passwords.idFor("prod")).isEqualTo(prodPasswordFile.toString());
+            assertThat(passwords.idFor("dev")).isEqualTo(defaultPasswordFile.toString());
+            assertThat(passwords.idFor(null)).isEqualTo(defaultPasswordFile.toString());
+            assertThat(passwords.allIds()).containsExactly(defaultPasswordFile.toString(), prodPasswordFile.toString());
+        }
+
+        @Test
+        void shouldIdentifyConfiguredSource() {
+            passwords = new VaultPasswords(configuration()
+                    .vaultPasswordSource(VaultPasswordSource.inMemory("in-memory".toCharArray()))
+                    .build());
+
+            assertThat(passwords.defaultId()).isEqualTo(VaultPasswords.CONFIGURED_SOURCE);
+            assertThat(passwords.read(VaultPasswords.CONFIGURED_SOURCE)).isEqualTo("in-memory".toCharArray());
+            assertThat(passwords.read(passwords.idFor("prod"))).isEqualTo("prod-password".toCharArray());
+        }
+
+        @Test
+        void shouldIdentifyConfiguredVaultIdSource() {
+            var stageSource = VaultPasswordSource.inMemory("stage-password".toCharArray());
+            passwords = new VaultPasswords(configuration()
+                    .vaultIdPasswordSources(Map.of("stage", stageSource))
+                    .build());
+
+            var stageId = VaultPasswords.configuredSourceId("stage");
+            assertThat(passwords.idFor("stage")).isEqualTo(stageId);
+            assertThat(passwords.allIds())
+                    .containsExactly(defaultPasswordFile.toString(), prodPasswordFile.toString(), stageId);
+            assertThat(passwords.read(stageId)).isEqualTo("stage-password".toCharArray());
+            assertThat(Path.of(passwords.processPasswordFile(stageId))).hasParent(folder).hasContent("stage-password");
+        }
+    }
+
+    @Nested
+    class Read {
+
+        @Test
+        void shouldRereadFiles_WhenNotCaching() throws IOException {
+            passwords = new VaultPasswords(configuration().build());
+            passwords.read(passwords.defaultId());
+
+            Files.writeString(defaultPasswordFile, "changed\n");
+
+            assertThat(passwords.read(passwords.defaultId())).isEqualTo("changed".toCharArray());
+        }
+
+        @Test
+        void shouldCachePasswords_WhenTtlConfigured() throws IOException {
+            passwords = new VaultPasswords(configuration().passwordCacheTtl(Duration.ofMinutes(5)).build());
+            passwords.read(passwords.defaultId());
+
+            Files.writeString(defaultPasswordFile, "changed\n");
+
+            assertThat(passwords.read(passwords.defaultId())).isEqualTo("password100".toCharArray());
+        }
+    }
+
+    @Nested
+    class ProcessPasswordFile {
+
+        @Test
+        void shouldUsePlainPasswordFileDirectly() {
+            passwords = new VaultPasswords(configuration().passwordCacheTtl(Duration.ofMinutes(5)).build());
+
+            assertThat(passwords.processPasswordFile(passwords.defaultId())).isEqualTo(defaultPasswordFile.toString());
+        }
+
+        @Test
+        void shouldWritePrivateFileForConfiguredSource() throws IOException {
+            passwords = new VaultPasswords(configuration()
+                    .vaultPasswordSource(VaultPasswordSource.inMemory("in-memory".toCharArray()))
+                    .build());
+
+            var processPasswordFile = Path.of(passwords.processPasswordFile(VaultPasswords.CONFIGURED_SOURCE));
+
+            assertThat(processPasswordFile).hasParent(folder).hasContent("in-memory");
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(processPasswordFile)))
+                    .isEqualTo("rw-------");
+            assertThat(passwords.processPasswordFile(VaultPasswords.CONFIGURED_SOURCE))
+                    .isEqualTo(processPasswordFile.toString());
+        }
+
+        @Test
+        void shouldRunCachedScriptOnceForManyProcesses() throws IOException {
+            var counter = folder.resolve("runs");
+            var script = folder.resolve("vault-pass-client.sh");
+            Files.writeString(script, "#!/bin/sh\necho run >> '" + counter + "'\necho script-password\n");
+            Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwx------"));
+            passwords = new VaultPasswords(VaultConfiguration.builder()
+                    .ansibleVaultPath("/usr/bin/ansible-vault")
+                    .vaultPasswordFilePath(script.toString())
+                    .tempDirectory(folder.toString())
+                    .passwordCacheTtl(Duration.ofMinutes(5))
+                    .build());
+
+            var processPasswordFile = passwords.processPasswordFile(passwords.defaultId());
+            for (var i = 0; i < 5; i++) {
+                assertThat(passwords.processPasswordFile(passwords.defaultId())).isEqualTo(processPasswordFile);
+            }
+
+            assertThat(Path.of(processPasswordFile)).hasContent("script-password");
+            assertThat(Files.readAllLines(counter)).hasSize(1);
+        }
+
+        @Test
+        void shouldDeleteFilesOnClose() {
+            passwords = new VaultPasswords(configuration()
+                    .vaultPasswordSource(VaultPasswordSource.inMemory("in-memory".toCharArray()))
+                    .build());
+            var processPasswordFile = Path.of(passwords.processPasswordFile(VaultPasswords.CONFIGURED_SOURCE));
+
+            passwords.close();
+
+            assertThat(processPasswordFile).doesNotExist();
+        }
+
+        @Test
+        void shouldDeleteStaleFilesOfEndedProcessesOnCreation() throws IOException, InterruptedException {
+            passwords = new VaultPasswords(configuration()
+                    .vaultPasswordSource(VaultPasswordSource.inMemory("in-memory".toCharArray()))
+                    .build());
+            var liveFile = Path.of(passwords.processPasswordFile(VaultPasswords.CONFIGURED_SOURCE));
+            var endedProcess = new ProcessBuilder("true").start();
+            endedProcess.waitFor();
+            var endedProcessFile = Files.writeString(folder.resolve(".vault-pass-" + endedProcess.pid() + "-1"), "a");
+            var runningPid = ProcessHandle.current().parent().orElseThrow().pid();
+            var runningProcessFile = Files.writeString(folder.resolve(".vault-pass-" + runningPid + "-2"), "b");
+            var unclosedFile = Files.writeString(
+                    folder.resolve(".vault-pass-" + ProcessHandle.current().pid() + "-3"), "c");
+
+            try (var other = new VaultPasswords(configuration().build())) {
+                assertThat(other.allIds()).isNotEmpty();
+            }
+
+            assertThat(endedProcessFile).doesNotExist();
+            assertThat(unclosedFile).doesNotExist();
+            assertThat(runningProcessFile).exists();
+            assertThat(liveFile).hasContent("in-memory");
+        }
+    }
+
+    private VaultConfiguration.VaultConfigurationBuilder configuration() {
+        return VaultConfiguration.builder()
+                .ansibleVaultPath("/usr/bin/ansible-vault")
+                .vaultPasswordFilePath(defaultPasswordFile.toString())
+                .tempDirectory(folder.toString())
+                .vaultIdPasswordFilePaths(Map.of("prod", prodPasswordFile.toString()));
+    }
+}
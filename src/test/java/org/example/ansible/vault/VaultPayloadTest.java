@@ -0,0 +1,118 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.example.ansible.vault.testing.Fixtures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+
+@DisplayName("VaultPayload")
+class VaultPayloadTest {
+
+    @Nested
+    class Parse {
+
+        @Test
+        void shouldParseEncryptedFile() {
+            var payload = VaultPayload.parse(Fixtures.fixture("ansible-vault/secret.txt"));
+
+            assertThat(payload.getFormatVersion()).isEqualTo("1.1");
+            assertThat(payload.getCipher()).isEqualTo("AES256");
+            assertThat(payload.getVaultIdLabel()).isEmpty();
+            assertThat(payload.getSalt()).hasSize(32);
+            assertThat(payload.getHmac()).hasSize(32);
+            assertThat(payload.getCipherText()).hasSize(48);
+        }
+
+        @Test
+        void shouldParseVaultIdLabel() {
+            var variable = new VaultEncryptedVariable(Fixtures.fixture("ansible-vault/encrypt_string_1.2.txt"));
+
+            var payload = VaultPayload.parse(variable.getEncryptedFileBytes());
+
+            assertThat(payload.getFormatVersion()).isEqualTo("1.2");
+            assertThat(payload.getVaultIdLabel()).hasValue("dev");
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "",
+                "some plain text",
+                "some plain text\nmore plain text\n",
+                "$ANSIBLE_VAULT;1.3;AES256\n3132\n",
+                "$ANSIBLE_VAULT;1.2;AES256; \n3132\n",
+                "$ANSIBLE_VAULT;1.1\n3132\n",
+        })
+        void shouldThrowWhenNotVaultEncrypted(String content) {
+            assertThatThrownBy(() -> VaultPayload.parse(content))
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessage("input is not vault encrypted data");
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "$ANSIBLE_VAULT;1.1;AES256\n3132\n",  // no separators in body
+                "$ANSIBLE_VAULT;1.1;AES256\n31320a3334\n",  // only one separator
+                "$ANSIBLE_VAULT;1.1;AES256\nxyz\n",  // not hex
+                "$ANSIBLE_VAULT;1.1;AES256\n3g0a31320a3334\n",  // inner salt is not hex
+        })
+        void shouldThrowWhenBodyIsMalformed(String content) {
+            assertThatThrownBy(() -> VaultPayload.parse(content))
+                    .isExactlyInstanceOf(VaultDecryptionException.class)
+                    .hasMessage("vault encrypted data is malformed")
+                    .extracting("reason")
+                    .isEqualTo(VaultDecryptionException.Reason.CORRUPTED_DATA);
+        }
+    }
+
+    @Nested
+    class Fingerprint {
+
+        @Test
+        void shouldBeStableForSameContent() {
+            var content = Fixtures.fixture("ansible-vault/secret.txt");
+
+            assertThat(VaultPayload.parse(content).fingerprint())
+                    .hasSize(64)
+                    .isEqualTo(VaultPayload.parse(content).fingerprint());
+        }
+
+        @Test
+        void shouldDifferForDifferentContent() {
+            var payload = VaultPayload.parse(Fixtures.fixture("ansible-vault/secret.txt"));
+            var otherPayload = new VaultPayload("1.1", "AES256", null,
+                    payload.getSalt(), payload.getHmac(), new byte[payload.getCipherText().length]);
+
+            assertThat(payload.fingerprint()).isNotEqualTo(otherPayload.fingerprint());
+        }
+    }
+
+    @Nested
+    class Format {
+
+        @Test
+        void shouldFormatExactlyLikeAnsibleVault() {
+            var content = Fixtures.fixture("ansible-vault/secret.txt");
+            var payload = VaultPayload.parse(content);
+
+            assertThat(new String(payload.toEncryptedFileBytes(), StandardCharsets.UTF_8)).isEqualTo(content);
+        }
+
+        @Test
+        void shouldFormatIndentedContent() {
+            var encryptString = Fixtures.fixture("ansible-vault/encrypt_string_1.2.txt");
+            var variable = new VaultEncryptedVariable(encryptString);
+            var payload = VaultPayload.parse(variable.getEncryptedFileBytes());
+
+            var indentedContent = payload.toIndentedContent("          ");
+
+            assertThat("some_password: !vault |\n" + indentedContent).isEqualToIgnoringNewLines(encryptString);
+        }
+    }
+}
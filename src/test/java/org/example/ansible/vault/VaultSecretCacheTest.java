@@ -0,0 +1,135 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@DisplayName("VaultSecretCache")
+class VaultSecretCacheTest {
+
+    private static final char[] PASSWORD = "password100".toCharArray();
+
+    @TempDir
+    Path folder;
+
+    private Path tree;
+    private Path varsFile;
+    private Path secretFile;
+    private VaultTreeWatcher watcher;
+    private VaultSecretCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var passwordFile = Files.writeString(folder.resolve(".vault_pass"), "password100\n");
+        var ansibleVault = Files.writeString(folder.resolve("ansible-vault"), "");
+        var helper = new VaultEncryptionHelper(VaultConfiguration.builder()
+                .ansibleVaultPath(ansibleVault.toString())
+                .vaultPasswordFilePath(passwordFile.toString())
+                .tempDirectory(folder.toString())
+                .engine(VaultEngineType.NATIVE)
+                .build());
+
+        tree = Files.createDirectories(folder.resolve("inventory"));
+        varsFile = Files.writeString(tree.resolve("all.yml"),
+                "db:\n" +
+                        "  password: !vault |\n" + encrypted("db secret", "    ") +
+                        "  user: !vault |\n" + encrypted("db user", "    "));
+        secretFile = Files.write(tree.resolve("secret.txt"),
+                VaultAes256.encrypt("file secret".getBytes(StandardCharsets.UTF_8), PASSWORD, null)
+                        .toEncryptedFileBytes());
+
+        watcher = new VaultTreeWatcher(VaultVariableIndex.build(tree, 1), Duration.ofMinutes(1));
+        cache = new VaultSecretCache(helper, watcher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.close();
+    }
+
+    @Nested
+    class GetVariable {
+
+        @Test
+        void shouldDecryptAndCache() {
+            assertThat(cache.getVariable(Path.of("all.yml"), "db.password")).hasValue("db secret");
+            assertThat(cache.getVariable(Path.of("all.yml"), "db.password")).hasValue("db secret");
+
+            assertThat(cache.size()).isOne();
+        }
+
+        @Test
+        void shouldReturnEmpty_WhenNoSuchVariable() {
+            assertThat(cache.getVariable(Path.of("all.yml"), "db.host")).isEmpty();
+            assertThat(cache.getVariable(Path.of("other.yml"), "db.password")).isEmpty();
+        }
+
+        @Test
+        void shouldEvictOnlyReplacedVariables() throws IOException {
+            var file = Path.of("all.yml");
+            cache.getVariable(file, "db.password");
+            cache.getVariable(file, "db.user");
+            cache.getFile(Path.of("secret.txt"));
+            assertThat(cache.size()).isEqualTo(3);
+
+            var content = Files.readString(varsFile);
+            var userStart = content.indexOf("  user:");
+            Files.writeString(varsFile, content.substring(0, userStart) +
+                    "  user: !vault |\n" + encrypted("a different database user", "    "));
+            watcher.poll();
+
+            assertThat(cache.size()).isEqualTo(2);
+            assertThat(cache.getVariable(file, "db.user")).hasValue("a different database user");
+            assertThat(cache.getVariable(file, "db.password")).hasValue("db secret");
+        }
+    }
+
+    @Nested
+    class GetFile {
+
+        @Test
+        void shouldDecryptAndCache() {
+            assertThat(cache.getFile(Path.of("secret.txt"))).isEqualTo("file secret");
+            assertThat(cache.getFile(Path.of("secret.txt"))).isEqualTo("file secret");
+
+            assertThat(cache.size()).isOne();
+        }
+
+        @Test
+        void shouldNotServeStaleContent_EvenBeforeWatcherNotices() throws IOException {
+            assertThat(cache.getFile(Path.of("secret.txt"))).isEqualTo("file secret");
+
+            Files.write(secretFile,
+                    VaultAes256.encrypt("a much longer file secret".getBytes(StandardCharsets.UTF_8), PASSWORD, null)
+                            .toEncryptedFileBytes());
+
+            assertThat(cache.getFile(Path.of("secret.txt"))).isEqualTo("a much longer file secret");
+        }
+
+        @Test
+        void shouldEvictChangedFile() throws IOException {
+            cache.getFile(Path.of("secret.txt"));
+
+            Files.delete(secretFile);
+            watcher.poll();
+
+            assertThat(cache.size()).isZero();
+        }
+    }
+
+    private static String encrypted(String plainText, String indent) {
+        var payload = VaultAes256.encrypt(plainText.getBytes(StandardCharsets.UTF_8), PASSWORD, null);
+        return payload.toIndentedContent(indent);
+    }
+}
@@ -0,0 +1,218 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import org.example.ansible.vault.VaultTreeWatcher.Change;
+import org.example.ansible.vault.VaultVariableIndex.Entry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("VaultTreeWatcher")
+class VaultTreeWatcherTest {
+
+    private static final char[] PASSWORD = "password100".toCharArray();
+
+    @TempDir
+    Path folder;
+
+    private Path allFile;
+    private Path webFile;
+    private VaultTreeWatcher watcher;
+    private List<Change> changes;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var groupVars = Files.createDirectories(folder.resolve("group_vars"));
+        allFile = Files.writeString(groupVars.resolve("all.yml"),
+                "db_password: !vault |\n" + encrypted("db") + "api_token: !vault |\n" + encrypted("api"));
+        webFile = Files.writeString(groupVars.resolve("web.yml"), "web_password: !vault |\n" + encrypted("web"));
+
+        watcher = new VaultTreeWatcher(VaultVariableIndex.build(folder, 1), Duration.ofMillis(100));
+        changes = new CopyOnWriteArrayList<>();
+        watcher.addListener(changes::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.close();
+    }
+
+    @Nested
+    class Poll {
+
+        @Test
+        void shouldDoNothing_WhenNothingChanged() {
+            var index = watcher.getIndex();
+
+            watcher.poll();
+
+            assertThat(changes).isEmpty();
+            assertThat(watcher.getIndex()).isSameAs(index);
+        }
+
+        @Test
+        void shouldRescanOnlyChangedFile() throws IOException {
+            var webEntries = watcher.getIndex().findByName("web_password");
+            var oldApiToken = watcher.getIndex().findByName("api_token").get(0);
+
+            var allContent = Files.readString(allFile);
+            var apiStart = allContent.indexOf("api_token:");
+            Files.writeString(allFile, allContent.substring(0, apiStart) +
+                    "api_token: !vault |\n" + encrypted("a new api value that is longer"));
+
+            watcher.poll();
+
+            assertThat(changes).hasSize(1);
+            var change = changes.get(0);
+            assertThat(change.getChangedFiles()).containsExactly(Path.of("group_vars/all.yml"));
+            assertThat(change.getRemovedEntries()).containsExactly(oldApiToken);
+            assertThat(change.getAddedEntries()).extracting(Entry::getKeyPath).containsExactly("api_token");
+
+            assertThat(watcher.getIndex().findByName("web_password")).isEqualTo(webEntries);
+            assertThat(watcher.getIndex().findByName("api_token").get(0).getFingerprint())
+                    .isNotEqualTo(oldApiToken.getFingerprint());
+        }
+
+        @Test
+        void shouldHandleNewAndDeletedFiles() throws IOException {
+            var hostVars = Files.createDirectories(folder.resolve("host_vars"));
+            Files.writeString(hostVars.resolve("web1.yml"), "host_password: !vault |\n" + encrypted("host"));
+            Files.delete(webFile);
+
+            watcher.poll();
+
+            assertThat(changes).hasSize(1);
+            var change = changes.get(0);
+            assertThat(change.getChangedFiles())
+                    .containsExactlyInAnyOrder(Path.of("host_vars/web1.yml"), Path.of("group_vars/web.yml"));
+            assertThat(change.getRemovedEntries()).extracting(Entry::getName).containsExactly("web_password");
+            assertThat(change.getAddedEntries()).extracting(Entry::getName).containsExactly("host_password");
+            assertThat(watcher.getIndex().getEntries()).extracting(Entry::getName)
+                    .containsExactly("db_password", "api_token", "host_password");
+        }
+
+        @Test
+        void shouldReportChangesToNonYamlFiles() throws IOException {
+            Files.writeString(folder.resolve("secret.txt"), "$ANSIBLE_VAULT;1.1;AES256\n");
+
+            watcher.poll();
+
+            assertThat(changes).hasSize(1);
+            assertThat(changes.get(0).getChangedFiles()).containsExactly(Path.of("secret.txt"));
+            assertThat(changes.get(0).getRemovedEntries()).isEmpty();
+            assertThat(changes.get(0).getAddedEntries()).isEmpty();
+        }
+
+        @Test
+        void shouldIgnoreHiddenFiles() throws IOException {
+            Files.writeString(folder.resolve(".swp"), "editor state");
+
+            watcher.poll();
+
+            assertThat(changes).isEmpty();
+        }
+    }
+
+    @Nested
+    class Events {
+
+        @Test
+        void shouldKeepEntries_WhenDirectoryIsTouched() throws IOException {
+            var groupVars = folder.resolve("group_vars");
+            var entries = watcher.getIndex().getEntries();
+            Files.setLastModifiedTime(groupVars, FileTime.from(Instant.now().plusSeconds(60)));
+
+            watcher.applyEvents(Set.of(groupVars));
+
+            assertThat(changes).hasSize(1);
+            assertThat(changes.get(0).getRemovedEntries()).isEmpty();
+            assertThat(changes.get(0).getAddedEntries()).isEmpty();
+            assertThat(watcher.getIndex().getEntries()).containsExactlyInAnyOrderElementsOf(entries);
+
+            changes.clear();
+            watcher.poll();
+
+            assertThat(changes).isEmpty();
+        }
+    }
+
+    @Nested
+    class Start {
+
+        @Test
+        void shouldDetectChangesInBackground() throws IOException, InterruptedException {
+            var oldFingerprint = watcher.getIndex().findByName("web_password").get(0).getFingerprint();
+            var latch = new CountDownLatch(1);
+            watcher.addListener(change -> {
+                var added = change.getAddedEntries().stream().map(Entry::getName).anyMatch("web_password"::equals);
+                if (added) {
+                    latch.countDown();
+                }
+            });
+            watcher.start();
+
+            Files.writeString(webFile, "web_password: !vault |\n" + encrypted("changed web value"));
+
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(watcher.getIndex().findByName("web_password")).hasSize(1)
+                    .extracting(Entry::getFingerprint)
+                    .doesNotContain(oldFingerprint);
+        }
+
+        @Test
+        void shouldNotPoll_WhenFileEventsAreAvailable() throws InterruptedException {
+            var spiedWatcher = spy(watcher);
+            spiedWatcher.start();
+
+            Thread.sleep(500);
+            spiedWatcher.close();
+
+            verify(spiedWatcher, never()).poll();
+        }
+
+        @Test
+        void shouldNotAllowSweepIntervalShorterThanPollInterval() {
+            var index = watcher.getIndex();
+            var pollInterval = Duration.ofSeconds(10);
+            var sweepInterval = Duration.ofSeconds(1);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new VaultTreeWatcher(index, pollInterval, sweepInterval))
+                    .withMessage("sweepInterval cannot be shorter than pollInterval");
+        }
+
+        @Test
+        void shouldNotStartTwice() {
+            watcher.start();
+
+            assertThatThrownBy(() -> watcher.start()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    private static String encrypted(String plainText) {
+        var payload = VaultAes256.encrypt(plainText.getBytes(StandardCharsets.UTF_8), PASSWORD, null);
+        return payload.toIndentedContent("  ");
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@DisplayName("VaultVariableIndex")
+class VaultVariableIndexTest {
+
+    private static final char[] PASSWORD = "password100".toCharArray();
+
+    @TempDir
+    Path folder;
+
+    private Path inventory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        inventory = Files.createDirectories(folder.resolve("inventory"));
+
+        var groupVars = Files.createDirectories(inventory.resolve("group_vars"));
+        Files.writeString(groupVars.resolve("all.yml"),
+                "db:\n" +
+                        "  host: db.example.com\n" +
+                        "  password: !vault |\n" +
+                        encrypted("all db secret", null) +
+                        "api_token: !vault |\n" +
+                        encrypted("all api secret", "prod"));
+        Files.writeString(groupVars.resolve("web"),
+                "password: !vault |\n" + encrypted("web secret", null));
+        Files.writeString(groupVars.resolve("notes.txt"),
+                "password: !vault |\n" + encrypted("ignored", null));
+
+        var hidden = Files.createDirectories(inventory.resolve(".git"));
+        Files.writeString(hidden.resolve("config"), "password: !vault |\n" + encrypted("ignored", null));
+    }
+
+    @Nested
+    class Build {
+
+        @Test
+        void shouldIndexYamlFilesRecursively() {
+            var index = VaultVariableIndex.build(inventory, 2);
+
+            assertThat(index.getRootDirectory()).isEqualTo(inventory.toAbsolutePath().normalize());
+            assertThat(index.getEntries()).extracting(VaultVariableIndex.Entry::getKeyPath)
+                    .containsExactly("db.password", "api_token", "password");
+            assertThat(index.getEntries()).extracting(VaultVariableIndex.Entry::getFile)
+                    .containsExactly(Path.of("group_vars/all.yml"), Path.of("group_vars/all.yml"),
+                            Path.of("group_vars/web"));
+        }
+
+        @Test
+        void shouldRecordLabelAndFingerprint() {
+            var index = VaultVariableIndex.build(inventory, 1);
+
+            var entry = index.findByName("api_token").get(0);
+
+            assertThat(entry.getVaultIdLabel()).hasValue("prod");
+            assertThat(entry.getFingerprint()).hasSize(64);
+            assertThat(index.findByName("password").get(0).getVaultIdLabel()).isEmpty();
+        }
+
+        @Test
+        void shouldSkipMalformedValues() throws IOException {
+            Files.writeString(inventory.resolve("broken.yml"),
+                    "bad: !vault |\n  $ANSIBLE_VAULT;1.1;AES256\n  zz\n");
+
+            var index = VaultVariableIndex.build(inventory, 1);
+
+            assertThat(index.findByName("bad")).isEmpty();
+            assertThat(index.getEntries()).hasSize(3);
+        }
+
+        @Test
+        void shouldRequireDirectory() throws IOException {
+            var file = Files.writeString(folder.resolve("file.yml"), "a: b\n");
+
+            assertThatThrownBy(() -> VaultVariableIndex.build(file, 1))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class Find {
+
+        @Test
+        void shouldFindByNameAcrossFilesAndDepths() {
+            var index = VaultVariableIndex.build(inventory, 1);
+
+            assertThat(index.findByName("password")).extracting(VaultVariableIndex.Entry::getKeyPath)
+                    .containsExactly("db.password", "password");
+            assertThat(index.findByName("unknown")).isEmpty();
+        }
+
+        @Test
+        void shouldFindByKeyPath() {
+            var index = VaultVariableIndex.build(inventory, 1);
+
+            assertThat(index.findByKeyPath("db.password")).hasSize(1);
+            assertThat(index.findByKeyPath("db")).isEmpty();
+        }
+    }
+
+    @Nested
+    class Rescan {
+
+        @Test
+        void shouldReplaceOnlyEntriesForChangedPaths() throws IOException {
+            var index = VaultVariableIndex.build(inventory, 1);
+            var webEntry = index.findByKeyPath("password").get(0);
+
+            Files.writeString(inventory.resolve("group_vars/all.yml"),
+                    "new_secret: !vault |\n" + encrypted("new", null));
+            var rescanned = index.rescan(List.of(Path.of("group_vars/all.yml")));
+
+            assertThat(rescanned.getEntries()).extracting(VaultVariableIndex.Entry::getKeyPath)
+                    .containsExactly("new_secret", "password");
+            assertThat(rescanned.findByKeyPath("password")).containsExactly(webEntry);
+            assertThat(index.getEntries()).hasSize(3);
+        }
+
+        @Test
+        void shouldRescanFilesUnderChangedDirectory() throws IOException {
+            var index = VaultVariableIndex.build(inventory, 1);
+            Files.writeString(inventory.resolve("group_vars/db.yml"), "db_secret: !vault |\n" + encrypted("db", null));
+
+            var rescanned = index.rescan(List.of(Path.of("group_vars")));
+
+            assertThat(rescanned.getEntries()).extracting(VaultVariableIndex.Entry::getKeyPath)
+                    .containsExactly("db.password", "api_token", "db_secret", "password");
+            assertThat(rescanned.getEntries()).containsAll(index.getEntries());
+        }
+
+        @Test
+        void shouldRemoveEntriesUnderDeletedDirectory() throws IOException {
+            var index = VaultVariableIndex.build(inventory, 1);
+            for (var file : Utils.listRegularFiles(inventory.resolve("group_vars"))) {
+                Files.delete(file);
+            }
+            Files.delete(inventory.resolve("group_vars"));
+
+            var rescanned = index.rescan(List.of(Path.of("group_vars")));
+
+            assertThat(rescanned.getEntries()).isEmpty();
+        }
+    }
+
+    @Nested
+    class ReadEncryptString {
+
+        @Test
+        void shouldReadDecryptableValue() {
+            var index = VaultVariableIndex.build(inventory, 1);
+            var entry = index.findByKeyPath("db.password").get(0);
+
+            var encryptString = index.readEncryptString(entry);
+
+            assertThat(encryptString).startsWith("password: !vault |\n");
+            assertThat(decrypt(encryptString)).isEqualTo("all db secret");
+        }
+
+        @Test
+        void shouldThrow_WhenFileChangedSinceIndexing() throws IOException {
+            var index = VaultVariableIndex.build(inventory, 1);
+            var entry = index.findByName("api_token").get(0);
+
+            var file = inventory.resolve(entry.getFile());
+            Files.writeString(file, "# moved\n" + Files.readString(file));
+
+            assertThatThrownBy(() -> index.readEncryptString(entry))
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessageContaining("stale");
+        }
+    }
+
+    @Nested
+    class SaveAndLoad {
+
+        @Test
+        void shouldRoundTrip() {
+            var index = VaultVariableIndex.build(inventory, 2);
+            var indexFile = folder.resolve("vault.idx");
+
+            index.save(indexFile);
+            var loaded = VaultVariableIndex.load(indexFile);
+
+            assertThat(loaded.getRootDirectory()).isEqualTo(index.getRootDirectory());
+            assertThat(loaded.getEntries()).isEqualTo(index.getEntries());
+            assertThat(decrypt(loaded.readEncryptString(loaded.findByName("api_token").get(0))))
+                    .isEqualTo("all api secret");
+        }
+
+        @Test
+        void shouldBeCompact() throws IOException {
+            var index = VaultVariableIndex.build(inventory, 1);
+            var indexFile = folder.resolve("vault.idx");
+
+            index.save(indexFile);
+
+            assertThat(Files.size(indexFile)).isLessThan(400);
+        }
+
+        @Test
+        void shouldRejectOtherFiles() throws IOException {
+            var notAnIndex = Files.writeString(folder.resolve("other.idx"), "not an index file");
+
+            assertThatThrownBy(() -> VaultVariableIndex.load(notAnIndex))
+                    .isExactlyInstanceOf(VaultEncryptionException.class)
+                    .hasMessageContaining("is not a vault variable index file");
+        }
+    }
+
+    private static String encrypted(String plainText, String vaultIdLabel) {
+        var payload = VaultAes256.encrypt(plainText.getBytes(StandardCharsets.UTF_8), PASSWORD, vaultIdLabel);
+        return payload.toIndentedContent("    ");
+    }
+
+    private static String decrypt(String encryptString) {
+        var variable = new VaultEncryptedVariable(encryptString);
+        var payload = VaultPayload.parse(variable.getEncryptedFileBytes());
+        return new String(VaultAes256.decrypt(payload, PASSWORD), StandardCharsets.UTF_8);
+    }
+}
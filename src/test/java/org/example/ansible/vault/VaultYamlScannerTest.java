@@ -0,0 +1,236 @@
+package org.example.ansible.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@DisplayName("VaultYamlScanner")
+class VaultYamlScannerTest {
+
+    private static final char[] PASSWORD = "password100".toCharArray();
+
+    @TempDir
+    Path folder;
+
+    @Nested
+    class Scan {
+
+        @Test
+        void shouldFindTopLevelVariable() {
+            var yaml = "db_host: db.example.com\n" +
+                    "db_password: !vault |\n" +
+                    encrypted("secret", null, 10) +
+                    "db_port: 5432\n";
+
+            var variables = scan(yaml);
+
+            assertThat(variables).hasSize(1);
+            var variable = variables.get(0);
+            assertThat(variable.getName()).isEqualTo("db_password");
+            assertThat(variable.getKeyPath()).isEqualTo("db_password");
+            assertThat(variable.getKeyIndentation()).isZero();
+            assertThat(variable.getContentIndentation()).isEqualTo(10);
+            assertThat(variable.getLineNumber()).isEqualTo(2);
+            assertThat(decrypt(variable)).isEqualTo("secret");
+        }
+
+        @Test
+        void shouldFindNestedVariablesWithAnyIndentation() {
+            var yaml = "app:\n" +
+                    "  db:\n" +
+                    "    user: app\n" +
+                    "    password: !vault |\n" +
+                    encrypted("db secret", null, 6) +
+                    "  api:\n" +
+                    "    # the token\n" +
+                    "    token: !vault |\n" +
+                    encrypted("api secret", "prod", 8) +
+                    "other: value\n";
+
+            var variables = scan(yaml);
+
+            assertThat(variables).extracting(VaultInlineVariable::getKeyPath)
+                    .containsExactly("app.db.password", "app.api.token");
+            assertThat(variables).extracting(VaultInlineVariable::getContentIndentation)
+                    .containsExactly(6, 8);
+            assertThat(variables.get(1).getHeader().getVaultIdLabel()).hasValue("prod");
+            assertThat(decrypt(variables.get(0))).isEqualTo("db secret");
+            assertThat(decrypt(variables.get(1))).isEqualTo("api secret");
+        }
+
+        @Test
+        void shouldIndexSequenceItems() {
+            var yaml = "users:\n" +
+                    "- name: alice\n" +
+                    "  password: !vault |\n" +
+                    encrypted("alice secret", null, 4) +
+                    "- name: bob\n" +
+                    "  password: !vault |\n" +
+                    encrypted("bob secret", null, 4) +
+                    "groups:\n" +
+                    "  - name: admins\n" +
+                    "    key: !vault |\n" +
+                    encrypted("admin key", null, 6);
+
+            var variables = scan(yaml);
+
+            assertThat(variables).extracting(VaultInlineVariable::getKeyPath)
+                    .containsExactly("users[0].password", "users[1].password", "groups[0].key");
+            assertThat(variables).extracting(VaultInlineVariable::getName)
+                    .containsOnly("password", "key");
+            assertThat(decrypt(variables.get(1))).isEqualTo("bob secret");
+        }
+
+        @Test
+        void shouldReportByteOffsetsCoveringWholeEntry() {
+            var entry = "  \"db password\": !vault |\n" + encrypted("secret", null, 4);
+            var yaml = "db:\n" + entry + "\n  port: 5432\n";
+
+            var variable = scan(yaml).get(0);
+
+            assertThat(variable.getKeyPath()).isEqualTo("db.db password");
+            var bytes = yaml.getBytes(StandardCharsets.UTF_8);
+            var range = new String(
+                    Arrays.copyOfRange(bytes, (int) variable.getStartOffset(), (int) variable.getEndOffset()),
+                    StandardCharsets.UTF_8);
+            assertThat(range).isEqualTo(entry);
+        }
+
+        @Test
+        void shouldCountOffsetsInBytes() {
+            var yaml = "greeting: héllo wörld\r\n" +
+                    "secret: !vault |\r\n" +
+                    encrypted("secret", null, 2).replace("\n", "\r\n");
+
+            var variable = scan(yaml).get(0);
+
+            assertThat(variable.getStartOffset()).isEqualTo("greeting: héllo wörld\r\n".getBytes(StandardCharsets.UTF_8).length);
+            assertThat(variable.getEndOffset()).isEqualTo(yaml.getBytes(StandardCharsets.UTF_8).length);
+            assertThat(decrypt(variable)).isEqualTo("secret");
+        }
+
+        @Test
+        void shouldResetKeyPathAtDocumentStart() {
+            var yaml = "first:\n" +
+                    "  nested: value\n" +
+                    "---\n" +
+                    "secret: !vault |\n" +
+                    encrypted("secret", null, 2);
+
+            assertThat(scan(yaml)).extracting(VaultInlineVariable::getKeyPath).containsExactly("secret");
+        }
+
+        @Test
+        void shouldSkipVaultTagWithoutValidHeader() {
+            var yaml = "broken: !vault |\n" +
+                    "  not a vault header\n" +
+                    "empty: !vault |\n" +
+                    "ok: !vault |\n" +
+                    encrypted("fine", null, 2);
+
+            assertThat(scan(yaml)).extracting(VaultInlineVariable::getKeyPath).containsExactly("ok");
+        }
+
+        @Test
+        void shouldIgnoreNonVaultedValues() {
+            var yaml = "plain: '!vault |'\n" +
+                    "list: [a, b]\n" +
+                    "text: |\n" +
+                    "  $ANSIBLE_VAULT;1.1;AES256\n";
+
+            assertThat(scan(yaml)).isEmpty();
+        }
+
+        @Test
+        void shouldSkipBodyOfOtherBlockScalars() {
+            var yaml = "script: |\n" +
+                    "  x: !vault |\n" +
+                    encrypted("not a variable", null, 4) +
+                    "\n" +
+                    "  echo done\n" +
+                    "steps:\n" +
+                    "- >-\n" +
+                    "  y: !vault |\n" +
+                    encrypted("not a variable either", null, 4) +
+                    "real: !vault |\n" +
+                    encrypted("secret", null, 2);
+
+            var variables = scan(yaml);
+
+            assertThat(variables).extracting(VaultInlineVariable::getKeyPath).containsExactly("real");
+            assertThat(decrypt(variables.get(0))).isEqualTo("secret");
+        }
+
+        @Test
+        void shouldStreamFile() throws IOException {
+            var yaml = "a: !vault |\n" + encrypted("one", null, 2) + "b: !vault |\n" + encrypted("two", null, 2);
+            var file = Files.writeString(folder.resolve("vars.yml"), yaml);
+
+            var names = new ArrayList<String>();
+            VaultYamlScanner.scan(file, variable -> names.add(variable.getName()));
+
+            assertThat(names).containsExactly("a", "b");
+            assertThat(VaultYamlScanner.scan(file)).hasSize(2);
+        }
+
+        @Test
+        void shouldThrowUncheckedIOException_WhenFileDoesNotExist() {
+            var file = folder.resolve("missing.yml");
+
+            assertThatThrownBy(() -> VaultYamlScanner.scan(file))
+                    .isExactlyInstanceOf(UncheckedIOException.class)
+                    .hasMessageContaining("missing.yml");
+        }
+    }
+
+    @Nested
+    class ToEncryptStringContent {
+
+        @Test
+        void shouldBeAcceptedByVaultEncryptedVariable() {
+            var yaml = "outer:\n  inner: !vault |\n" + encrypted("secret", "dev", 4);
+            var variable = scan(yaml).get(0);
+
+            var encryptedVariable = new VaultEncryptedVariable(variable.toEncryptStringContent());
+
+            assertThat(encryptedVariable.getVariableName()).isEqualTo("inner");
+            assertThat(encryptedVariable.getVaultIdLabel()).hasValue("dev");
+            assertThat(VaultPayload.parse(encryptedVariable.getEncryptedFileBytes()).fingerprint())
+                    .isEqualTo(VaultPayload.parse(variable.getEncryptedFileBytes()).fingerprint());
+        }
+    }
+
+    private static String encrypted(String plainText, String vaultIdLabel, int indent) {
+        var payload = VaultAes256.encrypt(plainText.getBytes(StandardCharsets.UTF_8), PASSWORD, vaultIdLabel);
+        return payload.toIndentedContent(" ".repeat(indent));
+    }
+
+    private static List<VaultInlineVariable> scan(String yaml) {
+        var variables = new ArrayList<VaultInlineVariable>();
+        try {
+            VaultYamlScanner.scan(new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8)), variables::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return variables;
+    }
+
+    private static String decrypt(VaultInlineVariable variable) {
+        var payload = VaultPayload.parse(variable.getEncryptedFileBytes());
+        return new String(VaultAes256.decrypt(payload, PASSWORD), StandardCharsets.UTF_8);
+    }
+}